@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.lavostudio"
@@ -9,8 +10,18 @@ version = "1.0-SNAPSHOT"
 application {
     mainClass.set("org.lavostudio.Main")
     
-    // Add JVM arguments for macOS
-    applicationDefaultJvmArgs = listOf("-XstartOnFirstThread")
+    // Add JVM arguments for macOS, and the Vector API for batched damage
+    applicationDefaultJvmArgs = listOf("-XstartOnFirstThread", "--add-modules", "jdk.incubator.vector")
+}
+
+// The SIMD damage kernel uses the incubating Vector API
+tasks.withType<JavaCompile> {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+// Microbenchmarks in src/jmh, run with ./gradlew jmh
+jmh {
+    jvmArgsAppend.add("--add-modules=jdk.incubator.vector")
 }
 
 repositories {
@@ -25,6 +36,129 @@ tasks.register<JavaExec>("generatePlaceholders") {
     mainClass.set("org.lavostudio.PlaceholderGenerator")
 }
 
+// Print the Pareto-optimal Warrior talent builds, e.g. --args="12" for 12 points
+tasks.register<JavaExec>("optimizeTalents") {
+    group = "application"
+    description = "Search Warrior talent builds for the best damage/survival trade-offs"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("game.build.TalentOptimizerTool")
+}
+
+// Pack src/main/resources/assets into one indexed archive, memory-mapped by
+// engine.asset.VirtualFileSystem at runtime
+val packAssets = tasks.register<JavaExec>("packAssets") {
+    group = "build"
+    description = "Pack the game assets into build/assets/assets.pak"
+    val assetsDir = layout.projectDirectory.dir("src/main/resources/assets")
+    val packFile = layout.buildDirectory.file("assets/assets.pak")
+    inputs.dir(assetsDir)
+    outputs.file(packFile)
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("engine.asset.AssetPacker")
+    args(assetsDir.asFile.path, packFile.get().asFile.path)
+}
+
+// AppCDS: a training run records the loaded classes into a dynamic archive
+// that later launches map instead of parsing and verifying the classes again.
+// Archives only cover classes from jars, and a launch only uses the archive
+// when its classpath matches the training run's, so these tasks all run from
+// the jar plus the runtime dependencies rather than build/classes.
+val cdsClasspath = files(tasks.jar, configurations.runtimeClasspath)
+val cdsJvmArgs = listOf("--add-modules", "jdk.incubator.vector")
+val cdsArchiveFile = layout.buildDirectory.file("cds/app.jsa")
+
+// Trains on a headless match by default; -PcdsTrainWindow trains on a game
+// session instead, which also archives the GLFW and OpenGL bindings, and is
+// written when the window is closed
+val cdsArchive = tasks.register<JavaExec>("cdsArchive") {
+    group = "build"
+    description = "Build an AppCDS archive of the application classes in build/cds/app.jsa"
+    inputs.files(cdsClasspath)
+    outputs.file(cdsArchiveFile)
+    classpath = cdsClasspath
+    if (project.hasProperty("cdsTrainWindow")) {
+        mainClass.set(application.mainClass)
+        jvmArgs(application.applicationDefaultJvmArgs)
+    } else {
+        mainClass.set("game.HeadlessGame")
+        jvmArgs(cdsJvmArgs)
+    }
+    jvmArgs("-XX:ArchiveClassesAtExit=${cdsArchiveFile.get().asFile.path}")
+    doFirst { cdsArchiveFile.get().asFile.parentFile.mkdirs() }
+}
+
+tasks.register<JavaExec>("runCds") {
+    group = "application"
+    description = "Run the game with the AppCDS archive"
+    dependsOn(cdsArchive)
+    classpath = cdsClasspath
+    mainClass.set(application.mainClass)
+    jvmArgs(application.applicationDefaultJvmArgs)
+    jvmArgs("-XX:SharedArchiveFile=${cdsArchiveFile.get().asFile.path}")
+}
+
+// Print the startup phases and time to first tick of a headless match, with
+// the AppCDS archive if run with -Pcds
+tasks.register<JavaExec>("runHeadless") {
+    group = "application"
+    description = "Run a headless match and report its time to first tick"
+    classpath = cdsClasspath
+    mainClass.set("game.HeadlessGame")
+    jvmArgs(cdsJvmArgs)
+    if (project.hasProperty("cds")) {
+        dependsOn(cdsArchive)
+        jvmArgs("-XX:SharedArchiveFile=${cdsArchiveFile.get().asFile.path}")
+    }
+}
+
+// Two lockstep peers in one process over a simulated lossy network, e.g.
+// --args="600 80 10" for 600 ticks at 80 ms latency and 10% loss; add "udp"
+// to use localhost sockets or "desync" to check desync detection
+tasks.register<JavaExec>("runLockstep") {
+    group = "application"
+    description = "Run a two-player lockstep match over a loopback network and compare the peers' states"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("game.net.LockstepTool")
+    jvmArgs(cdsJvmArgs)
+}
+
+// Dedicated server for PvP and async battles; args: port, shard threads
+tasks.register<JavaExec>("runBattleServer") {
+    group = "application"
+    description = "Run the battle server on localhost"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("game.server.BattleServer")
+    jvmArgs(cdsJvmArgs)
+}
+
+// Hold a number of concurrent matches against a running battle server; args: port, matches, seconds
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Load a running battle server with concurrent matches and report matches per core"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("game.server.LoadGenerator")
+    jvmArgs(cdsJvmArgs)
+}
+
+// Serve runtime metrics in the Prometheus format on localhost, e.g.
+// ./gradlew run -PmetricsPort=9400 for http://127.0.0.1:9400/metrics
+tasks.withType<JavaExec>().configureEach {
+    project.findProperty("metricsPort")?.let { systemProperty("game.metricsPort", it) }
+}
+
+// Ship the pack next to bin/ and lib/ instead of loose assets inside the jar
+tasks.processResources {
+    exclude("assets/**")
+}
+
+distributions {
+    main {
+        contents {
+            from(packAssets)
+        }
+    }
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
@@ -32,6 +166,8 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
+    // Tests compare the Vector API damage kernel against the scalar one
+    jvmArgs("--add-modules", "jdk.incubator.vector")
 }
 
 val lwjglVersion = "3.3.6"
@@ -0,0 +1,103 @@
+package engine.renderer;
+
+import org.lwjgl.BufferUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.FloatBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of the tile map renderer on a 1024x1024 map: building one chunk's
+ * vertices (the cost of a rebuild) and culling every chunk against a
+ * 1920x1080 view. Setup prints the vertex memory of the whole map and of
+ * the chunks a frame draws.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TileMapBenchmark {
+  private static final int MAP_SIZE = 1024;
+  private static final int CHUNK_SIZE = 32;
+  private static final int CHUNKS_PER_SIDE = MAP_SIZE / CHUNK_SIZE;
+  private static final float TILE_SIZE = 40;
+
+  @Param({ "SQUARE", "HEX" })
+  TileLayout layout;
+
+  private TileSource source;
+  private TileAtlas atlas;
+  private TileChunk[] chunks;
+  private Camera camera;
+  private FloatBuffer scratch;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    byte[] tiles = new byte[MAP_SIZE * MAP_SIZE];
+    SplittableRandom random = new SplittableRandom(5);
+    for (int i = 0; i < tiles.length; i++) {
+      tiles[i] = (byte) random.nextInt(4);
+    }
+    source = new TileSource() {
+      @Override
+      public int getTile(int column, int row) {
+        return tiles[row * MAP_SIZE + column];
+      }
+
+      @Override
+      public float getBrightness(int column, int row) {
+        return 1;
+      }
+    };
+    atlas = new TileAtlas(null, 4, 1);
+    scratch = BufferUtils.createFloatBuffer(CHUNK_SIZE * CHUNK_SIZE * SpriteBatch.FLOATS_PER_QUAD);
+
+    chunks = new TileChunk[CHUNKS_PER_SIDE * CHUNKS_PER_SIDE];
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] = new TileChunk(i % CHUNKS_PER_SIDE, i / CHUNKS_PER_SIDE, CHUNK_SIZE, layout, TILE_SIZE);
+    }
+    camera = new Camera(1920, 1080);
+    camera.centerOn(layout.centerX(MAP_SIZE / 2, MAP_SIZE / 2, TILE_SIZE),
+        layout.centerY(MAP_SIZE / 2, MAP_SIZE / 2, TILE_SIZE));
+
+    long chunkBytes = (long) CHUNK_SIZE * CHUNK_SIZE * SpriteBatch.FLOATS_PER_QUAD * Float.BYTES;
+    System.out.printf("%n%s: %d chunks, %.1f MB of vertices for the whole map, %d chunks (%.1f MB) in view%n",
+        layout, chunks.length, chunks.length * chunkBytes / 1048576.0, cull(),
+        cull() * chunkBytes / 1048576.0);
+  }
+
+  @Benchmark
+  public int buildChunk() {
+    TileChunk chunk = chunks[next];
+    next = (next + 1) % chunks.length;
+    scratch.clear();
+    return TileChunk.buildVertices(source, atlas, layout, TILE_SIZE, chunk.chunkX, chunk.chunkY, CHUNK_SIZE, scratch);
+  }
+
+  @Benchmark
+  public int cull() {
+    float viewLeft = camera.getViewLeft(), viewTop = camera.getViewTop();
+    float viewRight = camera.getViewRight(), viewBottom = camera.getViewBottom();
+    int visible = 0;
+    for (TileChunk chunk : chunks) {
+      if (chunk.intersects(viewLeft, viewTop, viewRight, viewBottom)) {
+        visible++;
+      }
+    }
+    return visible;
+  }
+}
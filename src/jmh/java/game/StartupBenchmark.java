@@ -0,0 +1,33 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold time to first tick of a headless match: every fork is a fresh JVM
+ * measured once, so the score includes loading and initializing the game
+ * classes, generating the start chunk and the first AI and visibility pass.
+ * JVM boot before the benchmark isn't included; run
+ * {@code ./gradlew runHeadless} for the full timeline.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+  @Benchmark
+  public long timeToFirstTick() {
+    HeadlessGame game = new HeadlessGame(42, 4);
+    game.tick();
+    game.close();
+    return game.getTickCount();
+  }
+}
@@ -0,0 +1,52 @@
+package game.ai;
+
+import game.entity.Warrior;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of one AI decision tick for two teams of warriors spread over a map.
+ * At 20 Hz a tick has a 50 ms budget.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AISystemBenchmark {
+  @Param({ "1000", "10000" })
+  int units;
+
+  private AISystem ai;
+
+  @Setup
+  public void setup() {
+    ai = new AISystem(ForkJoinPool.commonPool());
+    SplittableRandom random = new SplittableRandom(7);
+    for (int i = 0; i < units; i++) {
+      Warrior warrior = new Warrior("Warrior " + i);
+      warrior.setTeam(i % 2);
+      warrior.moveTo(random.nextInt(400), random.nextInt(400));
+      ai.register(warrior, warrior.getBrain());
+    }
+  }
+
+  @Benchmark
+  public void tick() {
+    ai.tick();
+  }
+}
@@ -0,0 +1,100 @@
+package game.ai.mcts;
+
+import game.entity.Character;
+import game.entity.Warrior;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rollouts per second for a skirmish of two warrior teams, both for single
+ * random playouts of a {@link TacticalState} and for whole 20 ms
+ * {@link MCTSPlanner} decisions, whose {@code rollouts} counter sums over
+ * every worker.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MCTSPlannerBenchmark {
+  private static final long BUDGET_NANOS = 20_000_000;
+  private static final int ROLLOUT_DEPTH = 40;
+
+  @Param({ "2", "8" })
+  int unitsPerTeam;
+
+  @Param({ "1", "4" })
+  int workers;
+
+  private TacticalState root;
+  private TacticalState scratch;
+  private int[] actions;
+  private SplittableRandom random;
+  private ForkJoinPool pool;
+  private MCTSPlanner planner;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Rollouts {
+    public long rollouts;
+  }
+
+  @Setup
+  public void setup() {
+    // Two lines facing each other a few steps apart
+    List<Character> units = new ArrayList<>();
+    for (int i = 0; i < unitsPerTeam * 2; i++) {
+      Warrior warrior = new Warrior("Warrior " + i);
+      warrior.setTeam(i % 2);
+      warrior.moveTo(i % 2 == 0 ? 0 : 3, i / 2);
+      units.add(warrior);
+    }
+    root = TacticalState.capture(units, units.get(0));
+    scratch = root.copy();
+    actions = new int[root.maxActions()];
+    random = new SplittableRandom(5);
+    pool = new ForkJoinPool(workers);
+    planner = new MCTSPlanner(pool, ROLLOUT_DEPTH);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  /** One random playout from the root, the inner loop of every search. */
+  @Benchmark
+  public double rollout() {
+    scratch.copyFrom(root);
+    for (int depth = 0; depth < ROLLOUT_DEPTH && !scratch.isTerminal(); depth++) {
+      int count = scratch.legalActions(actions);
+      scratch.apply(actions[count > 1 ? 1 + random.nextInt(count - 1) : 0], random);
+    }
+    return scratch.reward(0);
+  }
+
+  @Benchmark
+  public int plan(Rollouts counter) {
+    int action = planner.plan(root, BUDGET_NANOS);
+    counter.rollouts += planner.getLastRollouts();
+    return action;
+  }
+}
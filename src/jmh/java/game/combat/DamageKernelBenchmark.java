@@ -0,0 +1,64 @@
+package game.combat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and Vector API damage kernels on batches of hits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DamageKernelBenchmark {
+  @Param({ "8", "64", "1024" })
+  int targets;
+
+  private final DamageKernel scalar = new ScalarDamageKernel();
+  private final DamageKernel vector = new VectorDamageKernel();
+
+  private double[] raw, resistance, health, actual, remaining;
+  private boolean[] died;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    raw = new double[targets];
+    resistance = new double[targets];
+    health = new double[targets];
+    actual = new double[targets];
+    remaining = new double[targets];
+    died = new boolean[targets];
+    for (int i = 0; i < targets; i++) {
+      raw[i] = random.nextDouble(10, 200);
+      resistance[i] = random.nextDouble(0, 150);
+      health[i] = random.nextDouble(1, 500);
+    }
+  }
+
+  @Benchmark
+  public double[] scalar() {
+    scalar.resolve(raw, resistance, health, actual, remaining, died, targets);
+    return remaining;
+  }
+
+  @Benchmark
+  public double[] vector() {
+    vector.resolve(raw, resistance, health, actual, remaining, died, targets);
+    return remaining;
+  }
+}
@@ -0,0 +1,86 @@
+package game.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dungeon generation throughput in cells per second, generating a square of
+ * chunks on a pool of worker threads. Setup also checks that every thread
+ * count produces exactly the chunks a single thread does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DungeonGenerationBenchmark {
+  private static final int SIDE = 8;
+  private static final int CELLS = SIDE * SIDE * DungeonChunk.CELLS;
+
+  @Param({ "1", "4" })
+  int threads;
+
+  private final DungeonGenerator generator = new DungeonGenerator(42, 3);
+  private ExecutorService executor;
+
+  @Setup
+  public void setup() throws Exception {
+    executor = DungeonStreamer.createExecutor(threads);
+
+    List<DungeonChunk> parallel = generateAll();
+    int i = 0;
+    for (int y = 0; y < SIDE; y++) {
+      for (int x = 0; x < SIDE; x++) {
+        long expected = generator.generate(x, y).checksum();
+        if (parallel.get(i++).checksum() != expected) {
+          throw new IllegalStateException("Chunk " + x + "," + y + " differs with " + threads + " threads");
+        }
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CELLS)
+  public List<DungeonChunk> generate() throws Exception {
+    return generateAll();
+  }
+
+  private List<DungeonChunk> generateAll() throws InterruptedException, ExecutionException {
+    List<Future<DungeonChunk>> futures = new ArrayList<>(SIDE * SIDE);
+    for (int y = 0; y < SIDE; y++) {
+      for (int x = 0; x < SIDE; x++) {
+        int chunkX = x, chunkY = y;
+        futures.add(executor.submit(() -> generator.generate(chunkX, chunkY)));
+      }
+    }
+    List<DungeonChunk> chunks = new ArrayList<>(futures.size());
+    for (Future<DungeonChunk> future : futures) {
+      chunks.add(future.get());
+    }
+    return chunks;
+  }
+}
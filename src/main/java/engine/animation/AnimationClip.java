@@ -0,0 +1,89 @@
+package engine.animation;
+
+/**
+ * A sequence of frames from a sprite sheet, each described by an atlas rect in
+ * normalized texture coordinates.
+ */
+public class AnimationClip {
+  private final String name;
+  private final float[] regions; // u0, v0, u1, v1 per frame
+  private final float framesPerSecond;
+  private final boolean looping;
+
+  // Index in the animator's clip table, assigned on first use
+  int clipId = -1;
+
+  public AnimationClip(String name, float[] regions, float framesPerSecond, boolean looping) {
+    if (regions.length == 0 || regions.length % 4 != 0) {
+      throw new IllegalArgumentException("Clip regions must hold 4 floats per frame: " + name);
+    }
+    this.name = name;
+    this.regions = regions.clone();
+    this.framesPerSecond = framesPerSecond;
+    this.looping = looping;
+  }
+
+  /**
+   * Build a clip from consecutive cells of an evenly divided sprite sheet.
+   * Cells are numbered left to right, top to bottom.
+   *
+   * @param name            Clip name
+   * @param columns         Number of columns in the sheet
+   * @param rows            Number of rows in the sheet
+   * @param firstFrame      Index of the first cell
+   * @param frameCount      Number of cells in the clip
+   * @param framesPerSecond Playback speed
+   * @param looping         Whether the clip repeats
+   * @return The new clip
+   */
+  public static AnimationClip fromGrid(String name, int columns, int rows, int firstFrame, int frameCount,
+      float framesPerSecond, boolean looping) {
+    float cellWidth = 1.0f / columns;
+    float cellHeight = 1.0f / rows;
+    float[] regions = new float[frameCount * 4];
+    for (int i = 0; i < frameCount; i++) {
+      int cell = firstFrame + i;
+      float u0 = (cell % columns) * cellWidth;
+      float v0 = (cell / columns) * cellHeight;
+      regions[i * 4] = u0;
+      regions[i * 4 + 1] = v0;
+      regions[i * 4 + 2] = u0 + cellWidth;
+      regions[i * 4 + 3] = v0 + cellHeight;
+    }
+    return new AnimationClip(name, regions, framesPerSecond, looping);
+  }
+
+  /**
+   * A single-frame clip covering the whole texture.
+   *
+   * @param name Clip name
+   * @return The new clip
+   */
+  public static AnimationClip still(String name) {
+    return new AnimationClip(name, new float[] { 0, 0, 1, 1 }, 0, false);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getFrameCount() {
+    return regions.length / 4;
+  }
+
+  public float getFramesPerSecond() {
+    return framesPerSecond;
+  }
+
+  public boolean isLooping() {
+    return looping;
+  }
+
+  public float getDuration() {
+    return framesPerSecond > 0 ? getFrameCount() / framesPerSecond : 0;
+  }
+
+  float[] getRegions() {
+    return regions;
+  }
+}
@@ -0,0 +1,28 @@
+package engine.animation;
+
+/**
+ * Maps integer states (e.g. an enum ordinal) to the clip played in that state.
+ */
+public class AnimationSet {
+  private final AnimationClip[] clips;
+  private final AnimationClip defaultClip;
+
+  /**
+   * @param stateCount  Number of states, e.g. {@code values().length} of an enum
+   * @param defaultClip Clip used for states without their own clip
+   */
+  public AnimationSet(int stateCount, AnimationClip defaultClip) {
+    this.clips = new AnimationClip[stateCount];
+    this.defaultClip = defaultClip;
+  }
+
+  public AnimationSet set(int state, AnimationClip clip) {
+    clips[state] = clip;
+    return this;
+  }
+
+  public AnimationClip get(int state) {
+    AnimationClip clip = state >= 0 && state < clips.length ? clips[state] : null;
+    return clip != null ? clip : defaultClip;
+  }
+}
@@ -0,0 +1,244 @@
+package engine.animation;
+
+import engine.renderer.Sprite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Advances every sprite animation from one shared clock.
+ * Animation state is kept in parallel primitive arrays so a frame update is a
+ * single pass over those arrays, followed by a region update for the sprites
+ * whose frame actually changed.
+ */
+public class Animator {
+  private static Animator instance;
+
+  // A handle is its index in the handle table plus, in the bits above, the
+  // generation the index had when it was handed out
+  private static final int INDEX_BITS = 20;
+  private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+  private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+
+  // Registered clips; clip data is copied into the slot arrays on play
+  private final List<AnimationClip> clips = new ArrayList<>();
+
+  // Per-animation state, densely packed
+  private Sprite[] sprites = new Sprite[64];
+  private float[] elapsed = new float[64];
+  private float[] framesPerSecond = new float[64];
+  private float[] duration = new float[64];
+  private int[] frameCount = new int[64];
+  private boolean[] looping = new boolean[64];
+  private int[] currentFrame = new int[64];
+  private int[] shownFrame = new int[64];
+  private int[] clipIds = new int[64];
+  private int count = 0;
+
+  // Stable handles mapping to dense slots; a generation changes each time
+  // its index is freed, so stale handles can be told apart from live ones
+  private int[] handleToSlot = new int[64];
+  private int[] generations = new int[64];
+  private int[] slotToHandle = new int[64];
+  private int[] freeHandles = new int[64];
+  private int freeHandleCount = 0;
+  private int nextHandle = 0;
+
+  // Total time advanced by update()
+  private double clock = 0;
+
+  private Animator() {
+    // Private constructor for singleton
+  }
+
+  public static Animator get() {
+    if (instance == null) {
+      instance = new Animator();
+    }
+    return instance;
+  }
+
+  /**
+   * Start animating a sprite.
+   *
+   * @param sprite The sprite whose region will be animated
+   * @param clip   The clip to play first
+   * @return Handle used to control the animation
+   */
+  public int register(Sprite sprite, AnimationClip clip) {
+    if (sprite == null || clip == null) {
+      throw new IllegalArgumentException("Animations need a sprite and a clip");
+    }
+    if (count == sprites.length) {
+      grow();
+    }
+
+    int index = freeHandleCount > 0 ? freeHandles[--freeHandleCount] : nextHandle;
+    if (index > INDEX_MASK) {
+      throw new IllegalStateException("Too many animations: " + count);
+    }
+    if (index == nextHandle) {
+      nextHandle++;
+    }
+    if (index >= handleToSlot.length) {
+      handleToSlot = Arrays.copyOf(handleToSlot, handleToSlot.length * 2);
+      generations = Arrays.copyOf(generations, generations.length * 2);
+    }
+
+    int slot = count++;
+    handleToSlot[index] = slot;
+    slotToHandle[slot] = index;
+    sprites[slot] = sprite;
+    startClip(slot, clip);
+    return generations[index] << INDEX_BITS | index;
+  }
+
+  /**
+   * Stop animating a sprite. The handle becomes invalid.
+   *
+   * @param handle Handle returned by {@link #register(Sprite, AnimationClip)}
+   * @throws IllegalArgumentException If the handle was never issued or was already unregistered
+   */
+  public void unregister(int handle) {
+    int slot = slotOf(handle);
+    int index = handle & INDEX_MASK;
+    generations[index] = (generations[index] + 1) & GENERATION_MASK;
+    int last = --count;
+
+    // Move the last slot into the freed one
+    if (slot != last) {
+      sprites[slot] = sprites[last];
+      elapsed[slot] = elapsed[last];
+      framesPerSecond[slot] = framesPerSecond[last];
+      duration[slot] = duration[last];
+      frameCount[slot] = frameCount[last];
+      looping[slot] = looping[last];
+      currentFrame[slot] = currentFrame[last];
+      shownFrame[slot] = shownFrame[last];
+      clipIds[slot] = clipIds[last];
+      int movedIndex = slotToHandle[last];
+      slotToHandle[slot] = movedIndex;
+      handleToSlot[movedIndex] = slot;
+    }
+    sprites[last] = null;
+
+    if (freeHandleCount == freeHandles.length) {
+      freeHandles = Arrays.copyOf(freeHandles, freeHandles.length * 2);
+    }
+    freeHandles[freeHandleCount++] = index;
+  }
+
+  /**
+   * Switch an animation to another clip. Playing the clip that is already
+   * running does nothing, so this can be called every tick.
+   *
+   * @param handle Animation handle
+   * @param clip   Clip to play
+   */
+  public void play(int handle, AnimationClip clip) {
+    int slot = slotOf(handle);
+    if (clip.clipId >= 0 && clipIds[slot] == clip.clipId) {
+      return;
+    }
+    startClip(slot, clip);
+  }
+
+  /**
+   * Advance the shared clock and every animation.
+   *
+   * @param deltaTime Time since last update in seconds
+   */
+  public void update(double deltaTime) {
+    clock += deltaTime;
+    float dt = (float) deltaTime;
+    int n = count;
+
+    // Frame pass over primitive arrays only
+    float[] elapsed = this.elapsed;
+    float[] fps = this.framesPerSecond;
+    float[] duration = this.duration;
+    int[] frameCount = this.frameCount;
+    boolean[] looping = this.looping;
+    int[] currentFrame = this.currentFrame;
+    for (int i = 0; i < n; i++) {
+      float t = elapsed[i] + dt;
+      if (looping[i] && t >= duration[i]) {
+        // Keep looping time below one loop to preserve precision, even when a
+        // hitch skips several loops at once
+        t %= duration[i];
+      }
+      elapsed[i] = t;
+      int frame = (int) (t * fps[i]);
+      currentFrame[i] = Math.min(frame, frameCount[i] - 1);
+    }
+
+    // Only touch sprites whose frame changed
+    int[] shownFrame = this.shownFrame;
+    for (int i = 0; i < n; i++) {
+      if (currentFrame[i] != shownFrame[i]) {
+        showFrame(i, currentFrame[i]);
+      }
+    }
+  }
+
+  private void startClip(int slot, AnimationClip clip) {
+    if (clip.clipId < 0) {
+      clip.clipId = clips.size();
+      clips.add(clip);
+    }
+    clipIds[slot] = clip.clipId;
+    elapsed[slot] = 0;
+    framesPerSecond[slot] = clip.getFramesPerSecond();
+    frameCount[slot] = clip.getFrameCount();
+    looping[slot] = clip.isLooping() && clip.getDuration() > 0;
+    duration[slot] = clip.getDuration();
+    currentFrame[slot] = 0;
+    showFrame(slot, 0);
+  }
+
+  private void showFrame(int slot, int frame) {
+    float[] regions = clips.get(clipIds[slot]).getRegions();
+    int o = frame * 4;
+    sprites[slot].setRegion(regions[o], regions[o + 1], regions[o + 2], regions[o + 3]);
+    shownFrame[slot] = frame;
+  }
+
+  private void grow() {
+    int capacity = sprites.length * 2;
+    sprites = Arrays.copyOf(sprites, capacity);
+    elapsed = Arrays.copyOf(elapsed, capacity);
+    framesPerSecond = Arrays.copyOf(framesPerSecond, capacity);
+    duration = Arrays.copyOf(duration, capacity);
+    frameCount = Arrays.copyOf(frameCount, capacity);
+    looping = Arrays.copyOf(looping, capacity);
+    currentFrame = Arrays.copyOf(currentFrame, capacity);
+    shownFrame = Arrays.copyOf(shownFrame, capacity);
+    clipIds = Arrays.copyOf(clipIds, capacity);
+    slotToHandle = Arrays.copyOf(slotToHandle, capacity);
+  }
+
+  /** Current frame of an animation. */
+  public int getFrame(int handle) {
+    return currentFrame[slotOf(handle)];
+  }
+
+  /** Dense slot of a live handle. */
+  private int slotOf(int handle) {
+    int index = handle & INDEX_MASK;
+    // A freed index's slot belongs to another handle or is past the live ones
+    if (handle < 0 || index >= nextHandle || handle >>> INDEX_BITS != generations[index]
+        || handleToSlot[index] >= count || slotToHandle[handleToSlot[index]] != index) {
+      throw new IllegalArgumentException("Unknown or unregistered animation handle: " + handle);
+    }
+    return handleToSlot[index];
+  }
+
+  public int getAnimationCount() {
+    return count;
+  }
+
+  public double getClock() {
+    return clock;
+  }
+}
@@ -0,0 +1,248 @@
+package engine.asset;
+
+import engine.renderer.Texture;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Development mode reloading of edited textures.
+ * <p>
+ * A background thread watches the loose assets directory and its
+ * subdirectories. Editors usually write a file in several steps, so a file
+ * is only decoded once it has been quiet for {@link #DEBOUNCE_MILLIS}.
+ * Decoding happens on the watcher thread; the game thread just uploads the
+ * pixels into the existing texture in {@link #update()}, so sprites pick up
+ * the change on the next frame without a stall.
+ */
+public class AssetHotReloader {
+  private static AssetHotReloader instance;
+
+  /** System property turning hot reload on or off; on by default without an asset pack. */
+  public static final String PROPERTY = "game.hotReload";
+  public static final long DEBOUNCE_MILLIS = 150;
+
+  private final Path root;
+  private final ConcurrentLinkedQueue<DecodedImage> decoded = new ConcurrentLinkedQueue<>();
+
+  private WatchService watcher;
+  private Thread thread;
+
+  // Watched directory of each key, only touched by the watcher thread
+  private final Map<WatchKey, Path> directories = new HashMap<>();
+
+  private int reloadCount = 0;
+
+  /** Pixels decoded off-thread, waiting for upload. */
+  private static class DecodedImage {
+    final String path;
+    final ByteBuffer pixels;
+    final int width, height;
+
+    DecodedImage(String path, ByteBuffer pixels, int width, int height) {
+      this.path = path;
+      this.pixels = pixels;
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  AssetHotReloader(Path root) {
+    this.root = root;
+  }
+
+  public static AssetHotReloader get() {
+    if (instance == null) {
+      instance = new AssetHotReloader(VirtualFileSystem.get().getLooseRoot());
+    }
+    return instance;
+  }
+
+  /** Whether hot reload should run: set by {@link #PROPERTY}, else only when there is no asset pack. */
+  public static boolean isEnabled() {
+    String property = System.getProperty(PROPERTY);
+    if (property != null) {
+      return Boolean.parseBoolean(property);
+    }
+    return VirtualFileSystem.get().getPack() == null;
+  }
+
+  /**
+   * Start watching. Does nothing if already started.
+   *
+   * @return false if the assets directory can't be watched
+   */
+  public boolean start() {
+    if (thread != null) {
+      return true;
+    }
+    if (!Files.isDirectory(root)) {
+      return false;
+    }
+    try {
+      watcher = FileSystems.getDefault().newWatchService();
+      registerTree(root);
+    } catch (IOException e) {
+      System.err.println("Asset hot reload disabled: " + e.getMessage());
+      return false;
+    }
+
+    thread = new Thread(this::watch, "asset-watcher");
+    thread.setDaemon(true);
+    thread.start();
+    System.out.println("Watching " + root.toAbsolutePath() + " for asset changes");
+    return true;
+  }
+
+  /** Stop watching. */
+  public void stop() {
+    if (thread == null) {
+      return;
+    }
+    try {
+      watcher.close(); // Wakes the watcher thread, which then exits
+    } catch (IOException e) {
+      // Closing anyway
+    }
+    thread = null;
+  }
+
+  /**
+   * Upload textures decoded since the last call. Call once per frame on the
+   * thread owning the GL context.
+   */
+  public void update() {
+    for (DecodedImage image; (image = decoded.poll()) != null; ) {
+      if (Texture.reload(image.path, image.pixels, image.width, image.height)) {
+        reloadCount++;
+        System.out.println("Reloaded " + image.path);
+      }
+      STBImage.stbi_image_free(image.pixels);
+    }
+  }
+
+  private void registerTree(Path directory) throws IOException {
+    try (Stream<Path> walk = Files.walk(directory)) {
+      Iterator<Path> directoriesToWatch = walk.filter(Files::isDirectory).iterator();
+      while (directoriesToWatch.hasNext()) {
+        Path dir = directoriesToWatch.next();
+        directories.put(dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY), dir);
+      }
+    }
+  }
+
+  private void watch() {
+    // Changed files and when they become quiet enough to decode
+    Map<Path, Long> pending = new HashMap<>();
+    long debounceNanos = TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_MILLIS);
+
+    try {
+      while (true) {
+        WatchKey key;
+        if (pending.isEmpty()) {
+          key = watcher.take();
+        } else {
+          long wait = Long.MAX_VALUE;
+          for (long due : pending.values()) {
+            wait = Math.min(wait, due - System.nanoTime());
+          }
+          key = watcher.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+        }
+
+        if (key != null) {
+          collectEvents(key, pending, System.nanoTime() + debounceNanos);
+        }
+
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+          Map.Entry<Path, Long> entry = entries.next();
+          if (entry.getValue() - now <= 0) {
+            entries.remove();
+            decode(entry.getKey());
+          }
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Stopped
+    }
+  }
+
+  private void collectEvents(WatchKey key, Map<Path, Long> pending, long due) {
+    Path directory = directories.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (directory == null || event.kind() == OVERFLOW) {
+        continue;
+      }
+      Path changed = directory.resolve((Path) event.context());
+      if (Files.isDirectory(changed)) {
+        if (event.kind() == ENTRY_CREATE) {
+          try {
+            registerTree(changed);
+          } catch (IOException e) {
+            System.err.println("Can't watch " + changed + ": " + e.getMessage());
+          }
+        }
+      } else if (isImage(changed)) {
+        pending.put(changed, due);
+      }
+    }
+    if (!key.reset()) {
+      directories.remove(key);
+    }
+  }
+
+  private static boolean isImage(Path file) {
+    String name = file.getFileName().toString().toLowerCase();
+    return name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".tga") || name.endsWith(".bmp");
+  }
+
+  private void decode(Path file) {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file);
+    } catch (IOException e) {
+      return; // Deleted or renamed again since the event
+    }
+    ByteBuffer encoded = BufferUtils.createByteBuffer(bytes.length);
+    encoded.put(bytes).flip();
+
+    try (MemoryStack stack = MemoryStack.stackPush()) {
+      IntBuffer w = stack.mallocInt(1);
+      IntBuffer h = stack.mallocInt(1);
+      IntBuffer channels = stack.mallocInt(1);
+      ByteBuffer pixels = STBImage.stbi_load_from_memory(encoded, w, h, channels, 4);
+      if (pixels == null) {
+        // Likely still being written; the next write event retries
+        System.err.println("Failed to decode " + file + ": " + STBImage.stbi_failure_reason());
+        return;
+      }
+      String path = root.relativize(file).toString().replace('\\', '/');
+      decoded.add(new DecodedImage(path, pixels, w.get(0), h.get(0)));
+    }
+  }
+
+  /** Textures reloaded since start. */
+  public int getReloadCount() {
+    return reloadCount;
+  }
+}
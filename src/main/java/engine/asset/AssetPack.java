@@ -0,0 +1,140 @@
+package engine.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only archive of assets, memory-mapped in one call.
+ * <p>
+ * Layout, little-endian:
+ * <pre>
+ * int    MAGIC
+ * int    VERSION
+ * int    entry count
+ * entries, each:
+ *   short  path length in bytes, then the UTF-8 path ('/' separated)
+ *   long   data offset from the start of the file
+ *   int    data length
+ * data, each entry aligned to {@link #ALIGNMENT} bytes
+ * </pre>
+ * Reading an asset returns a slice of the mapping, so nothing is copied
+ * until the consumer decodes it.
+ */
+public class AssetPack {
+  public static final int MAGIC = 0x4B415031; // "1PAK" read little-endian
+  public static final int VERSION = 1;
+  public static final int ALIGNMENT = 16;
+
+  // Path length, data offset and data length of an entry with an empty path
+  private static final int ENTRY_HEADER_BYTES = Short.BYTES + Long.BYTES + Integer.BYTES;
+
+  private final Path file;
+  private final MappedByteBuffer mapping;
+  private final Map<String, Integer> indexByPath;
+  private final long[] offsets;
+  private final int[] lengths;
+
+  private AssetPack(Path file, MappedByteBuffer mapping, Map<String, Integer> indexByPath,
+      long[] offsets, int[] lengths) {
+    this.file = file;
+    this.mapping = mapping;
+    this.indexByPath = indexByPath;
+    this.offsets = offsets;
+    this.lengths = lengths;
+  }
+
+  /**
+   * Map a pack file and read its index.
+   *
+   * @param file The .pak file
+   * @return The opened pack
+   * @throws IOException If the file can't be mapped or isn't a valid pack
+   */
+  public static AssetPack open(Path file) throws IOException {
+    MappedByteBuffer mapping;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed
+      mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    ByteBuffer in = mapping.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+    if (in.remaining() < 12 || in.getInt() != MAGIC) {
+      throw new IOException("Not an asset pack: " + file);
+    }
+    int version = in.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported asset pack version " + version + ": " + file);
+    }
+
+    // Every entry takes at least its path length, offset and data length
+    int count = in.getInt();
+    if (count < 0 || count > in.remaining() / ENTRY_HEADER_BYTES) {
+      throw new IOException("Corrupt asset pack, bad entry count " + count + ": " + file);
+    }
+    Map<String, Integer> indexByPath = new HashMap<>(count * 2);
+    long[] offsets = new long[count];
+    int[] lengths = new int[count];
+    byte[] pathBytes = new byte[256];
+    for (int i = 0; i < count; i++) {
+      if (in.remaining() < ENTRY_HEADER_BYTES) {
+        throw new IOException("Corrupt asset pack, index truncated at entry " + i + ": " + file);
+      }
+      int pathLength = in.getShort() & 0xFFFF;
+      if (in.remaining() < pathLength + Long.BYTES + Integer.BYTES) {
+        throw new IOException("Corrupt asset pack, index truncated at entry " + i + ": " + file);
+      }
+      if (pathLength > pathBytes.length) {
+        pathBytes = new byte[pathLength];
+      }
+      in.get(pathBytes, 0, pathLength);
+      offsets[i] = in.getLong();
+      lengths[i] = in.getInt();
+      if (offsets[i] < 0 || lengths[i] < 0 || offsets[i] > mapping.capacity() - lengths[i]) {
+        throw new IOException("Corrupt asset pack, entry " + i + " out of bounds: " + file);
+      }
+      indexByPath.put(new String(pathBytes, 0, pathLength, StandardCharsets.UTF_8), i);
+    }
+    return new AssetPack(file, mapping, indexByPath, offsets, lengths);
+  }
+
+  /**
+   * Get an asset's bytes as a read-only slice of the mapping.
+   *
+   * @param path Asset path relative to the assets root, e.g. "characters/warrior.png"
+   * @return The data, or null if the pack has no such asset
+   */
+  public ByteBuffer get(String path) {
+    Integer index = indexByPath.get(path);
+    if (index == null) {
+      return null;
+    }
+    return mapping.slice((int) offsets[index], lengths[index]);
+  }
+
+  public boolean contains(String path) {
+    return indexByPath.containsKey(path);
+  }
+
+  public Set<String> getPaths() {
+    return Collections.unmodifiableSet(indexByPath.keySet());
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  /** Size of the mapped file in bytes. */
+  public long getSize() {
+    return mapping.capacity();
+  }
+}
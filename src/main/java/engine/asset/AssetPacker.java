@@ -0,0 +1,107 @@
+package engine.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time tool packing a directory of assets into one {@link AssetPack}.
+ * Run by the packAssets Gradle task:
+ * <pre>
+ * AssetPacker &lt;assets directory&gt; &lt;output .pak&gt;
+ * </pre>
+ */
+public class AssetPacker {
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: AssetPacker <assets directory> <output .pak>");
+      System.exit(1);
+    }
+    Path root = Paths.get(args[0]);
+    Path output = Paths.get(args[1]);
+
+    int count = pack(root, output);
+    System.out.println("Packed " + count + " assets into " + output + " (" + Files.size(output) + " bytes)");
+  }
+
+  /**
+   * Write every regular file under a directory into a pack, sorted by path
+   * so the same inputs always produce the same file.
+   *
+   * @param root   Directory whose files become the assets
+   * @param output Pack file to write
+   * @return Number of assets packed
+   * @throws IOException If reading or writing fails
+   */
+  public static int pack(Path root, Path output) throws IOException {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(root)) {
+      files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+
+    List<byte[]> paths = new ArrayList<>(files.size());
+    int indexSize = 12;
+    for (Path file : files) {
+      byte[] path = root.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8);
+      if (path.length > 0xFFFF) {
+        throw new IOException("Asset path too long: " + file);
+      }
+      paths.add(path);
+      indexSize += 2 + path.length + 8 + 4;
+    }
+
+    // Assign aligned offsets after the index
+    long[] offsets = new long[files.size()];
+    long offset = align(indexSize);
+    for (int i = 0; i < files.size(); i++) {
+      offsets[i] = offset;
+      offset = align(offset + Files.size(files.get(i)));
+    }
+    // Packs are mapped as one buffer, which is indexed by int
+    if (offset > Integer.MAX_VALUE) {
+      throw new IOException("Assets don't fit in a 2 GB pack");
+    }
+
+    Path parent = output.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer index = ByteBuffer.allocate(indexSize).order(ByteOrder.LITTLE_ENDIAN);
+      index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(files.size());
+      for (int i = 0; i < files.size(); i++) {
+        byte[] path = paths.get(i);
+        index.putShort((short) path.length).put(path);
+        index.putLong(offsets[i]).putInt((int) Files.size(files.get(i)));
+      }
+      index.flip();
+      writeFully(out, index, 0);
+
+      for (int i = 0; i < files.size(); i++) {
+        writeFully(out, ByteBuffer.wrap(Files.readAllBytes(files.get(i))), offsets[i]);
+      }
+    }
+    return files.size();
+  }
+
+  private static long align(long offset) {
+    return (offset + AssetPack.ALIGNMENT - 1) & -AssetPack.ALIGNMENT;
+  }
+
+  private static void writeFully(FileChannel out, ByteBuffer data, long position) throws IOException {
+    while (data.hasRemaining()) {
+      position += out.write(data, position);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package engine.asset;
+
+import org.lwjgl.BufferUtils;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves asset paths such as "characters/warrior.png" to their bytes.
+ * <p>
+ * Assets come from the first {@link AssetPack} found, which is mapped once at
+ * startup so lookups are a hash probe and reads are zero-copy slices. Assets
+ * missing from the pack, or every asset when there is no pack, are read from
+ * the loose assets directory instead, which is what development builds use.
+ */
+public class VirtualFileSystem {
+  private static VirtualFileSystem instance;
+
+  /** System property naming the pack file to use. */
+  public static final String PACK_PROPERTY = "game.assetPack";
+  public static final String PACK_NAME = "assets.pak";
+  /** Loose assets, relative to the working directory. */
+  public static final String LOOSE_ROOT = "src/main/resources/assets";
+
+  private final AssetPack pack;
+  private final Path looseRoot;
+
+  VirtualFileSystem(AssetPack pack, Path looseRoot) {
+    this.pack = pack;
+    this.looseRoot = looseRoot;
+  }
+
+  // Synchronized because startup opens the pack off the main thread
+  public static synchronized VirtualFileSystem get() {
+    if (instance == null) {
+      instance = new VirtualFileSystem(openPack(), Paths.get(LOOSE_ROOT));
+    }
+    return instance;
+  }
+
+  /**
+   * Look for a pack: the path in {@link #PACK_PROPERTY}, then next to the
+   * working directory, then in an installed distribution (one level above
+   * the jar), then where the packAssets task writes it.
+   */
+  private static AssetPack openPack() {
+    List<Path> candidates = new ArrayList<>();
+    String property = System.getProperty(PACK_PROPERTY);
+    if (property != null) {
+      candidates.add(Paths.get(property));
+    }
+    candidates.add(Paths.get(PACK_NAME));
+    try {
+      Path codeSource = Paths.get(VirtualFileSystem.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+      Path parent = codeSource.getParent();
+      if (parent != null && parent.getParent() != null) {
+        candidates.add(parent.getParent().resolve(PACK_NAME));
+      }
+    } catch (URISyntaxException | RuntimeException e) {
+      // No usable code source, e.g. a custom class loader
+    }
+    candidates.add(Paths.get("build/assets", PACK_NAME));
+
+    for (Path candidate : candidates) {
+      if (Files.isRegularFile(candidate)) {
+        try {
+          AssetPack pack = AssetPack.open(candidate);
+          System.out.println("Using asset pack " + candidate.toAbsolutePath());
+          return pack;
+        } catch (IOException e) {
+          System.err.println("Failed to open asset pack " + candidate + ": " + e.getMessage());
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Read an asset.
+   *
+   * @param path Asset path, '/' separated
+   * @return Direct buffer with the asset's bytes, or null if it doesn't
+   *         exist. Pack assets are read-only slices of the mapping.
+   */
+  public ByteBuffer read(String path) {
+    if (pack != null) {
+      ByteBuffer data = pack.get(path);
+      if (data != null) {
+        return data;
+      }
+    }
+    return readLoose(path);
+  }
+
+  private ByteBuffer readLoose(String path) {
+    Path file = looseRoot.resolve(path);
+    try {
+      byte[] bytes = Files.readAllBytes(file);
+      ByteBuffer data = BufferUtils.createByteBuffer(bytes.length);
+      data.put(bytes).flip();
+      return data;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /** Whether an asset exists. Free for packed assets, one file check otherwise. */
+  public boolean exists(String path) {
+    return (pack != null && pack.contains(path)) || Files.isRegularFile(looseRoot.resolve(path));
+  }
+
+  /** The mapped pack, or null when running from loose files only. */
+  public AssetPack getPack() {
+    return pack;
+  }
+
+  public Path getLooseRoot() {
+    return looseRoot;
+  }
+}
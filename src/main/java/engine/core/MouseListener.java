@@ -4,6 +4,9 @@ import static org.lwjgl.glfw.GLFW.*;
 
 /**
  * Handles mouse input for the game.
+ * Movement and scrolling add up over every callback between two calls to
+ * {@link #endFrame()}, so a frame sees all the input polled before it even
+ * when GLFW reports several events at once.
  */
 public class MouseListener {
   private static MouseListener instance;
@@ -29,8 +32,7 @@ public class MouseListener {
   }
 
   public static void mousePosCallback(long window, double xpos, double ypos) {
-    get().lastX = get().xPos;
-    get().lastY = get().yPos;
+    // lastX/lastY stay at the position of the previous frame until endFrame
     get().xPos = xpos;
     get().yPos = ypos;
     get().isDragging = get().mouseButtonPressed[0] || get().mouseButtonPressed[1] || get().mouseButtonPressed[2];
@@ -48,10 +50,11 @@ public class MouseListener {
   }
 
   public static void mouseScrollCallback(long window, double xOffset, double yOffset) {
-    get().scrollX = xOffset;
-    get().scrollY = yOffset;
+    get().scrollX += xOffset;
+    get().scrollY += yOffset;
   }
 
+  /** Start collecting the next frame's movement and scrolling. Call after the frame has read its input. */
   public static void endFrame() {
     get().scrollX = 0;
     get().scrollY = 0;
@@ -0,0 +1,52 @@
+package engine.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent startup steps in parallel while the main thread creates
+ * the window and GL context. Steps must not touch GL; results that need the
+ * context are finished on the main thread by joining the returned futures.
+ */
+public class StartupTasks {
+  private final ExecutorService executor;
+
+  public StartupTasks() {
+    this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  public StartupTasks(int threads) {
+    AtomicInteger count = new AtomicInteger();
+    executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "startup-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Start a step, timed as a {@link StartupTimer} phase.
+   *
+   * @param name Phase name
+   * @param task The step
+   * @return The step's result
+   */
+  public <T> CompletableFuture<T> submit(String name, Supplier<T> task) {
+    return CompletableFuture.supplyAsync(() -> StartupTimer.get().time(name, task), executor);
+  }
+
+  public CompletableFuture<Void> run(String name, Runnable task) {
+    return submit(name, () -> {
+      task.run();
+      return null;
+    });
+  }
+
+  /** Let the threads exit once queued steps are done. */
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
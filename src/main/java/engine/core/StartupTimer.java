@@ -0,0 +1,110 @@
+package engine.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each startup phase takes, on the main thread and on the
+ * threads of {@link StartupTasks}, and prints them once the first frame or
+ * tick is done. Times in the report are relative to JVM launch, so they
+ * include JVM boot and class loading before {@code main}.
+ */
+public class StartupTimer {
+  // Created with the class so the clock starts as early as possible
+  private static final StartupTimer instance = new StartupTimer();
+
+  private final long originNanos = System.nanoTime();
+
+  private final List<Phase> phases = new ArrayList<>();
+  private String current;
+  private long currentStart;
+  private boolean reported = false;
+
+  private StartupTimer() {
+  }
+
+  public static StartupTimer get() {
+    return instance;
+  }
+
+  /**
+   * End the running main-thread phase, if any, and start another.
+   *
+   * @param phase Name shown in the report
+   */
+  public synchronized void begin(String phase) {
+    long now = System.nanoTime();
+    closeCurrent(now);
+    current = phase;
+    currentStart = now;
+  }
+
+  /** End the running main-thread phase. */
+  public synchronized void end() {
+    closeCurrent(System.nanoTime());
+    current = null;
+  }
+
+  private void closeCurrent(long now) {
+    if (current != null) {
+      phases.add(new Phase(current, Thread.currentThread().getName(), currentStart, now));
+    }
+  }
+
+  /**
+   * Run and record a phase on the calling thread. Phases timed this way may
+   * overlap each other and the main-thread phases.
+   */
+  public <T> T time(String phase, Supplier<T> task) {
+    long start = System.nanoTime();
+    try {
+      return task.get();
+    } finally {
+      long end = System.nanoTime();
+      synchronized (this) {
+        phases.add(new Phase(phase, Thread.currentThread().getName(), start, end));
+      }
+    }
+  }
+
+  /** Milliseconds since JVM launch. */
+  public long getElapsedMillis() {
+    return ManagementFactory.getRuntimeMXBean().getUptime();
+  }
+
+  /**
+   * Print the phases recorded so far, once.
+   *
+   * @param milestone What startup reached, e.g. "first frame"
+   */
+  public synchronized void report(String milestone) {
+    if (reported) {
+      return;
+    }
+    reported = true;
+
+    // Loading the management classes here keeps them out of the phases
+    long elapsed = getElapsedMillis();
+    long offset = elapsed - (System.nanoTime() - originNanos) / 1_000_000;
+    System.out.println("Startup: " + milestone + " after " + elapsed + " ms (" + offset + " ms before timing began)");
+    phases.sort((a, b) -> Long.compare(a.start, b.start));
+    for (Phase phase : phases) {
+      System.out.printf("  %-28s %8.1f ms  at %6d ms  [%s]%n", phase.name,
+          (phase.end - phase.start) / 1e6, offset + (phase.start - originNanos) / 1_000_000, phase.thread);
+    }
+  }
+
+  private static final class Phase {
+    final String name, thread;
+    final long start, end;
+
+    Phase(String name, String thread, long start, long end) {
+      this.name = name;
+      this.thread = thread;
+      this.start = start;
+      this.end = end;
+    }
+  }
+}
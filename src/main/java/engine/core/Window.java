@@ -1,6 +1,17 @@
 package engine.core;
 
+import engine.animation.Animator;
+import engine.asset.AssetHotReloader;
+import engine.metrics.Gauge;
+import engine.metrics.GcMonitor;
+import engine.metrics.Histogram;
+import engine.metrics.MetricsRegistry;
+import engine.metrics.MetricsServer;
+import engine.particle.ParticleSystem;
 import engine.renderer.Renderer;
+import engine.text.FloatingText;
+import engine.ui.MetricsOverlay;
+import engine.ui.UIManager;
 import game.GameManager;
 import org.lwjgl.*;
 import org.lwjgl.glfw.*;
@@ -16,6 +27,17 @@ import static org.lwjgl.system.MemoryStack.*;
 import static org.lwjgl.system.MemoryUtil.*;
 
 public class Window {
+  private static final Histogram FRAME_TIME =
+      MetricsRegistry.get().histogram("engine_frame_seconds", "Time between frames");
+  private static final Histogram UPDATE_TIME =
+      MetricsRegistry.get().histogram("engine_update_seconds", "Game and engine update per frame");
+  private static final Histogram RENDER_TIME =
+      MetricsRegistry.get().histogram("engine_render_seconds", "Draw calls issued per frame, before the swap");
+  private static final Gauge FPS = MetricsRegistry.get().gauge("engine_fps", "Frames over the last second");
+  private static final Gauge PARTICLES = MetricsRegistry.get().gauge("engine_particles", "Live particles");
+  private static final Gauge FLOATING_TEXTS =
+      MetricsRegistry.get().gauge("engine_floating_texts", "Floating combat texts on screen");
+
   private final int width, height;
   private final String title;
 
@@ -28,11 +50,23 @@ public class Window {
 
   // Game state flags
   private boolean initialized = false;
+  private boolean firstFrameDone = false;
+
+  // Startup work running while the window and context are created
+  private StartupTasks startup;
+  private GameManager.Preload preload;
 
   // Delta time tracking
   private double lastFrameTime = 0.0;
   private double deltaTime = 0.0;
 
+  // Frames counted toward the FPS gauge
+  private int fpsFrames = 0;
+  private double fpsStart = 0.0;
+
+  // Toggled with F3
+  private final MetricsOverlay metricsOverlay = new MetricsOverlay(0, 10);
+
   public Window() {
     this.width = 1920;
     this.height = 1080;
@@ -45,6 +79,14 @@ public class Window {
   public void run() {
     System.out.println("Hello LWJGL " + Version.getVersion() + "!");
 
+    // Record GC pauses from the start, for the overlay and any exporter
+    GcMonitor.install();
+
+    // Work that needs no GL context starts first and overlaps window creation
+    startup = new StartupTasks();
+    preload = GameManager.preload(startup);
+
+    StartupTimer.get().begin("window");
     init();
     loop();
 
@@ -111,12 +153,22 @@ public class Window {
     glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> {
       if (key == GLFW_KEY_ESCAPE && action == GLFW_RELEASE)
         glfwSetWindowShouldClose(window, true);
+      if (key == GLFW_KEY_F3 && action == GLFW_RELEASE)
+        metricsOverlay.setVisible(!metricsOverlay.isVisible());
     });
 
     // Mouse callbacks
     glfwSetCursorPosCallback(window, MouseListener::mousePosCallback);
     glfwSetMouseButtonCallback(window, MouseListener::mouseButtonCallback);
     glfwSetScrollCallback(window, MouseListener::mouseScrollCallback);
+
+    // Keep the camera and GL viewport in sync with the window size
+    glfwSetWindowSizeCallback(window, (window, newWidth, newHeight) -> {
+      renderer.getCamera().setViewportSize(newWidth, newHeight);
+      metricsOverlay.setPosition(newWidth - metricsOverlay.getWidth() - 10, 10);
+    });
+    glfwSetFramebufferSizeCallback(window, (window, newWidth, newHeight) ->
+        glViewport(0, 0, newWidth, newHeight));
   }
 
   private void loop() {
@@ -125,12 +177,17 @@ public class Window {
     // LWJGL detects the context that is current in the current thread,
     // creates the GLCapabilities instance and makes the OpenGL
     // bindings available for use.
+    StartupTimer timer = StartupTimer.get();
+    timer.begin("gl capabilities");
     GL.createCapabilities();
 
     // Initialize renderer
+    timer.begin("renderer");
+    renderer.getCamera().setViewportSize(width, height);
     renderer.init();
 
     // Initialize game state
+    timer.begin("game");
     initializeGame();
 
     // Set the clear color
@@ -138,6 +195,8 @@ public class Window {
 
     // Initial time
     lastFrameTime = glfwGetTime();
+    fpsStart = lastFrameTime;
+    timer.begin("first frame");
 
     // Run the rendering loop until the user has attempted to close
     // the window or has pressed the ESCAPE key.
@@ -146,35 +205,95 @@ public class Window {
       double currentTime = glfwGetTime();
       deltaTime = currentTime - lastFrameTime;
       lastFrameTime = currentTime;
+      recordFrame(currentTime);
 
       // Update game state
+      long updateStart = System.nanoTime();
       update(deltaTime);
 
       // Render frame
+      long renderStart = System.nanoTime();
+      UPDATE_TIME.record(renderStart - updateStart);
       render();
+      RENDER_TIME.record(System.nanoTime() - renderStart);
+
+      // Input read this frame is consumed; start collecting the next frame's
+      MouseListener.endFrame();
 
       // Swap buffers and poll events
       glfwSwapBuffers(window); // swap the color buffers
       glfwPollEvents();
 
-      // End frame for input handlers
-      MouseListener.endFrame();
+      if (!firstFrameDone) {
+        firstFrameDone = true;
+        finishStartup();
+      }
     }
   }
 
+  private void recordFrame(double currentTime) {
+    FRAME_TIME.record((long) (deltaTime * 1e9));
+    fpsFrames++;
+    if (currentTime - fpsStart >= 1.0) {
+      FPS.set(fpsFrames / (currentTime - fpsStart));
+      fpsFrames = 0;
+      fpsStart = currentTime;
+    }
+    PARTICLES.set(ParticleSystem.get().getParticleCount());
+    FLOATING_TEXTS.set(FloatingText.get().getCount());
+  }
+
+  /** Report startup timing and start what the first frame didn't need. */
+  private void finishStartup() {
+    StartupTimer.get().end();
+    StartupTimer.get().report("first frame");
+
+    // Reload edited textures while developing against loose assets
+    if (AssetHotReloader.isEnabled()) {
+      AssetHotReloader.get().start();
+    }
+    gameManager.checkAssets();
+
+    // Export metrics for soak runs when -Dgame.metricsPort is set
+    MetricsServer.startIfEnabled();
+  }
+
   private void initializeGame() {
     if (!initialized) {
-      // Create game manager
-      gameManager = new GameManager(renderer);
+      // Create game manager from the startup work
+      gameManager = new GameManager(renderer, preload);
+      startup.shutdown();
+
+      // Metrics overlay, drawn over the game UI once shown with F3
+      metricsOverlay.setVisible(false);
+      metricsOverlay.setPosition(width - metricsOverlay.getWidth() - 10, 10);
+      UIManager.get().add(metricsOverlay);
+      preload = null;
       initialized = true;
     }
   }
 
   private void update(double deltaTime) {
+    // Upload textures changed on disk
+    AssetHotReloader.get().update();
+
+    // Pan and zoom the camera from mouse input
+    renderer.getCamera().update();
+
     // Update game state
     if (gameManager != null) {
       gameManager.update(deltaTime);
     }
+
+    // Advance all sprite animations from the shared clock
+    Animator.get().update(deltaTime);
+
+    // Simulate effect particles and floating combat text
+    ParticleSystem.get().update(deltaTime);
+    FloatingText.get().update(deltaTime);
+
+    // Deliver clicks to UI panels
+    UIManager.get().update();
   }
 
   private void render() {
@@ -182,6 +301,11 @@ public class Window {
 
     // Render the game
     renderer.render();
+    ParticleSystem.get().render(renderer);
+    FloatingText.get().render(renderer);
+
+    // UI is drawn last, in screen space
+    UIManager.get().render(renderer);
   }
 
   // Accessor methods for other game systems
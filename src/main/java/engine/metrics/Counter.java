@@ -0,0 +1,37 @@
+package engine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up. Backed by a {@link LongAdder}, so threads
+ * incrementing it at once don't contend on one cache line.
+ */
+public final class Counter extends Metric {
+  private final LongAdder value = new LongAdder();
+
+  Counter(String name, String help) {
+    super(name, help);
+  }
+
+  public void increment() {
+    value.increment();
+  }
+
+  public void add(long n) {
+    value.add(n);
+  }
+
+  public long get() {
+    return value.sum();
+  }
+
+  @Override
+  String getType() {
+    return "counter";
+  }
+
+  @Override
+  void writeSamples(StringBuilder out) {
+    out.append(getName()).append(' ').append(get()).append('\n');
+  }
+}
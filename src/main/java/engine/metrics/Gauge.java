@@ -0,0 +1,41 @@
+package engine.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value that goes up and down. Either set by its owner, typically once a
+ * frame from the thread that owns the state, or read from a supplier when
+ * the gauge is exported. Suppliers run on the exporting thread, so they must
+ * only read state that is safe to read from any thread, such as atomics or
+ * JVM management beans.
+ */
+public final class Gauge extends Metric {
+  private final DoubleSupplier supplier;
+  private volatile double value;
+
+  Gauge(String name, String help, DoubleSupplier supplier) {
+    super(name, help);
+    this.supplier = supplier;
+  }
+
+  /** Set the value. Has no effect on a gauge read from a supplier. */
+  public void set(double value) {
+    this.value = value;
+  }
+
+  public double get() {
+    return supplier != null ? supplier.getAsDouble() : value;
+  }
+
+  @Override
+  String getType() {
+    return "gauge";
+  }
+
+  @Override
+  void writeSamples(StringBuilder out) {
+    out.append(getName()).append(' ');
+    MetricsRegistry.appendValue(out, get());
+    out.append('\n');
+  }
+}
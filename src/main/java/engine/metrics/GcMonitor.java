@@ -0,0 +1,64 @@
+package engine.metrics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Records garbage collection pauses and heap use in the
+ * {@link MetricsRegistry}. Pauses come from the collectors' notifications,
+ * delivered on a JMX thread after each collection, so nothing is polled.
+ */
+public final class GcMonitor {
+  private static boolean installed = false;
+
+  private GcMonitor() {
+  }
+
+  /** Start recording. Does nothing after the first call. */
+  public static synchronized void install() {
+    if (installed) {
+      return;
+    }
+    installed = true;
+
+    MetricsRegistry metrics = MetricsRegistry.get();
+    Histogram pauses = metrics.histogram("jvm_gc_pause_seconds", "Stop-the-world garbage collection pauses");
+    Counter collections = metrics.counter("jvm_gc_collections_total", "Garbage collections of any kind");
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    metrics.gauge("jvm_heap_used_bytes", "Java heap in use",
+        () -> memory.getHeapMemoryUsage().getUsed());
+    metrics.gauge("jvm_heap_committed_bytes", "Java heap reserved from the OS",
+        () -> memory.getHeapMemoryUsage().getCommitted());
+    metrics.gauge("jvm_threads", "Live threads",
+        () -> ManagementFactory.getThreadMXBean().getThreadCount());
+
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (!(gc instanceof NotificationEmitter)) {
+        continue;
+      }
+      ((NotificationEmitter) gc).addNotificationListener((Notification notification, Object handback) -> {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+          return;
+        }
+        GarbageCollectionNotificationInfo info =
+            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        collections.increment();
+        // Concurrent collectors report whole cycles, most of which run alongside the game
+        if (!isConcurrent(info.getGcName())) {
+          pauses.record(info.getGcInfo().getDuration() * 1_000_000);
+        }
+      }, null, null);
+    }
+  }
+
+  // e.g. "ZGC Cycles", "Shenandoah Cycles", "G1 Concurrent GC"
+  private static boolean isConcurrent(String gcName) {
+    return gcName.endsWith("Cycles") || gcName.contains("Concurrent");
+  }
+}
@@ -0,0 +1,80 @@
+package engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations in nanoseconds, bucketed like a {@link LatencyHistogram} but
+ * safe to record into from any thread without locking: recording is one
+ * atomic increment plus an add. Exported in seconds, with cumulative buckets
+ * at every power of two from about a microsecond to half a minute.
+ */
+public final class Histogram extends Metric {
+  // Exported bucket bounds, 2^10 ns to 2^35 ns
+  private static final int MIN_EXPORTED_LOG = 10;
+  private static final int MAX_EXPORTED_LOG = 35;
+
+  private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  Histogram(String name, String help) {
+    super(name, help);
+  }
+
+  public void record(long nanos) {
+    counts.incrementAndGet(LatencyHistogram.bucket(nanos));
+    sum.add(nanos);
+    // Only a new maximum writes, so this is one read once it has settled
+    long current = max.get();
+    while (nanos > current && !max.compareAndSet(current, nanos)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Copy the counts so far. Subtract an earlier snapshot to get percentiles
+   * over the time between the two.
+   */
+  public LatencyHistogram snapshot() {
+    LatencyHistogram snapshot = new LatencyHistogram();
+    for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+      long n = counts.get(i);
+      if (n != 0) {
+        snapshot.addToBucket(i, n);
+      }
+    }
+    snapshot.raiseMax(max.get());
+    return snapshot;
+  }
+
+  @Override
+  String getType() {
+    return "histogram";
+  }
+
+  @Override
+  void writeSamples(StringBuilder out) {
+    // Bucket 2b holds (2^b, 2^(b+1)] with its neighbour, so 2^b is the
+    // inclusive upper bound of everything below bucket 2b
+    long cumulative = 0;
+    int bucket = 0;
+    for (int log = MIN_EXPORTED_LOG; log <= MAX_EXPORTED_LOG; log++) {
+      for (; bucket < 2 * log; bucket++) {
+        cumulative += counts.get(bucket);
+      }
+      out.append(getName()).append("_bucket{le=\"");
+      MetricsRegistry.appendValue(out, (1L << log) / 1e9);
+      out.append("\"} ").append(cumulative).append('\n');
+    }
+    for (; bucket < LatencyHistogram.BUCKETS; bucket++) {
+      cumulative += counts.get(bucket);
+    }
+    out.append(getName()).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+    out.append(getName()).append("_sum ");
+    MetricsRegistry.appendValue(out, sum.sum() / 1e9);
+    out.append('\n');
+    out.append(getName()).append("_count ").append(cumulative).append('\n');
+  }
+}
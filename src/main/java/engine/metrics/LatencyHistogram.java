@@ -0,0 +1,112 @@
+package engine.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Durations in nanoseconds counted in logarithmic buckets, two per power of
+ * two, so percentiles are within 25% at any scale in a fixed 1 KB. Not
+ * thread safe; each histogram is written by one thread and copied for
+ * readers. {@link Histogram} is the thread-safe variant kept by the
+ * {@link MetricsRegistry}.
+ */
+public final class LatencyHistogram {
+  static final int BUCKETS = 128;
+
+  private final long[] counts = new long[BUCKETS];
+  private long count = 0;
+  private long max = 0;
+
+  public void record(long nanos) {
+    counts[bucket(nanos)]++;
+    count++;
+    max = Math.max(max, nanos);
+  }
+
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Remove the counts of an earlier copy of this histogram, leaving what was
+   * recorded since. The maximum stays the one over both.
+   */
+  public void subtract(LatencyHistogram earlier) {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] -= earlier.counts[i];
+    }
+    count -= earlier.count;
+  }
+
+  public LatencyHistogram copy() {
+    LatencyHistogram copy = new LatencyHistogram();
+    copy.add(this);
+    return copy;
+  }
+
+  public void clear() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    max = 0;
+  }
+
+  /**
+   * @param fraction e.g. 0.99 for the 99th percentile
+   * @return Upper bound of the bucket holding the percentile, at most the
+   *         largest value recorded; 0 if empty
+   */
+  public long percentile(double fraction) {
+    long rank = (long) Math.ceil(fraction * count);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(upperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  // For snapshots of a Histogram
+  void addToBucket(int bucket, long n) {
+    counts[bucket] += n;
+    count += n;
+  }
+
+  void raiseMax(long nanos) {
+    max = Math.max(max, nanos);
+  }
+
+  // Bucket 2b holds (2^b, 1.5 * 2^b], bucket 2b + 1 holds (1.5 * 2^b, 2^(b+1)],
+  // so every bound is inclusive like a Prometheus le
+  static int bucket(long nanos) {
+    long below = nanos - 1;
+    if (below < 2) {
+      return below < 1 ? 0 : 1; // At most 1 ns, then exactly 2 ns
+    }
+    int log = 63 - Long.numberOfLeadingZeros(below);
+    return 2 * log + (int) ((below >>> (log - 1)) & 1);
+  }
+
+  static long upperBound(int bucket) {
+    if (bucket < 2) {
+      return bucket + 1;
+    }
+    int log = bucket / 2;
+    if (log >= 62) {
+      return Long.MAX_VALUE;
+    }
+    return (1L << log) + ((bucket & 1) + 1) * (1L << log >> 1);
+  }
+}
@@ -0,0 +1,30 @@
+package engine.metrics;
+
+/**
+ * A named value kept by the {@link MetricsRegistry}. Names follow the
+ * Prometheus conventions: snake case, with the unit and {@code _total} for
+ * counters as suffixes.
+ */
+public abstract class Metric {
+  private final String name;
+  private final String help;
+
+  Metric(String name, String help) {
+    this.name = name;
+    this.help = help;
+  }
+
+  /** Prometheus type: counter, gauge or histogram. */
+  abstract String getType();
+
+  /** Append the sample lines in the Prometheus text format. */
+  abstract void writeSamples(StringBuilder out);
+
+  public String getName() {
+    return name;
+  }
+
+  public String getHelp() {
+    return help;
+  }
+}
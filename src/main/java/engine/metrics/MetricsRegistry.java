@@ -0,0 +1,116 @@
+package engine.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide metrics for soak runs and the battle server. Subsystems
+ * register their metrics once, usually in a static field, and update them
+ * on their hot paths: counters and histograms are lock-free, and a gauge is
+ * either a volatile write or a supplier read only when exported. The
+ * registry is exported in the Prometheus text format by
+ * {@link MetricsServer} and drawn by {@link engine.ui.MetricsOverlay}.
+ */
+public class MetricsRegistry {
+  // Created eagerly, since metrics are registered from any thread
+  private static final MetricsRegistry instance = new MetricsRegistry();
+
+  private final Map<String, Metric> byName = new ConcurrentHashMap<>();
+  // Registration order, which is the export order
+  private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+  private MetricsRegistry() {
+    // Private constructor for singleton
+  }
+
+  public static MetricsRegistry get() {
+    return instance;
+  }
+
+  /** The counter with this name, registered on first use. */
+  public Counter counter(String name, String help) {
+    return register(name, Counter.class, new Counter(name, help));
+  }
+
+  /** The gauge with this name, set with {@link Gauge#set(double)}, registered on first use. */
+  public Gauge gauge(String name, String help) {
+    return register(name, Gauge.class, new Gauge(name, help, null));
+  }
+
+  /**
+   * Register a gauge read from a supplier when exported. The supplier runs
+   * on the exporting thread; see {@link Gauge}. A gauge already registered
+   * under the name keeps its original source.
+   */
+  public Gauge gauge(String name, String help, DoubleSupplier supplier) {
+    return register(name, Gauge.class, new Gauge(name, help, supplier));
+  }
+
+  /** The duration histogram with this name, registered on first use. */
+  public Histogram histogram(String name, String help) {
+    return register(name, Histogram.class, new Histogram(name, help));
+  }
+
+  private synchronized <T extends Metric> T register(String name, Class<T> type, T metric) {
+    Metric existing = byName.get(name);
+    if (existing != null) {
+      if (!type.isInstance(existing)) {
+        throw new IllegalArgumentException(name + " is already registered as a " + existing.getType());
+      }
+      return type.cast(existing);
+    }
+    byName.put(name, metric);
+    metrics.add(metric);
+    return metric;
+  }
+
+  public Metric getMetric(String name) {
+    return byName.get(name);
+  }
+
+  /** Every metric, in registration order. */
+  public List<Metric> getMetrics() {
+    return new ArrayList<>(metrics);
+  }
+
+  /** Write every metric in the Prometheus text exposition format. */
+  public void writePrometheus(StringBuilder out) {
+    for (Metric metric : metrics) {
+      out.append("# HELP ").append(metric.getName()).append(' ');
+      appendHelp(out, metric.getHelp());
+      out.append('\n');
+      out.append("# TYPE ").append(metric.getName()).append(' ').append(metric.getType()).append('\n');
+      metric.writeSamples(out);
+    }
+  }
+
+  // Help text may not contain raw backslashes or newlines
+  private static void appendHelp(StringBuilder out, String help) {
+    for (int i = 0; i < help.length(); i++) {
+      char c = help.charAt(i);
+      if (c == '\\') {
+        out.append("\\\\");
+      } else if (c == '\n') {
+        out.append("\\n");
+      } else {
+        out.append(c);
+      }
+    }
+  }
+
+  static void appendValue(StringBuilder out, double value) {
+    if (Double.isNaN(value)) {
+      out.append("NaN");
+    } else if (Double.isInfinite(value)) {
+      out.append(value > 0 ? "+Inf" : "-Inf");
+    } else if (value == (long) value) {
+      out.append((long) value);
+    } else {
+      out.append(value);
+    }
+  }
+}
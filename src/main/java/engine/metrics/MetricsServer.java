@@ -0,0 +1,87 @@
+package engine.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link MetricsRegistry} at {@code /metrics} in the Prometheus
+ * text format, on localhost only. Requests are answered on one daemon
+ * thread, so scrapes never touch the game thread.
+ */
+public class MetricsServer {
+  /** System property with the port to serve metrics on; off when unset. */
+  public static final String PROPERTY = "game.metricsPort";
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  public MetricsServer(int port) throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.createContext("/metrics", this::handle);
+    executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "metrics-http");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(executor);
+  }
+
+  /**
+   * Start a server on the port in {@link #PROPERTY}, if set.
+   *
+   * @return The started server, or null if disabled or the port is taken
+   */
+  public static MetricsServer startIfEnabled() {
+    String property = System.getProperty(PROPERTY);
+    if (property == null) {
+      return null;
+    }
+    try {
+      MetricsServer server = new MetricsServer(Integer.parseInt(property));
+      server.start();
+      return server;
+    } catch (IOException | NumberFormatException e) {
+      System.err.println("Metrics endpoint disabled: " + e);
+      return null;
+    }
+  }
+
+  public void start() {
+    server.start();
+    System.out.println("Metrics on http://127.0.0.1:" + getPort() + "/metrics");
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      StringBuilder text = new StringBuilder(4096);
+      MetricsRegistry.get().writePrometheus(text);
+      byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  public void stop() {
+    server.stop(0);
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,74 @@
+package engine.particle;
+
+import java.util.SplittableRandom;
+
+/**
+ * Describes a burst of particles, e.g. the sparks of a critical hit.
+ * Emitters are immutable configuration and can be shared freely.
+ */
+public class ParticleEmitter {
+  private final int count;
+  private final float minSpeed, maxSpeed;
+  private final float direction, spread; // Radians
+  private final float minLifetime, maxLifetime;
+  private final float size;
+  private final float r, g, b, a;
+
+  /**
+   * @param count       Particles per burst
+   * @param minSpeed    Minimum initial speed in pixels per second
+   * @param maxSpeed    Maximum initial speed in pixels per second
+   * @param direction   Center of the emission cone in radians
+   * @param spread      Width of the emission cone in radians
+   * @param minLifetime Minimum lifetime in seconds
+   * @param maxLifetime Maximum lifetime in seconds
+   * @param size        Particle size in pixels
+   * @param r           Red
+   * @param g           Green
+   * @param b           Blue
+   * @param a           Starting alpha, fades to zero over the lifetime
+   */
+  public ParticleEmitter(int count, float minSpeed, float maxSpeed, float direction, float spread,
+      float minLifetime, float maxLifetime, float size, float r, float g, float b, float a) {
+    this.count = count;
+    this.minSpeed = minSpeed;
+    this.maxSpeed = maxSpeed;
+    this.direction = direction;
+    this.spread = spread;
+    this.minLifetime = minLifetime;
+    this.maxLifetime = maxLifetime;
+    this.size = size;
+    this.r = r;
+    this.g = g;
+    this.b = b;
+    this.a = a;
+  }
+
+  /**
+   * Spawn a burst into a pool.
+   *
+   * @param pool   Pool receiving the particles
+   * @param x      Burst origin x
+   * @param y      Burst origin y
+   * @param random Random source
+   * @return Number of particles actually spawned
+   */
+  public int emit(ParticlePool pool, float x, float y, SplittableRandom random) {
+    int spawned = 0;
+    for (int i = 0; i < count; i++) {
+      double angle = direction + (random.nextDouble() - 0.5) * spread;
+      float speed = minSpeed + (float) random.nextDouble() * (maxSpeed - minSpeed);
+      float lifetime = minLifetime + (float) random.nextDouble() * (maxLifetime - minLifetime);
+      if (!pool.spawn(x, y, (float) Math.cos(angle) * speed, (float) Math.sin(angle) * speed,
+          lifetime, size, r, g, b, a)) {
+        break;
+      }
+      spawned++;
+    }
+    return spawned;
+  }
+
+  public int getCount() {
+    return count;
+  }
+}
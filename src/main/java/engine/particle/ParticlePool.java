@@ -0,0 +1,123 @@
+package engine.particle;
+
+/**
+ * Fixed-capacity particle storage laid out as parallel arrays.
+ * All memory is allocated up front; dead particles are removed by moving the
+ * last live particle into their slot, so live particles are always packed in
+ * {@code [0, count)}.
+ */
+public class ParticlePool {
+  final int capacity;
+  int count = 0;
+
+  // Kinematics
+  final float[] posX, posY;
+  final float[] velX, velY;
+
+  // Remaining and total lifetime in seconds
+  final float[] life, maxLife;
+
+  // Appearance
+  final float[] size;
+  final float[] red, green, blue, alpha;
+
+  public ParticlePool(int capacity) {
+    this.capacity = capacity;
+    posX = new float[capacity];
+    posY = new float[capacity];
+    velX = new float[capacity];
+    velY = new float[capacity];
+    life = new float[capacity];
+    maxLife = new float[capacity];
+    size = new float[capacity];
+    red = new float[capacity];
+    green = new float[capacity];
+    blue = new float[capacity];
+    alpha = new float[capacity];
+  }
+
+  /**
+   * Add a particle if there is room.
+   *
+   * @return true if the particle was added, false if the pool is full
+   */
+  public boolean spawn(float x, float y, float vx, float vy, float lifetime, float particleSize,
+      float r, float g, float b, float a) {
+    if (count == capacity) {
+      return false;
+    }
+    int i = count++;
+    posX[i] = x;
+    posY[i] = y;
+    velX[i] = vx;
+    velY[i] = vy;
+    life[i] = lifetime;
+    maxLife[i] = lifetime;
+    size[i] = particleSize;
+    red[i] = r;
+    green[i] = g;
+    blue[i] = b;
+    alpha[i] = a;
+    return true;
+  }
+
+  /**
+   * Integrate motion, age every particle and compact out the dead ones.
+   *
+   * @param deltaTime Time since last update in seconds
+   * @param gravity   Downward acceleration in pixels per second squared
+   * @param drag      Fraction of velocity kept per second (1 = no drag)
+   */
+  public void update(float deltaTime, float gravity, float drag) {
+    float damping = (float) Math.pow(drag, deltaTime);
+    float gravityStep = gravity * deltaTime;
+    int n = count;
+
+    // Motion pass, no branches so it stays a straight loop over arrays
+    for (int i = 0; i < n; i++) {
+      velX[i] *= damping;
+      velY[i] = velY[i] * damping + gravityStep;
+      posX[i] += velX[i] * deltaTime;
+      posY[i] += velY[i] * deltaTime;
+      life[i] -= deltaTime;
+    }
+
+    // Compaction pass
+    int i = 0;
+    while (i < n) {
+      if (life[i] > 0) {
+        i++;
+        continue;
+      }
+      n--;
+      move(n, i);
+    }
+    count = n;
+  }
+
+  private void move(int from, int to) {
+    posX[to] = posX[from];
+    posY[to] = posY[from];
+    velX[to] = velX[from];
+    velY[to] = velY[from];
+    life[to] = life[from];
+    maxLife[to] = maxLife[from];
+    size[to] = size[from];
+    red[to] = red[from];
+    green[to] = green[from];
+    blue[to] = blue[from];
+    alpha[to] = alpha[from];
+  }
+
+  public void clear() {
+    count = 0;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+}
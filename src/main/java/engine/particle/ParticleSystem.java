@@ -0,0 +1,117 @@
+package engine.particle;
+
+import engine.renderer.Camera;
+import engine.renderer.InstanceBuffer;
+import engine.renderer.Renderer;
+import engine.renderer.Texture;
+
+import java.util.SplittableRandom;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Simulates and draws short-lived effect particles.
+ * Particles are drawn through the renderer's instanced path (or its batched
+ * fallback) with additive blending.
+ */
+public class ParticleSystem {
+  private static ParticleSystem instance;
+
+  private final ParticlePool pool = new ParticlePool(65536);
+  private final InstanceBuffer instances = new InstanceBuffer(4096);
+  private final SplittableRandom random = new SplittableRandom();
+
+  // Simulation settings
+  private float gravity = 200.0f;
+  private float drag = 0.5f;
+
+  private Texture texture;
+
+  private ParticleSystem() {
+    // Private constructor for singleton
+  }
+
+  public static ParticleSystem get() {
+    if (instance == null) {
+      instance = new ParticleSystem();
+    }
+    return instance;
+  }
+
+  /**
+   * Spawn a burst from an emitter.
+   *
+   * @param emitter The burst to spawn
+   * @param x       Burst origin x in world coordinates
+   * @param y       Burst origin y in world coordinates
+   */
+  public void emit(ParticleEmitter emitter, float x, float y) {
+    emitter.emit(pool, x, y, random);
+  }
+
+  /**
+   * Advance every particle.
+   *
+   * @param deltaTime Time since last update in seconds
+   */
+  public void update(double deltaTime) {
+    pool.update((float) deltaTime, gravity, drag);
+  }
+
+  /**
+   * Draw all live particles. Call after {@link Renderer#render()}.
+   *
+   * @param renderer The renderer providing the camera and instanced path
+   */
+  public void render(Renderer renderer) {
+    if (pool.count == 0) {
+      return;
+    }
+    if (texture == null) {
+      texture = Texture.getWhiteTexture();
+    }
+
+    Camera camera = renderer.getCamera();
+    float viewLeft = camera.getViewLeft(), viewTop = camera.getViewTop();
+    float viewRight = camera.getViewRight(), viewBottom = camera.getViewBottom();
+
+    // Build instances for on-screen particles, fading alpha with age
+    instances.clear();
+    ParticlePool p = pool;
+    for (int i = 0, n = p.count; i < n; i++) {
+      float x = p.posX[i], y = p.posY[i], half = p.size[i] / 2;
+      if (x + half < viewLeft || x - half > viewRight || y + half < viewTop || y - half > viewBottom) {
+        continue;
+      }
+      float fade = p.life[i] / p.maxLife[i];
+      instances.add(x, y, p.size[i], p.size[i], 0,
+          p.red[i], p.green[i], p.blue[i], p.alpha[i] * fade, 0, 0, 1, 1);
+    }
+
+    glEnable(GL_TEXTURE_2D);
+    glEnable(GL_BLEND);
+    glBlendFunc(GL_SRC_ALPHA, GL_ONE);
+
+    renderer.getInstancedRenderer().draw(instances, texture, camera);
+
+    glBindTexture(GL_TEXTURE_2D, 0);
+    glDisable(GL_BLEND);
+    glDisable(GL_TEXTURE_2D);
+  }
+
+  public void clear() {
+    pool.clear();
+  }
+
+  public int getParticleCount() {
+    return pool.getCount();
+  }
+
+  public void setGravity(float gravity) {
+    this.gravity = gravity;
+  }
+
+  public void setDrag(float drag) {
+    this.drag = drag;
+  }
+}
@@ -0,0 +1,167 @@
+package engine.renderer;
+
+import engine.core.MouseListener;
+import org.joml.Matrix4f;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * 2D camera describing which part of the world is visible on screen.
+ * Supports panning with a right/middle mouse drag and zooming with the scroll
+ * wheel.
+ */
+public class Camera {
+  // World position of the top-left corner of the view
+  private float x, y;
+  private float zoom = 1.0f;
+
+  // Size of the viewport in screen pixels
+  private float viewportWidth, viewportHeight;
+
+  // Zoom limits and the factor applied per scroll notch
+  private float minZoom = 0.25f;
+  private float maxZoom = 4.0f;
+  private float zoomStep = 1.1f;
+
+  public Camera(float viewportWidth, float viewportHeight) {
+    this.viewportWidth = viewportWidth;
+    this.viewportHeight = viewportHeight;
+  }
+
+  /**
+   * Update the camera from mouse input.
+   * Right or middle button drags pan the view, scrolling zooms around the
+   * cursor.
+   */
+  public void update() {
+    if (MouseListener.isDragging() && (MouseListener.mouseButtonDown(1) || MouseListener.mouseButtonDown(2))) {
+      // Move the world with the cursor
+      x += MouseListener.getDx() / zoom;
+      y += MouseListener.getDy() / zoom;
+    }
+
+    float scroll = MouseListener.getScrollY();
+    if (scroll != 0) {
+      zoomAt(MouseListener.getX(), MouseListener.getY(), (float) Math.pow(zoomStep, scroll));
+    }
+  }
+
+  /**
+   * Zoom by a factor while keeping the world point under the given screen
+   * position fixed.
+   *
+   * @param screenX Screen x coordinate to zoom around
+   * @param screenY Screen y coordinate to zoom around
+   * @param factor  Multiplier applied to the current zoom
+   */
+  public void zoomAt(float screenX, float screenY, float factor) {
+    float worldX = screenToWorldX(screenX);
+    float worldY = screenToWorldY(screenY);
+
+    zoom = Math.max(minZoom, Math.min(maxZoom, zoom * factor));
+
+    x = worldX - screenX / zoom;
+    y = worldY - screenY / zoom;
+  }
+
+  /**
+   * Load the projection for the current view (0,0 at top-left of the view).
+   */
+  public void applyProjection() {
+    glMatrixMode(GL_PROJECTION);
+    glLoadIdentity();
+    glOrtho(getViewLeft(), getViewRight(), getViewBottom(), getViewTop(), -1, 1);
+    glMatrixMode(GL_MODELVIEW);
+    glLoadIdentity();
+  }
+
+  /**
+   * Build the same projection as {@link #applyProjection()} for use in shaders.
+   *
+   * @param dest Matrix receiving the projection
+   * @return dest
+   */
+  public Matrix4f getProjectionMatrix(Matrix4f dest) {
+    return dest.setOrtho(getViewLeft(), getViewRight(), getViewBottom(), getViewTop(), -1, 1);
+  }
+
+  /** Center the view on a world position. */
+  public void centerOn(float worldX, float worldY) {
+    x = worldX - getViewWidth() / 2;
+    y = worldY - getViewHeight() / 2;
+  }
+
+  public float screenToWorldX(float screenX) {
+    return x + screenX / zoom;
+  }
+
+  public float screenToWorldY(float screenY) {
+    return y + screenY / zoom;
+  }
+
+  // View rectangle in world coordinates
+  public float getViewLeft() {
+    return x;
+  }
+
+  public float getViewTop() {
+    return y;
+  }
+
+  public float getViewRight() {
+    return x + getViewWidth();
+  }
+
+  public float getViewBottom() {
+    return y + getViewHeight();
+  }
+
+  public float getViewWidth() {
+    return viewportWidth / zoom;
+  }
+
+  public float getViewHeight() {
+    return viewportHeight / zoom;
+  }
+
+  // Getters and setters
+  public float getX() {
+    return x;
+  }
+
+  public float getY() {
+    return y;
+  }
+
+  public void setPosition(float x, float y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  public float getZoom() {
+    return zoom;
+  }
+
+  public void setZoom(float zoom) {
+    this.zoom = Math.max(minZoom, Math.min(maxZoom, zoom));
+  }
+
+  public void setZoomLimits(float minZoom, float maxZoom) {
+    this.minZoom = minZoom;
+    this.maxZoom = maxZoom;
+    setZoom(zoom);
+  }
+
+  public void setViewportSize(float viewportWidth, float viewportHeight) {
+    this.viewportWidth = viewportWidth;
+    this.viewportHeight = viewportHeight;
+  }
+
+  public float getViewportWidth() {
+    return viewportWidth;
+  }
+
+  public float getViewportHeight() {
+    return viewportHeight;
+  }
+}
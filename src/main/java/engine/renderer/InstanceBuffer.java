@@ -0,0 +1,135 @@
+package engine.renderer;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * CPU-side per-instance attribute data for instanced sprite drawing.
+ * Has no GL dependencies so its contents can be inspected headless.
+ *
+ * <p>Each instance is {@value #FLOATS_PER_INSTANCE} floats:
+ * center x, center y, width, height, rotation (radians), r, g, b, a,
+ * u0, v0, u1, v1.
+ */
+public class InstanceBuffer {
+  public static final int FLOATS_PER_INSTANCE = 13;
+
+  // Offsets of each attribute within an instance
+  public static final int CENTER_X = 0;
+  public static final int CENTER_Y = 1;
+  public static final int WIDTH = 2;
+  public static final int HEIGHT = 3;
+  public static final int ROTATION = 4;
+  public static final int COLOR = 5;
+  public static final int REGION = 9;
+
+  private float[] data;
+  private int instanceCount = 0;
+
+  public InstanceBuffer(int initialCapacity) {
+    this.data = new float[Math.max(1, initialCapacity) * FLOATS_PER_INSTANCE];
+  }
+
+  public void clear() {
+    instanceCount = 0;
+  }
+
+  /**
+   * Append a sprite as an instance.
+   *
+   * @param sprite The sprite to append
+   */
+  public void add(Sprite sprite) {
+    add(sprite.getX() + sprite.getWidth() / 2, sprite.getY() + sprite.getHeight() / 2,
+        sprite.getWidth(), sprite.getHeight(), (float) Math.toRadians(sprite.getRotation()),
+        sprite.getR(), sprite.getG(), sprite.getB(), sprite.getA(),
+        sprite.getU0(), sprite.getV0(), sprite.getU1(), sprite.getV1());
+  }
+
+  /**
+   * Append an instance.
+   *
+   * @param centerX  Center x in world coordinates
+   * @param centerY  Center y in world coordinates
+   * @param width    Quad width
+   * @param height   Quad height
+   * @param rotation Rotation in radians
+   * @param r        Red tint
+   * @param g        Green tint
+   * @param b        Blue tint
+   * @param a        Alpha
+   * @param u0       Left texture coordinate
+   * @param v0       Top texture coordinate
+   * @param u1       Right texture coordinate
+   * @param v1       Bottom texture coordinate
+   */
+  public void add(float centerX, float centerY, float width, float height, float rotation,
+      float r, float g, float b, float a, float u0, float v0, float u1, float v1) {
+    int offset = instanceCount * FLOATS_PER_INSTANCE;
+    if (offset + FLOATS_PER_INSTANCE > data.length) {
+      data = Arrays.copyOf(data, data.length * 2);
+    }
+    float[] d = data;
+    d[offset + CENTER_X] = centerX;
+    d[offset + CENTER_Y] = centerY;
+    d[offset + WIDTH] = width;
+    d[offset + HEIGHT] = height;
+    d[offset + ROTATION] = rotation;
+    d[offset + COLOR] = r;
+    d[offset + COLOR + 1] = g;
+    d[offset + COLOR + 2] = b;
+    d[offset + COLOR + 3] = a;
+    d[offset + REGION] = u0;
+    d[offset + REGION + 1] = v0;
+    d[offset + REGION + 2] = u1;
+    d[offset + REGION + 3] = v1;
+    instanceCount++;
+  }
+
+  /**
+   * Read one attribute of an instance.
+   *
+   * @param instance  Instance index
+   * @param attribute Attribute offset, e.g. {@link #CENTER_X}
+   * @return The attribute value
+   */
+  public float get(int instance, int attribute) {
+    return data[instance * FLOATS_PER_INSTANCE + attribute];
+  }
+
+  /** Backing array, valid up to {@link #getFloatCount()}. */
+  public float[] getData() {
+    return data;
+  }
+
+  /**
+   * Capacity an upload buffer needs to hold this buffer's data. Grows by at
+   * least doubling so repeated uploads of a growing buffer reallocate rarely.
+   *
+   * @param capacity Current capacity of the upload buffer, in floats
+   * @return {@code capacity} if it's enough, otherwise the new capacity
+   */
+  public int uploadCapacity(int capacity) {
+    int floats = getFloatCount();
+    return capacity >= floats ? capacity : Math.max(floats, capacity * 2);
+  }
+
+  /**
+   * Copy the instances to the start of an upload buffer and flip it, ready
+   * to be handed to GL.
+   *
+   * @param out Buffer with room for {@link #getFloatCount()} floats
+   */
+  public void packInto(FloatBuffer out) {
+    out.clear();
+    out.put(data, 0, getFloatCount()).flip();
+  }
+
+  public int getFloatCount() {
+    return instanceCount * FLOATS_PER_INSTANCE;
+  }
+
+  public int getInstanceCount() {
+    return instanceCount;
+  }
+}
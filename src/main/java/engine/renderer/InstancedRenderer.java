@@ -0,0 +1,216 @@
+package engine.renderer;
+
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Draws many copies of one textured quad with a single instanced draw call.
+ * Falls back to the batched {@link SpriteBatch} path when the context doesn't
+ * support instancing (e.g. legacy macOS contexts).
+ */
+public class InstancedRenderer {
+  private static final int STRIDE = InstanceBuffer.FLOATS_PER_INSTANCE * Float.BYTES;
+
+  private static final String VERTEX_SOURCE = String.join("\n",
+      "#version 330 core",
+      "layout(location = 0) in vec2 aCorner;",
+      "layout(location = 1) in vec4 aRect;",
+      "layout(location = 2) in float aRotation;",
+      "layout(location = 3) in vec4 aColor;",
+      "layout(location = 4) in vec4 aRegion;",
+      "uniform mat4 uProjection;",
+      "out vec2 vTexCoord;",
+      "out vec4 vColor;",
+      "void main() {",
+      "  vec2 local = aCorner * aRect.zw;",
+      "  float c = cos(aRotation);",
+      "  float s = sin(aRotation);",
+      "  vec2 world = aRect.xy + vec2(local.x * c - local.y * s, local.x * s + local.y * c);",
+      "  gl_Position = uProjection * vec4(world, 0.0, 1.0);",
+      "  vTexCoord = mix(aRegion.xy, aRegion.zw, aCorner + 0.5);",
+      "  vColor = aColor;",
+      "}");
+
+  private static final String FRAGMENT_SOURCE = String.join("\n",
+      "#version 330 core",
+      "in vec2 vTexCoord;",
+      "in vec4 vColor;",
+      "uniform sampler2D uTexture;",
+      "out vec4 fragColor;",
+      "void main() {",
+      "  fragColor = texture(uTexture, vTexCoord) * vColor;",
+      "}");
+
+  // Unit quad as a triangle strip, corners at +-0.5
+  private static final float[] UNIT_QUAD = { -0.5f, -0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f };
+
+  private final boolean supported;
+  private final SpriteBatch fallbackBatch;
+
+  private Shader shader;
+  private int vertexArrayId;
+  private int quadBufferId;
+  private int instanceBufferId;
+  private FloatBuffer uploadBuffer = BufferUtils.createFloatBuffer(1024 * InstanceBuffer.FLOATS_PER_INSTANCE);
+  private final Matrix4f projection = new Matrix4f();
+
+  // Statistics since the last reset
+  private int drawCalls = 0;
+  private int instancesDrawn = 0;
+
+  /**
+   * Create the renderer. Must be called with a current GL context.
+   *
+   * @param fallbackBatch Batch used when instancing isn't available
+   */
+  public InstancedRenderer(SpriteBatch fallbackBatch) {
+    this.fallbackBatch = fallbackBatch;
+    this.supported = isInstancingSupported();
+    if (supported) {
+      initInstancing();
+    }
+  }
+
+  /** Check whether the current GL context can draw instanced quads. */
+  public static boolean isInstancingSupported() {
+    GLCapabilities caps = GL.getCapabilities();
+    return caps != null && caps.OpenGL33;
+  }
+
+  private void initInstancing() {
+    shader = new Shader(VERTEX_SOURCE, FRAGMENT_SOURCE);
+
+    vertexArrayId = glGenVertexArrays();
+    glBindVertexArray(vertexArrayId);
+
+    // Shared unit quad
+    quadBufferId = glGenBuffers();
+    glBindBuffer(GL_ARRAY_BUFFER, quadBufferId);
+    FloatBuffer quad = BufferUtils.createFloatBuffer(UNIT_QUAD.length);
+    quad.put(UNIT_QUAD).flip();
+    glBufferData(GL_ARRAY_BUFFER, quad, GL_STATIC_DRAW);
+    glEnableVertexAttribArray(0);
+    glVertexAttribPointer(0, 2, GL_FLOAT, false, 2 * Float.BYTES, 0L);
+
+    // Per-instance attributes, advanced once per instance
+    instanceBufferId = glGenBuffers();
+    glBindBuffer(GL_ARRAY_BUFFER, instanceBufferId);
+    instanceAttribute(1, 4, InstanceBuffer.CENTER_X);
+    instanceAttribute(2, 1, InstanceBuffer.ROTATION);
+    instanceAttribute(3, 4, InstanceBuffer.COLOR);
+    instanceAttribute(4, 4, InstanceBuffer.REGION);
+
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+    glBindVertexArray(0);
+  }
+
+  private static void instanceAttribute(int location, int size, int offset) {
+    glEnableVertexAttribArray(location);
+    glVertexAttribPointer(location, size, GL_FLOAT, false, STRIDE, (long) offset * Float.BYTES);
+    glVertexAttribDivisor(location, 1);
+  }
+
+  /**
+   * Draw every instance in the buffer with the given texture.
+   * Texturing and blending must already be enabled.
+   *
+   * @param instances The instances to draw
+   * @param texture   Texture shared by all instances
+   * @param camera    Camera providing the projection
+   */
+  public void draw(InstanceBuffer instances, Texture texture, Camera camera) {
+    int count = instances.getInstanceCount();
+    if (count == 0) {
+      return;
+    }
+
+    if (!supported) {
+      drawFallback(instances, texture);
+      return;
+    }
+
+    // Upload instance data, orphaning the previous buffer storage
+    int capacity = instances.uploadCapacity(uploadBuffer.capacity());
+    if (capacity != uploadBuffer.capacity()) {
+      uploadBuffer = BufferUtils.createFloatBuffer(capacity);
+    }
+    instances.packInto(uploadBuffer);
+
+    glBindBuffer(GL_ARRAY_BUFFER, instanceBufferId);
+    glBufferData(GL_ARRAY_BUFFER, (long) instances.getFloatCount() * Float.BYTES, GL_STREAM_DRAW);
+    glBufferSubData(GL_ARRAY_BUFFER, 0, uploadBuffer);
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+    shader.bind();
+    shader.setUniform("uProjection", camera.getProjectionMatrix(projection));
+    shader.setUniform("uTexture", 0);
+    texture.bind();
+
+    glBindVertexArray(vertexArrayId);
+    glDrawArraysInstanced(GL_TRIANGLE_STRIP, 0, 4, count);
+    glBindVertexArray(0);
+
+    shader.unbind();
+
+    drawCalls++;
+    instancesDrawn += count;
+  }
+
+  private void drawFallback(InstanceBuffer instances, Texture texture) {
+    float[] d = instances.getData();
+    int textureId = texture.getTextureId();
+
+    fallbackBatch.begin();
+    for (int i = 0, n = instances.getInstanceCount(); i < n; i++) {
+      int o = i * InstanceBuffer.FLOATS_PER_INSTANCE;
+      fallbackBatch.drawRotatedQuad(textureId,
+          d[o + InstanceBuffer.CENTER_X], d[o + InstanceBuffer.CENTER_Y],
+          d[o + InstanceBuffer.WIDTH], d[o + InstanceBuffer.HEIGHT], d[o + InstanceBuffer.ROTATION],
+          d[o + InstanceBuffer.REGION], d[o + InstanceBuffer.REGION + 1],
+          d[o + InstanceBuffer.REGION + 2], d[o + InstanceBuffer.REGION + 3],
+          d[o + InstanceBuffer.COLOR], d[o + InstanceBuffer.COLOR + 1],
+          d[o + InstanceBuffer.COLOR + 2], d[o + InstanceBuffer.COLOR + 3]);
+    }
+    fallbackBatch.end();
+
+    drawCalls += fallbackBatch.getDrawCalls();
+    instancesDrawn += instances.getInstanceCount();
+  }
+
+  public boolean isSupported() {
+    return supported;
+  }
+
+  public void resetStats() {
+    drawCalls = 0;
+    instancesDrawn = 0;
+  }
+
+  public int getDrawCalls() {
+    return drawCalls;
+  }
+
+  public int getInstancesDrawn() {
+    return instancesDrawn;
+  }
+
+  public void delete() {
+    if (supported) {
+      shader.delete();
+      glDeleteBuffers(quadBufferId);
+      glDeleteBuffers(instanceBufferId);
+      glDeleteVertexArrays(vertexArrayId);
+    }
+  }
+}
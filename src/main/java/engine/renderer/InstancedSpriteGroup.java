@@ -0,0 +1,85 @@
+package engine.renderer;
+
+import java.util.Arrays;
+
+/**
+ * A set of sprites sharing one texture that are drawn together with a single
+ * instanced draw call, e.g. every unit of the same type in a large fight.
+ */
+public class InstancedSpriteGroup {
+  private final Texture texture;
+  private Sprite[] sprites = new Sprite[64];
+  private int spriteCount = 0;
+  private final InstanceBuffer instances = new InstanceBuffer(64);
+
+  public InstancedSpriteGroup(Texture texture) {
+    this.texture = texture;
+  }
+
+  /**
+   * Add a sprite to the group. The sprite's own texture is ignored.
+   *
+   * @param sprite The sprite to add
+   */
+  public void add(Sprite sprite) {
+    if (sprite.groupIndex >= 0) {
+      return;
+    }
+    if (spriteCount == sprites.length) {
+      sprites = Arrays.copyOf(sprites, spriteCount * 2);
+    }
+    sprite.groupIndex = spriteCount;
+    sprites[spriteCount++] = sprite;
+  }
+
+  /**
+   * Remove a sprite from the group.
+   *
+   * @param sprite The sprite to remove
+   */
+  public void remove(Sprite sprite) {
+    int index = sprite.groupIndex;
+    if (index < 0 || index >= spriteCount || sprites[index] != sprite) {
+      return;
+    }
+    Sprite last = sprites[--spriteCount];
+    sprites[index] = last;
+    last.groupIndex = index;
+    sprites[spriteCount] = null;
+    sprite.groupIndex = -1;
+  }
+
+  /**
+   * Fill the instance buffer with every sprite intersecting the view.
+   *
+   * @param camera The camera to cull against
+   * @return The filled instance buffer
+   */
+  InstanceBuffer buildInstances(Camera camera) {
+    float viewLeft = camera.getViewLeft(), viewTop = camera.getViewTop();
+    float viewRight = camera.getViewRight(), viewBottom = camera.getViewBottom();
+
+    instances.clear();
+    for (int i = 0; i < spriteCount; i++) {
+      Sprite sprite = sprites[i];
+      if (sprite.getBoundsRight() >= viewLeft && sprite.getBoundsLeft() <= viewRight
+          && sprite.getBoundsBottom() >= viewTop && sprite.getBoundsTop() <= viewBottom) {
+        instances.add(sprite);
+      }
+    }
+    return instances;
+  }
+
+  public Texture getTexture() {
+    return texture;
+  }
+
+  public int getSpriteCount() {
+    return spriteCount;
+  }
+
+  /** Instances written by the last {@link #buildInstances(Camera)} call. */
+  public InstanceBuffer getInstances() {
+    return instances;
+  }
+}
@@ -0,0 +1,27 @@
+package engine.renderer;
+
+/**
+ * Something that accepts textured quads, e.g. a {@link SpriteBatch} drawn this
+ * frame or a retained UI vertex buffer.
+ */
+public interface QuadSink {
+  /**
+   * Add an axis-aligned textured quad.
+   *
+   * @param textureId Texture to draw with
+   * @param x         Left edge
+   * @param y         Top edge
+   * @param width     Quad width
+   * @param height    Quad height
+   * @param u0        Left texture coordinate
+   * @param v0        Top texture coordinate
+   * @param u1        Right texture coordinate
+   * @param v1        Bottom texture coordinate
+   * @param r         Red tint
+   * @param g         Green tint
+   * @param b         Blue tint
+   * @param a         Alpha
+   */
+  void drawQuad(int textureId, float x, float y, float width, float height,
+      float u0, float v0, float u1, float v1, float r, float g, float b, float a);
+}
@@ -0,0 +1,91 @@
+package engine.renderer;
+
+import java.util.Arrays;
+
+/**
+ * Stable LSD radix sort of unsigned 64-bit keys with an int payload.
+ * Scratch buffers are kept between calls so sorting doesn't allocate once the
+ * buffers have grown to the working size.
+ */
+public class RadixSort {
+  private static final int RADIX_BITS = 8;
+  private static final int BUCKETS = 1 << RADIX_BITS;
+  private static final int PASSES = Long.SIZE / RADIX_BITS;
+
+  private long[] scratchKeys = new long[0];
+  private int[] scratchValues = new int[0];
+  private final int[] counts = new int[BUCKETS * PASSES];
+
+  /**
+   * Sort the first {@code count} keys in ascending unsigned order, moving the
+   * values along with them. Equal keys keep their relative order.
+   *
+   * @param keys   Keys to sort
+   * @param values Payload moved together with each key
+   * @param count  Number of entries to sort
+   */
+  public void sort(long[] keys, int[] values, int count) {
+    if (count < 2) {
+      return;
+    }
+    ensureCapacity(count);
+
+    // Build the histograms for every pass in a single sweep
+    Arrays.fill(counts, 0);
+    for (int i = 0; i < count; i++) {
+      long key = keys[i];
+      for (int pass = 0; pass < PASSES; pass++) {
+        counts[pass * BUCKETS + (int) ((key >>> (pass * RADIX_BITS)) & (BUCKETS - 1))]++;
+      }
+    }
+
+    long[] srcKeys = keys, dstKeys = scratchKeys;
+    int[] srcValues = values, dstValues = scratchValues;
+
+    for (int pass = 0; pass < PASSES; pass++) {
+      int base = pass * BUCKETS;
+      int shift = pass * RADIX_BITS;
+
+      // Skip passes where every key has the same digit
+      if (counts[base + (int) ((srcKeys[0] >>> shift) & (BUCKETS - 1))] == count) {
+        continue;
+      }
+
+      // Turn counts into starting offsets
+      int offset = 0;
+      for (int b = 0; b < BUCKETS; b++) {
+        int c = counts[base + b];
+        counts[base + b] = offset;
+        offset += c;
+      }
+
+      for (int i = 0; i < count; i++) {
+        long key = srcKeys[i];
+        int destination = counts[base + (int) ((key >>> shift) & (BUCKETS - 1))]++;
+        dstKeys[destination] = key;
+        dstValues[destination] = srcValues[i];
+      }
+
+      long[] tk = srcKeys;
+      srcKeys = dstKeys;
+      dstKeys = tk;
+      int[] tv = srcValues;
+      srcValues = dstValues;
+      dstValues = tv;
+    }
+
+    // Results ended up in the scratch buffers, copy them back
+    if (srcKeys != keys) {
+      System.arraycopy(srcKeys, 0, keys, 0, count);
+      System.arraycopy(srcValues, 0, values, 0, count);
+    }
+  }
+
+  private void ensureCapacity(int count) {
+    if (scratchKeys.length < count) {
+      int capacity = Math.max(count, scratchKeys.length * 2);
+      scratchKeys = new long[capacity];
+      scratchValues = new int[capacity];
+    }
+  }
+}
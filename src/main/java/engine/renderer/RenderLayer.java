@@ -0,0 +1,19 @@
+package engine.renderer;
+
+/**
+ * Draw layers used in sprite sort keys. Lower layers are drawn first.
+ */
+public final class RenderLayer {
+  public static final int BACKGROUND = 0;
+  public static final int TILES = 10;
+  public static final int PROPS = 20;
+  public static final int CHARACTERS = 30;
+  public static final int EFFECTS = 40;
+  public static final int UI = 200;
+
+  // Highest layer that fits in a sort key
+  public static final int MAX = 255;
+
+  private RenderLayer() {
+  }
+}
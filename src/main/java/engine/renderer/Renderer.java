@@ -1,13 +1,56 @@
 package engine.renderer;
 
+import engine.metrics.Gauge;
+import engine.metrics.MetricsRegistry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
 
 public class Renderer {
   private static Renderer instance;
-  private final List<Sprite> sprites = new ArrayList<>();
+
+  private static final Gauge SPRITES = MetricsRegistry.get().gauge("engine_sprites", "Registered sprites");
+  private static final Gauge VISIBLE_SPRITES =
+      MetricsRegistry.get().gauge("engine_visible_sprites", "Sprites drawn in the last frame");
+  private static final Gauge DRAW_CALLS =
+      MetricsRegistry.get().gauge("engine_draw_calls", "Draw calls issued in the last frame");
+  private static final Gauge SPRITE_UPLOAD_BYTES = MetricsRegistry.get().gauge("engine_sprite_upload_bytes",
+      "Sprite vertex data sent to the GPU in the last frame");
+
+  // Registered sprites, densely packed. Each sprite remembers its slot so add
+  // and remove are O(1)
+  private Sprite[] sprites = new Sprite[256];
+  private int spriteCount = 0;
+
+  // Camera and visibility culling
+  private final Camera camera = new Camera(1920, 1080);
+  private final SpatialGrid spatialGrid = new SpatialGrid(256);
+  private final List<Sprite> visibleSprites = new ArrayList<>();
+
+  // Draw ordering and batching
+  private long[] sortKeys = new long[256];
+  private int[] sortOrder = new int[256];
+  private final RadixSort radixSort = new RadixSort();
+  private long nextRegistration = 0;
+  private final SpriteBatch spriteBatch = new SpriteBatch(4096);
+
+  // Retained buffers for sprites flagged as static
+  private final StaticGeometry staticGeometry = new StaticGeometry(1024);
+
+  // Chunked tile maps, drawn beneath everything else
+  private final List<TileMapRenderer> tileMaps = new ArrayList<>();
+
+  // Groups of identical sprites drawn with instancing
+  private final List<InstancedSpriteGroup> instancedGroups = new ArrayList<>();
+  private InstancedRenderer instancedRenderer;
+
+  // Statistics for the last rendered frame
+  private int visibleSpriteCount = 0;
+  private int culledSpriteCount = 0;
+  private int drawCallCount = 0;
+  private long uploadedBytes = 0;
 
   private Renderer() {
     // Private constructor for singleton
@@ -21,18 +64,89 @@ public class Renderer {
   }
 
   public void add(Sprite sprite) {
-    sprites.add(sprite);
+    if (sprite.isStatic()) {
+      staticGeometry.add(sprite);
+      return;
+    }
+    if (sprite.rendererIndex >= 0) {
+      return; // Already registered
+    }
+    if (spriteCount == sprites.length) {
+      sprites = Arrays.copyOf(sprites, spriteCount * 2);
+    }
+    sprite.rendererIndex = spriteCount;
+    sprite.registration = nextRegistration++;
+    sprites[spriteCount++] = sprite;
+    spatialGrid.insert(sprite);
   }
 
   public void remove(Sprite sprite) {
-    sprites.remove(sprite);
+    if (sprite.isStatic()) {
+      staticGeometry.remove(sprite);
+      return;
+    }
+    int index = sprite.rendererIndex;
+    if (index < 0 || index >= spriteCount || sprites[index] != sprite) {
+      return;
+    }
+
+    // Move the last sprite into the freed slot
+    Sprite last = sprites[--spriteCount];
+    sprites[index] = last;
+    last.rendererIndex = index;
+    sprites[spriteCount] = null;
+
+    sprite.rendererIndex = -1;
+    spatialGrid.remove(sprite);
+  }
+
+  public void addGroup(InstancedSpriteGroup group) {
+    if (!instancedGroups.contains(group)) {
+      instancedGroups.add(group);
+    }
+  }
+
+  public void removeGroup(InstancedSpriteGroup group) {
+    instancedGroups.remove(group);
+  }
+
+  public void addTileMap(TileMapRenderer tileMap) {
+    if (!tileMaps.contains(tileMap)) {
+      tileMaps.add(tileMap);
+    }
+  }
+
+  public void removeTileMap(TileMapRenderer tileMap) {
+    tileMaps.remove(tileMap);
   }
 
   public void clear() {
-    sprites.clear();
+    for (int i = 0; i < spriteCount; i++) {
+      sprites[i].rendererIndex = -1;
+      sprites[i] = null;
+    }
+    spriteCount = 0;
+    spatialGrid.clear();
+    staticGeometry.clear();
+    instancedGroups.clear();
+    tileMaps.clear();
   }
 
   public void render() {
+    // Load the projection for the current camera view
+    camera.applyProjection();
+
+    // Only draw sprites that intersect the view
+    visibleSprites.clear();
+    spatialGrid.query(camera.getViewLeft(), camera.getViewTop(),
+        camera.getViewRight(), camera.getViewBottom(), visibleSprites);
+
+    visibleSpriteCount = visibleSprites.size();
+    culledSpriteCount = spriteCount - visibleSpriteCount;
+
+    // Order by layer, depth and texture
+    sortVisibleSprites();
+
     // Enable texturing
     glEnable(GL_TEXTURE_2D);
 
@@ -40,25 +154,122 @@ public class Renderer {
     glEnable(GL_BLEND);
     glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
 
-    // Render all sprites
-    for (Sprite sprite : sprites) {
-      sprite.render();
+    // Tile maps first, one draw call per visible chunk
+    int tileMapDrawCalls = 0;
+    for (TileMapRenderer tileMap : tileMaps) {
+      tileMap.render(camera);
+      tileMapDrawCalls += tileMap.getDrawCallCount();
     }
 
+    // Static geometry next, it only uploads sprites that changed
+    staticGeometry.render(camera);
+
+    // One draw call per group of identical sprites
+    if (instancedRenderer != null) {
+      instancedRenderer.resetStats();
+    }
+    for (InstancedSpriteGroup group : instancedGroups) {
+      getInstancedRenderer().draw(group.buildInstances(camera), group.getTexture(), camera);
+    }
+
+    // Render visible sprites, one draw call per texture run
+    spriteBatch.begin();
+    for (int i = 0; i < visibleSpriteCount; i++) {
+      Sprite sprite = visibleSprites.get(sortOrder[i]);
+      spriteBatch.draw(sprite);
+      sprite.clearDirty();
+    }
+    spriteBatch.end();
+    drawCallCount = spriteBatch.getDrawCalls() + staticGeometry.getDrawCallCount()
+        + (instancedRenderer != null ? instancedRenderer.getDrawCalls() : 0) + tileMapDrawCalls;
+    // Batched quads are streamed every frame, static ones only when they change
+    uploadedBytes = (long) spriteBatch.getQuadsDrawn() * SpriteBatch.FLOATS_PER_QUAD * Float.BYTES
+        + staticGeometry.getUploadedBytes();
+
+    glBindTexture(GL_TEXTURE_2D, 0);
+
     // Disable texturing
     glDisable(GL_TEXTURE_2D);
 
     // Disable transparency
     glDisable(GL_BLEND);
+
+    SPRITES.set(getSpriteCount());
+    VISIBLE_SPRITES.set(visibleSpriteCount);
+    DRAW_CALLS.set(drawCallCount);
+    SPRITE_UPLOAD_BYTES.set(uploadedBytes);
+  }
+
+  private void sortVisibleSprites() {
+    int count = visibleSpriteCount;
+    if (sortKeys.length < count) {
+      sortKeys = new long[Math.max(count, sortKeys.length * 2)];
+      sortOrder = new int[sortKeys.length];
+    }
+    // The grid returns sprites in cell order, which shifts as they move. Put
+    // them in registration order first so the stable sort below breaks key
+    // ties the same way every frame; registrations rarely reach past a few
+    // bytes, so this costs two or three radix passes.
+    for (int i = 0; i < count; i++) {
+      sortKeys[i] = visibleSprites.get(i).registration;
+      sortOrder[i] = i;
+    }
+    radixSort.sort(sortKeys, sortOrder, count);
+    for (int i = 0; i < count; i++) {
+      sortKeys[i] = visibleSprites.get(sortOrder[i]).getSortKey();
+    }
+    radixSort.sort(sortKeys, sortOrder, count);
   }
 
   // Additional utility methods as needed
   public void init() {
     // Set up projection matrix for 2D rendering (0,0 at top-left)
-    glMatrixMode(GL_PROJECTION);
-    glLoadIdentity();
-    glOrtho(0, 1920, 1080, 0, -1, 1);
-    glMatrixMode(GL_MODELVIEW);
-    glLoadIdentity();
+    camera.applyProjection();
+
+    // The instanced renderer compiles its shader on first use, see getInstancedRenderer()
+  }
+
+  public Camera getCamera() {
+    return camera;
+  }
+
+  /** Number of sprites drawn in the last frame. */
+  public int getVisibleSpriteCount() {
+    return visibleSpriteCount;
+  }
+
+  /** Number of sprites skipped by culling in the last frame. */
+  public int getCulledSpriteCount() {
+    return culledSpriteCount;
+  }
+
+  /** Number of draw calls issued for sprites in the last frame. */
+  public int getDrawCallCount() {
+    return drawCallCount;
+  }
+
+  /** Bytes of batched and static sprite vertex data uploaded in the last frame. */
+  public long getUploadedBytes() {
+    return uploadedBytes;
+  }
+
+  public int getSpriteCount() {
+    return spriteCount + staticGeometry.getSpriteCount();
+  }
+
+  /** The instanced renderer, created on first use since the first frame rarely needs it. */
+  public InstancedRenderer getInstancedRenderer() {
+    if (instancedRenderer == null) {
+      // Instancing needs a current context to check capabilities
+      instancedRenderer = new InstancedRenderer(spriteBatch);
+      if (!instancedRenderer.isSupported()) {
+        System.out.println("Instanced rendering not supported, using batched fallback");
+      }
+    }
+    return instancedRenderer;
+  }
+
+  public StaticGeometry getStaticGeometry() {
+    return staticGeometry;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package engine.renderer;
+
+import org.joml.Matrix4f;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+/**
+ * A linked GLSL shader program.
+ */
+public class Shader {
+  private int programId;
+
+  public Shader(String vertexSource, String fragmentSource) {
+    int vertexShader = compile(GL_VERTEX_SHADER, vertexSource);
+    int fragmentShader = compile(GL_FRAGMENT_SHADER, fragmentSource);
+
+    programId = glCreateProgram();
+    glAttachShader(programId, vertexShader);
+    glAttachShader(programId, fragmentShader);
+    glLinkProgram(programId);
+
+    // Shaders are no longer needed once linked
+    glDeleteShader(vertexShader);
+    glDeleteShader(fragmentShader);
+
+    if (glGetProgrami(programId, GL_LINK_STATUS) == GL_FALSE) {
+      String log = glGetProgramInfoLog(programId);
+      glDeleteProgram(programId);
+      throw new RuntimeException("Failed to link shader program: " + log);
+    }
+  }
+
+  private static int compile(int type, String source) {
+    int shader = glCreateShader(type);
+    glShaderSource(shader, source);
+    glCompileShader(shader);
+    if (glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
+      String log = glGetShaderInfoLog(shader);
+      glDeleteShader(shader);
+      throw new RuntimeException("Failed to compile shader: " + log);
+    }
+    return shader;
+  }
+
+  public void bind() {
+    glUseProgram(programId);
+  }
+
+  public void unbind() {
+    glUseProgram(0);
+  }
+
+  public void setUniform(String name, Matrix4f matrix) {
+    try (MemoryStack stack = MemoryStack.stackPush()) {
+      FloatBuffer buffer = stack.mallocFloat(16);
+      matrix.get(buffer);
+      glUniformMatrix4fv(glGetUniformLocation(programId, name), false, buffer);
+    }
+  }
+
+  public void setUniform(String name, int value) {
+    glUniform1i(glGetUniformLocation(programId, name), value);
+  }
+
+  public void delete() {
+    if (programId != 0) {
+      glDeleteProgram(programId);
+      programId = 0;
+    }
+  }
+
+  public int getProgramId() {
+    return programId;
+  }
+}
@@ -0,0 +1,50 @@
+package engine.renderer;
+
+/**
+ * Packs sprite draw ordering into a single 64-bit key.
+ *
+ * <pre>
+ * | layer (8) | y-depth (24) | texture (16) | material (16) |
+ * </pre>
+ *
+ * Sorting keys as unsigned values draws lower layers first, then sprites
+ * further up the screen, then groups sprites sharing a texture and material so
+ * they end up in the same batch.
+ */
+public final class SortKey {
+  private static final int DEPTH_BITS = 24;
+  private static final int DEPTH_BIAS = 1 << (DEPTH_BITS - 1);
+  private static final int DEPTH_MAX = (1 << DEPTH_BITS) - 1;
+
+  private SortKey() {
+  }
+
+  /**
+   * Build a sort key.
+   *
+   * @param layer    Draw layer (0-255)
+   * @param depth    Depth within the layer, usually the bottom edge in pixels
+   * @param texture  Texture id, only the low 16 bits are used
+   * @param material Material id, only the low 16 bits are used
+   * @return The packed key
+   */
+  public static long pack(int layer, float depth, int texture, int material) {
+    int depthBits = Math.max(0, Math.min(DEPTH_MAX, (int) Math.floor(depth) + DEPTH_BIAS));
+    return ((long) (layer & 0xFF) << 56)
+        | ((long) depthBits << 32)
+        | ((long) (texture & 0xFFFF) << 16)
+        | (material & 0xFFFF);
+  }
+
+  public static int layer(long key) {
+    return (int) (key >>> 56);
+  }
+
+  public static int texture(long key) {
+    return (int) (key >>> 16) & 0xFFFF;
+  }
+
+  public static int material(long key) {
+    return (int) key & 0xFFFF;
+  }
+}
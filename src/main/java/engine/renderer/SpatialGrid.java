@@ -0,0 +1,182 @@
+package engine.renderer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform hashed grid of sprite bounds used to find the sprites inside a view
+ * rectangle without touching every sprite in the scene.
+ */
+public class SpatialGrid {
+  private final float cellSize;
+  private final Map<Long, List<Sprite>> cells = new HashMap<>();
+
+  // Incremented for every query so sprites spanning several cells are only
+  // reported once
+  private int queryStamp = 0;
+
+  public SpatialGrid(float cellSize) {
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Start tracking a sprite.
+   *
+   * @param sprite The sprite to insert
+   */
+  public void insert(Sprite sprite) {
+    if (sprite.grid != null) {
+      sprite.grid.remove(sprite);
+    }
+    sprite.grid = this;
+    computeCellRange(sprite);
+    addToCells(sprite);
+  }
+
+  /**
+   * Stop tracking a sprite.
+   *
+   * @param sprite The sprite to remove
+   */
+  public void remove(Sprite sprite) {
+    if (sprite.grid != this) {
+      return;
+    }
+    removeFromCells(sprite);
+    sprite.grid = null;
+  }
+
+  /**
+   * Move a sprite to the cells matching its current bounds.
+   * Cheap when the sprite stays inside the same cells.
+   *
+   * @param sprite The sprite whose bounds changed
+   */
+  public void update(Sprite sprite) {
+    int oldMinX = sprite.cellMinX, oldMinY = sprite.cellMinY;
+    int oldMaxX = sprite.cellMaxX, oldMaxY = sprite.cellMaxY;
+    computeCellRange(sprite);
+
+    if (oldMinX == sprite.cellMinX && oldMinY == sprite.cellMinY
+        && oldMaxX == sprite.cellMaxX && oldMaxY == sprite.cellMaxY) {
+      return;
+    }
+
+    // Remove using the old range, then re-add with the new one
+    int newMinX = sprite.cellMinX, newMinY = sprite.cellMinY;
+    int newMaxX = sprite.cellMaxX, newMaxY = sprite.cellMaxY;
+    sprite.cellMinX = oldMinX;
+    sprite.cellMinY = oldMinY;
+    sprite.cellMaxX = oldMaxX;
+    sprite.cellMaxY = oldMaxY;
+    removeFromCells(sprite);
+
+    sprite.cellMinX = newMinX;
+    sprite.cellMinY = newMinY;
+    sprite.cellMaxX = newMaxX;
+    sprite.cellMaxY = newMaxY;
+    addToCells(sprite);
+  }
+
+  /**
+   * Collect every sprite whose bounds intersect the given rectangle.
+   *
+   * @param left   Left edge of the rectangle
+   * @param top    Top edge of the rectangle
+   * @param right  Right edge of the rectangle
+   * @param bottom Bottom edge of the rectangle
+   * @param out    List receiving the intersecting sprites
+   */
+  public void query(float left, float top, float right, float bottom, List<Sprite> out) {
+    queryStamp++;
+
+    int minX = toCell(left), minY = toCell(top);
+    int maxX = toCell(right), maxY = toCell(bottom);
+
+    for (int cy = minY; cy <= maxY; cy++) {
+      for (int cx = minX; cx <= maxX; cx++) {
+        List<Sprite> cell = cells.get(cellKey(cx, cy));
+        if (cell == null) {
+          continue;
+        }
+        for (int i = 0, n = cell.size(); i < n; i++) {
+          Sprite sprite = cell.get(i);
+          if (sprite.queryStamp == queryStamp) {
+            continue; // Already seen through another cell
+          }
+          sprite.queryStamp = queryStamp;
+
+          if (sprite.getBoundsRight() >= left && sprite.getBoundsLeft() <= right
+              && sprite.getBoundsBottom() >= top && sprite.getBoundsTop() <= bottom) {
+            out.add(sprite);
+          }
+        }
+      }
+    }
+  }
+
+  /** Remove all sprites from the grid. */
+  public void clear() {
+    for (List<Sprite> cell : cells.values()) {
+      for (Sprite sprite : cell) {
+        sprite.grid = null;
+      }
+    }
+    cells.clear();
+  }
+
+  public float getCellSize() {
+    return cellSize;
+  }
+
+  public int getCellCount() {
+    return cells.size();
+  }
+
+  private void computeCellRange(Sprite sprite) {
+    sprite.cellMinX = toCell(sprite.getBoundsLeft());
+    sprite.cellMinY = toCell(sprite.getBoundsTop());
+    sprite.cellMaxX = toCell(sprite.getBoundsRight());
+    sprite.cellMaxY = toCell(sprite.getBoundsBottom());
+  }
+
+  private void addToCells(Sprite sprite) {
+    for (int cy = sprite.cellMinY; cy <= sprite.cellMaxY; cy++) {
+      for (int cx = sprite.cellMinX; cx <= sprite.cellMaxX; cx++) {
+        cells.computeIfAbsent(cellKey(cx, cy), k -> new ArrayList<>()).add(sprite);
+      }
+    }
+  }
+
+  private void removeFromCells(Sprite sprite) {
+    for (int cy = sprite.cellMinY; cy <= sprite.cellMaxY; cy++) {
+      for (int cx = sprite.cellMinX; cx <= sprite.cellMaxX; cx++) {
+        long key = cellKey(cx, cy);
+        List<Sprite> cell = cells.get(key);
+        if (cell == null) {
+          continue;
+        }
+        // Swap-remove, order inside a cell doesn't matter
+        int index = cell.indexOf(sprite);
+        if (index >= 0) {
+          int last = cell.size() - 1;
+          cell.set(index, cell.get(last));
+          cell.remove(last);
+        }
+        if (cell.isEmpty()) {
+          cells.remove(key);
+        }
+      }
+    }
+  }
+
+  private int toCell(float coordinate) {
+    return (int) Math.floor(coordinate / cellSize);
+  }
+
+  private static long cellKey(int cx, int cy) {
+    return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+  }
+}
@@ -2,6 +2,8 @@ package engine.renderer;
 
 import org.lwjgl.opengl.GL11;
 
+import java.nio.FloatBuffer;
+
 public class Sprite {
   private Texture texture;
   private float x, y; // Position
@@ -14,6 +16,38 @@ public class Sprite {
   private float b = 1.0f;
   private float a = 1.0f;
 
+  // Texture region (atlas rect) in normalized texture coordinates
+  private float u0 = 0.0f;
+  private float v0 = 0.0f;
+  private float u1 = 1.0f;
+  private float v1 = 1.0f;
+
+  // Draw ordering
+  private int layer = RenderLayer.PROPS;
+  private int material = 0;
+  private boolean depthSorted = true; // Sort by bottom edge within the layer
+
+  // Spatial grid bookkeeping, managed by SpatialGrid
+  SpatialGrid grid;
+  int cellMinX, cellMinY, cellMaxX, cellMaxY;
+  int queryStamp;
+
+  // Slot in the renderer's sprite array, -1 when not registered
+  int rendererIndex = -1;
+  // Order in which the renderer registered the sprite, breaking sort key ties
+  long registration;
+
+  // Slot in an InstancedSpriteGroup, -1 when not in a group
+  int groupIndex = -1;
+
+  // Static geometry bookkeeping, managed by StaticChunk
+  private boolean isStatic = false;
+  StaticChunk staticChunk;
+  int staticSlot = -1;
+
+  // Set whenever anything affecting the drawn quad changes
+  private boolean dirty = true;
+
   public Sprite(String texturePath, float x, float y, float width, float height) {
     this.texture = Texture.getTexture(texturePath);
     this.x = x;
@@ -51,16 +85,16 @@ public class Sprite {
     // Draw the textured quad
     GL11.glBegin(GL11.GL_QUADS);
     {
-      GL11.glTexCoord2f(0, 0);
+      GL11.glTexCoord2f(u0, v0);
       GL11.glVertex2f(-width / 2, -height / 2);
 
-      GL11.glTexCoord2f(1, 0);
+      GL11.glTexCoord2f(u1, v0);
       GL11.glVertex2f(width / 2, -height / 2);
 
-      GL11.glTexCoord2f(1, 1);
+      GL11.glTexCoord2f(u1, v1);
       GL11.glVertex2f(width / 2, height / 2);
 
-      GL11.glTexCoord2f(0, 1);
+      GL11.glTexCoord2f(u0, v1);
       GL11.glVertex2f(-width / 2, height / 2);
     }
     GL11.glEnd();
@@ -75,13 +109,117 @@ public class Sprite {
     texture.unbind();
   }
 
+  /**
+   * Write this sprite's quad into a vertex buffer as four
+   * (x, y, u, v, r, g, b, a) vertices.
+   *
+   * @param buffer The buffer to write to
+   */
+  void writeVertices(FloatBuffer buffer) {
+    float hw = width / 2, hh = height / 2;
+    float cx = x + hw, cy = y + hh;
+
+    if (rotation == 0) {
+      buffer.put(cx - hw).put(cy - hh).put(u0).put(v0).put(r).put(g).put(b).put(a);
+      buffer.put(cx + hw).put(cy - hh).put(u1).put(v0).put(r).put(g).put(b).put(a);
+      buffer.put(cx + hw).put(cy + hh).put(u1).put(v1).put(r).put(g).put(b).put(a);
+      buffer.put(cx - hw).put(cy + hh).put(u0).put(v1).put(r).put(g).put(b).put(a);
+      return;
+    }
+
+    double radians = Math.toRadians(rotation);
+    float cos = (float) Math.cos(radians), sin = (float) Math.sin(radians);
+    putRotatedVertex(buffer, cx, cy, -hw, -hh, cos, sin, u0, v0);
+    putRotatedVertex(buffer, cx, cy, hw, -hh, cos, sin, u1, v0);
+    putRotatedVertex(buffer, cx, cy, hw, hh, cos, sin, u1, v1);
+    putRotatedVertex(buffer, cx, cy, -hw, hh, cos, sin, u0, v1);
+  }
+
+  private void putRotatedVertex(FloatBuffer buffer, float cx, float cy, float lx, float ly,
+      float cos, float sin, float u, float v) {
+    buffer.put(cx + lx * cos - ly * sin).put(cy + lx * sin + ly * cos)
+        .put(u).put(v).put(r).put(g).put(b).put(a);
+  }
+
+  /**
+   * Compute the packed key used to order this sprite when drawing.
+   *
+   * @return The sort key
+   */
+  public long getSortKey() {
+    float depth = depthSorted ? y + height : 0;
+    return SortKey.pack(layer, depth, texture.getTextureId(), material);
+  }
+
+  /**
+   * Flag the sprite as changed and notify whatever is tracking it.
+   *
+   * @param boundsChanged true if the position, size or rotation changed
+   */
+  private void markDirty(boolean boundsChanged) {
+    if (boundsChanged && grid != null) {
+      grid.update(this);
+    }
+    if (!dirty) {
+      dirty = true;
+      if (staticChunk != null) {
+        staticChunk.markDirty(this);
+      }
+    }
+  }
+
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  void clearDirty() {
+    dirty = false;
+  }
+
+  // Axis-aligned bounds, expanded to cover the rotated quad
+  public float getBoundsLeft() {
+    return x + width / 2 - getBoundsHalfExtentX();
+  }
+
+  public float getBoundsRight() {
+    return x + width / 2 + getBoundsHalfExtentX();
+  }
+
+  public float getBoundsTop() {
+    return y + height / 2 - getBoundsHalfExtentY();
+  }
+
+  public float getBoundsBottom() {
+    return y + height / 2 + getBoundsHalfExtentY();
+  }
+
+  private float getBoundsHalfExtentX() {
+    if (rotation == 0) {
+      return width / 2;
+    }
+    double radians = Math.toRadians(rotation);
+    return (float) (Math.abs(Math.cos(radians)) * width / 2 + Math.abs(Math.sin(radians)) * height / 2);
+  }
+
+  private float getBoundsHalfExtentY() {
+    if (rotation == 0) {
+      return height / 2;
+    }
+    double radians = Math.toRadians(rotation);
+    return (float) (Math.abs(Math.sin(radians)) * width / 2 + Math.abs(Math.cos(radians)) * height / 2);
+  }
+
   // Getters and setters
   public float getX() {
     return x;
   }
 
   public void setX(float x) {
+    if (this.x == x) {
+      return;
+    }
     this.x = x;
+    markDirty(true);
   }
 
   public float getY() {
@@ -89,7 +227,11 @@ public class Sprite {
   }
 
   public void setY(float y) {
+    if (this.y == y) {
+      return;
+    }
     this.y = y;
+    markDirty(true);
   }
 
   public float getWidth() {
@@ -97,7 +239,11 @@ public class Sprite {
   }
 
   public void setWidth(float width) {
+    if (this.width == width) {
+      return;
+    }
     this.width = width;
+    markDirty(true);
   }
 
   public float getHeight() {
@@ -105,7 +251,11 @@ public class Sprite {
   }
 
   public void setHeight(float height) {
+    if (this.height == height) {
+      return;
+    }
     this.height = height;
+    markDirty(true);
   }
 
   public float getRotation() {
@@ -113,14 +263,115 @@ public class Sprite {
   }
 
   public void setRotation(float rotation) {
+    if (this.rotation == rotation) {
+      return;
+    }
     this.rotation = rotation;
+    markDirty(true);
   }
 
   public void setColor(float r, float g, float b, float a) {
+    if (this.r == r && this.g == g && this.b == b && this.a == a) {
+      return;
+    }
     this.r = r;
     this.g = g;
     this.b = b;
     this.a = a;
+    markDirty(false);
+  }
+
+  /**
+   * Set the region of the texture to draw, e.g. a frame in a sprite sheet.
+   *
+   * @param u0 Left texture coordinate
+   * @param v0 Top texture coordinate
+   * @param u1 Right texture coordinate
+   * @param v1 Bottom texture coordinate
+   */
+  public void setRegion(float u0, float v0, float u1, float v1) {
+    if (this.u0 == u0 && this.v0 == v0 && this.u1 == u1 && this.v1 == v1) {
+      return;
+    }
+    this.u0 = u0;
+    this.v0 = v0;
+    this.u1 = u1;
+    this.v1 = v1;
+    markDirty(false);
+  }
+
+  public float getU0() {
+    return u0;
+  }
+
+  public float getV0() {
+    return v0;
+  }
+
+  public float getU1() {
+    return u1;
+  }
+
+  public float getV1() {
+    return v1;
+  }
+
+  public float getR() {
+    return r;
+  }
+
+  public float getG() {
+    return g;
+  }
+
+  public float getB() {
+    return b;
+  }
+
+  public float getA() {
+    return a;
+  }
+
+  public int getLayer() {
+    return layer;
+  }
+
+  public void setLayer(int layer) {
+    this.layer = Math.max(0, Math.min(RenderLayer.MAX, layer));
+    markDirty(false);
+  }
+
+  public int getMaterial() {
+    return material;
+  }
+
+  public void setMaterial(int material) {
+    this.material = material;
+    markDirty(false);
+  }
+
+  public boolean isDepthSorted() {
+    return depthSorted;
+  }
+
+  public void setDepthSorted(boolean depthSorted) {
+    this.depthSorted = depthSorted;
+    markDirty(false);
+  }
+
+  public boolean isStatic() {
+    return isStatic;
+  }
+
+  /**
+   * Mark the sprite as static geometry. Static sprites are kept in retained
+   * GPU buffers and drawn beneath dynamic sprites. Must be set before the
+   * sprite is added to the renderer.
+   *
+   * @param isStatic true if the sprite rarely changes
+   */
+  public void setStatic(boolean isStatic) {
+    this.isStatic = isStatic;
   }
 
   public Texture getTexture() {
@@ -128,10 +379,14 @@ public class Sprite {
   }
 
   public void setTexture(Texture texture) {
+    if (this.texture == texture) {
+      return;
+    }
     this.texture = texture;
+    markDirty(false);
   }
 
   public void setTexture(String texturePath) {
-    this.texture = Texture.getTexture(texturePath);
+    setTexture(Texture.getTexture(texturePath));
   }
 }
\ No newline at end of file
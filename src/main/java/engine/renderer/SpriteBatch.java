@@ -0,0 +1,156 @@
+package engine.renderer;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Collects textured quads into a client-side vertex array and draws each run
+ * of same-texture quads with a single draw call.
+ */
+public class SpriteBatch implements QuadSink {
+  // x, y, u, v, r, g, b, a
+  static final int FLOATS_PER_VERTEX = 8;
+  static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * 4;
+  private static final int STRIDE = FLOATS_PER_VERTEX * Float.BYTES;
+
+  private final int maxQuads;
+  private final FloatBuffer vertices;
+  private int quadCount = 0;
+  private int currentTextureId = -1;
+
+  // Statistics for the current frame
+  private int drawCalls = 0;
+  private int quadsDrawn = 0;
+
+  public SpriteBatch(int maxQuads) {
+    this.maxQuads = maxQuads;
+    this.vertices = BufferUtils.createFloatBuffer(maxQuads * FLOATS_PER_QUAD);
+  }
+
+  /** Start a new frame of batched drawing. */
+  public void begin() {
+    quadCount = 0;
+    currentTextureId = -1;
+    drawCalls = 0;
+    quadsDrawn = 0;
+    vertices.clear();
+  }
+
+  /**
+   * Queue a sprite, flushing first if its texture differs from the current run.
+   *
+   * @param sprite The sprite to draw
+   */
+  public void draw(Sprite sprite) {
+    Texture texture = sprite.getTexture();
+    useTexture(texture.getTextureId());
+    sprite.writeVertices(vertices);
+    quadCount++;
+  }
+
+  @Override
+  public void drawQuad(int textureId, float x, float y, float width, float height,
+      float u0, float v0, float u1, float v1, float r, float g, float b, float a) {
+    useTexture(textureId);
+    float x1 = x + width, y1 = y + height;
+    putVertex(x, y, u0, v0, r, g, b, a);
+    putVertex(x1, y, u1, v0, r, g, b, a);
+    putVertex(x1, y1, u1, v1, r, g, b, a);
+    putVertex(x, y1, u0, v1, r, g, b, a);
+    quadCount++;
+  }
+
+  /**
+   * Queue a quad rotated around its center.
+   *
+   * @param textureId Texture to draw with
+   * @param centerX   Center x
+   * @param centerY   Center y
+   * @param width     Quad width
+   * @param height    Quad height
+   * @param rotation  Rotation in radians
+   * @param u0        Left texture coordinate
+   * @param v0        Top texture coordinate
+   * @param u1        Right texture coordinate
+   * @param v1        Bottom texture coordinate
+   * @param r         Red tint
+   * @param g         Green tint
+   * @param b         Blue tint
+   * @param a         Alpha
+   */
+  public void drawRotatedQuad(int textureId, float centerX, float centerY, float width, float height,
+      float rotation, float u0, float v0, float u1, float v1, float r, float g, float b, float a) {
+    if (rotation == 0) {
+      drawQuad(textureId, centerX - width / 2, centerY - height / 2, width, height,
+          u0, v0, u1, v1, r, g, b, a);
+      return;
+    }
+    useTexture(textureId);
+    float hw = width / 2, hh = height / 2;
+    float cos = (float) Math.cos(rotation), sin = (float) Math.sin(rotation);
+    putVertex(centerX - hw * cos + hh * sin, centerY - hw * sin - hh * cos, u0, v0, r, g, b, a);
+    putVertex(centerX + hw * cos + hh * sin, centerY + hw * sin - hh * cos, u1, v0, r, g, b, a);
+    putVertex(centerX + hw * cos - hh * sin, centerY + hw * sin + hh * cos, u1, v1, r, g, b, a);
+    putVertex(centerX - hw * cos - hh * sin, centerY - hw * sin + hh * cos, u0, v1, r, g, b, a);
+    quadCount++;
+  }
+
+  /** Draw everything queued so far. */
+  public void end() {
+    flush();
+    currentTextureId = -1;
+  }
+
+  private void useTexture(int textureId) {
+    if (textureId != currentTextureId || quadCount == maxQuads) {
+      flush();
+      currentTextureId = textureId;
+      glBindTexture(GL_TEXTURE_2D, textureId);
+    }
+  }
+
+  private void putVertex(float x, float y, float u, float v, float r, float g, float b, float a) {
+    vertices.put(x).put(y).put(u).put(v).put(r).put(g).put(b).put(a);
+  }
+
+  private void flush() {
+    if (quadCount == 0) {
+      return;
+    }
+
+    glEnableClientState(GL_VERTEX_ARRAY);
+    glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+    glEnableClientState(GL_COLOR_ARRAY);
+
+    vertices.position(0);
+    glVertexPointer(2, GL_FLOAT, STRIDE, vertices);
+    vertices.position(2);
+    glTexCoordPointer(2, GL_FLOAT, STRIDE, vertices);
+    vertices.position(4);
+    glColorPointer(4, GL_FLOAT, STRIDE, vertices);
+
+    glDrawArrays(GL_QUADS, 0, quadCount * 4);
+
+    glDisableClientState(GL_COLOR_ARRAY);
+    glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+    glDisableClientState(GL_VERTEX_ARRAY);
+
+    drawCalls++;
+    quadsDrawn += quadCount;
+    quadCount = 0;
+    vertices.clear();
+  }
+
+  /** Number of draw calls issued since {@link #begin()}. */
+  public int getDrawCalls() {
+    return drawCalls;
+  }
+
+  /** Number of quads drawn since {@link #begin()}. */
+  public int getQuadsDrawn() {
+    return quadsDrawn;
+  }
+}
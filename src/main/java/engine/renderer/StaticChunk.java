@@ -0,0 +1,255 @@
+package engine.renderer;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * A region of static sprites whose quads live in one retained vertex buffer.
+ * The buffer is built once, sorted by sprite sort key, and afterwards only the
+ * quads of sprites that changed are re-uploaded. Removing a sprite blanks its
+ * quad in place; the buffer is compacted once blanks make up a quarter of it.
+ */
+class StaticChunk {
+  private final long key;
+  // In buffer order once built, with null where a sprite was removed
+  private final List<Sprite> sprites = new ArrayList<>();
+  private int removedCount = 0;
+  private final List<Sprite> dirtySprites = new ArrayList<>();
+  private final VertexBuffer vertexBuffer = new VertexBuffer();
+
+  // Texture runs inside the buffer: texture id, first quad, quad count
+  private int[] runs = new int[0];
+  private int runCount = 0;
+
+  // Sort key each sprite had when the buffer was built
+  private long[] builtKeys = new long[0];
+
+  // Rebuild scratch, grown as needed and kept for the next rebuild
+  private final RadixSort radixSort = new RadixSort();
+  private int[] order = new int[0];
+  private FloatBuffer vertices = BufferUtils.createFloatBuffer(0);
+  private final List<Sprite> sorted = new ArrayList<>();
+
+  // Buffer slots of removed sprites whose quads still have to be blanked
+  private int[] blankSlots = new int[8];
+  private int blankCount = 0;
+
+  // Chunk bounds, the union of all sprite bounds
+  private float left, top, right, bottom;
+
+  private boolean needsRebuild = true;
+  private final FloatBuffer quadScratch = BufferUtils.createFloatBuffer(SpriteBatch.FLOATS_PER_QUAD);
+
+  /** @param key Key of the chunk in its {@link StaticGeometry} */
+  StaticChunk(long key) {
+    this.key = key;
+  }
+
+  void add(Sprite sprite) {
+    sprite.staticChunk = this;
+    sprites.add(sprite);
+    needsRebuild = true;
+  }
+
+  void remove(Sprite sprite) {
+    if (sprite.staticChunk != this) {
+      return;
+    }
+    int slot = sprite.staticSlot;
+    if (needsRebuild || slot < 0) {
+      // Not uploaded yet, or about to be rebuilt anyway
+      sprites.remove(sprite);
+    } else {
+      sprites.set(slot, null);
+      removedCount++;
+      if (removedCount * 4 >= sprites.size()) {
+        needsRebuild = true;
+      } else {
+        if (blankCount == blankSlots.length) {
+          blankSlots = Arrays.copyOf(blankSlots, blankCount * 2);
+        }
+        blankSlots[blankCount++] = slot;
+      }
+    }
+    sprite.staticChunk = null;
+    sprite.staticSlot = -1;
+  }
+
+  /** Called by a sprite the first time it changes after being uploaded. */
+  void markDirty(Sprite sprite) {
+    dirtySprites.add(sprite);
+  }
+
+  boolean isEmpty() {
+    return sprites.size() == removedCount;
+  }
+
+  boolean intersects(float viewLeft, float viewTop, float viewRight, float viewBottom) {
+    return right >= viewLeft && left <= viewRight && bottom >= viewTop && top <= viewBottom;
+  }
+
+  /** Bring the GPU buffer up to date. Must be called before drawing. */
+  void sync() {
+    if (!needsRebuild && blankCount > 0) {
+      blankRemovedSprites();
+    }
+    if (!needsRebuild && !dirtySprites.isEmpty()) {
+      uploadDirtySprites();
+    }
+    if (needsRebuild) {
+      rebuild();
+    }
+  }
+
+  /**
+   * Draw every texture run in the chunk.
+   *
+   * @return Number of draw calls issued
+   */
+  int draw() {
+    if (isEmpty()) {
+      return 0;
+    }
+    vertexBuffer.bind();
+    for (int i = 0; i < runCount; i++) {
+      glBindTexture(GL_TEXTURE_2D, runs[i * 3]);
+      vertexBuffer.drawQuads(runs[i * 3 + 1], runs[i * 3 + 2]);
+    }
+    vertexBuffer.unbind();
+    return runCount;
+  }
+
+  /** Zero the quads of removed sprites; degenerate quads cover no pixels. */
+  private void blankRemovedSprites() {
+    for (int i = 0; i < blankCount; i++) {
+      quadScratch.clear();
+      for (int f = 0; f < SpriteBatch.FLOATS_PER_QUAD; f++) {
+        quadScratch.put(0f);
+      }
+      quadScratch.flip();
+      vertexBuffer.update(blankSlots[i], quadScratch, 1);
+    }
+    blankCount = 0;
+  }
+
+  private void uploadDirtySprites() {
+    for (Sprite sprite : dirtySprites) {
+      sprite.clearDirty();
+      if (sprite.staticChunk != this) {
+        continue; // Removed since it was marked
+      }
+
+      // A new sort key can move the sprite to another run, rebuild instead
+      if (sprite.getSortKey() != builtKeys[sprite.staticSlot]) {
+        needsRebuild = true;
+        break;
+      }
+
+      quadScratch.clear();
+      sprite.writeVertices(quadScratch);
+      quadScratch.flip();
+      vertexBuffer.update(sprite.staticSlot, quadScratch, 1);
+      expandBounds(sprite);
+    }
+    dirtySprites.clear();
+  }
+
+  private void rebuild() {
+    if (removedCount > 0) {
+      sprites.removeIf(Objects::isNull);
+      removedCount = 0;
+    }
+    blankCount = 0;
+    int count = sprites.size();
+    for (Sprite sprite : sprites) {
+      sprite.clearDirty();
+    }
+    dirtySprites.clear();
+    needsRebuild = false;
+
+    if (count == 0) {
+      vertexBuffer.delete();
+      runCount = 0;
+      return;
+    }
+
+    // Sort once so sprites sharing a texture are contiguous
+    if (builtKeys.length < count) {
+      int capacity = Math.max(count, builtKeys.length * 2);
+      builtKeys = new long[capacity];
+      order = new int[capacity];
+      runs = new int[capacity * 3];
+    }
+    for (int i = 0; i < count; i++) {
+      builtKeys[i] = sprites.get(i).getSortKey();
+      order[i] = i;
+    }
+    radixSort.sort(builtKeys, order, count);
+
+    if (vertices.capacity() < count * SpriteBatch.FLOATS_PER_QUAD) {
+      vertices = BufferUtils.createFloatBuffer(builtKeys.length * SpriteBatch.FLOATS_PER_QUAD);
+    }
+    vertices.clear();
+    sorted.clear();
+    runCount = 0;
+    int currentTexture = -1;
+
+    left = top = Float.POSITIVE_INFINITY;
+    right = bottom = Float.NEGATIVE_INFINITY;
+
+    for (int i = 0; i < count; i++) {
+      Sprite sprite = sprites.get(order[i]);
+      sprite.staticSlot = i;
+      sorted.add(sprite);
+      sprite.writeVertices(vertices);
+      expandBounds(sprite);
+
+      int textureId = sprite.getTexture().getTextureId();
+      if (textureId != currentTexture) {
+        currentTexture = textureId;
+        runs[runCount * 3] = textureId;
+        runs[runCount * 3 + 1] = i;
+        runCount++;
+      }
+      runs[(runCount - 1) * 3 + 2]++;
+    }
+    vertices.flip();
+
+    // Keep the list in buffer order so slots match list indices
+    sprites.clear();
+    sprites.addAll(sorted);
+    sorted.clear();
+
+    vertexBuffer.upload(vertices, count);
+  }
+
+  private void expandBounds(Sprite sprite) {
+    left = Math.min(left, sprite.getBoundsLeft());
+    top = Math.min(top, sprite.getBoundsTop());
+    right = Math.max(right, sprite.getBoundsRight());
+    bottom = Math.max(bottom, sprite.getBoundsBottom());
+  }
+
+  long getKey() {
+    return key;
+  }
+
+  int getSpriteCount() {
+    return sprites.size() - removedCount;
+  }
+
+  VertexBuffer getVertexBuffer() {
+    return vertexBuffer;
+  }
+
+  void delete() {
+    vertexBuffer.delete();
+  }
+}
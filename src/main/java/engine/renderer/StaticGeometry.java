@@ -0,0 +1,118 @@
+package engine.renderer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds sprites that rarely change (tiles, props) in retained per-chunk GPU
+ * buffers. Chunks are culled against the camera as a whole and only re-upload
+ * the quads of sprites that changed.
+ */
+public class StaticGeometry {
+  private final float chunkSize;
+  private final Map<Long, StaticChunk> chunks = new HashMap<>();
+  private int spriteCount = 0;
+
+  // Statistics for the last rendered frame
+  private int visibleChunkCount = 0;
+  private int drawCallCount = 0;
+  private long uploadedBytes = 0;
+
+  public StaticGeometry(float chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Add a static sprite to the chunk containing its center.
+   *
+   * @param sprite The sprite to add
+   */
+  public void add(Sprite sprite) {
+    if (sprite.staticChunk != null) {
+      return;
+    }
+    int cx = (int) Math.floor((sprite.getX() + sprite.getWidth() / 2) / chunkSize);
+    int cy = (int) Math.floor((sprite.getY() + sprite.getHeight() / 2) / chunkSize);
+    long key = ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    chunks.computeIfAbsent(key, StaticChunk::new).add(sprite);
+    spriteCount++;
+  }
+
+  /**
+   * Remove a static sprite. A chunk left without sprites is dropped and its
+   * GPU buffer released.
+   *
+   * @param sprite The sprite to remove
+   */
+  public void remove(Sprite sprite) {
+    StaticChunk chunk = sprite.staticChunk;
+    if (chunk != null) {
+      chunk.remove(sprite);
+      spriteCount--;
+      if (chunk.isEmpty()) {
+        chunk.delete();
+        chunks.remove(chunk.getKey());
+      }
+    }
+  }
+
+  /**
+   * Upload pending changes and draw the chunks that intersect the camera.
+   * Texturing and blending must already be enabled.
+   *
+   * @param camera The camera to cull against
+   */
+  public void render(Camera camera) {
+    visibleChunkCount = 0;
+    drawCallCount = 0;
+    uploadedBytes = 0;
+
+    float viewLeft = camera.getViewLeft(), viewTop = camera.getViewTop();
+    float viewRight = camera.getViewRight(), viewBottom = camera.getViewBottom();
+
+    for (StaticChunk chunk : chunks.values()) {
+      // Changes are uploaded even for off-screen chunks so bounds stay correct
+      chunk.sync();
+      VertexBuffer buffer = chunk.getVertexBuffer();
+      uploadedBytes += buffer.getUploadedBytes();
+      buffer.resetUploadedBytes();
+
+      if (chunk.intersects(viewLeft, viewTop, viewRight, viewBottom)) {
+        visibleChunkCount++;
+        drawCallCount += chunk.draw();
+      }
+    }
+  }
+
+  /** Remove every sprite and release all GPU buffers. */
+  public void clear() {
+    for (StaticChunk chunk : chunks.values()) {
+      chunk.delete();
+    }
+    chunks.clear();
+    spriteCount = 0;
+  }
+
+  public int getSpriteCount() {
+    return spriteCount;
+  }
+
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  /** Number of chunks drawn in the last frame. */
+  public int getVisibleChunkCount() {
+    return visibleChunkCount;
+  }
+
+  /** Number of draw calls issued in the last frame. */
+  public int getDrawCallCount() {
+    return drawCallCount;
+  }
+
+  /** Bytes uploaded to the GPU in the last frame. */
+  public long getUploadedBytes() {
+    return uploadedBytes;
+  }
+}
@@ -1,15 +1,18 @@
 package engine.renderer;
 
+import engine.asset.VirtualFileSystem;
+import engine.metrics.Gauge;
+import engine.metrics.MetricsRegistry;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.stb.STBImage;
 import org.lwjgl.system.MemoryStack;
 
-import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Texture {
   private int textureId;
@@ -18,9 +21,20 @@ public class Texture {
 
   // Cache to prevent loading the same texture multiple times
   private static final Map<String, Texture> textureCache = new HashMap<>();
+  // Images decoded off the main thread, waiting for their first getTexture
+  private static final Map<String, DecodedImage> predecoded = new ConcurrentHashMap<>();
 
-  private Texture(String filePath) {
+  // Size of the cached textures in GPU memory, assuming RGBA8 without mipmaps
+  private static long cacheBytes = 0;
+  private static final Gauge CACHE_BYTES =
+      MetricsRegistry.get().gauge("engine_texture_cache_bytes", "Texture memory held by the texture cache");
+  private static final Gauge CACHE_TEXTURES =
+      MetricsRegistry.get().gauge("engine_texture_cache_textures", "Textures in the texture cache");
+
+  private Texture(String filePath, ByteBuffer pixels, int width, int height) {
     this.filePath = filePath;
+    this.width = width;
+    this.height = height;
 
     // Generate texture on GPU
     textureId = GL11.glGenTextures();
@@ -36,45 +50,122 @@ public class Texture {
     // When shrinking, pixelate
     GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
 
-    // Load image from file
+    // Upload image data to GPU
+    GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0,
+        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+  }
+
+  /**
+   * Decode an image asset to RGBA pixels. Needs no GL context.
+   *
+   * @return The image, whose pixels must be freed with stbi_image_free, or
+   *         null if the asset is missing
+   */
+  private static DecodedImage decode(String filePath) {
+    ByteBuffer encoded = VirtualFileSystem.get().read(filePath);
+    if (encoded == null) {
+      return null;
+    }
+
+    // Decode the image straight from the asset's bytes
     try (MemoryStack stack = MemoryStack.stackPush()) {
       IntBuffer w = stack.mallocInt(1);
       IntBuffer h = stack.mallocInt(1);
       IntBuffer channels = stack.mallocInt(1);
 
-      // Load the image
-      ByteBuffer image = STBImage.stbi_load(filePath, w, h, channels, 4);
+      ByteBuffer image = STBImage.stbi_load_from_memory(encoded, w, h, channels, 4);
       if (image == null) {
         throw new RuntimeException(
             "Failed to load texture file: " + filePath + ", reason: " + STBImage.stbi_failure_reason());
       }
+      return new DecodedImage(image, w.get(0), h.get(0));
+    }
+  }
 
-      this.width = w.get(0);
-      this.height = h.get(0);
-
-      // Upload image data to GPU
-      GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0,
-          GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, image);
+  /**
+   * Wrap a texture that was generated in code rather than loaded from a file.
+   */
+  private Texture(String name, int textureId, int width, int height) {
+    this.filePath = name;
+    this.textureId = textureId;
+    this.width = width;
+    this.height = height;
+  }
 
-      // Free image memory
-      STBImage.stbi_image_free(image);
+  /**
+   * Decode an image ahead of its first {@link #getTexture}, which then only
+   * has to upload it. Safe to call from any thread, e.g. a startup task
+   * running while the GL context is created.
+   *
+   * @param filePath Asset path, e.g. "characters/warrior.png"
+   */
+  public static void predecode(String filePath) {
+    DecodedImage image = decode(filePath);
+    if (image != null && predecoded.putIfAbsent(filePath, image) != null) {
+      STBImage.stbi_image_free(image.pixels);
     }
   }
 
+  /**
+   * Get a texture, loading it through the {@link VirtualFileSystem} on first
+   * use.
+   *
+   * @param filePath Asset path, e.g. "characters/warrior.png"
+   * @return The texture, or a checkered placeholder if the asset is missing
+   */
   public static Texture getTexture(String filePath) {
-    File file = new File(filePath);
-    if (!file.exists()) {
+    Texture cached = textureCache.get(filePath);
+    if (cached != null) {
+      return cached;
+    }
+
+    // Use the pixels if startup already decoded them
+    DecodedImage image = predecoded.remove(filePath);
+    if (image == null) {
+      image = decode(filePath);
+    }
+    if (image == null) {
       System.err.println("Texture file not found: " + filePath);
       return getDefaultTexture();
     }
 
-    if (textureCache.containsKey(filePath)) {
-      return textureCache.get(filePath);
+    Texture texture = new Texture(filePath, image.pixels, image.width, image.height);
+    STBImage.stbi_image_free(image.pixels);
+    cache(filePath, texture);
+    return texture;
+  }
+
+  /**
+   * Replace the pixels of a loaded texture, e.g. after its file was edited.
+   * The texture keeps its GL name, so every sprite using it shows the new
+   * image; a same-sized image is uploaded in place with glTexSubImage2D.
+   *
+   * @param filePath Asset path the texture was loaded from
+   * @param pixels   Decoded RGBA pixels
+   * @param width    Width in pixels
+   * @param height   Height in pixels
+   * @return false if the texture isn't loaded, in which case nothing changes
+   */
+  public static boolean reload(String filePath, ByteBuffer pixels, int width, int height) {
+    Texture texture = textureCache.get(filePath);
+    if (texture == null) {
+      return false;
     }
 
-    Texture texture = new Texture(filePath);
-    textureCache.put(filePath, texture);
-    return texture;
+    GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture.textureId);
+    if (width == texture.width && height == texture.height) {
+      GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, width, height,
+          GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+    } else {
+      GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0,
+          GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+      cacheBytes += 4L * (width * height - texture.width * texture.height);
+      CACHE_BYTES.set(cacheBytes);
+      texture.width = width;
+      texture.height = height;
+    }
+    GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+    return true;
   }
 
   private static Texture getDefaultTexture() {
@@ -109,15 +200,70 @@ public class Texture {
     GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, size, size, 0,
         GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data);
 
-    Texture texture = new Texture("default");
-    texture.textureId = textureId;
-    texture.width = size;
-    texture.height = size;
-    textureCache.put("default", texture);
+    Texture texture = new Texture("default", textureId, size, size);
+    cache("default", texture);
 
     return texture;
   }
 
+  /**
+   * Get a 1x1 white texture, useful for drawing flat-colored quads such as
+   * particles.
+   */
+  public static Texture getWhiteTexture() {
+    if (textureCache.containsKey("white")) {
+      return textureCache.get("white");
+    }
+
+    int textureId = GL11.glGenTextures();
+    GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+
+    ByteBuffer data = BufferUtils.createByteBuffer(4);
+    data.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF);
+    data.flip();
+    GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, 1, 1, 0,
+        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data);
+
+    Texture texture = new Texture("white", textureId, 1, 1);
+    cache("white", texture);
+
+    return texture;
+  }
+
+  private static void cache(String key, Texture texture) {
+    textureCache.put(key, texture);
+    cacheBytes += 4L * texture.width * texture.height;
+    CACHE_BYTES.set(cacheBytes);
+    CACHE_TEXTURES.set(textureCache.size());
+  }
+
+  /**
+   * Create a texture from RGBA pixel data generated in code, e.g. a glyph
+   * atlas. The texture is not cached.
+   *
+   * @param name   Name reported by {@link #getFilePath()}
+   * @param pixels RGBA pixel data
+   * @param width  Width in pixels
+   * @param height Height in pixels
+   * @param smooth Use linear filtering instead of nearest
+   * @return The new texture
+   */
+  public static Texture create(String name, ByteBuffer pixels, int width, int height, boolean smooth) {
+    int textureId = GL11.glGenTextures();
+    GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+
+    int filter = smooth ? GL11.GL_LINEAR : GL11.GL_NEAREST;
+    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, filter);
+    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, filter);
+
+    GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0,
+        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+
+    return new Texture(name, textureId, width, height);
+  }
+
   public void bind() {
     GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
   }
@@ -141,4 +287,15 @@ public class Texture {
   public String getFilePath() {
     return filePath;
   }
-}
\ No newline at end of file
+
+  private static final class DecodedImage {
+    final ByteBuffer pixels;
+    final int width, height;
+
+    DecodedImage(ByteBuffer pixels, int width, int height) {
+      this.pixels = pixels;
+      this.width = width;
+      this.height = height;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package engine.renderer;
+
+/**
+ * A texture split into a grid of equally sized tiles, numbered row by row.
+ */
+public class TileAtlas {
+  private final Texture texture;
+  private final int tileCount;
+  final float[] u0, v0, u1, v1;
+
+  /**
+   * @param texture The atlas texture
+   * @param columns Tiles per row
+   * @param rows    Rows of tiles
+   */
+  public TileAtlas(Texture texture, int columns, int rows) {
+    this.texture = texture;
+    this.tileCount = columns * rows;
+    u0 = new float[tileCount];
+    v0 = new float[tileCount];
+    u1 = new float[tileCount];
+    v1 = new float[tileCount];
+    for (int i = 0; i < tileCount; i++) {
+      int column = i % columns, row = i / columns;
+      u0[i] = column / (float) columns;
+      v0[i] = row / (float) rows;
+      u1[i] = (column + 1) / (float) columns;
+      v1[i] = (row + 1) / (float) rows;
+    }
+  }
+
+  public Texture getTexture() {
+    return texture;
+  }
+
+  public int getTileCount() {
+    return tileCount;
+  }
+}
@@ -0,0 +1,112 @@
+package engine.renderer;
+
+import java.nio.FloatBuffer;
+
+/**
+ * One square block of a tile map with its quads in a retained vertex buffer.
+ */
+class TileChunk {
+  final int chunkX, chunkY;
+  private final VertexBuffer vertexBuffer = new VertexBuffer();
+  private int quadCount = 0;
+  boolean dirty = true;
+
+  // World bounds of every tile the chunk can hold
+  final float left, top, right, bottom;
+
+  TileChunk(int chunkX, int chunkY, int chunkSize, TileLayout layout, float tileSize) {
+    this.chunkX = chunkX;
+    this.chunkY = chunkY;
+
+    // Cell centers are linear in column and row, so the extremes are corners
+    int firstColumn = chunkX * chunkSize, firstRow = chunkY * chunkSize;
+    int lastColumn = firstColumn + chunkSize - 1, lastRow = firstRow + chunkSize - 1;
+    float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+    float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+    for (int corner = 0; corner < 4; corner++) {
+      int column = (corner & 1) == 0 ? firstColumn : lastColumn;
+      int row = (corner & 2) == 0 ? firstRow : lastRow;
+      float x = layout.centerX(column, row, tileSize), y = layout.centerY(column, row, tileSize);
+      minX = Math.min(minX, x);
+      minY = Math.min(minY, y);
+      maxX = Math.max(maxX, x);
+      maxY = Math.max(maxY, y);
+    }
+    float halfWidth = layout.tileWidth(tileSize) / 2, halfHeight = layout.tileHeight(tileSize) / 2;
+    left = minX - halfWidth;
+    top = minY - halfHeight;
+    right = maxX + halfWidth;
+    bottom = maxY + halfHeight;
+  }
+
+  boolean intersects(float viewLeft, float viewTop, float viewRight, float viewBottom) {
+    return right >= viewLeft && left <= viewRight && bottom >= viewTop && top <= viewBottom;
+  }
+
+  /**
+   * Write the quads of every drawn tile.
+   *
+   * @return Number of quads written
+   */
+  static int buildVertices(TileSource source, TileAtlas atlas, TileLayout layout, float tileSize,
+      int chunkX, int chunkY, int chunkSize, FloatBuffer out) {
+    float width = layout.tileWidth(tileSize), height = layout.tileHeight(tileSize);
+    int quads = 0;
+    for (int row = chunkY * chunkSize, lastRow = row + chunkSize; row < lastRow; row++) {
+      for (int column = chunkX * chunkSize, lastColumn = column + chunkSize; column < lastColumn; column++) {
+        int tile = source.getTile(column, row);
+        if (tile < 0) {
+          continue;
+        }
+        float brightness = source.getBrightness(column, row);
+        if (brightness <= 0) {
+          continue;
+        }
+        float x0 = layout.centerX(column, row, tileSize) - width / 2;
+        float y0 = layout.centerY(column, row, tileSize) - height / 2;
+        float x1 = x0 + width, y1 = y0 + height;
+        float u0 = atlas.u0[tile], v0 = atlas.v0[tile], u1 = atlas.u1[tile], v1 = atlas.v1[tile];
+        putVertex(out, x0, y0, u0, v0, brightness);
+        putVertex(out, x1, y0, u1, v0, brightness);
+        putVertex(out, x1, y1, u1, v1, brightness);
+        putVertex(out, x0, y1, u0, v1, brightness);
+        quads++;
+      }
+    }
+    return quads;
+  }
+
+  private static void putVertex(FloatBuffer out, float x, float y, float u, float v, float brightness) {
+    out.put(x).put(y).put(u).put(v).put(brightness).put(brightness).put(brightness).put(1.0f);
+  }
+
+  /** Upload freshly built vertices, replacing the old ones. */
+  void upload(FloatBuffer vertices, int quads) {
+    quadCount = quads;
+    if (quads == 0) {
+      vertexBuffer.delete();
+    } else {
+      vertexBuffer.upload(vertices, quads);
+    }
+    dirty = false;
+  }
+
+  void draw() {
+    vertexBuffer.bind();
+    vertexBuffer.drawQuads(0, quadCount);
+    vertexBuffer.unbind();
+  }
+
+  int getQuadCount() {
+    return quadCount;
+  }
+
+  VertexBuffer getVertexBuffer() {
+    return vertexBuffer;
+  }
+
+  void delete() {
+    vertexBuffer.delete();
+    quadCount = 0;
+  }
+}
@@ -0,0 +1,65 @@
+package engine.renderer;
+
+/**
+ * Where the cells of a tile map sit in the world. Sizes are given as the
+ * layout's tile size: the side of a square, or the outer radius of a hex.
+ */
+public enum TileLayout {
+  /** Square cells, column along x and row along y. */
+  SQUARE {
+    @Override
+    public float centerX(int column, int row, float size) {
+      return (column + 0.5f) * size;
+    }
+
+    @Override
+    public float centerY(int column, int row, float size) {
+      return (row + 0.5f) * size;
+    }
+
+    @Override
+    public float tileWidth(float size) {
+      return size;
+    }
+
+    @Override
+    public float tileHeight(float size) {
+      return size;
+    }
+  },
+
+  /** Pointy-top hexes in axial coordinates, column is q and row is r. */
+  HEX {
+    @Override
+    public float centerX(int column, int row, float size) {
+      return size * SQRT_3 * (column + row / 2.0f);
+    }
+
+    @Override
+    public float centerY(int column, int row, float size) {
+      return size * 1.5f * row;
+    }
+
+    @Override
+    public float tileWidth(float size) {
+      return size * SQRT_3;
+    }
+
+    @Override
+    public float tileHeight(float size) {
+      return size * 2;
+    }
+  };
+
+  private static final float SQRT_3 = (float) Math.sqrt(3);
+
+  public abstract float centerX(int column, int row, float size);
+
+  public abstract float centerY(int column, int row, float size);
+
+  /** Width of the quad drawn for a tile. */
+  public abstract float tileWidth(float size);
+
+  /** Height of the quad drawn for a tile. */
+  public abstract float tileHeight(float size);
+}
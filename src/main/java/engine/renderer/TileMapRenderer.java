@@ -0,0 +1,182 @@
+package engine.renderer;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Draws a large tile map from retained per-chunk vertex buffers instead of
+ * one sprite per tile. The map is split into square chunks of cells; each
+ * chunk's quads are built once from atlas UVs and only rebuilt after one of
+ * its tiles is marked dirty. Chunks outside the camera are neither drawn
+ * nor rebuilt, so a change off-screen costs nothing until it scrolls in.
+ * Every tile shares the atlas texture, so a chunk is one draw call.
+ * <p>
+ * Chunks are registered explicitly, which lets a streamed map add and drop
+ * them as it loads.
+ */
+public class TileMapRenderer {
+  private final TileSource source;
+  private final TileAtlas atlas;
+  private final TileLayout layout;
+  private final float tileSize;
+  private final int chunkSize;
+
+  private final Map<Long, TileChunk> chunks = new HashMap<>();
+  private final FloatBuffer scratch;
+
+  // Statistics for the last rendered frame
+  private int visibleChunkCount = 0;
+  private int drawCallCount = 0;
+  private int rebuiltChunkCount = 0;
+  private int quadCount = 0;
+  private long rebuildNanos = 0;
+  private long renderNanos = 0;
+
+  /**
+   * @param source    Tiles to draw
+   * @param atlas     Atlas holding every tile image
+   * @param layout    Cell placement
+   * @param tileSize  Tile size in world units, see {@link TileLayout}
+   * @param chunkSize Cells along each side of a chunk
+   */
+  public TileMapRenderer(TileSource source, TileAtlas atlas, TileLayout layout, float tileSize, int chunkSize) {
+    this.source = source;
+    this.atlas = atlas;
+    this.layout = layout;
+    this.tileSize = tileSize;
+    this.chunkSize = chunkSize;
+    this.scratch = BufferUtils.createFloatBuffer(chunkSize * chunkSize * SpriteBatch.FLOATS_PER_QUAD);
+  }
+
+  /** Start drawing a chunk. Its buffer is built the first time it is visible. */
+  public void addChunk(int chunkX, int chunkY) {
+    chunks.computeIfAbsent(key(chunkX, chunkY), k -> new TileChunk(chunkX, chunkY, chunkSize, layout, tileSize));
+  }
+
+  /** Stop drawing a chunk and free its buffer. */
+  public void removeChunk(int chunkX, int chunkY) {
+    TileChunk chunk = chunks.remove(key(chunkX, chunkY));
+    if (chunk != null) {
+      chunk.delete();
+    }
+  }
+
+  public boolean hasChunk(int chunkX, int chunkY) {
+    return chunks.containsKey(key(chunkX, chunkY));
+  }
+
+  /** A tile's image or brightness changed. */
+  public void markDirty(int column, int row) {
+    markChunkDirty(Math.floorDiv(column, chunkSize), Math.floorDiv(row, chunkSize));
+  }
+
+  public void markChunkDirty(int chunkX, int chunkY) {
+    TileChunk chunk = chunks.get(key(chunkX, chunkY));
+    if (chunk != null) {
+      chunk.dirty = true;
+    }
+  }
+
+  /**
+   * Rebuild the visible dirty chunks and draw every chunk that intersects
+   * the camera. Texturing and blending must already be enabled.
+   *
+   * @param camera The camera to cull against
+   */
+  public void render(Camera camera) {
+    long start = System.nanoTime();
+    visibleChunkCount = 0;
+    drawCallCount = 0;
+    rebuiltChunkCount = 0;
+    quadCount = 0;
+    rebuildNanos = 0;
+
+    float viewLeft = camera.getViewLeft(), viewTop = camera.getViewTop();
+    float viewRight = camera.getViewRight(), viewBottom = camera.getViewBottom();
+
+    glBindTexture(GL_TEXTURE_2D, atlas.getTexture().getTextureId());
+    for (TileChunk chunk : chunks.values()) {
+      if (!chunk.intersects(viewLeft, viewTop, viewRight, viewBottom)) {
+        continue;
+      }
+      visibleChunkCount++;
+      if (chunk.dirty) {
+        long rebuildStart = System.nanoTime();
+        scratch.clear();
+        int quads = TileChunk.buildVertices(source, atlas, layout, tileSize, chunk.chunkX, chunk.chunkY,
+            chunkSize, scratch);
+        scratch.flip();
+        chunk.upload(scratch, quads);
+        rebuiltChunkCount++;
+        rebuildNanos += System.nanoTime() - rebuildStart;
+      }
+      if (chunk.getQuadCount() > 0) {
+        chunk.draw();
+        drawCallCount++;
+        quadCount += chunk.getQuadCount();
+      }
+    }
+    glBindTexture(GL_TEXTURE_2D, 0);
+    renderNanos = System.nanoTime() - start;
+  }
+
+  /** Release every chunk buffer. */
+  public void clear() {
+    for (TileChunk chunk : chunks.values()) {
+      chunk.delete();
+    }
+    chunks.clear();
+  }
+
+  private static long key(int chunkX, int chunkY) {
+    return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+  }
+
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  /** Chunks intersecting the camera in the last frame. */
+  public int getVisibleChunkCount() {
+    return visibleChunkCount;
+  }
+
+  /** Draw calls in the last frame, one per visible chunk with tiles. */
+  public int getDrawCallCount() {
+    return drawCallCount;
+  }
+
+  /** Chunks rebuilt in the last frame. */
+  public int getRebuiltChunkCount() {
+    return rebuiltChunkCount;
+  }
+
+  /** Tiles drawn in the last frame. */
+  public int getQuadCount() {
+    return quadCount;
+  }
+
+  /** CPU time of the last {@link #render(Camera)}, including rebuilds. */
+  public long getRenderNanos() {
+    return renderNanos;
+  }
+
+  /** Part of the last render spent building and uploading chunks. */
+  public long getRebuildNanos() {
+    return rebuildNanos;
+  }
+
+  /** Bytes of vertex data held on the GPU by all chunks. */
+  public long getVertexBytes() {
+    long quads = 0;
+    for (TileChunk chunk : chunks.values()) {
+      quads += chunk.getVertexBuffer().getQuadCapacity();
+    }
+    return quads * SpriteBatch.FLOATS_PER_QUAD * Float.BYTES;
+  }
+}
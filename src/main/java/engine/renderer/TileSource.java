@@ -0,0 +1,16 @@
+package engine.renderer;
+
+/**
+ * Supplies the tiles drawn by a {@link TileMapRenderer}.
+ */
+public interface TileSource {
+  /**
+   * @return Atlas index of the tile at a cell, or -1 to draw nothing
+   */
+  int getTile(int column, int row);
+
+  /**
+   * @return Brightness multiplied into the tile's color; 0 draws nothing
+   */
+  float getBrightness(int column, int row);
+}
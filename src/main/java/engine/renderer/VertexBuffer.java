@@ -0,0 +1,112 @@
+package engine.renderer;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+
+/**
+ * Retained GPU vertex buffer holding quads in the same
+ * (x, y, u, v, r, g, b, a) layout used by {@link SpriteBatch}.
+ */
+public class VertexBuffer {
+  private static final int STRIDE = SpriteBatch.FLOATS_PER_VERTEX * Float.BYTES;
+  private static final long QUAD_BYTES = (long) SpriteBatch.FLOATS_PER_QUAD * Float.BYTES;
+
+  private int bufferId = 0;
+  private int quadCapacity = 0;
+
+  // Bytes sent to the GPU since the counter was last reset
+  private long uploadedBytes = 0;
+
+  /**
+   * Replace the whole buffer contents.
+   *
+   * @param vertices  Vertex data, read from position 0 to the limit
+   * @param quadCount Number of quads in the data
+   */
+  public void upload(FloatBuffer vertices, int quadCount) {
+    if (bufferId == 0) {
+      bufferId = glGenBuffers();
+    }
+    glBindBuffer(GL_ARRAY_BUFFER, bufferId);
+    glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+    quadCapacity = quadCount;
+    uploadedBytes += quadCount * QUAD_BYTES;
+  }
+
+  /**
+   * Overwrite a range of quads in place.
+   *
+   * @param firstQuad Index of the first quad to replace
+   * @param vertices  Vertex data for the replaced quads
+   * @param quadCount Number of quads to replace
+   */
+  public void update(int firstQuad, FloatBuffer vertices, int quadCount) {
+    if (bufferId == 0 || firstQuad + quadCount > quadCapacity) {
+      throw new IllegalStateException("Quad range outside of vertex buffer: " + firstQuad + "+" + quadCount);
+    }
+    glBindBuffer(GL_ARRAY_BUFFER, bufferId);
+    glBufferSubData(GL_ARRAY_BUFFER, firstQuad * QUAD_BYTES, vertices);
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+    uploadedBytes += quadCount * QUAD_BYTES;
+  }
+
+  /** Bind the buffer and point the fixed-function vertex arrays at it. */
+  public void bind() {
+    glBindBuffer(GL_ARRAY_BUFFER, bufferId);
+    glEnableClientState(GL_VERTEX_ARRAY);
+    glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+    glEnableClientState(GL_COLOR_ARRAY);
+    glVertexPointer(2, GL_FLOAT, STRIDE, 0L);
+    glTexCoordPointer(2, GL_FLOAT, STRIDE, 2L * Float.BYTES);
+    glColorPointer(4, GL_FLOAT, STRIDE, 4L * Float.BYTES);
+  }
+
+  /**
+   * Draw a range of quads. The buffer must be bound.
+   *
+   * @param firstQuad Index of the first quad to draw
+   * @param quadCount Number of quads to draw
+   */
+  public void drawQuads(int firstQuad, int quadCount) {
+    glDrawArrays(GL_QUADS, firstQuad * 4, quadCount * 4);
+  }
+
+  /** Restore the client state changed by {@link #bind()}. */
+  public void unbind() {
+    glDisableClientState(GL_COLOR_ARRAY);
+    glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+    glDisableClientState(GL_VERTEX_ARRAY);
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+  }
+
+  /** Release the GPU buffer. */
+  public void delete() {
+    if (bufferId != 0) {
+      glDeleteBuffers(bufferId);
+      bufferId = 0;
+      quadCapacity = 0;
+    }
+  }
+
+  public int getQuadCapacity() {
+    return quadCapacity;
+  }
+
+  public long getUploadedBytes() {
+    return uploadedBytes;
+  }
+
+  public void resetUploadedBytes() {
+    uploadedBytes = 0;
+  }
+
+  /** Size of the buffer on the GPU in bytes. */
+  public long getSizeBytes() {
+    return quadCapacity * QUAD_BYTES;
+  }
+}
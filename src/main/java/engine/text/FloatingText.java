@@ -0,0 +1,141 @@
+package engine.text;
+
+import engine.renderer.Camera;
+import engine.renderer.Renderer;
+import engine.renderer.SpriteBatch;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Short-lived text that drifts upwards and fades, such as damage numbers.
+ * Entries live in a fixed pool and each owns a reusable character buffer, so
+ * spawning numbers every frame doesn't allocate.
+ */
+public class FloatingText {
+  private static FloatingText instance;
+
+  private static final int CAPACITY = 512;
+  private static final float LIFETIME = 1.0f;
+  private static final float RISE_SPEED = 40.0f;
+
+  // Entry pool, live entries are packed in [0, count)
+  private final TextBuilder[] texts = new TextBuilder[CAPACITY];
+  private final float[] posX = new float[CAPACITY], posY = new float[CAPACITY];
+  private final float[] life = new float[CAPACITY], scale = new float[CAPACITY];
+  private final float[] red = new float[CAPACITY], green = new float[CAPACITY], blue = new float[CAPACITY];
+  private int count = 0;
+
+  private final SpriteBatch batch = new SpriteBatch(2048);
+
+  private FloatingText() {
+    for (int i = 0; i < CAPACITY; i++) {
+      texts[i] = new TextBuilder(16);
+    }
+  }
+
+  public static FloatingText get() {
+    if (instance == null) {
+      instance = new FloatingText();
+    }
+    return instance;
+  }
+
+  /**
+   * Show a number at a world position. The oldest entry is replaced when the
+   * pool is full.
+   *
+   * @param value     The number to show
+   * @param x         Center x in world coordinates
+   * @param y         Top y in world coordinates
+   * @param textScale Size relative to the font's pixel height
+   * @param r         Red
+   * @param g         Green
+   * @param b         Blue
+   */
+  public void spawnNumber(long value, float x, float y, float textScale, float r, float g, float b) {
+    int i = count < CAPACITY ? count++ : oldestEntry();
+    texts[i].clear().append(value);
+    posX[i] = x;
+    posY[i] = y;
+    life[i] = LIFETIME;
+    scale[i] = textScale;
+    red[i] = r;
+    green[i] = g;
+    blue[i] = b;
+  }
+
+  /**
+   * Move and age every entry, removing expired ones.
+   *
+   * @param deltaTime Time since last update in seconds
+   */
+  public void update(double deltaTime) {
+    float dt = (float) deltaTime;
+    int i = 0;
+    while (i < count) {
+      life[i] -= dt;
+      posY[i] -= RISE_SPEED * dt;
+      if (life[i] > 0) {
+        i++;
+        continue;
+      }
+      // Swap the last entry in, keeping its buffer for reuse
+      int last = --count;
+      TextBuilder freed = texts[i];
+      texts[i] = texts[last];
+      texts[last] = freed;
+      posX[i] = posX[last];
+      posY[i] = posY[last];
+      life[i] = life[last];
+      scale[i] = scale[last];
+      red[i] = red[last];
+      green[i] = green[last];
+      blue[i] = blue[last];
+    }
+  }
+
+  /**
+   * Draw every entry. Call after {@link Renderer#render()}.
+   *
+   * @param renderer The renderer providing the camera
+   */
+  public void render(Renderer renderer) {
+    Font font = count > 0 ? Font.getDefault() : null;
+    if (font == null) {
+      return;
+    }
+
+    Camera camera = renderer.getCamera();
+    camera.applyProjection();
+
+    glEnable(GL_TEXTURE_2D);
+    glEnable(GL_BLEND);
+    glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+    batch.begin();
+    for (int i = 0; i < count; i++) {
+      float width = font.measure(texts[i], scale[i]);
+      font.draw(batch, texts[i], posX[i] - width / 2, posY[i], scale[i],
+          red[i], green[i], blue[i], Math.min(1.0f, life[i] / LIFETIME * 2));
+    }
+    batch.end();
+
+    glBindTexture(GL_TEXTURE_2D, 0);
+    glDisable(GL_BLEND);
+    glDisable(GL_TEXTURE_2D);
+  }
+
+  private int oldestEntry() {
+    int oldest = 0;
+    for (int i = 1; i < count; i++) {
+      if (life[i] < life[oldest]) {
+        oldest = i;
+      }
+    }
+    return oldest;
+  }
+
+  public int getCount() {
+    return count;
+  }
+}
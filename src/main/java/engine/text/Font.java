@@ -0,0 +1,196 @@
+package engine.text;
+
+import engine.asset.VirtualFileSystem;
+import engine.renderer.QuadSink;
+import engine.renderer.SpriteBatch;
+import engine.renderer.Texture;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.stb.STBTTBakedChar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.lwjgl.stb.STBTruetype.stbtt_BakeFontBitmap;
+
+/**
+ * A TrueType font rasterized once into a glyph atlas with stb_truetype.
+ * Text is drawn by emitting one textured quad per glyph into a
+ * {@link SpriteBatch}.
+ */
+public class Font {
+  private static final int FIRST_CHAR = 32;
+  private static final int CHAR_COUNT = 95; // Printable ASCII
+  private static final int ATLAS_SIZE = 512;
+
+  // Bundled default font, then system fonts to fall back on
+  private static final String DEFAULT_FONT_ASSET = "fonts/default.ttf";
+  private static final String[] DEFAULT_FONT_PATHS = {
+      "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf",
+      "/System/Library/Fonts/Supplemental/Arial.ttf",
+      "C:/Windows/Fonts/arial.ttf"
+  };
+
+  private static Font defaultFont;
+  private static boolean defaultFontLoaded = false;
+
+  private final Texture atlas;
+  private final float pixelHeight;
+
+  // Glyph metrics, indexed by (char - FIRST_CHAR)
+  private final float[] u0 = new float[CHAR_COUNT], v0 = new float[CHAR_COUNT];
+  private final float[] u1 = new float[CHAR_COUNT], v1 = new float[CHAR_COUNT];
+  private final float[] offsetX = new float[CHAR_COUNT], offsetY = new float[CHAR_COUNT];
+  private final float[] glyphWidth = new float[CHAR_COUNT], glyphHeight = new float[CHAR_COUNT];
+  private final float[] advance = new float[CHAR_COUNT];
+
+  /**
+   * Rasterize a TrueType font.
+   *
+   * @param fontData    Contents of a .ttf file
+   * @param pixelHeight Glyph height in pixels
+   */
+  public Font(ByteBuffer fontData, float pixelHeight) {
+    this.pixelHeight = pixelHeight;
+
+    ByteBuffer bitmap = BufferUtils.createByteBuffer(ATLAS_SIZE * ATLAS_SIZE);
+    try (STBTTBakedChar.Buffer chars = STBTTBakedChar.malloc(CHAR_COUNT)) {
+      int result = stbtt_BakeFontBitmap(fontData, pixelHeight, bitmap, ATLAS_SIZE, ATLAS_SIZE, FIRST_CHAR, chars);
+      if (result == 0) {
+        throw new RuntimeException("Failed to bake font, no glyphs fit in the atlas");
+      }
+
+      for (int i = 0; i < CHAR_COUNT; i++) {
+        STBTTBakedChar c = chars.get(i);
+        u0[i] = c.x0() / (float) ATLAS_SIZE;
+        v0[i] = c.y0() / (float) ATLAS_SIZE;
+        u1[i] = c.x1() / (float) ATLAS_SIZE;
+        v1[i] = c.y1() / (float) ATLAS_SIZE;
+        offsetX[i] = c.xoff();
+        offsetY[i] = c.yoff();
+        glyphWidth[i] = c.x1() - c.x0();
+        glyphHeight[i] = c.y1() - c.y0();
+        advance[i] = c.xadvance();
+      }
+    }
+
+    // Expand the coverage bitmap to white RGBA so it works with tinting
+    ByteBuffer rgba = BufferUtils.createByteBuffer(ATLAS_SIZE * ATLAS_SIZE * 4);
+    for (int i = 0; i < ATLAS_SIZE * ATLAS_SIZE; i++) {
+      rgba.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put(bitmap.get(i));
+    }
+    rgba.flip();
+    this.atlas = Texture.create("font-atlas", rgba, ATLAS_SIZE, ATLAS_SIZE, true);
+  }
+
+  /**
+   * Load a font from a .ttf file.
+   *
+   * @param path        Path to the font file
+   * @param pixelHeight Glyph height in pixels
+   * @return The loaded font
+   * @throws IOException If the file can't be read
+   */
+  public static Font load(String path, float pixelHeight) throws IOException {
+    byte[] bytes = Files.readAllBytes(Paths.get(path));
+    ByteBuffer data = BufferUtils.createByteBuffer(bytes.length);
+    data.put(bytes).flip();
+    return new Font(data, pixelHeight);
+  }
+
+  /**
+   * Get the default UI font, loading it on first use.
+   *
+   * @return The default font, or null if no font file could be found
+   */
+  public static Font getDefault() {
+    if (!defaultFontLoaded) {
+      defaultFontLoaded = true;
+      ByteBuffer bundled = VirtualFileSystem.get().read(DEFAULT_FONT_ASSET);
+      if (bundled != null) {
+        try {
+          defaultFont = new Font(bundled, 24);
+        } catch (RuntimeException e) {
+          System.err.println("Failed to load font " + DEFAULT_FONT_ASSET + ": " + e.getMessage());
+        }
+      }
+      for (int i = 0; i < DEFAULT_FONT_PATHS.length && defaultFont == null; i++) {
+        String path = DEFAULT_FONT_PATHS[i];
+        if (Files.exists(Paths.get(path))) {
+          try {
+            defaultFont = load(path, 24);
+          } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load font " + path + ": " + e.getMessage());
+          }
+        }
+      }
+      if (defaultFont == null) {
+        System.err.println("No font found: " + DEFAULT_FONT_ASSET + " is missing from the assets and no system font"
+            + " was found, text rendering is disabled");
+      }
+    }
+    return defaultFont;
+  }
+
+  /**
+   * Draw text into a batch or other quad sink. Characters outside printable
+   * ASCII are skipped.
+   *
+   * @param batch The sink receiving the glyph quads
+   * @param text  Text to draw
+   * @param x     Left edge
+   * @param y     Top edge
+   * @param scale Size relative to the baked pixel height
+   * @param r     Red
+   * @param g     Green
+   * @param b     Blue
+   * @param a     Alpha
+   */
+  public void draw(QuadSink batch, CharSequence text, float x, float y, float scale,
+      float r, float g, float b, float a) {
+    int textureId = atlas.getTextureId();
+    float penX = x;
+    float baseline = y + pixelHeight * 0.8f * scale;
+
+    for (int i = 0, n = text.length(); i < n; i++) {
+      int glyph = text.charAt(i) - FIRST_CHAR;
+      if (glyph < 0 || glyph >= CHAR_COUNT) {
+        continue;
+      }
+      if (glyphWidth[glyph] > 0) {
+        batch.drawQuad(textureId,
+            penX + offsetX[glyph] * scale, baseline + offsetY[glyph] * scale,
+            glyphWidth[glyph] * scale, glyphHeight[glyph] * scale,
+            u0[glyph], v0[glyph], u1[glyph], v1[glyph], r, g, b, a);
+      }
+      penX += advance[glyph] * scale;
+    }
+  }
+
+  /**
+   * Measure the width of a line of text.
+   *
+   * @param text  Text to measure
+   * @param scale Size relative to the baked pixel height
+   * @return Width in pixels
+   */
+  public float measure(CharSequence text, float scale) {
+    float width = 0;
+    for (int i = 0, n = text.length(); i < n; i++) {
+      int glyph = text.charAt(i) - FIRST_CHAR;
+      if (glyph >= 0 && glyph < CHAR_COUNT) {
+        width += advance[glyph];
+      }
+    }
+    return width * scale;
+  }
+
+  public float getPixelHeight() {
+    return pixelHeight;
+  }
+
+  public Texture getAtlas() {
+    return atlas;
+  }
+}
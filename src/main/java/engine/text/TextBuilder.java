@@ -0,0 +1,140 @@
+package engine.text;
+
+import java.util.Arrays;
+
+/**
+ * Reusable character buffer for building short strings every frame (damage
+ * numbers, stat readouts) without allocating. Numbers are formatted straight
+ * into the buffer.
+ */
+public class TextBuilder implements CharSequence {
+  private char[] chars;
+  private int length = 0;
+
+  public TextBuilder(int capacity) {
+    this.chars = new char[Math.max(1, capacity)];
+  }
+
+  public TextBuilder clear() {
+    length = 0;
+    return this;
+  }
+
+  public TextBuilder append(char c) {
+    ensureCapacity(length + 1);
+    chars[length++] = c;
+    return this;
+  }
+
+  public TextBuilder append(CharSequence text) {
+    int n = text.length();
+    ensureCapacity(length + n);
+    for (int i = 0; i < n; i++) {
+      chars[length++] = text.charAt(i);
+    }
+    return this;
+  }
+
+  public TextBuilder append(int value) {
+    return append((long) value);
+  }
+
+  public TextBuilder append(long value) {
+    if (value == Long.MIN_VALUE) {
+      return append("-9223372036854775808");
+    }
+    if (value < 0) {
+      append('-');
+      value = -value;
+    }
+
+    // Count digits, then write them back to front
+    int digits = 1;
+    for (long v = value; v >= 10; v /= 10) {
+      digits++;
+    }
+    ensureCapacity(length + digits);
+    int end = length + digits;
+    for (int i = end - 1; i >= length; i--) {
+      chars[i] = (char) ('0' + (value % 10));
+      value /= 10;
+    }
+    length = end;
+    return this;
+  }
+
+  /**
+   * Append a number with a fixed count of decimals, rounded half away from
+   * zero. Values that round to zero print without a sign, NaN and infinities
+   * like {@link Double#toString(double)}, and values too large for the
+   * decimals in a long fall back to {@link Double#toString(double)}.
+   *
+   * @param value    The number to append
+   * @param decimals Digits after the decimal point (0-9)
+   * @return this
+   */
+  public TextBuilder append(double value, int decimals) {
+    if (Double.isNaN(value)) {
+      return append("NaN");
+    }
+    if (Double.isInfinite(value)) {
+      return append(value > 0 ? "Infinity" : "-Infinity");
+    }
+
+    long scale = 1;
+    for (int i = 0; i < decimals; i++) {
+      scale *= 10;
+    }
+    double magnitude = Math.abs(value) * scale;
+    if (magnitude >= Long.MAX_VALUE) {
+      return append(Double.toString(value));
+    }
+    long scaled = Math.round(magnitude);
+    if (value < 0 && scaled != 0) {
+      append('-');
+    }
+    append(scaled / scale);
+
+    if (decimals > 0) {
+      append('.');
+      long fraction = scaled % scale;
+      // Leading zeros of the fraction
+      for (long s = scale / 10; s > 1 && fraction < s; s /= 10) {
+        append('0');
+      }
+      append(fraction);
+    }
+    return this;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > chars.length) {
+      chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+    }
+  }
+
+  /** Backing array, valid up to {@link #length()}. */
+  public char[] getChars() {
+    return chars;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    return chars[index];
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return new String(chars, start, end - start);
+  }
+
+  @Override
+  public String toString() {
+    return new String(chars, 0, length);
+  }
+}
@@ -0,0 +1,84 @@
+package engine.ui;
+
+import engine.metrics.Counter;
+import engine.metrics.Gauge;
+import engine.metrics.Histogram;
+import engine.metrics.LatencyHistogram;
+import engine.metrics.Metric;
+import engine.metrics.MetricsRegistry;
+import engine.text.TextBuilder;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists every metric in the {@link MetricsRegistry}: gauges as their value,
+ * counters with their rate, and histograms as p50/p99 in milliseconds, all
+ * over the last half second. The panel's version only changes twice a
+ * second, so it is rebuilt at that rate however fast the game runs.
+ */
+public class MetricsOverlay extends UIPanel {
+  private static final float SCALE = 0.5f;
+  private static final float LINE = 15;
+  private static final int MAX_ROWS = 40;
+  private static final long REFRESH_NANOS = 500_000_000;
+
+  private final TextBuilder text = new TextBuilder(96);
+
+  // Values at the previous rebuild, to show rates and recent percentiles
+  private final Map<Counter, Long> lastCounts = new IdentityHashMap<>();
+  private final Map<Histogram, LatencyHistogram> lastSnapshots = new IdentityHashMap<>();
+  private long lastBuildNanos = System.nanoTime();
+
+  public MetricsOverlay(float x, float y) {
+    super(x, y, 430, MAX_ROWS * LINE + 12);
+  }
+
+  @Override
+  protected long computeVersion() {
+    return System.nanoTime() / REFRESH_NANOS;
+  }
+
+  @Override
+  protected void build(UIBuilder ui) {
+    long now = System.nanoTime();
+    double seconds = Math.max(1e-3, (now - lastBuildNanos) / 1e9);
+    lastBuildNanos = now;
+
+    List<Metric> metrics = MetricsRegistry.get().getMetrics();
+    int rows = Math.min(metrics.size(), MAX_ROWS);
+    ui.rect(0, 0, getWidth(), rows * LINE + 12, 0.05f, 0.05f, 0.08f, 0.75f);
+
+    float y = 6;
+    for (int i = 0; i < rows; i++) {
+      Metric metric = metrics.get(i);
+      text.clear().append(metric.getName()).append("  ");
+      if (metric instanceof Gauge) {
+        text.append(((Gauge) metric).get(), 1);
+      } else if (metric instanceof Counter) {
+        Counter counter = (Counter) metric;
+        long count = counter.get();
+        Long last = lastCounts.put(counter, count);
+        text.append(count).append("  (").append((count - (last != null ? last : count)) / seconds, 1)
+            .append("/s)");
+      } else if (metric instanceof Histogram) {
+        Histogram histogram = (Histogram) metric;
+        LatencyHistogram snapshot = histogram.snapshot();
+        LatencyHistogram recent = snapshot.copy();
+        LatencyHistogram last = lastSnapshots.put(histogram, snapshot);
+        if (last != null) {
+          recent.subtract(last);
+        }
+        if (recent.getCount() == 0) {
+          text.append("-");
+        } else {
+          text.append("p50 ").append(recent.percentile(0.5) / 1e6, 2)
+              .append("  p99 ").append(recent.percentile(0.99) / 1e6, 2).append(" ms");
+        }
+      }
+      ui.label(text, 8, y, SCALE, 0.85f, 0.9f, 0.85f);
+      y += LINE;
+    }
+  }
+}
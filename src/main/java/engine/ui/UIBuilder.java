@@ -0,0 +1,189 @@
+package engine.ui;
+
+import engine.renderer.QuadSink;
+import engine.renderer.Texture;
+import engine.renderer.VertexBuffer;
+import engine.text.Font;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Records the quads of one panel into a retained vertex buffer.
+ * Panels describe their contents immediate-mode style (rects, labels, buttons)
+ * and the result is kept on the GPU until the panel's bound values change.
+ */
+public class UIBuilder implements QuadSink {
+  // x, y, u, v, r, g, b, a per vertex, four vertices per quad
+  private static final int FLOATS_PER_QUAD = 32;
+
+  private final VertexBuffer vertexBuffer = new VertexBuffer();
+  private FloatBuffer vertices = BufferUtils.createFloatBuffer(64 * FLOATS_PER_QUAD);
+  private int quadCount = 0;
+
+  // Texture runs in emission order: texture id, first quad, quad count
+  private int[] runs = new int[48];
+  private int runCount = 0;
+
+  // Clickable regions in panel-local coordinates: x, y, width, height
+  private float[] buttonRects = new float[64];
+  private int[] buttonIds = new int[16];
+  private int buttonCount = 0;
+
+  // Origin of the panel being built
+  private float originX, originY;
+
+  void begin(float originX, float originY) {
+    this.originX = originX;
+    this.originY = originY;
+    vertices.clear();
+    quadCount = 0;
+    runCount = 0;
+    buttonCount = 0;
+  }
+
+  void end() {
+    vertices.flip();
+    if (quadCount > 0) {
+      vertexBuffer.upload(vertices, quadCount);
+    }
+  }
+
+  /**
+   * Draw a solid rectangle.
+   *
+   * @param x      Left edge relative to the panel
+   * @param y      Top edge relative to the panel
+   * @param width  Width
+   * @param height Height
+   * @param r      Red
+   * @param g      Green
+   * @param b      Blue
+   * @param a      Alpha
+   */
+  public void rect(float x, float y, float width, float height, float r, float g, float b, float a) {
+    drawQuad(Texture.getWhiteTexture().getTextureId(), originX + x, originY + y, width, height,
+        0, 0, 1, 1, r, g, b, a);
+  }
+
+  /**
+   * Draw a line of text with the default font.
+   *
+   * @param text  Text to draw
+   * @param x     Left edge relative to the panel
+   * @param y     Top edge relative to the panel
+   * @param scale Size relative to the font's pixel height
+   * @param r     Red
+   * @param g     Green
+   * @param b     Blue
+   */
+  public void label(CharSequence text, float x, float y, float scale, float r, float g, float b) {
+    Font font = Font.getDefault();
+    if (font != null) {
+      font.draw(this, text, originX + x, originY + y, scale, r, g, b, 1.0f);
+    }
+  }
+
+  /**
+   * Draw a button and register it for hit testing.
+   *
+   * @param id     Id passed to {@link UIPanel#onButton(int)} when clicked
+   * @param text   Button caption
+   * @param x      Left edge relative to the panel
+   * @param y      Top edge relative to the panel
+   * @param width  Width
+   * @param height Height
+   * @param active Whether the button can be clicked
+   */
+  public void button(int id, CharSequence text, float x, float y, float width, float height, boolean active) {
+    float shade = active ? 0.35f : 0.2f;
+    rect(x, y, width, height, shade, shade, shade + 0.05f, 0.9f);
+    float textShade = active ? 1.0f : 0.5f;
+    label(text, x + 6, y + 4, 0.6f, textShade, textShade, textShade);
+
+    if (!active) {
+      return;
+    }
+    if (buttonCount == buttonIds.length) {
+      buttonIds = Arrays.copyOf(buttonIds, buttonCount * 2);
+      buttonRects = Arrays.copyOf(buttonRects, buttonCount * 8);
+    }
+    buttonIds[buttonCount] = id;
+    buttonRects[buttonCount * 4] = x;
+    buttonRects[buttonCount * 4 + 1] = y;
+    buttonRects[buttonCount * 4 + 2] = width;
+    buttonRects[buttonCount * 4 + 3] = height;
+    buttonCount++;
+  }
+
+  @Override
+  public void drawQuad(int textureId, float x, float y, float width, float height,
+      float u0, float v0, float u1, float v1, float r, float g, float b, float a) {
+    if (vertices.remaining() < FLOATS_PER_QUAD) {
+      FloatBuffer grown = BufferUtils.createFloatBuffer(vertices.capacity() * 2);
+      vertices.flip();
+      grown.put(vertices);
+      vertices = grown;
+    }
+
+    // Start a new run when the texture changes
+    if (runCount == 0 || runs[(runCount - 1) * 3] != textureId) {
+      if ((runCount + 1) * 3 > runs.length) {
+        runs = Arrays.copyOf(runs, runs.length * 2);
+      }
+      runs[runCount * 3] = textureId;
+      runs[runCount * 3 + 1] = quadCount;
+      runs[runCount * 3 + 2] = 0;
+      runCount++;
+    }
+    runs[(runCount - 1) * 3 + 2]++;
+
+    float x1 = x + width, y1 = y + height;
+    vertices.put(x).put(y).put(u0).put(v0).put(r).put(g).put(b).put(a);
+    vertices.put(x1).put(y).put(u1).put(v0).put(r).put(g).put(b).put(a);
+    vertices.put(x1).put(y1).put(u1).put(v1).put(r).put(g).put(b).put(a);
+    vertices.put(x).put(y1).put(u0).put(v1).put(r).put(g).put(b).put(a);
+    quadCount++;
+  }
+
+  /** Draw the retained quads. */
+  void draw() {
+    if (quadCount == 0) {
+      return;
+    }
+    vertexBuffer.bind();
+    for (int i = 0; i < runCount; i++) {
+      glBindTexture(GL_TEXTURE_2D, runs[i * 3]);
+      vertexBuffer.drawQuads(runs[i * 3 + 1], runs[i * 3 + 2]);
+    }
+    vertexBuffer.unbind();
+  }
+
+  /**
+   * Find the button under a panel-local point.
+   *
+   * @return The button id, or -1 if there is none
+   */
+  int buttonAt(float localX, float localY) {
+    // Later buttons are drawn on top, so search backwards
+    for (int i = buttonCount - 1; i >= 0; i--) {
+      float bx = buttonRects[i * 4], by = buttonRects[i * 4 + 1];
+      if (localX >= bx && localX <= bx + buttonRects[i * 4 + 2]
+          && localY >= by && localY <= by + buttonRects[i * 4 + 3]) {
+        return buttonIds[i];
+      }
+    }
+    return -1;
+  }
+
+  int getQuadCount() {
+    return quadCount;
+  }
+
+  void delete() {
+    vertexBuffer.delete();
+  }
+}
@@ -0,0 +1,112 @@
+package engine.ui;
+
+import engine.core.MouseListener;
+import engine.renderer.Camera;
+import engine.renderer.Renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Owns the screen-space UI panels, routes left clicks to them and draws them
+ * from their cached vertex buffers.
+ */
+public class UIManager {
+  private static UIManager instance;
+
+  private final List<UIPanel> panels = new ArrayList<>();
+  private boolean wasMouseDown = false;
+
+  // Statistics for the last frame
+  private int rebuiltPanelCount = 0;
+
+  private UIManager() {
+    // Private constructor for singleton
+  }
+
+  public static UIManager get() {
+    if (instance == null) {
+      instance = new UIManager();
+    }
+    return instance;
+  }
+
+  /** Add a panel. Panels added later are drawn on top. */
+  public void add(UIPanel panel) {
+    panels.add(panel);
+  }
+
+  public void remove(UIPanel panel) {
+    if (panels.remove(panel)) {
+      panel.builder.delete();
+    }
+  }
+
+  /**
+   * Route clicks to panels. A click is delivered on the frame the left button
+   * goes down, to the topmost visible panel under the cursor.
+   */
+  public void update() {
+    boolean mouseDown = MouseListener.mouseButtonDown(0);
+    if (mouseDown && !wasMouseDown) {
+      float mouseX = MouseListener.getX(), mouseY = MouseListener.getY();
+      for (int i = panels.size() - 1; i >= 0; i--) {
+        UIPanel panel = panels.get(i);
+        if (panel.isVisible() && panel.contains(mouseX, mouseY)) {
+          int id = panel.builder.buttonAt(mouseX - panel.getX(), mouseY - panel.getY());
+          if (id >= 0) {
+            panel.onButton(id);
+          }
+          break;
+        }
+      }
+    }
+    wasMouseDown = mouseDown;
+  }
+
+  /**
+   * Draw every visible panel in screen space. Call last in the frame.
+   *
+   * @param renderer The renderer providing the viewport size
+   */
+  public void render(Renderer renderer) {
+    Camera camera = renderer.getCamera();
+
+    // Screen-space projection, (0,0) at the top-left of the window
+    glMatrixMode(GL_PROJECTION);
+    glLoadIdentity();
+    glOrtho(0, camera.getViewportWidth(), camera.getViewportHeight(), 0, -1, 1);
+    glMatrixMode(GL_MODELVIEW);
+    glLoadIdentity();
+
+    glEnable(GL_TEXTURE_2D);
+    glEnable(GL_BLEND);
+    glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+    rebuiltPanelCount = 0;
+    for (UIPanel panel : panels) {
+      if (!panel.isVisible()) {
+        continue;
+      }
+      if (panel.refresh()) {
+        rebuiltPanelCount++;
+      }
+      panel.builder.draw();
+    }
+
+    glBindTexture(GL_TEXTURE_2D, 0);
+    glDisable(GL_BLEND);
+    glDisable(GL_TEXTURE_2D);
+  }
+
+  /** Number of panels whose vertex data was rebuilt in the last frame. */
+  public int getRebuiltPanelCount() {
+    return rebuiltPanelCount;
+  }
+
+  public int getPanelCount() {
+    return panels.size();
+  }
+}
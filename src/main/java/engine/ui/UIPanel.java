@@ -0,0 +1,120 @@
+package engine.ui;
+
+/**
+ * A rectangular piece of UI whose vertex data is cached.
+ * Subclasses describe their contents in {@link #build(UIBuilder)} and return a
+ * cheap fingerprint of every value they display from {@link #computeVersion()};
+ * the panel is only rebuilt when that fingerprint changes.
+ */
+public abstract class UIPanel {
+  private float x, y, width, height;
+  private boolean visible = true;
+
+  final UIBuilder builder = new UIBuilder();
+  private long builtVersion;
+  private boolean built = false;
+  private boolean forceRebuild = false;
+
+  protected UIPanel(float x, float y, float width, float height) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Fingerprint of the values shown by the panel. Combine values with
+   * {@link #mix(long, long)}.
+   *
+   * @return A value that changes whenever the panel's contents change
+   */
+  protected abstract long computeVersion();
+
+  /**
+   * Describe the panel's contents. Coordinates are relative to the panel.
+   *
+   * @param ui Builder receiving rects, labels and buttons
+   */
+  protected abstract void build(UIBuilder ui);
+
+  /**
+   * Called when a button registered during {@link #build(UIBuilder)} is
+   * clicked.
+   *
+   * @param id The button id
+   */
+  protected void onButton(int id) {
+  }
+
+  /**
+   * Rebuild the cached vertex data if the displayed values changed.
+   *
+   * @return true if the panel was rebuilt
+   */
+  boolean refresh() {
+    long version = computeVersion();
+    if (built && !forceRebuild && version == builtVersion) {
+      return false;
+    }
+    builder.begin(x, y);
+    build(builder);
+    builder.end();
+    builtVersion = version;
+    built = true;
+    forceRebuild = false;
+    return true;
+  }
+
+  /** Rebuild on the next frame even if the version is unchanged. */
+  public void invalidate() {
+    forceRebuild = true;
+  }
+
+  boolean contains(float px, float py) {
+    return px >= x && px <= x + width && py >= y && py <= y + height;
+  }
+
+  /** Mix a value into a version fingerprint. */
+  protected static long mix(long hash, long value) {
+    hash ^= value;
+    hash *= 0x100000001B3L;
+    return hash ^ (hash >>> 29);
+  }
+
+  /** Mix a floating point value at a fixed precision into a fingerprint. */
+  protected static long mix(long hash, double value, double precision) {
+    return mix(hash, Math.round(value / precision));
+  }
+
+  public void setPosition(float x, float y) {
+    if (this.x != x || this.y != y) {
+      this.x = x;
+      this.y = y;
+      invalidate();
+    }
+  }
+
+  public float getX() {
+    return x;
+  }
+
+  public float getY() {
+    return y;
+  }
+
+  public float getWidth() {
+    return width;
+  }
+
+  public float getHeight() {
+    return height;
+  }
+
+  public boolean isVisible() {
+    return visible;
+  }
+
+  public void setVisible(boolean visible) {
+    this.visible = visible;
+  }
+}
@@ -1,83 +1,222 @@
 package game;
 
+import engine.asset.VirtualFileSystem;
+import engine.core.StartupTasks;
+import engine.metrics.Gauge;
+import engine.metrics.MetricsRegistry;
+import engine.renderer.Texture;
 import engine.renderer.Renderer;
+import engine.ui.UIManager;
+import game.ai.AISystem;
+import game.combat.CombatClock;
+import game.combat.CombatEffects;
+import game.combat.CombatEventBus;
 import game.entity.Character;
 import game.entity.Warrior;
-
-import java.io.File;
+import game.ui.CharacterPanel;
+import game.ui.RosterPanel;
+import game.ui.TalentTreePanel;
+import game.world.DungeonChunk;
+import game.world.DungeonEnemies;
+import game.world.DungeonGenerator;
+import game.world.DungeonProps;
+import game.world.DungeonStreamer;
+import game.world.DungeonView;
+import game.world.Hex;
+import game.world.VisibilitySystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages the game state, characters, and resources.
  */
 public class GameManager {
+  private static final int VIEW_RADIUS = 8;
+
+  private static final Gauge UNITS = MetricsRegistry.get().gauge("game_units", "Characters in the roster");
+  private static final Gauge ALIVE_UNITS = MetricsRegistry.get().gauge("game_units_alive", "Living characters");
+  private static final Gauge STATUS_EFFECTS =
+      MetricsRegistry.get().gauge("game_status_effects", "Status effects on all characters");
+  private static final Gauge AI_AGENTS = MetricsRegistry.get().gauge("game_ai_agents", "Units driven by the AI");
+  private static final Gauge LOADED_CHUNKS =
+      MetricsRegistry.get().gauge("game_dungeon_chunks", "Dungeon chunks loaded around the party");
+  private static final Gauge VISIBLE_ENEMIES =
+      MetricsRegistry.get().gauge("game_enemies_visible", "Dungeon enemies in view, drawn as one instanced group");
+
   // Test characters
   private Character warrior;
+  private final List<Character> roster = new ArrayList<>();
+
+  // Character sheet panels
+  private CharacterPanel characterPanel;
+  private TalentTreePanel talentTreePanel;
+
+  // Current dungeon floor, generated around the party as it moves
+  private DungeonStreamer dungeon;
+  private VisibilitySystem visibility;
+  private DungeonView dungeonView;
+  private DungeonProps dungeonProps;
+  private DungeonEnemies dungeonEnemies;
 
   // Reference to the renderer
   private final Renderer renderer;
 
-  public GameManager(Renderer renderer) {
-    this.renderer = renderer;
-
-    // Ensure resources directory exists
-    createResourceDirectories();
+  /**
+   * First-frame work that needs no GL context, started by {@link #preload}
+   * before the window exists.
+   */
+  public static final class Preload {
+    private final long seed = System.nanoTime();
+    private CompletableFuture<Warrior> warrior;
+    private CompletableFuture<DungeonChunk> startChunk;
+    private CompletableFuture<Void> sprites;
+
+    private Preload() {
+    }
+  }
 
-    // Initialize test characters
-    initializeCharacters();
+  /**
+   * Start loading what the first frame needs on the startup threads: the
+   * asset index, the roster with its decoded sprites, and the start chunk.
+   */
+  public static Preload preload(StartupTasks startup) {
+    Preload preload = new Preload();
+    startup.run("asset index", VirtualFileSystem::get);
+    preload.warrior = startup.submit("roster", () -> new Warrior("Test Warrior"));
+    preload.sprites = preload.warrior.thenCompose(warrior ->
+        startup.run("decode " + warrior.getSpriteAssetPath(), () -> Texture.predecode(warrior.getSpriteAssetPath())));
+    preload.startChunk = startup.submit("start chunk", () -> new DungeonGenerator(preload.seed, 1).generate(0, 0));
+    return preload;
   }
 
-  private void createResourceDirectories() {
-    // Create asset directories if they don't exist
-    File resourcesDir = new File("src/main/resources");
-    if (!resourcesDir.exists()) {
-      resourcesDir.mkdir();
-    }
+  public GameManager(Renderer renderer, Preload preload) {
+    this.renderer = renderer;
 
-    File assetsDir = new File("src/main/resources/assets");
-    if (!assetsDir.exists()) {
-      assetsDir.mkdir();
-    }
+    // Show hits, heals and ultimates as particles and floating numbers
+    CombatEffects.register(CombatEventBus.get());
 
-    File charactersDir = new File("src/main/resources/assets/characters");
-    if (!charactersDir.exists()) {
-      charactersDir.mkdir();
-    }
+    // Initialize test characters
+    initializeCharacters(preload);
 
-    // Create a placeholder image if it doesn't exist
-    File placeholderFile = new File("src/main/resources/assets/characters/placeholder.png");
-    if (!placeholderFile.exists()) {
-      // We can't actually create an image file here, but we'd need to add one
-      // manually
-      System.out.println("Please add a placeholder.png file in: " + placeholderFile.getAbsolutePath());
-    }
+    // Build the character sheet UI
+    initializeUI();
 
-    // Character class specific placeholders
-    String[] classes = { "warrior", "mage", "druid", "rogue", "paladin", "warlock", "monk", "shaman" };
-    for (String className : classes) {
-      File classFile = new File("src/main/resources/assets/characters/" + className + ".png");
-      if (!classFile.exists()) {
-        System.out
-            .println("Please add a " + className + ".png file in: " + classFile.getParentFile().getAbsolutePath());
+    // Start generating the first floor
+    initializeDungeon(preload);
+  }
+
+  /** Report sprites missing from the assets. Not needed for the first frame. */
+  public void checkAssets() {
+    // Lookups are hash probes into the asset pack; only loose files touch the disk
+    VirtualFileSystem vfs = VirtualFileSystem.get();
+    String[] sprites = { "placeholder", "warrior", "mage", "druid", "rogue", "paladin", "warlock", "monk", "shaman" };
+    for (String name : sprites) {
+      String path = "characters/" + name + ".png";
+      if (!vfs.exists(path)) {
+        System.out.println("Missing sprite " + path + ", add it under " + vfs.getLooseRoot().toAbsolutePath()
+            + " or run ./gradlew generatePlaceholders");
       }
     }
   }
 
-  private void initializeCharacters() {
-    // Create warrior test character
-    warrior = new Warrior("Test Warrior");
+  private void initializeCharacters(Preload preload) {
+    // The warrior test character was created and its sprite decoded during startup
+    warrior = preload.warrior.join();
+    preload.sprites.join();
 
-    // Position the warrior at the center of the screen
-    warrior.moveTo(9, 5); // Mid-screen in a 18x10 grid
+    // The warrior is placed in the dungeon by initializeDungeon()
 
     // Initialize the sprite
     warrior.initializeSprite();
 
     // Add the sprite to the renderer
     renderer.add(warrior.getSprite());
+    roster.add(warrior);
+
+    // Let the utility AI drive it
+    AISystem.get().register(warrior, warrior.getBrain());
+  }
+
+  private void initializeUI() {
+    characterPanel = new CharacterPanel(10, 10);
+    talentTreePanel = new TalentTreePanel(300, 10);
+    RosterPanel rosterPanel = new RosterPanel(10, 320, 10, roster, this::selectCharacter);
+
+    UIManager ui = UIManager.get();
+    ui.add(characterPanel);
+    ui.add(talentTreePanel);
+    ui.add(rosterPanel);
+    selectCharacter(warrior);
+  }
+
+  private void initializeDungeon(Preload preload) {
+    int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    dungeon = new DungeonStreamer(new DungeonGenerator(preload.seed, 1),
+        DungeonStreamer.createExecutor(threads));
+
+    // Fog of war for the player's team, refreshed as chunks arrive
+    visibility = new VisibilitySystem(dungeon);
+    dungeon.setLoadListener(visibility::invalidateChunk);
+
+    // The party enters in the first room of the start chunk
+    dungeon.addChunk(preload.startChunk.join());
+    DungeonChunk start = dungeon.getChunkNow(0, 0);
+    for (Character character : roster) {
+      character.setTerrain(dungeon);
+    }
+    warrior.moveTo(start.getRoomQ(0), start.getRoomR(0));
+    renderer.getCamera().centerOn(Hex.toPixelX(warrior.getPositionX(), warrior.getPositionY()),
+        Hex.toPixelY(warrior.getPositionX(), warrior.getPositionY()));
+
+    for (Character character : roster) {
+      visibility.register(character, VIEW_RADIUS);
+    }
+    dungeon.update(warrior.getPositionX(), warrior.getPositionY());
+
+    dungeonView = new DungeonView(dungeon, visibility, warrior.getTeam());
+    renderer.addTileMap(dungeonView.getTileMap());
+    dungeonProps = new DungeonProps(dungeon, visibility, warrior.getTeam(), renderer);
+    dungeonEnemies = new DungeonEnemies(dungeon, visibility, warrior.getTeam(), renderer);
+  }
+
+  private void selectCharacter(Character character) {
+    characterPanel.setCharacter(character);
+    talentTreePanel.setCharacter(character);
   }
 
   public void update(double deltaTime) {
-    // Update character state
+    // Pick actions for AI units, then update character state
+    CombatClock.get().advance(deltaTime);
+    AISystem.get().update(deltaTime);
     warrior.update(deltaTime);
+    dungeon.update(warrior.getPositionX(), warrior.getPositionY());
+    visibility.update();
+    dungeonView.update();
+    dungeonProps.update();
+    dungeonEnemies.update();
+
+    // Deliver this tick's combat events to subscribers
+    CombatEventBus.get().dispatch();
+
+    updateMetrics();
+  }
+
+  // Gauges are set here on the game thread, so exporting never reads game state
+  private void updateMetrics() {
+    int alive = 0, effects = 0;
+    for (Character character : roster) {
+      if (character.isAlive()) {
+        alive++;
+      }
+      effects += character.getStatusEffects().size();
+    }
+    UNITS.set(roster.size());
+    ALIVE_UNITS.set(alive);
+    STATUS_EFFECTS.set(effects);
+    AI_AGENTS.set(AISystem.get().getAgentCount());
+    LOADED_CHUNKS.set(dungeon.getLoadedChunks().size());
+    VISIBLE_ENEMIES.set(dungeonEnemies.getVisibleCount());
   }
 }
\ No newline at end of file
@@ -0,0 +1,299 @@
+package game;
+
+import engine.core.StartupTimer;
+import game.ai.AISystem;
+import game.ai.UtilityAgent;
+import game.combat.Ability;
+import game.combat.CombatClock;
+import game.combat.CombatEventBus;
+import game.combat.CombatRandom;
+import game.combat.StatusEffect;
+import game.entity.Character;
+import game.entity.Warrior;
+import game.net.LockstepSimulation;
+import game.net.PlayerCommand;
+import game.world.DungeonChunk;
+import game.world.DungeonGenerator;
+import game.world.DungeonStreamer;
+import game.world.Hex;
+import game.world.VisibilitySystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A match simulated without a window or GL context: a dungeon floor, two
+ * teams of AI warriors facing off across the start chunk, and their fog of
+ * war, stepped at a fixed rate. It loads the same game classes a real
+ * session does, so it doubles as the training run for the AppCDS archive
+ * and as the time-to-first-tick benchmark.
+ * <p>
+ * The match has its own combat clock, rolls, event bus and AI, bound to the
+ * calling thread while it builds or ticks, so several matches can run in one
+ * process without seeing each other. Given the same seed and commands, a
+ * match plays out the same on every machine, which makes it the simulation
+ * lockstep peers run; players order units of {@link #PLAYER_TEAM} through
+ * {@link PlayerCommand}s.
+ */
+public class HeadlessGame implements LockstepSimulation {
+  /** Seconds of game time per tick. */
+  public static final double TICK_SECONDS = 1.0 / 20;
+  /** Team whose units take player commands. */
+  public static final int PLAYER_TEAM = 0;
+  private static final int VIEW_RADIUS = 8;
+
+  private final CombatClock clock = CombatClock.create();
+  private final CombatRandom random;
+  private final CombatEventBus events = CombatEventBus.create();
+  private final AISystem ai = AISystem.create();
+
+  private final DungeonStreamer dungeon;
+  private final VisibilitySystem visibility;
+  private final List<Character> units = new ArrayList<>();
+  private long tickCount = 0;
+
+  /**
+   * @param seed         Dungeon and combat seed
+   * @param unitsPerTeam Warriors on each of the two teams
+   */
+  public HeadlessGame(long seed, int unitsPerTeam) {
+    this(seed, unitsPerTeam, null);
+  }
+
+  /**
+   * @param seed         Dungeon and combat seed
+   * @param unitsPerTeam Warriors on each of the two teams
+   * @param generation   Executor for dungeon generation shared between
+   *                     matches and left running on {@link #close()}, or null
+   *                     for one of the match's own
+   */
+  public HeadlessGame(long seed, int unitsPerTeam, ExecutorService generation) {
+    this(seed, unitsPerTeam, 1, generation);
+  }
+
+  /**
+   * @param seed         Dungeon and combat seed
+   * @param unitsPerTeam Warriors on each of the two teams
+   * @param healthScale  Multiplier on every unit's maximum health; above 1
+   *                     the match lasts longer
+   * @param generation   Executor for dungeon generation shared between
+   *                     matches and left running on {@link #close()}, or null
+   *                     for one of the match's own
+   */
+  public HeadlessGame(long seed, int unitsPerTeam, double healthScale, ExecutorService generation) {
+    random = CombatRandom.create(seed);
+    dungeon = generation != null
+        ? new DungeonStreamer(new DungeonGenerator(seed, 1), generation, true)
+        : new DungeonStreamer(new DungeonGenerator(seed, 1), DungeonStreamer.createExecutor(1));
+    visibility = new VisibilitySystem(dungeon);
+    dungeon.setLoadListener(visibility::invalidateChunk);
+
+    // Team 0 starts in the first room, team 1 in the last
+    DungeonChunk start = dungeon.getChunkNow(0, 0);
+    bind();
+    try {
+      for (int team = 0; team < 2; team++) {
+        int room = team == 0 ? 0 : start.getRoomCount() - 1;
+        for (int i = 0; i < unitsPerTeam; i++) {
+          Warrior unit = new Warrior("Warrior " + team + "-" + i);
+          unit.setTeam(team);
+          unit.setHealthScale(healthScale);
+          unit.setTerrain(dungeon);
+          // Spread the team around the room center
+          int ring = i == 0 ? 0 : 1 + (i - 1) / 6;
+          unit.moveTo(start.getRoomQ(room) + Hex.DIRECTION_Q[i % 6] * ring,
+              start.getRoomR(room) + Hex.DIRECTION_R[i % 6] * ring);
+          ai.register(unit, unit.getBrain());
+          visibility.register(unit, VIEW_RADIUS);
+          units.add(unit);
+        }
+      }
+    } finally {
+      unbind();
+    }
+  }
+
+  // Point the combat singletons at this match's state on the calling thread
+  private void bind() {
+    CombatClock.bind(clock);
+    CombatRandom.bind(random);
+    CombatEventBus.bind(events);
+    AISystem.bind(ai);
+  }
+
+  private void unbind() {
+    CombatClock.bind(null);
+    CombatRandom.bind(null);
+    CombatEventBus.bind(null);
+    AISystem.bind(null);
+  }
+
+  /** Advance the match by one tick. */
+  public void tick() {
+    tick(Collections.emptyList());
+  }
+
+  /**
+   * Advance the match by one tick, carrying out player orders in place of
+   * the ordered units' AI actions. Orders for units off the player team,
+   * dead units or missing targets are ignored.
+   */
+  @Override
+  public void tick(List<PlayerCommand> commands) {
+    bind();
+    try {
+      clock.advance(TICK_SECONDS);
+      ai.update(TICK_SECONDS);
+      for (PlayerCommand command : commands) {
+        apply(command);
+      }
+      for (Character unit : units) {
+        unit.update(TICK_SECONDS);
+      }
+      Character focus = units.get(0);
+      dungeon.update(focus.getPositionX(), focus.getPositionY());
+      visibility.update();
+      events.dispatch();
+      tickCount++;
+    } finally {
+      unbind();
+    }
+  }
+
+  private void apply(PlayerCommand command) {
+    if (command.getUnit() >= units.size() || command.getTarget() >= units.size()) {
+      return;
+    }
+    Character unit = units.get(command.getUnit());
+    Character target = units.get(command.getTarget());
+    if (unit.getTeam() != PLAYER_TEAM || !unit.isAlive() || !target.isAlive()) {
+      return;
+    }
+
+    switch (command.getType()) {
+      case MOVE:
+        unit.moveTowards(target);
+        break;
+      case ATTACK:
+        if (unit.distanceTo(target) <= 1) {
+          unit.basicAttack(target);
+        }
+        break;
+      case ABILITY:
+        List<Ability> abilities = unit.getRegularAbilities();
+        if (command.getSlot() < abilities.size()) {
+          unit.useAbility(abilities.get(command.getSlot()), target);
+        }
+        break;
+      case ULTIMATE:
+        unit.useUltimateAbility(target);
+        break;
+    }
+
+    // The order is the unit's action for this tick
+    UtilityAgent agent = unit.getAgent();
+    if (agent != null) {
+      agent.cancel();
+    }
+  }
+
+  /**
+   * Hash of the match state lockstep peers compare: combat time, rolls made,
+   * and every unit's position, resources, state, effects and cooldowns.
+   */
+  @Override
+  public long checksum() {
+    long hash = mix(tickCount, Double.doubleToLongBits(clock.now()));
+    hash = mix(hash, random.getRollCount());
+    for (Character unit : units) {
+      hash = mix(hash, ((long) unit.getPositionX() << 32) | (unit.getPositionY() & 0xFFFFFFFFL));
+      hash = mix(hash, Double.doubleToLongBits(unit.getHealthPoints()));
+      hash = mix(hash, Double.doubleToLongBits(unit.getResourcePoints()));
+      hash = mix(hash, ((long) unit.getUltimateChargePoints() << 8) | unit.getCombatState().ordinal());
+      for (StatusEffect effect : unit.getStatusEffects()) {
+        hash = mix(hash, Double.doubleToLongBits(effect.getRemainingDuration()));
+      }
+      for (Ability ability : unit.getRegularAbilities()) {
+        hash = mix(hash, Double.doubleToLongBits(ability.getRemainingCooldown()));
+      }
+    }
+    return hash;
+  }
+
+  private static long mix(long hash, long value) {
+    hash ^= value * 0x9E3779B97F4A7C15L;
+    return Long.rotateLeft(hash, 29) * 0xBF58476D1CE4E5B9L;
+  }
+
+  public int getUnitCount() {
+    return units.size();
+  }
+
+  /** A unit by its index, the index player commands refer to. */
+  public Character getUnit(int index) {
+    return units.get(index);
+  }
+
+  public long getTickCount() {
+    return tickCount;
+  }
+
+  public int getAliveCount(int team) {
+    int alive = 0;
+    for (Character unit : units) {
+      if (unit.getTeam() == team && unit.isAlive()) {
+        alive++;
+      }
+    }
+    return alive;
+  }
+
+  /** True once a team has no units left standing. */
+  public boolean isFinished() {
+    return getAliveCount(0) == 0 || getAliveCount(1) == 0;
+  }
+
+  /** The team with units left once the match is finished, or -1. */
+  public int getWinner() {
+    int alive0 = getAliveCount(0), alive1 = getAliveCount(1);
+    return alive0 > 0 && alive1 == 0 ? 0 : (alive1 > 0 && alive0 == 0 ? 1 : -1);
+  }
+
+  /** Release the units and stop dungeon generation. */
+  public void close() {
+    for (Character unit : units) {
+      ai.unregister(unit);
+      visibility.unregister(unit);
+    }
+    units.clear();
+    dungeon.close();
+  }
+
+  /**
+   * Build a match, run its first tick and report the startup phases, then
+   * keep ticking.
+   *
+   * @param args Optional tick count, 200 by default
+   */
+  public static void main(String[] args) {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    StartupTimer timer = StartupTimer.get();
+    timer.begin("world");
+    HeadlessGame game = new HeadlessGame(42, 4);
+    timer.begin("first tick");
+    game.tick();
+    timer.end();
+    timer.report("first tick");
+
+    long start = System.nanoTime();
+    while (game.getTickCount() < ticks) {
+      game.tick();
+    }
+    System.out.printf("Ran %d ticks in %.1f ms, alive %d vs %d%n", game.getTickCount(),
+        (System.nanoTime() - start) / 1e6, game.getAliveCount(0), game.getAliveCount(1));
+    game.close();
+  }
+}
@@ -0,0 +1,40 @@
+package game.ai;
+
+/**
+ * Per-unit values computed once per AI tick and shared by every
+ * consideration. All values are normalized to [0, 1].
+ */
+public enum AIInput {
+  /** Health as a fraction of maximum health. */
+  SELF_HEALTH,
+  /** Resource as a fraction of maximum resource. */
+  SELF_RESOURCE,
+  /** Ultimate charge as a fraction of a full charge. */
+  ULTIMATE_CHARGE,
+  /** 1 if an enemy was found. */
+  HAS_TARGET,
+  /** Target health as a fraction of its maximum health. */
+  TARGET_HEALTH,
+  /** Distance to the target, 1 at {@link AISystem#MAX_DISTANCE} or more. */
+  TARGET_DISTANCE,
+  /** 1 if the target is within melee range. */
+  TARGET_IN_RANGE,
+  /** 1 if the ability in the slot is off cooldown and affordable. */
+  ABILITY_1_READY,
+  ABILITY_2_READY,
+  ABILITY_3_READY,
+  /** 1 if the ultimate is fully charged. */
+  ULTIMATE_READY,
+  /**
+   * Enemies within {@link AISystem#NEARBY_RADIUS}, 1 at
+   * {@link AISystem#NEARBY_SATURATION} or more.
+   */
+  NEARBY_ENEMIES,
+  /** Threat of the top attacker as a fraction of own maximum health. */
+  THREAT,
+  /** 1 if the target is the attacker with the most threat. */
+  TARGET_IS_TOP_THREAT;
+
+  static final AIInput[] VALUES = values();
+  static final int COUNT = VALUES.length;
+}
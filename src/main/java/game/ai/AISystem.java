@@ -0,0 +1,244 @@
+package game.ai;
+
+import engine.metrics.Histogram;
+import engine.metrics.MetricsRegistry;
+import game.combat.Ability;
+import game.combat.CombatClock;
+import game.combat.ThreatTable;
+import game.entity.Character;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs utility AI decisions for every registered unit at a fixed rate.
+ * An AI tick first rebuilds a spatial index of the units, then computes each
+ * unit's inputs and picks its action in parallel. That pass only reads game
+ * state, apart from each unit pruning dead attackers from its own threat
+ * table. The chosen actions are carried out later, on the game thread, when
+ * each character calls {@link UtilityAgent#act()} during its update.
+ */
+public class AISystem {
+  private static AISystem instance;
+
+  // AI of the match running on this thread, if any (see bind)
+  private static final ThreadLocal<AISystem> bound = new ThreadLocal<>();
+
+  /** Decisions per second. */
+  public static final double TICK_RATE = 20.0;
+  /** Distance at which {@link AIInput#TARGET_DISTANCE} saturates. */
+  public static final int MAX_DISTANCE = 16;
+  public static final int NEARBY_RADIUS = 3;
+  public static final int NEARBY_SATURATION = 4;
+
+  // Cell rings searched for a target before giving up
+  private static final int SEARCH_RINGS = 8;
+  // Units per parallel task
+  private static final int BATCH_SIZE = 512;
+
+  // Shared by every match's AI in the process
+  private static final Histogram TICK_TIME =
+      MetricsRegistry.get().histogram("game_ai_tick_seconds", "AI decision ticks");
+
+  private final UnitGrid grid = new UnitGrid();
+  private UtilityAgent[] agents = new UtilityAgent[64];
+  private int agentCount = 0;
+
+  private final ForkJoinPool pool;
+  private double accumulator = 0;
+  // Combat time of the running tick, read by the decision tasks
+  private double now;
+  private long lastTickNanos = 0;
+
+  AISystem(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  public static AISystem get() {
+    AISystem system = bound.get();
+    if (system != null) {
+      return system;
+    }
+    if (instance == null) {
+      instance = new AISystem(ForkJoinPool.commonPool());
+    }
+    return instance;
+  }
+
+  /** A separate AI for one match, used through {@link #bind(AISystem)}. */
+  public static AISystem create() {
+    return new AISystem(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Make {@link #get()} return the given AI on the calling thread, or the
+   * shared AI again if null.
+   */
+  public static void bind(AISystem system) {
+    if (system == null) {
+      bound.remove();
+    } else {
+      bound.set(system);
+    }
+  }
+
+  /**
+   * Give a character a brain.
+   *
+   * @param character The character to control
+   * @param brain     The actions it chooses between
+   * @return The character's agent
+   */
+  public UtilityAgent register(Character character, UtilityBrain brain) {
+    if (agentCount == agents.length) {
+      agents = Arrays.copyOf(agents, agentCount * 2);
+    }
+    UtilityAgent agent = new UtilityAgent(character, brain);
+    agent.slot = agentCount;
+    agents[agentCount++] = agent;
+    character.setAgent(agent);
+    return agent;
+  }
+
+  /** Stop controlling a character. */
+  public void unregister(Character character) {
+    UtilityAgent agent = character.getAgent();
+    if (agent == null || agents[agent.slot] != agent) {
+      return;
+    }
+    // Move the last agent into the freed slot
+    UtilityAgent last = agents[--agentCount];
+    agents[agent.slot] = last;
+    last.slot = agent.slot;
+    agents[agentCount] = null;
+    character.setAgent(null);
+  }
+
+  /**
+   * Run AI ticks for the elapsed time. Call before updating characters.
+   *
+   * @param deltaTime Time since last update in seconds
+   */
+  public void update(double deltaTime) {
+    accumulator += deltaTime;
+    if (accumulator < 1.0 / TICK_RATE) {
+      return;
+    }
+    // Decisions are only useful for the latest state, so skip missed ticks
+    accumulator %= 1.0 / TICK_RATE;
+    tick();
+  }
+
+  /** Make a decision for every unit now. */
+  public void tick() {
+    long start = System.nanoTime();
+    now = CombatClock.get().now();
+    grid.rebuild(agents, agentCount);
+    if (agentCount <= BATCH_SIZE) {
+      decide(0, agentCount);
+    } else {
+      pool.invoke(new DecideTask(0, agentCount));
+    }
+    lastTickNanos = System.nanoTime() - start;
+    TICK_TIME.record(lastTickNanos);
+  }
+
+  private void decide(int from, int to) {
+    for (int i = from; i < to; i++) {
+      UtilityAgent agent = agents[i];
+      if (!agent.self.isAlive()) {
+        agent.target = null;
+        agent.chosenAction = -1;
+        continue;
+      }
+      computeInputs(agent);
+      agent.chosenAction = agent.brain.choose(agent.inputs);
+    }
+  }
+
+  /** Fill the agent's cached inputs from the current game state. */
+  private void computeInputs(UtilityAgent agent) {
+    Character self = agent.self;
+    float[] in = agent.inputs;
+    int x = self.getPositionX(), y = self.getPositionY(), team = self.getTeam();
+
+    in[AIInput.SELF_HEALTH.ordinal()] = fraction(self.getHealthPoints(), self.getMaxHealthPoints());
+    in[AIInput.SELF_RESOURCE.ordinal()] = fraction(self.getResourcePoints(), self.getMaxResourcePoints());
+    in[AIInput.ULTIMATE_CHARGE.ordinal()] = fraction(self.getUltimateChargePoints(), 100);
+    in[AIInput.ULTIMATE_READY.ordinal()] =
+        self.getUltimateAbility() != null && self.getUltimateChargePoints() >= 100 ? 1 : 0;
+
+    List<Ability> abilities = self.getRegularAbilities();
+    for (int s = 0; s < 3; s++) {
+      float ready = 0;
+      if (s < abilities.size()) {
+        Ability ability = abilities.get(s);
+        ready = !ability.isOnCooldown() && self.getResourcePoints() >= ability.getResourceCost() ? 1 : 0;
+      }
+      in[AIInput.ABILITY_1_READY.ordinal() + s] = ready;
+    }
+
+    // Fight back against the top attacker while it's close enough to matter,
+    // otherwise go for the nearest enemy
+    ThreatTable threat = self.getThreatTable();
+    Character topThreat = threat.getTop(now);
+    Character target = topThreat != null && self.distanceTo(topThreat) <= MAX_DISTANCE
+        ? topThreat : grid.findNearestEnemy(x, y, team, SEARCH_RINGS);
+    agent.target = target;
+    in[AIInput.THREAT.ordinal()] = fraction(threat.getTopThreat(now), self.getMaxHealthPoints());
+    in[AIInput.TARGET_IS_TOP_THREAT.ordinal()] = target != null && target == topThreat ? 1 : 0;
+    if (target != null) {
+      int distance = self.distanceTo(target);
+      in[AIInput.HAS_TARGET.ordinal()] = 1;
+      in[AIInput.TARGET_HEALTH.ordinal()] = fraction(target.getHealthPoints(), target.getMaxHealthPoints());
+      in[AIInput.TARGET_DISTANCE.ordinal()] = fraction(distance, MAX_DISTANCE);
+      in[AIInput.TARGET_IN_RANGE.ordinal()] = distance <= 1 ? 1 : 0;
+    } else {
+      in[AIInput.HAS_TARGET.ordinal()] = 0;
+      in[AIInput.TARGET_HEALTH.ordinal()] = 0;
+      in[AIInput.TARGET_DISTANCE.ordinal()] = 1;
+      in[AIInput.TARGET_IN_RANGE.ordinal()] = 0;
+    }
+
+    in[AIInput.NEARBY_ENEMIES.ordinal()] =
+        fraction(grid.countEnemiesWithin(x, y, team, NEARBY_RADIUS), NEARBY_SATURATION);
+  }
+
+  private static float fraction(double value, double max) {
+    if (max <= 0) {
+      return 0;
+    }
+    double f = value / max;
+    return f <= 0 ? 0 : (f >= 1 ? 1 : (float) f);
+  }
+
+  public int getAgentCount() {
+    return agentCount;
+  }
+
+  /** Duration of the last AI tick in nanoseconds. */
+  public long getLastTickNanos() {
+    return lastTickNanos;
+  }
+
+  private final class DecideTask extends RecursiveAction {
+    private final int from, to;
+
+    DecideTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= BATCH_SIZE) {
+        decide(from, to);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new DecideTask(from, mid), new DecideTask(mid, to));
+    }
+  }
+}
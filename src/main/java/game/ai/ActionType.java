@@ -0,0 +1,12 @@
+package game.ai;
+
+/**
+ * What a character does when a {@link UtilityAction} wins.
+ */
+public enum ActionType {
+  IDLE,
+  MOVE_TO_TARGET,
+  BASIC_ATTACK,
+  USE_ABILITY,
+  USE_ULTIMATE
+}
@@ -0,0 +1,18 @@
+package game.ai;
+
+/**
+ * One factor in an action's score: a cached input passed through a curve.
+ */
+public class Consideration {
+  final int input;
+  private final ResponseCurve curve;
+
+  public Consideration(AIInput input, ResponseCurve curve) {
+    this.input = input.ordinal();
+    this.curve = curve;
+  }
+
+  float score(float[] inputs) {
+    return curve.evaluate(inputs[input]);
+  }
+}
@@ -0,0 +1,66 @@
+package game.ai;
+
+/**
+ * Maps a normalized input to a utility in [0, 1].
+ * Curves use slope m, exponent k, vertical shift b and horizontal shift c:
+ * <ul>
+ * <li>linear: m * (x - c) + b</li>
+ * <li>polynomial: m * (x - c)^k + b</li>
+ * <li>logistic: k / (1 + e^(-m * (x - c))) + b</li>
+ * </ul>
+ */
+public class ResponseCurve {
+  private static final int LINEAR = 0;
+  private static final int POLYNOMIAL = 1;
+  private static final int LOGISTIC = 2;
+
+  private final int shape;
+  private final float m, k, b, c;
+
+  private ResponseCurve(int shape, float m, float k, float b, float c) {
+    this.shape = shape;
+    this.m = m;
+    this.k = k;
+    this.b = b;
+    this.c = c;
+  }
+
+  public static ResponseCurve linear(float slope, float shift) {
+    return new ResponseCurve(LINEAR, slope, 1, shift, 0);
+  }
+
+  /** 1 when the input is 1, 0 when it is 0. */
+  public static ResponseCurve identity() {
+    return linear(1, 0);
+  }
+
+  /** 1 when the input is 0, 0 when it is 1. */
+  public static ResponseCurve inverse() {
+    return linear(-1, 1);
+  }
+
+  public static ResponseCurve polynomial(float slope, float exponent, float verticalShift, float horizontalShift) {
+    return new ResponseCurve(POLYNOMIAL, slope, exponent, verticalShift, horizontalShift);
+  }
+
+  public static ResponseCurve logistic(float steepness, float height, float verticalShift, float midpoint) {
+    return new ResponseCurve(LOGISTIC, steepness, height, verticalShift, midpoint);
+  }
+
+  public float evaluate(float x) {
+    float y;
+    // StrictMath keeps decisions identical across machines for lockstep play
+    switch (shape) {
+      case POLYNOMIAL:
+        y = m * (float) StrictMath.pow(x - c, k) + b;
+        break;
+      case LOGISTIC:
+        y = k / (1 + (float) StrictMath.exp(-m * (x - c))) + b;
+        break;
+      default:
+        y = m * (x - c) + b;
+        break;
+    }
+    return y < 0 ? 0 : (y > 1 ? 1 : y);
+  }
+}
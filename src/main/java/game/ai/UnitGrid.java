@@ -0,0 +1,138 @@
+package game.ai;
+
+import game.entity.Character;
+import game.world.Hex;
+
+import java.util.Arrays;
+
+/**
+ * Spatial hash of units by grid position, rebuilt once per AI tick and then
+ * queried read-only from many threads. Units are bucketed by counting sort
+ * into a flat index array, so rebuilding doesn't allocate once it has grown.
+ */
+class UnitGrid {
+  static final int CELL_SIZE = 8;
+
+  private Character[] units = new Character[0];
+  private int[] unitX = new int[0], unitY = new int[0], unitTeam = new int[0];
+  private int unitCount = 0;
+
+  // Bucket b holds sorted[bucketStart[b] .. bucketStart[b + 1])
+  private int[] bucketStart = new int[1];
+  private int[] sorted = new int[0];
+  private int bucketMask = 0;
+
+  void rebuild(UtilityAgent[] agents, int count) {
+    if (units.length < count) {
+      int capacity = Math.max(count, units.length * 2);
+      units = new Character[capacity];
+      unitX = new int[capacity];
+      unitY = new int[capacity];
+      unitTeam = new int[capacity];
+      sorted = new int[capacity];
+    }
+    Arrays.fill(units, count, units.length, null);
+
+    // Power of two bucket count, about one unit per bucket
+    int buckets = Integer.highestOneBit(Math.max(16, count) - 1) << 1;
+    if (bucketStart.length != buckets + 1) {
+      bucketStart = new int[buckets + 1];
+    } else {
+      Arrays.fill(bucketStart, 0);
+    }
+    bucketMask = buckets - 1;
+
+    unitCount = 0;
+    for (int i = 0; i < count; i++) {
+      Character c = agents[i].self;
+      if (!c.isAlive()) {
+        continue;
+      }
+      int u = unitCount++;
+      units[u] = c;
+      unitX[u] = c.getPositionX();
+      unitY[u] = c.getPositionY();
+      unitTeam[u] = c.getTeam();
+      bucketStart[bucket(cell(unitX[u]), cell(unitY[u])) + 1]++;
+    }
+
+    // Prefix sums, then scatter
+    for (int b = 0; b < buckets; b++) {
+      bucketStart[b + 1] += bucketStart[b];
+    }
+    int[] fill = sorted;
+    int[] cursor = Arrays.copyOf(bucketStart, buckets);
+    for (int u = 0; u < unitCount; u++) {
+      fill[cursor[bucket(cell(unitX[u]), cell(unitY[u]))]++] = u;
+    }
+  }
+
+  /**
+   * Find the closest living unit of another team.
+   *
+   * @param x        Grid x of the searcher
+   * @param y        Grid y of the searcher
+   * @param team     Team of the searcher
+   * @param maxRings Cell rings to search before giving up
+   * @return The closest enemy, or null
+   */
+  Character findNearestEnemy(int x, int y, int team, int maxRings) {
+    int cx = cell(x), cy = cell(y);
+    int best = -1;
+    int bestDistance = Integer.MAX_VALUE;
+
+    for (int ring = 0; ring <= maxRings; ring++) {
+      for (int gy = cy - ring; gy <= cy + ring; gy++) {
+        boolean edgeRow = gy == cy - ring || gy == cy + ring;
+        int step = edgeRow ? 1 : 2 * ring;
+        for (int gx = cx - ring; gx <= cx + ring; gx += Math.max(1, step)) {
+          int b = bucket(gx, gy);
+          for (int s = bucketStart[b], end = bucketStart[b + 1]; s < end; s++) {
+            int u = sorted[s];
+            if (unitTeam[u] == team) {
+              continue;
+            }
+            int distance = Hex.distance(unitX[u], unitY[u], x, y);
+            if (distance < bestDistance) {
+              bestDistance = distance;
+              best = u;
+            }
+          }
+        }
+      }
+      // Units in further rings are more than ring * CELL_SIZE away
+      if (best >= 0 && bestDistance <= ring * CELL_SIZE) {
+        break;
+      }
+    }
+    return best >= 0 ? units[best] : null;
+  }
+
+  /** Count living units of other teams within a radius of at most CELL_SIZE. */
+  int countEnemiesWithin(int x, int y, int team, int radius) {
+    int cx = cell(x), cy = cell(y);
+    int count = 0;
+    for (int gy = cy - 1; gy <= cy + 1; gy++) {
+      for (int gx = cx - 1; gx <= cx + 1; gx++) {
+        int b = bucket(gx, gy);
+        for (int s = bucketStart[b], end = bucketStart[b + 1]; s < end; s++) {
+          int u = sorted[s];
+          if (unitTeam[u] != team && cell(unitX[u]) == gx && cell(unitY[u]) == gy
+              && Hex.distance(unitX[u], unitY[u], x, y) <= radius) {
+            count++;
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  private static int cell(int coordinate) {
+    return Math.floorDiv(coordinate, CELL_SIZE);
+  }
+
+  private int bucket(int cellX, int cellY) {
+    int h = cellX * 0x9E3779B1 ^ cellY * 0x85EBCA77;
+    return (h ^ (h >>> 15)) & bucketMask;
+  }
+}
@@ -0,0 +1,58 @@
+package game.ai;
+
+/**
+ * A candidate action scored by multiplying its considerations.
+ * The product is compensated for the number of considerations so actions
+ * with many factors aren't penalized, then scaled by the action's weight.
+ */
+public class UtilityAction {
+  private final String name;
+  private final ActionType type;
+  private final int abilitySlot;
+  private final float weight;
+  private final Consideration[] considerations;
+  private final float compensation;
+
+  /**
+   * @param name           Name for debugging
+   * @param type           What to do when chosen
+   * @param abilitySlot    Ability slot for {@link ActionType#USE_ABILITY}, else ignored
+   * @param weight         Multiplier for the final score
+   * @param considerations Factors of the score; none means a constant score
+   */
+  public UtilityAction(String name, ActionType type, int abilitySlot, float weight,
+      Consideration... considerations) {
+    this.name = name;
+    this.type = type;
+    this.abilitySlot = abilitySlot;
+    this.weight = weight;
+    this.considerations = considerations;
+    this.compensation = considerations.length > 0 ? 1 - 1.0f / considerations.length : 0;
+  }
+
+  float score(float[] inputs) {
+    float score = 1;
+    for (Consideration consideration : considerations) {
+      float s = consideration.score(inputs);
+      // Compensate for the number of factors
+      s += (1 - s) * compensation * s;
+      score *= s;
+      if (score == 0) {
+        return 0;
+      }
+    }
+    return score * weight;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public ActionType getType() {
+    return type;
+  }
+
+  public int getAbilitySlot() {
+    return abilitySlot;
+  }
+}
@@ -0,0 +1,90 @@
+package game.ai;
+
+import game.combat.Ability;
+import game.entity.Character;
+import game.entity.CombatState;
+
+import java.util.List;
+
+/**
+ * Per-unit AI state: cached inputs, the current target and the action chosen
+ * on the last AI tick. Created by {@link AISystem#register(Character, UtilityBrain)}.
+ */
+public class UtilityAgent {
+  final Character self;
+  final UtilityBrain brain;
+  final float[] inputs = new float[AIInput.COUNT];
+  int slot;
+
+  // Written by the parallel decision pass, consumed by act()
+  Character target;
+  int chosenAction = -1;
+
+  UtilityAgent(Character self, UtilityBrain brain) {
+    this.self = self;
+    this.brain = brain;
+  }
+
+  /**
+   * Carry out the action chosen on the last AI tick, once. Called from the
+   * character's {@code decideNextAction()}.
+   */
+  public void act() {
+    int index = chosenAction;
+    if (index < 0) {
+      return;
+    }
+    chosenAction = -1;
+
+    UtilityAction action = brain.getAction(index);
+    Character target = this.target;
+    switch (action.getType()) {
+      case MOVE_TO_TARGET:
+        if (target != null) {
+          self.moveTowards(target);
+          self.setCombatState(CombatState.MOVING);
+        }
+        break;
+      case BASIC_ATTACK:
+        if (target != null && target.isAlive()) {
+          self.basicAttack(target);
+          self.setCombatState(CombatState.ATTACKING);
+        }
+        break;
+      case USE_ABILITY:
+        List<Ability> abilities = self.getRegularAbilities();
+        int abilitySlot = action.getAbilitySlot();
+        if (abilitySlot < abilities.size() && self.useAbility(abilities.get(abilitySlot), target)) {
+          self.setCombatState(CombatState.CASTING);
+        }
+        break;
+      case USE_ULTIMATE:
+        if (self.useUltimateAbility(target)) {
+          self.setCombatState(CombatState.CASTING);
+        }
+        break;
+      default:
+        self.setCombatState(CombatState.IDLE);
+        break;
+    }
+  }
+
+  /** Drop the action chosen on the last AI tick, e.g. when a player's order replaces it. */
+  public void cancel() {
+    chosenAction = -1;
+  }
+
+  /** Cached value of an input from the last AI tick. */
+  public float getInput(AIInput input) {
+    return inputs[input.ordinal()];
+  }
+
+  public Character getTarget() {
+    return target;
+  }
+
+  /** Name of the action waiting to be carried out, or null. */
+  public String getChosenActionName() {
+    return chosenAction >= 0 ? brain.getAction(chosenAction).getName() : null;
+  }
+}
@@ -0,0 +1,40 @@
+package game.ai;
+
+/**
+ * The actions a kind of unit chooses between. Brains hold no per-unit state
+ * and can be shared by every unit of a class.
+ */
+public class UtilityBrain {
+  private final UtilityAction[] actions;
+
+  public UtilityBrain(UtilityAction... actions) {
+    this.actions = actions;
+  }
+
+  /**
+   * Pick the highest scoring action.
+   *
+   * @param inputs Cached inputs of the unit, indexed by {@link AIInput} ordinal
+   * @return Index of the chosen action, or -1 if every action scored 0
+   */
+  int choose(float[] inputs) {
+    int best = -1;
+    float bestScore = 0;
+    for (int i = 0; i < actions.length; i++) {
+      float score = actions[i].score(inputs);
+      if (score > bestScore) {
+        bestScore = score;
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  UtilityAction getAction(int index) {
+    return actions[index];
+  }
+
+  public int getActionCount() {
+    return actions.length;
+  }
+}
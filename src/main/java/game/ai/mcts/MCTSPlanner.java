@@ -0,0 +1,263 @@
+package game.ai.mcts;
+
+import game.entity.Character;
+import game.entity.CombatState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo tree search over {@link TacticalState}s for tactical and boss
+ * encounters. Search is root-parallel: every worker grows its own tree from
+ * the same root until the time budget runs out, and the root visit counts are
+ * summed to pick the action. Trees are open-loop, storing actions rather than
+ * states, so each iteration replays its path on a scratch copy of the root.
+ */
+public class MCTSPlanner {
+  private static final double EXPLORATION = 1.41;
+
+  private final ForkJoinPool pool;
+  private final int workers;
+  private final int rolloutDepth;
+  private long seed = System.nanoTime();
+
+  // Statistics of the last search
+  private long lastRollouts = 0;
+  private double lastRolloutsPerSecond = 0;
+
+  /**
+   * @param pool         Pool running the search workers
+   * @param rolloutDepth Turns simulated after leaving the tree
+   */
+  public MCTSPlanner(ForkJoinPool pool, int rolloutDepth) {
+    this.pool = pool;
+    this.workers = Math.max(1, pool.getParallelism());
+    this.rolloutDepth = rolloutDepth;
+  }
+
+  /** Use a fixed seed, e.g. for reproducible single-worker searches. */
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Find the best action for the acting unit.
+   *
+   * @param root        Current state; not modified
+   * @param budgetNanos Time to search
+   * @return The encoded action with the most visits
+   */
+  public int plan(TacticalState root, long budgetNanos) {
+    int[] actions = new int[root.maxActions()];
+    int actionCount = root.legalActions(actions);
+    if (actionCount == 1) {
+      lastRollouts = 0;
+      lastRolloutsPerSecond = 0;
+      return actions[0];
+    }
+
+    long start = System.nanoTime();
+    long deadline = start + budgetNanos;
+    SearchWorker[] tasks = new SearchWorker[workers];
+    for (int w = 0; w < workers; w++) {
+      tasks[w] = new SearchWorker(root, deadline, seed + w * 0x9E3779B97F4A7C15L);
+    }
+    seed++;
+    if (workers == 1) {
+      tasks[0].invoke();
+    } else {
+      pool.invoke(new RecursiveTask<Void>() {
+        @Override
+        protected Void compute() {
+          ForkJoinTask.invokeAll(tasks);
+          return null;
+        }
+      });
+    }
+
+    // Sum root visits per action over every worker's tree
+    long[] visits = new long[actionCount];
+    long rollouts = 0;
+    for (SearchWorker task : tasks) {
+      Node rootNode = task.getRawResult();
+      rollouts += rootNode.visits;
+      for (int c = 0; c < rootNode.childCount; c++) {
+        Node child = rootNode.children[c];
+        for (int a = 0; a < actionCount; a++) {
+          if (actions[a] == child.action) {
+            visits[a] += child.visits;
+            break;
+          }
+        }
+      }
+    }
+
+    int best = 0;
+    for (int a = 1; a < actionCount; a++) {
+      if (visits[a] > visits[best]) {
+        best = a;
+      }
+    }
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    lastRollouts = rollouts;
+    lastRolloutsPerSecond = seconds > 0 ? rollouts / seconds : 0;
+    return actions[best];
+  }
+
+  /**
+   * Plan and carry out a turn for a character.
+   *
+   * @param self        The acting character
+   * @param units       Every character in the encounter, including self
+   * @param budgetNanos Time to search
+   * @return The encoded action taken
+   */
+  public int act(Character self, List<Character> units, long budgetNanos) {
+    int action = plan(TacticalState.capture(units, self), budgetNanos);
+    int target = TacticalState.target(action);
+    Character other = target < units.size() ? units.get(target) : null;
+
+    switch (TacticalState.kind(action)) {
+      case TacticalState.MOVE:
+        self.moveTowards(other);
+        self.setCombatState(CombatState.MOVING);
+        break;
+      case TacticalState.ATTACK:
+        self.basicAttack(other);
+        self.setCombatState(CombatState.ATTACKING);
+        break;
+      case TacticalState.ABILITY:
+        if (self.useAbility(self.getRegularAbilities().get(TacticalState.slot(action)), other)) {
+          self.setCombatState(CombatState.CASTING);
+        }
+        break;
+      case TacticalState.ULTIMATE:
+        if (self.useUltimateAbility(other)) {
+          self.setCombatState(CombatState.CASTING);
+        }
+        break;
+      default:
+        self.setCombatState(CombatState.IDLE);
+        break;
+    }
+    return action;
+  }
+
+  /** Rollouts completed by the last search, over all workers. */
+  public long getLastRollouts() {
+    return lastRollouts;
+  }
+
+  public double getLastRolloutsPerSecond() {
+    return lastRolloutsPerSecond;
+  }
+
+  private static final class Node {
+    final int action;
+    final int moverTeam; // Team that chose the action leading here
+    final Node parent;
+    Node[] children;
+    int childCount = 0;
+    final int[] untried;
+    int untriedCount;
+    long visits = 0;
+    double totalReward = 0;
+
+    Node(int action, int moverTeam, Node parent, int[] actions, int actionCount) {
+      this.action = action;
+      this.moverTeam = moverTeam;
+      this.parent = parent;
+      this.untried = Arrays.copyOf(actions, actionCount);
+      this.untriedCount = actionCount;
+      this.children = new Node[actionCount];
+    }
+
+    Node selectChild() {
+      double logVisits = Math.log(visits);
+      Node best = null;
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (int c = 0; c < childCount; c++) {
+        Node child = children[c];
+        double value = child.totalReward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+        if (value > bestValue) {
+          bestValue = value;
+          best = child;
+        }
+      }
+      return best;
+    }
+  }
+
+  private final class SearchWorker extends RecursiveTask<Node> {
+    private final TacticalState root;
+    private final long deadline;
+    private final long workerSeed;
+
+    SearchWorker(TacticalState root, long deadline, long workerSeed) {
+      this.root = root;
+      this.deadline = deadline;
+      this.workerSeed = workerSeed;
+    }
+
+    @Override
+    protected Node compute() {
+      SplittableRandom random = new SplittableRandom(workerSeed);
+      TacticalState state = root.copy();
+      int[] actions = new int[root.maxActions()];
+      int count = root.legalActions(actions);
+      Node rootNode = new Node(-1, 0, null, actions, count);
+
+      // Check the clock every few iterations
+      do {
+        for (int i = 0; i < 16; i++) {
+          iterate(rootNode, state, actions, random);
+        }
+      } while (System.nanoTime() < deadline);
+      return rootNode;
+    }
+
+    private void iterate(Node rootNode, TacticalState state, int[] actions, SplittableRandom random) {
+      state.copyFrom(root);
+      Node node = rootNode;
+
+      // Selection
+      while (node.untriedCount == 0 && node.childCount > 0) {
+        node = node.selectChild();
+        state.apply(node.action, random);
+      }
+
+      // Expansion
+      if (node.untriedCount > 0 && !state.isTerminal()) {
+        int pick = random.nextInt(node.untriedCount);
+        int action = node.untried[pick];
+        node.untried[pick] = node.untried[--node.untriedCount];
+        int mover = state.getActorTeam();
+        state.apply(action, random);
+        int count = state.legalActions(actions);
+        Node child = new Node(action, mover, node, actions, count);
+        node.children[node.childCount++] = child;
+        node = child;
+      }
+
+      // Rollout with a random policy that prefers acting over waiting
+      for (int depth = 0; depth < rolloutDepth && !state.isTerminal(); depth++) {
+        int count = state.legalActions(actions);
+        int action = count > 1 ? actions[1 + random.nextInt(count - 1)] : actions[0];
+        state.apply(action, random);
+      }
+
+      // Backpropagation, each node scored for the team that chose it
+      for (Node n = node; n != null; n = n.parent) {
+        n.visits++;
+        if (n.parent != null) {
+          n.totalReward += state.reward(n.moverTeam);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,371 @@
+package game.ai.mcts;
+
+import game.combat.Ability;
+import game.combat.DamageType;
+import game.entity.Character;
+import game.world.Hex;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compact, turn-based copy of a combat encounter for look-ahead search.
+ * Units are stored in parallel primitive arrays, so copying a state is a few
+ * array copies and simulating actions never allocates.
+ * <p>
+ * Each turn follows what {@link Character} does for the same action: basic
+ * attacks roll critical hits and generate the class's resource and ultimate
+ * charge, abilities cost resource, start their cooldown and give 10 charge,
+ * damage is mitigated by armor or magic resistance and charges the target,
+ * and a unit regenerates and its cooldowns tick for {@link #TURN_SECONDS}
+ * before it acts. Abilities deal their {@link Ability#estimateDamage}; status
+ * effects, heals and class behavior outside these rules (a warrior's bleed
+ * and rage decay) are not simulated, and movement ignores walls.
+ * <p>
+ * Actions are encoded as ints: kind in bits 16+, ability slot in bits 12-15
+ * and target unit index in bits 0-11.
+ */
+public class TacticalState {
+  public static final int WAIT = 0;
+  public static final int MOVE = 1;
+  public static final int ATTACK = 2;
+  public static final int ABILITY = 3;
+  public static final int ULTIMATE = 4;
+
+  /** Game time that passes for a unit between two of its turns. */
+  static final double TURN_SECONDS = 1.0;
+  static final int SLOTS = 3;
+
+  private static final int PHYSICAL = DamageType.PHYSICAL.ordinal();
+  private static final int MAGICAL = DamageType.MAGICAL.ordinal();
+
+  final int capacity;
+  int count;
+  int actor;
+  int turn;
+
+  final int[] team, x, y;
+  final double[] health, maxHealth, healthRegen, attackDamage, critChance, critMultiplier, armor, magicResistance;
+  final double[] resource, maxResource, resourceRegen, attackResourceGain;
+  final double[] ultimateCharge, attackUltimateCharge, ultimateDamage;
+  final boolean[] hasUltimate;
+  final int[] ultimateDamageType;
+
+  // Per unit and ability slot, at index unit * SLOTS + slot
+  final boolean[] hasAbility;
+  final double[] abilityDamage, abilityCost, abilityCooldown, cooldownLeft;
+  final int[] abilityDamageType;
+
+  public TacticalState(int capacity) {
+    this.capacity = capacity;
+    team = new int[capacity];
+    x = new int[capacity];
+    y = new int[capacity];
+    health = new double[capacity];
+    maxHealth = new double[capacity];
+    healthRegen = new double[capacity];
+    attackDamage = new double[capacity];
+    critChance = new double[capacity];
+    critMultiplier = new double[capacity];
+    armor = new double[capacity];
+    magicResistance = new double[capacity];
+    resource = new double[capacity];
+    maxResource = new double[capacity];
+    resourceRegen = new double[capacity];
+    attackResourceGain = new double[capacity];
+    ultimateCharge = new double[capacity];
+    attackUltimateCharge = new double[capacity];
+    ultimateDamage = new double[capacity];
+    hasUltimate = new boolean[capacity];
+    ultimateDamageType = new int[capacity];
+    hasAbility = new boolean[capacity * SLOTS];
+    abilityDamage = new double[capacity * SLOTS];
+    abilityCost = new double[capacity * SLOTS];
+    abilityCooldown = new double[capacity * SLOTS];
+    cooldownLeft = new double[capacity * SLOTS];
+    abilityDamageType = new int[capacity * SLOTS];
+  }
+
+  /**
+   * Snapshot an encounter.
+   *
+   * @param units Every character in the encounter
+   * @param actor The character whose turn it is
+   * @return A state with one unit per character, in list order
+   */
+  public static TacticalState capture(List<Character> units, Character actor) {
+    TacticalState s = new TacticalState(units.size());
+    s.count = units.size();
+    for (int u = 0; u < s.count; u++) {
+      Character c = units.get(u);
+      if (c == actor) {
+        s.actor = u;
+      }
+      s.team[u] = c.getTeam();
+      s.x[u] = c.getPositionX();
+      s.y[u] = c.getPositionY();
+      s.health[u] = c.isAlive() ? c.getHealthPoints() : 0;
+      s.maxHealth[u] = c.getMaxHealthPoints();
+      s.healthRegen[u] = c.getHealthRegen();
+      s.attackDamage[u] = c.getAttackDamage();
+      s.critChance[u] = c.getCriticalStrikeChance();
+      s.critMultiplier[u] = c.getCriticalDamageMultiplier();
+      s.armor[u] = c.getArmor();
+      s.magicResistance[u] = c.getMagicResistance();
+      s.resource[u] = c.getResourcePoints();
+      s.maxResource[u] = c.getMaxResourcePoints();
+      s.resourceRegen[u] = c.getResourceRegen();
+      s.attackResourceGain[u] = c.getAttackResourceGain();
+      s.ultimateCharge[u] = c.getUltimateChargePoints();
+      s.attackUltimateCharge[u] = c.getAttackUltimateCharge();
+      Ability ultimate = c.getUltimateAbility();
+      s.hasUltimate[u] = ultimate != null;
+      s.ultimateDamage[u] = ultimate != null ? ultimate.estimateDamage(c) : 0;
+      s.ultimateDamageType[u] = ultimate != null ? ultimate.getDamageType().ordinal() : 0;
+
+      List<Ability> abilities = c.getRegularAbilities();
+      for (int slot = 0; slot < SLOTS; slot++) {
+        int i = u * SLOTS + slot;
+        Ability ability = slot < abilities.size() ? abilities.get(slot) : null;
+        s.hasAbility[i] = ability != null;
+        s.abilityDamage[i] = ability != null ? ability.estimateDamage(c) : 0;
+        s.abilityCost[i] = ability != null ? ability.getResourceCost() : 0;
+        s.abilityCooldown[i] = ability != null ? ability.getCooldownDuration() : 0;
+        s.cooldownLeft[i] = ability != null ? ability.getRemainingCooldown() : 0;
+        s.abilityDamageType[i] = ability != null ? ability.getDamageType().ordinal() : 0;
+      }
+    }
+    return s;
+  }
+
+  /** Overwrite this state with another of the same capacity. */
+  public void copyFrom(TacticalState o) {
+    count = o.count;
+    actor = o.actor;
+    turn = o.turn;
+    int n = o.count;
+    System.arraycopy(o.team, 0, team, 0, n);
+    System.arraycopy(o.x, 0, x, 0, n);
+    System.arraycopy(o.y, 0, y, 0, n);
+    System.arraycopy(o.health, 0, health, 0, n);
+    System.arraycopy(o.maxHealth, 0, maxHealth, 0, n);
+    System.arraycopy(o.healthRegen, 0, healthRegen, 0, n);
+    System.arraycopy(o.attackDamage, 0, attackDamage, 0, n);
+    System.arraycopy(o.critChance, 0, critChance, 0, n);
+    System.arraycopy(o.critMultiplier, 0, critMultiplier, 0, n);
+    System.arraycopy(o.armor, 0, armor, 0, n);
+    System.arraycopy(o.magicResistance, 0, magicResistance, 0, n);
+    System.arraycopy(o.resource, 0, resource, 0, n);
+    System.arraycopy(o.maxResource, 0, maxResource, 0, n);
+    System.arraycopy(o.resourceRegen, 0, resourceRegen, 0, n);
+    System.arraycopy(o.attackResourceGain, 0, attackResourceGain, 0, n);
+    System.arraycopy(o.ultimateCharge, 0, ultimateCharge, 0, n);
+    System.arraycopy(o.attackUltimateCharge, 0, attackUltimateCharge, 0, n);
+    System.arraycopy(o.ultimateDamage, 0, ultimateDamage, 0, n);
+    System.arraycopy(o.hasUltimate, 0, hasUltimate, 0, n);
+    System.arraycopy(o.ultimateDamageType, 0, ultimateDamageType, 0, n);
+    int slots = n * SLOTS;
+    System.arraycopy(o.hasAbility, 0, hasAbility, 0, slots);
+    System.arraycopy(o.abilityDamage, 0, abilityDamage, 0, slots);
+    System.arraycopy(o.abilityCost, 0, abilityCost, 0, slots);
+    System.arraycopy(o.abilityCooldown, 0, abilityCooldown, 0, slots);
+    System.arraycopy(o.cooldownLeft, 0, cooldownLeft, 0, slots);
+    System.arraycopy(o.abilityDamageType, 0, abilityDamageType, 0, slots);
+  }
+
+  public TacticalState copy() {
+    TacticalState s = new TacticalState(capacity);
+    s.copyFrom(this);
+    return s;
+  }
+
+  /**
+   * List the actions available to the acting unit.
+   *
+   * @param out Receives the actions; needs room for {@link #maxActions()}
+   * @return Number of actions written
+   */
+  public int legalActions(int[] out) {
+    int u = actor;
+    int n = 0;
+    out[n++] = encode(WAIT, 0, 0);
+    for (int t = 0; t < count; t++) {
+      if (team[t] == team[u] || health[t] <= 0) {
+        continue;
+      }
+      if (distance(u, t) > 1) {
+        out[n++] = encode(MOVE, 0, t);
+        continue;
+      }
+      out[n++] = encode(ATTACK, 0, t);
+      for (int slot = 0; slot < SLOTS; slot++) {
+        if (abilityReady(u, slot)) {
+          out[n++] = encode(ABILITY, slot, t);
+        }
+      }
+      if (hasUltimate[u] && ultimateCharge[u] >= 100) {
+        out[n++] = encode(ULTIMATE, 0, t);
+      }
+    }
+    return n;
+  }
+
+  /** Upper bound on {@link #legalActions(int[])} for this state. */
+  public int maxActions() {
+    return 1 + count * (2 + SLOTS);
+  }
+
+  /**
+   * Carry out an action for the acting unit and pass the turn. Actions that
+   * are no longer valid (e.g. the target died) are treated as waiting.
+   *
+   * @param action Encoded action
+   * @param random Source of critical hit rolls
+   */
+  public void apply(int action, SplittableRandom random) {
+    int u = actor;
+    int t = target(action);
+    boolean targetValid = t < count && health[t] > 0 && team[t] != team[u];
+
+    switch (kind(action)) {
+      case MOVE:
+        if (targetValid) {
+          // The model has no walls, so this can step where the real unit can't
+          int d = Hex.stepToward(x[u], y[u], x[t], y[t], null);
+          if (d >= 0) {
+            x[u] += Hex.DIRECTION_Q[d];
+            y[u] += Hex.DIRECTION_R[d];
+          }
+        }
+        break;
+      case ATTACK:
+        if (targetValid && distance(u, t) <= 1) {
+          boolean critical = random.nextDouble() < critChance[u];
+          hit(t, critical ? attackDamage[u] * critMultiplier[u] : attackDamage[u], PHYSICAL);
+          double gain = critical ? attackResourceGain[u] * 2 : attackResourceGain[u];
+          resource[u] = Math.min(maxResource[u], resource[u] + gain);
+          gainCharge(u, attackUltimateCharge[u]);
+        }
+        break;
+      case ABILITY:
+        int i = u * SLOTS + slot(action);
+        if (targetValid && distance(u, t) <= 1 && abilityReady(u, slot(action))) {
+          resource[u] -= abilityCost[i];
+          cooldownLeft[i] = abilityCooldown[i];
+          hit(t, abilityDamage[i], abilityDamageType[i]);
+          gainCharge(u, 10);
+        }
+        break;
+      case ULTIMATE:
+        if (targetValid && distance(u, t) <= 1 && hasUltimate[u] && ultimateCharge[u] >= 100) {
+          hit(t, ultimateDamage[u], ultimateDamageType[u]);
+          ultimateCharge[u] = 0;
+        }
+        break;
+      default:
+        break;
+    }
+    nextTurn();
+  }
+
+  private void hit(int t, double rawDamage, int damageType) {
+    double resistance = damageType == PHYSICAL ? armor[t] : (damageType == MAGICAL ? magicResistance[t] : 0);
+    double actual = Math.max(0, rawDamage * (1 - resistance / (resistance + 100.0)));
+    health[t] = Math.max(0, health[t] - actual);
+    gainCharge(t, actual * 0.5);
+  }
+
+  // Charge is whole points, as in Character.gainUltimateCharge
+  private void gainCharge(int u, double amount) {
+    ultimateCharge[u] = Math.min(100, ultimateCharge[u] + (int) amount);
+  }
+
+  private void nextTurn() {
+    turn++;
+    for (int step = 1; step <= count; step++) {
+      int next = (actor + step) % count;
+      if (health[next] > 0) {
+        actor = next;
+        health[next] = Math.min(maxHealth[next], health[next] + healthRegen[next] * TURN_SECONDS);
+        resource[next] = Math.min(maxResource[next], resource[next] + resourceRegen[next] * TURN_SECONDS);
+        for (int slot = 0; slot < SLOTS; slot++) {
+          int i = next * SLOTS + slot;
+          cooldownLeft[i] = Math.max(0, cooldownLeft[i] - TURN_SECONDS);
+        }
+        return;
+      }
+    }
+  }
+
+  private boolean abilityReady(int u, int slot) {
+    int i = u * SLOTS + slot;
+    return hasAbility[i] && cooldownLeft[i] <= 0 && resource[u] >= abilityCost[i];
+  }
+
+  int distance(int a, int b) {
+    return Hex.distance(x[a], y[a], x[b], y[b]);
+  }
+
+  /** Whether at most one team has living units. */
+  public boolean isTerminal() {
+    int firstTeam = Integer.MIN_VALUE;
+    for (int u = 0; u < count; u++) {
+      if (health[u] > 0) {
+        if (firstTeam == Integer.MIN_VALUE) {
+          firstTeam = team[u];
+        } else if (team[u] != firstTeam) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * How well the encounter is going for a team: 0.5 plus half the difference
+   * between the team's remaining health fraction and its enemies'.
+   */
+  public double reward(int forTeam) {
+    double own = 0, ownMax = 0, enemy = 0, enemyMax = 0;
+    for (int u = 0; u < count; u++) {
+      if (team[u] == forTeam) {
+        own += health[u];
+        ownMax += maxHealth[u];
+      } else {
+        enemy += health[u];
+        enemyMax += maxHealth[u];
+      }
+    }
+    double ownFraction = ownMax > 0 ? own / ownMax : 0;
+    double enemyFraction = enemyMax > 0 ? enemy / enemyMax : 0;
+    return 0.5 + 0.5 * (ownFraction - enemyFraction);
+  }
+
+  public static int encode(int kind, int slot, int target) {
+    return kind << 16 | slot << 12 | target;
+  }
+
+  public static int kind(int action) {
+    return action >>> 16;
+  }
+
+  public static int slot(int action) {
+    return (action >>> 12) & 0xF;
+  }
+
+  public static int target(int action) {
+    return action & 0xFFF;
+  }
+
+  public int getActor() {
+    return actor;
+  }
+
+  public int getActorTeam() {
+    return team[actor];
+  }
+
+  public int getTurn() {
+    return turn;
+  }
+}
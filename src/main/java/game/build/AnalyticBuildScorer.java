@@ -0,0 +1,58 @@
+package game.build;
+
+import game.entity.Character;
+import game.entity.Talent;
+import game.entity.TalentTree;
+
+import java.util.function.Supplier;
+
+/**
+ * Scores builds from the derived-stat formulas: damage per second from attack
+ * damage, attack speed and average critical damage, effective health from
+ * maximum health, armor and dodge. Talents with triggered effects contribute
+ * through {@link Talent#estimateDamageBonus(Character)} and
+ * {@link Talent#estimateSurvivalBonus(Character)}. Each thread evaluates on
+ * its own character instance.
+ */
+public class AnalyticBuildScorer implements BuildScorer {
+  private final ThreadLocal<Character> characters;
+
+  /**
+   * @param characterFactory Creates a character of the class being optimized
+   */
+  public AnalyticBuildScorer(Supplier<Character> characterFactory) {
+    this.characters = ThreadLocal.withInitial(characterFactory);
+  }
+
+  @Override
+  public void score(int[] ranks, double[] out) {
+    Character c = characters.get();
+    c.applyTalentRanks(ranks);
+
+    double damageBonus = 0;
+    double survivalBonus = 0;
+    TalentTree tree = c.getTalentTree();
+    for (int id = 0; id < tree.getTalentCount(); id++) {
+      if (ranks[id] > 0) {
+        Talent talent = tree.getTalent(id);
+        damageBonus += talent.estimateDamageBonus(c);
+        survivalBonus += talent.estimateSurvivalBonus(c);
+      }
+    }
+
+    double crit = Math.min(1, c.getCriticalStrikeChance());
+    double averageHit = 1 + crit * (c.getCriticalDamageMultiplier() - 1);
+    out[0] = c.getAttackDamage() * c.getAttackSpeed() * (averageHit + damageBonus);
+
+    // Health needed to absorb physical hits after armor and dodge
+    double mitigation = (c.getArmor() + 100.0) / 100.0;
+    double avoidance = 1 / (1 - Math.min(0.9, c.getDodge()));
+    out[1] = c.getMaxHealthPoints() * (1 + survivalBonus) * mitigation * avoidance;
+  }
+
+  @Override
+  public boolean isMonotone() {
+    // Talents only add stats and bonuses, and every term grows with them
+    return true;
+  }
+}
@@ -0,0 +1,21 @@
+package game.build;
+
+/**
+ * Scores talent builds for {@link TalentBuildOptimizer}. Implementations are
+ * called from several threads at once.
+ */
+public interface BuildScorer {
+  /**
+   * Score a build.
+   *
+   * @param ranks Rank of each talent, indexed by talent id
+   * @param out   Receives damage per second in [0] and effective health in [1]
+   */
+  void score(int[] ranks, double[] out);
+
+  /**
+   * Whether adding talent ranks never lowers either score. The optimizer only
+   * prunes the search when this holds.
+   */
+  boolean isMonotone();
+}
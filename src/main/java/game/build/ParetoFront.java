@@ -0,0 +1,54 @@
+package game.build;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Set of builds not dominated by any other, shared by the search threads.
+ * Readers check against an immutable snapshot without locking; inserts are
+ * synchronized and publish a new snapshot.
+ */
+class ParetoFront {
+  private volatile TalentBuild[] builds = new TalentBuild[0];
+
+  /** Whether some build scores at least this much on both axes. */
+  boolean covers(double damagePerSecond, double effectiveHealth) {
+    for (TalentBuild build : builds) {
+      if (build.getDamagePerSecond() >= damagePerSecond && build.getEffectiveHealth() >= effectiveHealth) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Add a build unless it's dominated, dropping builds it dominates. */
+  synchronized void offer(TalentBuild candidate) {
+    TalentBuild[] current = builds;
+    for (TalentBuild build : current) {
+      if (build.dominates(candidate) || sameScore(build, candidate)) {
+        return;
+      }
+    }
+    List<TalentBuild> next = new ArrayList<>(current.length + 1);
+    for (TalentBuild build : current) {
+      if (!candidate.dominates(build)) {
+        next.add(build);
+      }
+    }
+    next.add(candidate);
+    builds = next.toArray(new TalentBuild[0]);
+  }
+
+  private static boolean sameScore(TalentBuild a, TalentBuild b) {
+    return a.getDamagePerSecond() == b.getDamagePerSecond() && a.getEffectiveHealth() == b.getEffectiveHealth();
+  }
+
+  /** Builds ordered from highest damage to highest effective health. */
+  List<TalentBuild> toList() {
+    TalentBuild[] result = builds.clone();
+    Arrays.sort(result, Comparator.comparingDouble(TalentBuild::getDamagePerSecond).reversed());
+    return Arrays.asList(result);
+  }
+}
@@ -0,0 +1,62 @@
+package game.build;
+
+import game.entity.TalentTree;
+
+/**
+ * A scored set of talent ranks.
+ */
+public class TalentBuild {
+  private final int[] ranks;
+  private final int pointsSpent;
+  private final double damagePerSecond;
+  private final double effectiveHealth;
+
+  TalentBuild(int[] ranks, int pointsSpent, double damagePerSecond, double effectiveHealth) {
+    this.ranks = ranks;
+    this.pointsSpent = pointsSpent;
+    this.damagePerSecond = damagePerSecond;
+    this.effectiveHealth = effectiveHealth;
+  }
+
+  /** Whether this build is at least as good in both scores and better in one. */
+  public boolean dominates(TalentBuild other) {
+    return damagePerSecond >= other.damagePerSecond && effectiveHealth >= other.effectiveHealth
+        && (damagePerSecond > other.damagePerSecond || effectiveHealth > other.effectiveHealth);
+  }
+
+  /**
+   * Describe the build using talent names.
+   *
+   * @param tree The tree the build was searched on
+   * @return e.g. "DPS 41.2, EHP 2380 (10 pts): Improved Strength 3, ..."
+   */
+  public String describe(TalentTree tree) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("DPS %.1f, EHP %.0f (%d pts):", damagePerSecond, effectiveHealth, pointsSpent));
+    String separator = " ";
+    for (int id = 0; id < ranks.length; id++) {
+      if (ranks[id] > 0) {
+        sb.append(separator).append(tree.getTalent(id).getName()).append(' ').append(ranks[id]);
+        separator = ", ";
+      }
+    }
+    return sb.toString();
+  }
+
+  /** Rank of each talent, indexed by talent id. */
+  public int[] getRanks() {
+    return ranks.clone();
+  }
+
+  public int getPointsSpent() {
+    return pointsSpent;
+  }
+
+  public double getDamagePerSecond() {
+    return damagePerSecond;
+  }
+
+  public double getEffectiveHealth() {
+    return effectiveHealth;
+  }
+}
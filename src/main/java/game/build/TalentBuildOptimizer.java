@@ -0,0 +1,187 @@
+package game.build;
+
+import game.entity.Talent;
+import game.entity.TalentTree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Searches every legal talent build under a point budget and returns the
+ * Pareto-optimal ones (damage per second against effective health).
+ * Talents are decided one at a time in tier order, so tier prerequisites are
+ * known when a talent is reached. The top levels of the search are split into
+ * fork-join tasks. When the scorer is monotone, a subtree is pruned if even
+ * maxing every undecided talent couldn't beat a build already on the front.
+ */
+public class TalentBuildOptimizer {
+  // Search levels that fork subtasks; deeper levels run sequentially
+  private static final int FORK_DEPTH = 4;
+
+  private final TalentTree tree;
+  private final BuildScorer scorer;
+
+  // Talent ids sorted by tier, and their tiers and max ranks in that order
+  private final int[] order;
+  private final int[] tiers;
+  private final int[] maxRanks;
+
+  private final LongAdder buildsScored = new LongAdder();
+  private final LongAdder subtreesPruned = new LongAdder();
+
+  /**
+   * @param tree   A talent tree of the class being optimized, used for its
+   *               structure only
+   * @param scorer Scores complete and partial builds
+   */
+  public TalentBuildOptimizer(TalentTree tree, BuildScorer scorer) {
+    this.tree = tree;
+    this.scorer = scorer;
+
+    int n = tree.getTalentCount();
+    Integer[] ids = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+    }
+    Arrays.sort(ids, (a, b) -> Integer.compare(tree.getTier(a), tree.getTier(b)));
+
+    order = new int[n];
+    tiers = new int[n];
+    maxRanks = new int[n];
+    for (int i = 0; i < n; i++) {
+      Talent talent = tree.getTalent(ids[i]);
+      order[i] = ids[i];
+      tiers[i] = tree.getTier(ids[i]);
+      maxRanks[i] = talent.getMaxRank();
+    }
+  }
+
+  /**
+   * Find the Pareto-optimal builds.
+   *
+   * @param pointBudget Maximum number of talent points to spend
+   * @param pool        Pool running the search
+   * @return Non-dominated builds, highest damage first
+   */
+  public List<TalentBuild> optimize(int pointBudget, ForkJoinPool pool) {
+    buildsScored.reset();
+    subtreesPruned.reset();
+    ParetoFront front = new ParetoFront();
+    pool.invoke(new SearchTask(front, new int[tree.getTalentCount()], 0L, 0, pointBudget));
+    return front.toList();
+  }
+
+  public long getBuildsScored() {
+    return buildsScored.sum();
+  }
+
+  public long getSubtreesPruned() {
+    return subtreesPruned.sum();
+  }
+
+  private final class SearchTask extends RecursiveAction {
+    private final ParetoFront front;
+    private final int[] ranks;
+    private final long unlocked;
+    private final int depth;
+    private final int budget;
+
+    SearchTask(ParetoFront front, int[] ranks, long unlocked, int depth, int budget) {
+      this.front = front;
+      this.ranks = ranks;
+      this.unlocked = unlocked;
+      this.depth = depth;
+      this.budget = budget;
+    }
+
+    @Override
+    protected void compute() {
+      double[] scores = new double[2];
+      if (depth >= FORK_DEPTH) {
+        search(ranks, unlocked, depth, budget, scores);
+        return;
+      }
+      if (prune(ranks, depth, budget, scores)) {
+        return;
+      }
+      if (depth == order.length || budget == 0) {
+        scoreLeaf(ranks, budget, scores);
+        return;
+      }
+
+      int maxRank = allowedRank(unlocked, depth, budget);
+      SearchTask[] children = new SearchTask[maxRank + 1];
+      for (int rank = 0; rank <= maxRank; rank++) {
+        int[] childRanks = ranks.clone();
+        childRanks[order[depth]] = rank;
+        long childUnlocked = rank > 0 ? unlocked | (1L << order[depth]) : unlocked;
+        children[rank] = new SearchTask(front, childRanks, childUnlocked, depth + 1, budget - rank);
+      }
+      invokeAll(children);
+    }
+
+    /** Sequential depth-first search below the fork levels. */
+    private void search(int[] ranks, long unlocked, int depth, int budget, double[] scores) {
+      if (prune(ranks, depth, budget, scores)) {
+        return;
+      }
+      if (depth == order.length || budget == 0) {
+        scoreLeaf(ranks, budget, scores);
+        return;
+      }
+
+      int id = order[depth];
+      int maxRank = allowedRank(unlocked, depth, budget);
+      for (int rank = maxRank; rank >= 0; rank--) {
+        ranks[id] = rank;
+        search(ranks, rank > 0 ? unlocked | (1L << id) : unlocked, depth + 1, budget - rank, scores);
+      }
+      ranks[id] = 0;
+    }
+
+    /** Highest rank the talent at this depth can take. */
+    private int allowedRank(long unlocked, int depth, int budget) {
+      if (!tree.canUnlock(unlocked, order[depth])) {
+        return 0;
+      }
+      return Math.min(maxRanks[depth], budget);
+    }
+
+    /**
+     * Bound the subtree by maxing every undecided talent (ignoring budget and
+     * prerequisites) and skip it if the front already covers that.
+     */
+    private boolean prune(int[] ranks, int depth, int budget, double[] scores) {
+      if (!scorer.isMonotone() || depth == order.length || budget == 0) {
+        return false;
+      }
+      for (int d = depth; d < order.length; d++) {
+        ranks[order[d]] = maxRanks[d];
+      }
+      scorer.score(ranks, scores);
+      for (int d = depth; d < order.length; d++) {
+        ranks[order[d]] = 0;
+      }
+      if (front.covers(scores[0], scores[1])) {
+        subtreesPruned.increment();
+        return true;
+      }
+      return false;
+    }
+
+    private void scoreLeaf(int[] ranks, int budget, double[] scores) {
+      scorer.score(ranks, scores);
+      buildsScored.increment();
+      int spent = 0;
+      for (int rank : ranks) {
+        spent += rank;
+      }
+      if (!front.covers(scores[0], scores[1])) {
+        front.offer(new TalentBuild(ranks.clone(), spent, scores[0], scores[1]));
+      }
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package game.build;
+
+import game.entity.Character;
+import game.entity.Warrior;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line entry point printing the Pareto-optimal Warrior builds.
+ * Usage: {@code ./gradlew optimizeTalents --args="<points>"}
+ */
+public class TalentOptimizerTool {
+  public static void main(String[] args) {
+    int points = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+    Character template = new Warrior("Template");
+    TalentBuildOptimizer optimizer = new TalentBuildOptimizer(template.getTalentTree(),
+        new AnalyticBuildScorer(() -> new Warrior("Evaluator")));
+
+    long start = System.nanoTime();
+    List<TalentBuild> builds = optimizer.optimize(points, ForkJoinPool.commonPool());
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("Searched %d-point Warrior builds in %.2f s: %d scored, %d subtrees pruned%n",
+        points, seconds, optimizer.getBuildsScored(), optimizer.getSubtreesPruned());
+    for (TalentBuild build : builds) {
+      System.out.println("  " + build.describe(template.getTalentTree()));
+    }
+  }
+}
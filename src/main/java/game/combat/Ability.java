@@ -27,6 +27,24 @@ public abstract class Ability {
 
   public abstract void activate(Character source, Character target);
 
+  /**
+   * Damage the ability is expected to deal to a single target, before
+   * mitigation. Used by planners that simulate combat without calling
+   * {@link #activate(Character, Character)}; abilities that don't deal damage
+   * return 0.
+   *
+   * @param source The character using the ability
+   * @return Expected raw damage
+   */
+  public double estimateDamage(Character source) {
+    return 0;
+  }
+
+  /** Type of the damage in {@link #estimateDamage(Character)}. */
+  public DamageType getDamageType() {
+    return DamageType.PHYSICAL;
+  }
+
   public void updateCooldown(double deltaTime) {
     if (remainingCooldown > 0) {
       remainingCooldown = Math.max(0, remainingCooldown - deltaTime);
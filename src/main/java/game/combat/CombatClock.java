@@ -0,0 +1,55 @@
+package game.combat;
+
+/**
+ * Game time used by combat systems, advanced once per tick by the game
+ * manager. Unlike wall time it stops while the game is paused.
+ */
+public class CombatClock {
+  private static CombatClock instance;
+
+  // Clock of the match running on this thread, if any (see bind)
+  private static final ThreadLocal<CombatClock> bound = new ThreadLocal<>();
+
+  private double now = 0;
+
+  private CombatClock() {
+    // Private constructor for singleton
+  }
+
+  public static CombatClock get() {
+    CombatClock clock = bound.get();
+    if (clock != null) {
+      return clock;
+    }
+    if (instance == null) {
+      instance = new CombatClock();
+    }
+    return instance;
+  }
+
+  /** A separate clock for one match, used through {@link #bind(CombatClock)}. */
+  public static CombatClock create() {
+    return new CombatClock();
+  }
+
+  /**
+   * Make {@link #get()} return the given clock on the calling thread, or the
+   * shared clock again if null.
+   */
+  public static void bind(CombatClock clock) {
+    if (clock == null) {
+      bound.remove();
+    } else {
+      bound.set(clock);
+    }
+  }
+
+  public void advance(double deltaTime) {
+    now += deltaTime;
+  }
+
+  /** Seconds of game time since start. */
+  public double now() {
+    return now;
+  }
+}
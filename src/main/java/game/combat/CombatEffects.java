@@ -0,0 +1,110 @@
+package game.combat;
+
+import engine.particle.ParticleEmitter;
+import engine.particle.ParticleSystem;
+import engine.renderer.Sprite;
+import engine.text.FloatingText;
+import game.entity.Character;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Visual feedback for combat events. Subscribes to the
+ * {@link CombatEventBus} and emits particle bursts and floating numbers at the
+ * sprite of the character involved; does nothing for characters without a
+ * sprite (e.g. headless simulations).
+ */
+public final class CombatEffects implements CombatEventListener {
+  private static final CombatEffects instance = new CombatEffects();
+
+  // Buses the effects are subscribed to, each once
+  private static final Set<CombatEventBus> buses = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private static final float UP = (float) (-Math.PI / 2);
+
+  // Small red burst on every hit
+  private static final ParticleEmitter HIT = new ParticleEmitter(
+      8, 40, 120, 0, (float) (Math.PI * 2), 0.2f, 0.4f, 3, 1.0f, 0.3f, 0.2f, 1.0f);
+
+  // Bright sparks shooting upwards on critical hits
+  private static final ParticleEmitter CRITICAL_HIT = new ParticleEmitter(
+      24, 150, 300, UP, (float) Math.PI, 0.3f, 0.6f, 4, 1.0f, 0.85f, 0.3f, 1.0f);
+
+  // Dark red drops falling from a bleeding target
+  private static final ParticleEmitter BLEED_TICK = new ParticleEmitter(
+      6, 20, 60, UP, 1.0f, 0.4f, 0.8f, 3, 0.6f, 0.0f, 0.0f, 0.9f);
+
+  // Large ring of light when an ultimate is used
+  private static final ParticleEmitter ULTIMATE = new ParticleEmitter(
+      120, 200, 260, 0, (float) (Math.PI * 2), 0.5f, 0.8f, 5, 1.0f, 0.95f, 0.6f, 1.0f);
+
+  private CombatEffects() {
+  }
+
+  /**
+   * Start showing effects for events published on a bus.
+   *
+   * @return False if the effects were already subscribed to the bus
+   */
+  public static boolean register(CombatEventBus bus) {
+    if (!buses.add(bus)) {
+      return false;
+    }
+    bus.subscribe(CombatEventType.DAMAGE, instance);
+    bus.subscribe(CombatEventType.HEAL, instance);
+    bus.subscribe(CombatEventType.ABILITY_USED, instance);
+    return true;
+  }
+
+  @Override
+  public void onEvents(CombatEventBuffer events, int start, int count) {
+    switch (events.getType()) {
+      case DAMAGE:
+        for (int i = start; i != start + count; i++) {
+          Character target = events.getTarget(i);
+          if (events.isPeriodic(i)) {
+            emitAt(target, BLEED_TICK);
+          } else {
+            emitAt(target, events.isCritical(i) ? CRITICAL_HIT : HIT);
+          }
+          floatingNumber(target, events.getAmount(i), 1.0f, 0.9f, 0.3f);
+        }
+        break;
+      case HEAL:
+        for (int i = start; i != start + count; i++) {
+          floatingNumber(events.getTarget(i), events.getAmount(i), 0.3f, 1.0f, 0.4f);
+        }
+        break;
+      case ABILITY_USED:
+        for (int i = start; i != start + count; i++) {
+          if ((events.getFlags(i) & CombatEventBuffer.FLAG_ULTIMATE) != 0) {
+            emitAt(events.getSource(i), ULTIMATE);
+          }
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /** Show a floating number above a character. */
+  private static void floatingNumber(Character character, double amount, float r, float g, float b) {
+    Sprite sprite = character.getSprite();
+    if (sprite == null || amount < 0.5) {
+      return;
+    }
+    FloatingText.get().spawnNumber(Math.round(amount),
+        sprite.getX() + sprite.getWidth() / 2, sprite.getY() - 8, 0.75f, r, g, b);
+  }
+
+  private static void emitAt(Character character, ParticleEmitter emitter) {
+    Sprite sprite = character.getSprite();
+    if (sprite == null) {
+      return;
+    }
+    ParticleSystem.get().emit(emitter,
+        sprite.getX() + sprite.getWidth() / 2, sprite.getY() + sprite.getHeight() / 2);
+  }
+}
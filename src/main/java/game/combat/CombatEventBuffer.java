@@ -0,0 +1,178 @@
+package game.combat;
+
+import game.entity.Character;
+
+/**
+ * Ring buffer of combat events of a single type. Event fields are stored in
+ * parallel preallocated arrays, so publishing an event doesn't allocate.
+ * Indices passed to the accessors wrap around the buffer.
+ */
+public class CombatEventBuffer {
+  /** Damage flag: the hit was a critical strike. */
+  public static final int FLAG_CRITICAL = 1;
+  /** Damage flag: the damage came from a damage-over-time effect. */
+  public static final int FLAG_PERIODIC = 1 << 1;
+  /** Ability flag: the ability was an ultimate. */
+  public static final int FLAG_ULTIMATE = 1 << 2;
+
+  private static final DamageType[] DAMAGE_TYPES = DamageType.values();
+
+  private final CombatEventType type;
+
+  // Event fields; capacity is a power of two so indices can be masked
+  private Character[] sources;
+  private Character[] targets;
+  private int[] sourceIds;
+  private int[] targetIds;
+  private double[] amounts;
+  private int[] flags;
+  private byte[] damageTypes;
+  private Object[] payloads;
+  private int mask;
+
+  // Published events are in [head, tail)
+  private int head = 0;
+  private int tail = 0;
+
+  CombatEventBuffer(CombatEventType type, int capacity) {
+    this.type = type;
+    int size = 16;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    this.sources = new Character[size];
+    this.targets = new Character[size];
+    this.sourceIds = new int[size];
+    this.targetIds = new int[size];
+    this.amounts = new double[size];
+    this.flags = new int[size];
+    this.damageTypes = new byte[size];
+    this.payloads = new Object[size];
+    this.mask = size - 1;
+  }
+
+  /** Append an event. The buffer grows if it's full. */
+  void publish(Character source, Character target, double amount, int eventFlags,
+      DamageType damageType, Object payload) {
+    if (tail - head == sources.length) {
+      grow();
+    }
+    int i = tail++ & mask;
+    sources[i] = source;
+    targets[i] = target;
+    sourceIds[i] = source != null ? source.getId() : -1;
+    targetIds[i] = target != null ? target.getId() : -1;
+    amounts[i] = amount;
+    flags[i] = eventFlags;
+    damageTypes[i] = (byte) (damageType != null ? damageType.ordinal() : 0);
+    payloads[i] = payload;
+  }
+
+  /** Index one past the last published event. */
+  int tail() {
+    return tail;
+  }
+
+  int head() {
+    return head;
+  }
+
+  /** Drop events before {@code end}, clearing their references. */
+  void consume(int end) {
+    for (int n = head; n != end; n++) {
+      int i = n & mask;
+      sources[i] = null;
+      targets[i] = null;
+      payloads[i] = null;
+    }
+    head = end;
+  }
+
+  // Events keep their index when the buffer grows, so indices taken before,
+  // e.g. by a dispatch whose listeners publish, stay valid
+  private void grow() {
+    int capacity = sources.length * 2;
+    int newMask = capacity - 1;
+    Character[] newSources = new Character[capacity];
+    Character[] newTargets = new Character[capacity];
+    int[] newSourceIds = new int[capacity];
+    int[] newTargetIds = new int[capacity];
+    double[] newAmounts = new double[capacity];
+    int[] newFlags = new int[capacity];
+    byte[] newDamageTypes = new byte[capacity];
+    Object[] newPayloads = new Object[capacity];
+    for (int n = head; n != tail; n++) {
+      int from = n & mask, to = n & newMask;
+      newSources[to] = sources[from];
+      newTargets[to] = targets[from];
+      newSourceIds[to] = sourceIds[from];
+      newTargetIds[to] = targetIds[from];
+      newAmounts[to] = amounts[from];
+      newFlags[to] = flags[from];
+      newDamageTypes[to] = damageTypes[from];
+      newPayloads[to] = payloads[from];
+    }
+    sources = newSources;
+    targets = newTargets;
+    sourceIds = newSourceIds;
+    targetIds = newTargetIds;
+    amounts = newAmounts;
+    flags = newFlags;
+    damageTypes = newDamageTypes;
+    payloads = newPayloads;
+    mask = newMask;
+  }
+
+  public CombatEventType getType() {
+    return type;
+  }
+
+  /** The character causing the event, or null (e.g. environmental damage). */
+  public Character getSource(int index) {
+    return sources[index & mask];
+  }
+
+  /** The character the event happened to. For ABILITY_USED, the ability's target. */
+  public Character getTarget(int index) {
+    return targets[index & mask];
+  }
+
+  public int getSourceId(int index) {
+    return sourceIds[index & mask];
+  }
+
+  public int getTargetId(int index) {
+    return targetIds[index & mask];
+  }
+
+  /** Damage dealt or health restored, after mitigation. */
+  public double getAmount(int index) {
+    return amounts[index & mask];
+  }
+
+  public int getFlags(int index) {
+    return flags[index & mask];
+  }
+
+  public boolean isCritical(int index) {
+    return (flags[index & mask] & FLAG_CRITICAL) != 0;
+  }
+
+  public boolean isPeriodic(int index) {
+    return (flags[index & mask] & FLAG_PERIODIC) != 0;
+  }
+
+  public DamageType getDamageType(int index) {
+    return DAMAGE_TYPES[damageTypes[index & mask]];
+  }
+
+  /** The status effect of an EFFECT_APPLIED or EFFECT_EXPIRED event. */
+  public StatusEffect getEffect(int index) {
+    return (StatusEffect) payloads[index & mask];
+  }
+
+  /** The ability of an ABILITY_USED event. */
+  public Ability getAbility(int index) {
+    return (Ability) payloads[index & mask];
+  }
+}
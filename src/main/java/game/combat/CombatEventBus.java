@@ -0,0 +1,438 @@
+package game.combat;
+
+import engine.metrics.Counter;
+import engine.metrics.MetricsRegistry;
+import game.entity.Character;
+
+import java.util.Arrays;
+
+/**
+ * Queues combat events during a tick and delivers them in batches.
+ * Each event type has its own ring buffer and its own subscribers. Global
+ * subscribers get one call per type per tick with the whole batch; subscribers
+ * keyed to a character (e.g. a talent reacting to its owner taking damage) are
+ * looked up by character id and only called for that character's events.
+ * Events published while dispatching are delivered on the next dispatch, and
+ * listeners unsubscribed while dispatching get no further events.
+ */
+public class CombatEventBus {
+  private static CombatEventBus instance;
+
+  // Bus of the match running on this thread, if any (see bind)
+  private static final ThreadLocal<CombatEventBus> bound = new ThreadLocal<>();
+
+  private static final CombatEventType[] TYPES = CombatEventType.values();
+
+  // Summed over every bus in the process
+  private static final Counter DISPATCHED =
+      MetricsRegistry.get().counter("game_combat_events_total", "Combat events dispatched");
+
+  private final CombatEventBuffer[] buffers = new CombatEventBuffer[TYPES.length];
+
+  // Subscribers per type: global, and indexed by the slot of the source or
+  // target character. Slots are numbered per bus, so the tables stay as small
+  // as the number of subscribed characters however high character ids get
+  private final ListenerList[] globalListeners = new ListenerList[TYPES.length];
+  private final ListenerList[][] sourceListeners = new ListenerList[TYPES.length][];
+  private final ListenerList[][] targetListeners = new ListenerList[TYPES.length][];
+  private final IdSlots slots = new IdSlots();
+
+  private long dispatchedCount = 0;
+
+  // Set while dispatch() calls listeners. Removals then only null the
+  // listener's entry, so the loops walking the list don't skip anyone, and
+  // the lists are compacted once dispatch() is done
+  private boolean dispatching = false;
+  private ListenerList[] holed = new ListenerList[4];
+  private int holedCount = 0;
+
+  private CombatEventBus(int eventCapacity) {
+    for (int t = 0; t < TYPES.length; t++) {
+      buffers[t] = new CombatEventBuffer(TYPES[t], eventCapacity);
+      globalListeners[t] = new ListenerList();
+      sourceListeners[t] = new ListenerList[16];
+      targetListeners[t] = new ListenerList[16];
+    }
+  }
+
+  public static CombatEventBus get() {
+    CombatEventBus bus = bound.get();
+    if (bus != null) {
+      return bus;
+    }
+    if (instance == null) {
+      instance = new CombatEventBus(1024);
+    }
+    return instance;
+  }
+
+  /**
+   * A separate bus for one match, used through {@link #bind(CombatEventBus)}.
+   * Its buffers start small, since a server may hold thousands of matches,
+   * and grow if a tick publishes more.
+   */
+  public static CombatEventBus create() {
+    return new CombatEventBus(64);
+  }
+
+  /**
+   * Make {@link #get()} return the given bus on the calling thread, or the
+   * shared bus again if null.
+   */
+  public static void bind(CombatEventBus bus) {
+    if (bus == null) {
+      bound.remove();
+    } else {
+      bound.set(bus);
+    }
+  }
+
+  // Publishing
+
+  public void damage(Character source, Character target, double amount, DamageType damageType, int flags) {
+    buffers[CombatEventType.DAMAGE.ordinal()].publish(source, target, amount, flags, damageType, null);
+  }
+
+  public void heal(Character source, Character target, double amount) {
+    buffers[CombatEventType.HEAL.ordinal()].publish(source, target, amount, 0, null, null);
+  }
+
+  public void effectApplied(Character target, StatusEffect effect) {
+    buffers[CombatEventType.EFFECT_APPLIED.ordinal()].publish(null, target, 0, 0, null, effect);
+  }
+
+  public void effectExpired(Character target, StatusEffect effect) {
+    buffers[CombatEventType.EFFECT_EXPIRED.ordinal()].publish(null, target, 0, 0, null, effect);
+  }
+
+  public void death(Character killer, Character target) {
+    buffers[CombatEventType.DEATH.ordinal()].publish(killer, target, 0, 0, null, null);
+  }
+
+  public void abilityUsed(Character source, Character target, Ability ability, boolean ultimate) {
+    buffers[CombatEventType.ABILITY_USED.ordinal()].publish(source, target, 0,
+        ultimate ? CombatEventBuffer.FLAG_ULTIMATE : 0, null, ability);
+  }
+
+  // Subscribing
+
+  /** Receive every event of a type. */
+  public void subscribe(CombatEventType type, CombatEventListener listener) {
+    globalListeners[type.ordinal()].add(listener);
+  }
+
+  /** Receive events of a type caused by a character. */
+  public void subscribeAsSource(CombatEventType type, Character source, CombatEventListener listener) {
+    int slot = slots.acquire(source.getId());
+    ListenerList[] table = sourceListeners[type.ordinal()] = ensureSlot(sourceListeners[type.ordinal()], slot);
+    listFor(table, slot).add(listener);
+  }
+
+  /** Receive events of a type happening to a character. */
+  public void subscribeAsTarget(CombatEventType type, Character target, CombatEventListener listener) {
+    int slot = slots.acquire(target.getId());
+    ListenerList[] table = targetListeners[type.ordinal()] = ensureSlot(targetListeners[type.ordinal()], slot);
+    listFor(table, slot).add(listener);
+  }
+
+  /** Remove a listener from every subscription of a type. */
+  public void unsubscribe(CombatEventType type, CombatEventListener listener) {
+    int t = type.ordinal();
+    remove(globalListeners[t], listener);
+    for (ListenerList list : sourceListeners[t]) {
+      if (list != null) {
+        remove(list, listener);
+      }
+    }
+    for (ListenerList list : targetListeners[t]) {
+      if (list != null) {
+        remove(list, listener);
+      }
+    }
+  }
+
+  private void remove(ListenerList list, CombatEventListener listener) {
+    if (!dispatching) {
+      list.remove(listener);
+    } else if (list.clear(listener) && !list.holed) {
+      list.holed = true;
+      if (holedCount == holed.length) {
+        holed = Arrays.copyOf(holed, holedCount * 2);
+      }
+      holed[holedCount++] = list;
+    }
+  }
+
+  /** Drop every subscription keyed to a character, e.g. when it leaves the game. */
+  public void unsubscribeAll(Character character) {
+    int slot = slots.get(character.getId());
+    if (slot < 0) {
+      return;
+    }
+    for (int t = 0; t < TYPES.length; t++) {
+      if (slot < sourceListeners[t].length) {
+        sourceListeners[t][slot] = null;
+      }
+      if (slot < targetListeners[t].length) {
+        targetListeners[t][slot] = null;
+      }
+    }
+    slots.release(character.getId());
+  }
+
+  /**
+   * Deliver every queued event. Call once per tick after the characters have
+   * been updated.
+   */
+  public void dispatch() {
+    dispatching = true;
+    try {
+      dispatchQueued();
+    } finally {
+      dispatching = false;
+      for (int i = 0; i < holedCount; i++) {
+        holed[i].compact();
+        holed[i] = null;
+      }
+      holedCount = 0;
+    }
+  }
+
+  private void dispatchQueued() {
+    long dispatched = dispatchedCount;
+    for (int t = 0; t < TYPES.length; t++) {
+      CombatEventBuffer events = buffers[t];
+      int start = events.head();
+      int end = events.tail();
+      int count = end - start;
+      if (count == 0) {
+        continue;
+      }
+
+      // One call per global subscriber for the whole batch
+      ListenerList global = globalListeners[t];
+      for (int l = 0; l < global.count; l++) {
+        CombatEventListener listener = global.items[l];
+        if (listener != null) {
+          listener.onEvents(events, start, count);
+        }
+      }
+
+      // Keyed subscribers only see events of their character
+      if (slots.size() > 0) {
+        ListenerList[] bySource = sourceListeners[t];
+        ListenerList[] byTarget = targetListeners[t];
+        for (int i = start; i != end; i++) {
+          deliver(bySource, slots.get(events.getSourceId(i)), events, i);
+          deliver(byTarget, slots.get(events.getTargetId(i)), events, i);
+        }
+      }
+
+      events.consume(end);
+      dispatchedCount += count;
+    }
+    if (dispatchedCount != dispatched) {
+      DISPATCHED.add(dispatchedCount - dispatched);
+    }
+  }
+
+  private static void deliver(ListenerList[] table, int slot, CombatEventBuffer events, int index) {
+    if (slot < 0 || slot >= table.length) {
+      return;
+    }
+    ListenerList list = table[slot];
+    if (list == null) {
+      return;
+    }
+    for (int l = 0; l < list.count; l++) {
+      CombatEventListener listener = list.items[l];
+      if (listener != null) {
+        listener.onEvents(events, index, 1);
+      }
+    }
+  }
+
+  private static ListenerList[] ensureSlot(ListenerList[] table, int slot) {
+    if (slot < table.length) {
+      return table;
+    }
+    return Arrays.copyOf(table, Math.max(table.length * 2, slot + 1));
+  }
+
+  private static ListenerList listFor(ListenerList[] table, int slot) {
+    if (table[slot] == null) {
+      table[slot] = new ListenerList();
+    }
+    return table[slot];
+  }
+
+  /** Number of events queued but not yet dispatched. */
+  public int getPendingCount() {
+    int pending = 0;
+    for (CombatEventBuffer events : buffers) {
+      pending += events.tail() - events.head();
+    }
+    return pending;
+  }
+
+  public long getDispatchedCount() {
+    return dispatchedCount;
+  }
+
+  /**
+   * Open-addressing map from character id to a slot in the keyed listener
+   * tables. Slots of characters that left are reused, and lookups don't box.
+   */
+  private static final class IdSlots {
+    // Character id + 1 per entry, 0 when empty
+    private int[] keys = new int[16];
+    private int[] values = new int[16];
+    private int size = 0;
+    private int[] free = new int[8];
+    private int freeCount = 0;
+    private int nextSlot = 0;
+
+    /** The character's slot, or -1 if it has none. */
+    int get(int id) {
+      if (id < 0) {
+        return -1;
+      }
+      int mask = keys.length - 1;
+      for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+        int key = keys[i];
+        if (key == 0) {
+          return -1;
+        }
+        if (key == id + 1) {
+          return values[i];
+        }
+      }
+    }
+
+    /** The character's slot, assigning one if needed. */
+    int acquire(int id) {
+      int slot = get(id);
+      if (slot >= 0) {
+        return slot;
+      }
+      if ((size + 1) * 2 > keys.length) {
+        rehash(keys.length * 2);
+      }
+      slot = freeCount > 0 ? free[--freeCount] : nextSlot++;
+      insert(id, slot);
+      size++;
+      return slot;
+    }
+
+    /** Free the character's slot for reuse. */
+    void release(int id) {
+      int mask = keys.length - 1;
+      int i = hash(id) & mask;
+      while (keys[i] != id + 1) {
+        if (keys[i] == 0) {
+          return;
+        }
+        i = (i + 1) & mask;
+      }
+      if (freeCount == free.length) {
+        free = Arrays.copyOf(free, freeCount * 2);
+      }
+      free[freeCount++] = values[i];
+      size--;
+
+      // Shift later entries of the probe run back over the hole
+      keys[i] = 0;
+      for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+        int home = hash(keys[j] - 1) & mask;
+        boolean movable = j > i ? home <= i || home > j : home <= i && home > j;
+        if (movable) {
+          keys[i] = keys[j];
+          values[i] = values[j];
+          keys[j] = 0;
+          i = j;
+        }
+      }
+    }
+
+    int size() {
+      return size;
+    }
+
+    private void insert(int id, int slot) {
+      int mask = keys.length - 1;
+      int i = hash(id) & mask;
+      while (keys[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = id + 1;
+      values[i] = slot;
+    }
+
+    private void rehash(int capacity) {
+      int[] oldKeys = keys, oldValues = values;
+      keys = new int[capacity];
+      values = new int[capacity];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != 0) {
+          insert(oldKeys[i] - 1, oldValues[i]);
+        }
+      }
+    }
+
+    private static int hash(int id) {
+      int h = id * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+  }
+
+  /**
+   * Growable listener array without per-dispatch allocation. Entries are
+   * null where a listener was removed during dispatch.
+   */
+  private static final class ListenerList {
+    CombatEventListener[] items = new CombatEventListener[2];
+    int count = 0;
+    boolean holed = false; // Queued for compact()
+
+    void add(CombatEventListener listener) {
+      if (count == items.length) {
+        items = Arrays.copyOf(items, count * 2);
+      }
+      items[count++] = listener;
+    }
+
+    void remove(CombatEventListener listener) {
+      for (int i = 0; i < count; i++) {
+        if (items[i] == listener) {
+          System.arraycopy(items, i + 1, items, i, count - i - 1);
+          items[--count] = null;
+          return;
+        }
+      }
+    }
+
+    /** Null out a listener's entry, leaving the others where they are. */
+    boolean clear(CombatEventListener listener) {
+      for (int i = 0; i < count; i++) {
+        if (items[i] == listener) {
+          items[i] = null;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Close the holes left by {@link #clear}, keeping the listeners' order. */
+    void compact() {
+      int kept = 0;
+      for (int i = 0; i < count; i++) {
+        if (items[i] != null) {
+          items[kept++] = items[i];
+        }
+      }
+      Arrays.fill(items, kept, count, null);
+      count = kept;
+      holed = false;
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package game.combat;
+
+/**
+ * Receives combat events in batches.
+ */
+public interface CombatEventListener {
+  /**
+   * Handle a run of events of one type. Events are read through the buffer's
+   * accessors with indices {@code start} to {@code start + count - 1}.
+   *
+   * @param events The buffer holding the events
+   * @param start  Index of the first event
+   * @param count  Number of events
+   */
+  void onEvents(CombatEventBuffer events, int start, int count);
+}
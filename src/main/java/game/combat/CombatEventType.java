@@ -0,0 +1,13 @@
+package game.combat;
+
+/**
+ * Kinds of events published on the {@link CombatEventBus}.
+ */
+public enum CombatEventType {
+  DAMAGE,
+  HEAL,
+  EFFECT_APPLIED,
+  EFFECT_EXPIRED,
+  DEATH,
+  ABILITY_USED
+}
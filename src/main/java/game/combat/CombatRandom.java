@@ -0,0 +1,69 @@
+package game.combat;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random rolls for combat outcomes such as critical hits. Matches that must
+ * play out the same on every machine, like lockstep multiplayer, seed it and
+ * take all their rolls from it in simulation order.
+ */
+public class CombatRandom {
+  private static CombatRandom instance;
+
+  // Rolls of the match running on this thread, if any (see bind)
+  private static final ThreadLocal<CombatRandom> bound = new ThreadLocal<>();
+
+  private SplittableRandom random = new SplittableRandom();
+  private long rollCount = 0;
+
+  private CombatRandom() {
+    // Private constructor for singleton
+  }
+
+  public static CombatRandom get() {
+    CombatRandom random = bound.get();
+    if (random != null) {
+      return random;
+    }
+    if (instance == null) {
+      instance = new CombatRandom();
+    }
+    return instance;
+  }
+
+  /** Separate rolls for one match, used through {@link #bind(CombatRandom)}. */
+  public static CombatRandom create(long seed) {
+    CombatRandom random = new CombatRandom();
+    random.setSeed(seed);
+    return random;
+  }
+
+  /**
+   * Make {@link #get()} return the given rolls on the calling thread, or the
+   * shared ones again if null.
+   */
+  public static void bind(CombatRandom random) {
+    if (random == null) {
+      bound.remove();
+    } else {
+      bound.set(random);
+    }
+  }
+
+  /** Restart the sequence from a seed. */
+  public void setSeed(long seed) {
+    random = new SplittableRandom(seed);
+    rollCount = 0;
+  }
+
+  /** True with the given probability. */
+  public boolean chance(double probability) {
+    rollCount++;
+    return random.nextDouble() < probability;
+  }
+
+  /** Rolls made since the last seed, part of a match's state checksum. */
+  public long getRollCount() {
+    return rollCount;
+  }
+}
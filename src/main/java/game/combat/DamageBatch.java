@@ -0,0 +1,139 @@
+package game.combat;
+
+import game.entity.Character;
+
+import java.util.Arrays;
+
+/**
+ * Applies damage to many targets at once, e.g. for area abilities.
+ * Targets' resistances and health are gathered into parallel arrays, the
+ * mitigation math runs over those arrays in one pass (with SIMD when the
+ * jdk.incubator.vector module is available), and the results are written back.
+ * Each target should be added at most once per batch.
+ */
+public class DamageBatch {
+  private static final DamageKernel DEFAULT_KERNEL = loadKernel();
+
+  private final DamageKernel kernel;
+
+  private Character[] targets;
+  private DamageType[] damageTypes;
+  private double[] raw;
+  private double[] resistance;
+  private double[] health;
+  private double[] actual;
+  private double[] remaining;
+  private boolean[] died;
+  private int count = 0;
+
+  public DamageBatch(int capacity) {
+    this(capacity, DEFAULT_KERNEL);
+  }
+
+  DamageBatch(int capacity, DamageKernel kernel) {
+    this.kernel = kernel;
+    int size = Math.max(1, capacity);
+    targets = new Character[size];
+    damageTypes = new DamageType[size];
+    raw = new double[size];
+    resistance = new double[size];
+    health = new double[size];
+    actual = new double[size];
+    remaining = new double[size];
+    died = new boolean[size];
+  }
+
+  /**
+   * Queue a hit.
+   *
+   * @param target     The character being hit
+   * @param rawDamage  Damage before mitigation
+   * @param damageType Type of the damage
+   */
+  public void add(Character target, double rawDamage, DamageType damageType) {
+    if (count == targets.length) {
+      grow();
+    }
+    targets[count] = target;
+    damageTypes[count] = damageType;
+    raw[count] = rawDamage;
+    resistance[count] = target.getResistance(damageType);
+    health[count] = target.getHealthPoints();
+    count++;
+  }
+
+  /**
+   * Mitigate and apply every queued hit. Results stay readable until
+   * {@link #clear()}.
+   *
+   * @param source The character dealing the damage, or null
+   * @param flags  {@link CombatEventBuffer} damage flags for every hit
+   * @return Number of targets killed by the batch
+   */
+  public int resolve(Character source, int flags) {
+    kernel.resolve(raw, resistance, health, actual, remaining, died, count);
+
+    int kills = 0;
+    for (int i = 0; i < count; i++) {
+      Character target = targets[i];
+      if (died[i] && target.isAlive()) {
+        kills++;
+      }
+      target.applyResolvedDamage(actual[i], remaining[i], damageTypes[i], source, flags);
+    }
+    return kills;
+  }
+
+  public void clear() {
+    Arrays.fill(targets, 0, count, null);
+    Arrays.fill(damageTypes, 0, count, null);
+    count = 0;
+  }
+
+  private void grow() {
+    int capacity = targets.length * 2;
+    targets = Arrays.copyOf(targets, capacity);
+    damageTypes = Arrays.copyOf(damageTypes, capacity);
+    raw = Arrays.copyOf(raw, capacity);
+    resistance = Arrays.copyOf(resistance, capacity);
+    health = Arrays.copyOf(health, capacity);
+    actual = Arrays.copyOf(actual, capacity);
+    remaining = Arrays.copyOf(remaining, capacity);
+    died = Arrays.copyOf(died, capacity);
+  }
+
+  private static DamageKernel loadKernel() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        return (DamageKernel) Class.forName("game.combat.VectorDamageKernel")
+            .getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        System.err.println("Vector API unavailable, using scalar damage kernel: " + e);
+      }
+    }
+    return new ScalarDamageKernel();
+  }
+
+  /** Whether batches created with {@link #DamageBatch(int)} use SIMD. */
+  public static boolean isVectorized() {
+    return !(DEFAULT_KERNEL instanceof ScalarDamageKernel);
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public Character getTarget(int index) {
+    return targets[index];
+  }
+
+  /** Damage dealt to a target after mitigation. */
+  public double getActualDamage(int index) {
+    return actual[index];
+  }
+
+  /** Whether a target's health reached zero. */
+  public boolean isDead(int index) {
+    return died[index];
+  }
+}
@@ -0,0 +1,15 @@
+package game.combat;
+
+/**
+ * Resolves mitigation, clamping and death for a batch of hits stored in
+ * parallel arrays. For every index {@code i < count}:
+ * <pre>
+ *   actual[i]    = max(0, raw[i] * (1 - resistance[i] / (resistance[i] + 100)))
+ *   remaining[i] = max(0, health[i] - actual[i])
+ *   died[i]      = remaining[i] &lt;= 0
+ * </pre>
+ */
+interface DamageKernel {
+  void resolve(double[] raw, double[] resistance, double[] health,
+      double[] actual, double[] remaining, boolean[] died, int count);
+}
@@ -0,0 +1,20 @@
+package game.combat;
+
+/**
+ * Plain loop implementation of {@link DamageKernel}, used when the Vector API
+ * isn't available.
+ */
+final class ScalarDamageKernel implements DamageKernel {
+  @Override
+  public void resolve(double[] raw, double[] resistance, double[] health,
+      double[] actual, double[] remaining, boolean[] died, int count) {
+    for (int i = 0; i < count; i++) {
+      double reduction = resistance[i] / (resistance[i] + 100.0);
+      double damage = Math.max(0, raw[i] * (1 - reduction));
+      double left = Math.max(0, health[i] - damage);
+      actual[i] = damage;
+      remaining[i] = left;
+      died[i] = left <= 0;
+    }
+  }
+}
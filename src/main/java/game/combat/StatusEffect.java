@@ -72,6 +72,18 @@ public abstract class StatusEffect {
     this.remainingDuration = Math.max(this.remainingDuration, additionalEffect.duration);
   }
 
+  /**
+   * Check if another effect is the same kind as this one, so applying it
+   * stacks onto or refreshes this one instead of being added. By default
+   * effects of the same class are the same kind.
+   *
+   * @param other The effect being applied
+   * @return true if the effects are the same kind
+   */
+  public boolean isSameKind(StatusEffect other) {
+    return getClass() == other.getClass();
+  }
+
   /**
    * Check if this effect can be stacked.
    * 
@@ -93,4 +105,8 @@ public abstract class StatusEffect {
   public double getRemainingDuration() {
     return remainingDuration;
   }
+
+  public double getDuration() {
+    return duration;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package game.combat;
+
+import game.entity.Character;
+
+/**
+ * Threat generated against one character by its attackers, kept in an
+ * indexed max-heap so the highest threat is always at the root.
+ * <p>
+ * Threat halves every {@link #HALF_LIFE} seconds. Instead of touching every
+ * entry each tick, new threat is stored inflated by e^(rate * t), which
+ * decays all entries at once without changing their order; actual values are
+ * recovered by deflating on read. Entries are renormalized before the
+ * inflation factor can overflow. Decay uses {@link StrictMath} so threat,
+ * and the AI targeting that reads it, comes out the same on every machine.
+ */
+public class ThreatTable {
+  /** Seconds for threat to halve. */
+  public static final double HALF_LIFE = 10.0;
+
+  private static final double DECAY_RATE = StrictMath.log(2) / HALF_LIFE;
+  private static final double RENORMALIZE_AT = 1e100;
+  // Threat below this is forgotten
+  private static final double MIN_THREAT = 0.5;
+
+  // Heap of attackers ordered by stored threat, largest first
+  private final Character[] attackers;
+  private final int[] attackerIds;
+  private final double[] stored;
+  private int size = 0;
+
+  // Scratch for getTop(Character[]): heap positions whose parent has been
+  // taken. Each taken position adds at most two, so it never outgrows the heap
+  private final int[] frontier;
+
+  // Stored threat is relative to this time
+  private double baseTime = 0;
+
+  /**
+   * @param capacity Attackers tracked at once; when full, the attacker with
+   *                 the least threat is dropped for a bigger one
+   */
+  public ThreatTable(int capacity) {
+    attackers = new Character[capacity];
+    attackerIds = new int[capacity];
+    stored = new double[capacity];
+    frontier = new int[capacity];
+  }
+
+  /**
+   * Add threat from an attacker.
+   *
+   * @param attacker The character generating threat
+   * @param amount   Threat to add, usually damage dealt
+   * @param now      Current {@link CombatClock} time
+   */
+  public void addThreat(Character attacker, double amount, double now) {
+    if (amount <= 0) {
+      return;
+    }
+    double scale = StrictMath.exp(DECAY_RATE * (now - baseTime));
+    if (scale > RENORMALIZE_AT) {
+      renormalize(now, scale);
+      scale = 1;
+    }
+    double value = amount * scale;
+
+    int position = indexOf(attacker.getId());
+    if (position >= 0) {
+      stored[position] += value;
+      siftUp(position);
+      return;
+    }
+
+    if (size < attackers.length) {
+      position = size++;
+    } else {
+      // Full: replace the smallest entry, which is one of the leaves
+      position = size / 2;
+      for (int i = position + 1; i < size; i++) {
+        if (stored[i] < stored[position]) {
+          position = i;
+        }
+      }
+      if (stored[position] >= value) {
+        return;
+      }
+    }
+    attackers[position] = attacker;
+    attackerIds[position] = attacker.getId();
+    stored[position] = value;
+    siftUp(position);
+  }
+
+  /**
+   * The attacker with the most threat, in O(1) apart from dropping attackers
+   * that died since they were added.
+   *
+   * @param now Current {@link CombatClock} time
+   * @return The top attacker, or null if nobody has meaningful threat
+   */
+  public Character getTop(double now) {
+    while (size > 0 && !attackers[0].isAlive()) {
+      removeAt(0);
+    }
+    if (size > 0 && actual(0, now) < MIN_THREAT) {
+      clear(); // Every other entry is smaller still
+    }
+    return size > 0 ? attackers[0] : null;
+  }
+
+  /** Threat of the top attacker, or 0. */
+  public double getTopThreat(double now) {
+    return getTop(now) != null ? actual(0, now) : 0;
+  }
+
+  /** Current threat of an attacker, or 0 if it isn't tracked. */
+  public double getThreat(Character attacker, double now) {
+    int position = indexOf(attacker.getId());
+    return position >= 0 ? actual(position, now) : 0;
+  }
+
+  /**
+   * Copy up to {@code out.length} living attackers with the most threat,
+   * highest first, walking the heap from the root. Doesn't allocate.
+   *
+   * @param out Receives the attackers
+   * @return Number of attackers written
+   */
+  public int getTop(Character[] out) {
+    int[] frontier = this.frontier;
+    int frontierSize = 0;
+    if (size > 0) {
+      frontier[frontierSize++] = 0;
+    }
+
+    int written = 0;
+    while (written < out.length && frontierSize > 0) {
+      int best = 0;
+      for (int f = 1; f < frontierSize; f++) {
+        if (stored[frontier[f]] > stored[frontier[best]]) {
+          best = f;
+        }
+      }
+      int position = frontier[best];
+      frontier[best] = frontier[--frontierSize];
+      if (attackers[position].isAlive()) {
+        out[written++] = attackers[position];
+      }
+      // Dead attackers are skipped but their children still compete
+      for (int child = position * 2 + 1; child <= position * 2 + 2 && child < size; child++) {
+        frontier[frontierSize++] = child;
+      }
+    }
+    return written;
+  }
+
+  public void remove(Character attacker) {
+    int position = indexOf(attacker.getId());
+    if (position >= 0) {
+      removeAt(position);
+    }
+  }
+
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      attackers[i] = null;
+    }
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private double actual(int position, double now) {
+    return stored[position] * StrictMath.exp(-DECAY_RATE * (now - baseTime));
+  }
+
+  private void renormalize(double now, double scale) {
+    for (int i = 0; i < size; i++) {
+      stored[i] /= scale;
+    }
+    baseTime = now;
+  }
+
+  /** Linear scan of the ids; tables are small enough that this beats hashing. */
+  private int indexOf(int id) {
+    for (int i = 0; i < size; i++) {
+      if (attackerIds[i] == id) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void removeAt(int position) {
+    int last = --size;
+    if (position != last) {
+      move(last, position);
+      siftDown(position);
+      siftUp(position);
+    }
+    attackers[last] = null;
+  }
+
+  private void siftUp(int position) {
+    while (position > 0) {
+      int parent = (position - 1) / 2;
+      if (stored[parent] >= stored[position]) {
+        return;
+      }
+      swap(parent, position);
+      position = parent;
+    }
+  }
+
+  private void siftDown(int position) {
+    while (true) {
+      int left = position * 2 + 1;
+      if (left >= size) {
+        return;
+      }
+      int largest = left + 1 < size && stored[left + 1] > stored[left] ? left + 1 : left;
+      if (stored[position] >= stored[largest]) {
+        return;
+      }
+      swap(position, largest);
+      position = largest;
+    }
+  }
+
+  private void move(int from, int to) {
+    attackers[to] = attackers[from];
+    attackerIds[to] = attackerIds[from];
+    stored[to] = stored[from];
+  }
+
+  private void swap(int a, int b) {
+    Character attacker = attackers[a];
+    int id = attackerIds[a];
+    double value = stored[a];
+    move(b, a);
+    attackers[b] = attacker;
+    attackerIds[b] = id;
+    stored[b] = value;
+  }
+}
@@ -0,0 +1,44 @@
+package game.combat;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link DamageKernel} using SIMD lanes from the incubating Vector API.
+ * Only loaded by {@link DamageBatch} when the jdk.incubator.vector module is
+ * present, so the game still runs without {@code --add-modules}. Operations
+ * are done in the same order as {@link ScalarDamageKernel}, so both produce
+ * identical results.
+ */
+final class VectorDamageKernel implements DamageKernel {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public void resolve(double[] raw, double[] resistance, double[] health,
+      double[] actual, double[] remaining, boolean[] died, int count) {
+    DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+    int i = 0;
+    for (int bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+      DoubleVector r = DoubleVector.fromArray(SPECIES, resistance, i);
+      DoubleVector reduction = r.div(r.add(100.0));
+      DoubleVector damage = DoubleVector.fromArray(SPECIES, raw, i).mul(one.sub(reduction)).max(0.0);
+      DoubleVector left = DoubleVector.fromArray(SPECIES, health, i).sub(damage).max(0.0);
+      VectorMask<Double> dead = left.compare(VectorOperators.LE, 0.0);
+      damage.intoArray(actual, i);
+      left.intoArray(remaining, i);
+      dead.intoArray(died, i);
+    }
+
+    // Remaining lanes
+    for (; i < count; i++) {
+      double reduction = resistance[i] / (resistance[i] + 100.0);
+      double damage = Math.max(0, raw[i] * (1 - reduction));
+      double left = Math.max(0, health[i] - damage);
+      actual[i] = damage;
+      remaining[i] = left;
+      died[i] = left <= 0;
+    }
+  }
+}
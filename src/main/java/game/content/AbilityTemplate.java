@@ -0,0 +1,57 @@
+package game.content;
+
+import game.combat.Ability;
+import game.combat.DamageType;
+
+/**
+ * A compiled ability definition. Activating the ability damages the target,
+ * then heals the user and applies an effect to the target, in that order;
+ * each part is optional.
+ * <p>
+ * Keys: {@code name}, {@code description}, {@code cooldown}, {@code cost},
+ * {@code cast} (activation time), {@code ultimate}, {@code damage},
+ * {@code damage_type}, {@code heal}, {@code apply} (an effect id) and
+ * {@code apply_power}. Formulas are evaluated for the user with the target
+ * as the other character; {@code heal} and {@code apply_power} get the
+ * damage dealt after mitigation as {@code amount}.
+ */
+public final class AbilityTemplate {
+  final String id, name, description;
+  final double cooldown, cost, cast;
+  final boolean ultimate;
+  final Formula damage, heal, applyPower;
+  final DamageType damageType;
+  final EffectTemplate apply;
+
+  AbilityTemplate(Definition definition, ContentRegistry registry) {
+    this.id = definition.id;
+    this.name = definition.getString("name", id);
+    this.description = definition.getString("description", "");
+    this.cooldown = definition.getNumber("cooldown", 0);
+    this.cost = definition.getNumber("cost", 0);
+    this.cast = definition.getNumber("cast", 0);
+    this.ultimate = definition.getBoolean("ultimate");
+    this.damage = definition.getFormula("damage");
+    this.damageType = definition.getEnum("damage_type", DamageType.class, DamageType.PHYSICAL);
+    this.heal = definition.getFormula("heal");
+    String effect = definition.getString("apply", null);
+    this.apply = effect != null ? registry.requireEffect(definition, "apply", effect) : null;
+    this.applyPower = definition.getFormula("apply_power");
+    if (apply != null && applyPower == null) {
+      throw definition.error("apply", "ability " + id + " applies an effect but has no 'apply_power'");
+    }
+  }
+
+  /** Create an instance for one character; abilities keep their own cooldown. */
+  public Ability create() {
+    return new DataAbility(this);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public boolean isUltimate() {
+    return ultimate;
+  }
+}
@@ -0,0 +1,171 @@
+package game.content;
+
+import engine.asset.VirtualFileSystem;
+import game.entity.CharacterClass;
+import game.entity.TalentTree;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Effects, abilities and talents defined in content files under
+ * {@value #DATA_DIR} in the assets, compiled once when first needed. Each
+ * character class has a file named after it, e.g. {@code data/warrior.content},
+ * whose talents form the class's talent tree in file order. Ids are global,
+ * so a file can use effects and abilities defined in files loaded before it.
+ * <p>
+ * Definitions look like:
+ * <pre>
+ * effect bleed
+ *   duration = 5
+ *   tick = 1
+ *   stacking = strongest
+ *   tick_damage = power
+ * </pre>
+ * See {@link EffectTemplate}, {@link AbilityTemplate} and
+ * {@link TalentTemplate} for their keys and {@link FormulaCompiler} for the
+ * formula syntax. Mistakes are reported with file and line when the file is
+ * loaded, not when the content is first used.
+ * <p>
+ * Synchronized because startup creates the roster, and with it the talent
+ * trees, off the main thread. Templates never change once compiled.
+ */
+public class ContentRegistry {
+  private static ContentRegistry instance;
+
+  public static final String DATA_DIR = "data/";
+  public static final String EXTENSION = ".content";
+
+  private final Map<String, EffectTemplate> effects = new HashMap<>();
+  private final Map<String, AbilityTemplate> abilities = new HashMap<>();
+  private final Map<String, TalentTemplate> talents = new HashMap<>();
+  private final Map<CharacterClass, List<TalentTemplate>> trees = new EnumMap<>(CharacterClass.class);
+
+  ContentRegistry() {
+  }
+
+  public static synchronized ContentRegistry get() {
+    if (instance == null) {
+      instance = new ContentRegistry();
+    }
+    return instance;
+  }
+
+  /**
+   * Create a fresh talent tree for a character class, loading the class's
+   * content file on first use.
+   */
+  public synchronized TalentTree createTalentTree(CharacterClass characterClass) {
+    TalentTree tree = new TalentTree();
+    for (TalentTemplate talent : loadClass(characterClass)) {
+      tree.addTalent(talent.create(), talent.tier);
+    }
+    return tree;
+  }
+
+  /** An effect, loading the class's content file if needed. */
+  public synchronized EffectTemplate getEffect(CharacterClass characterClass, String id) {
+    loadClass(characterClass);
+    return getEffect(id);
+  }
+
+  /** An effect from the files loaded so far. */
+  public synchronized EffectTemplate getEffect(String id) {
+    EffectTemplate effect = effects.get(id);
+    if (effect == null) {
+      throw new IllegalArgumentException("Unknown effect " + id);
+    }
+    return effect;
+  }
+
+  /** An ability from the files loaded so far. */
+  public synchronized AbilityTemplate getAbility(String id) {
+    AbilityTemplate ability = abilities.get(id);
+    if (ability == null) {
+      throw new IllegalArgumentException("Unknown ability " + id);
+    }
+    return ability;
+  }
+
+  private List<TalentTemplate> loadClass(CharacterClass characterClass) {
+    List<TalentTemplate> tree = trees.get(characterClass);
+    if (tree == null) {
+      String path = DATA_DIR + characterClass.name().toLowerCase() + EXTENSION;
+      ByteBuffer data = VirtualFileSystem.get().read(path);
+      if (data == null) {
+        throw new IllegalStateException("Missing content file " + path + " under "
+            + VirtualFileSystem.get().getLooseRoot().toAbsolutePath());
+      }
+      tree = load(path, StandardCharsets.UTF_8.decode(data).toString());
+      trees.put(characterClass, tree);
+    }
+    return tree;
+  }
+
+  /**
+   * Compile a content file. Effects are compiled first, then abilities,
+   * then talents, so each can use the ones before it regardless of their
+   * order in the file.
+   *
+   * @param file Name used in error messages
+   * @param text The file's contents
+   * @return The file's talents, in file order
+   */
+  synchronized List<TalentTemplate> load(String file, String text) {
+    List<Definition> definitions = Definition.parse(file, text);
+    for (Definition definition : definitions) {
+      if (!definition.kind.equals("effect") && !definition.kind.equals("ability")
+          && !definition.kind.equals("talent")) {
+        throw definition.error("", "unknown kind '" + definition.kind + "'");
+      }
+    }
+
+    for (Definition definition : definitions) {
+      if (definition.kind.equals("effect")) {
+        register(effects, definition, new EffectTemplate(definition));
+      }
+    }
+    for (Definition definition : definitions) {
+      if (definition.kind.equals("ability")) {
+        register(abilities, definition, new AbilityTemplate(definition, this));
+      }
+    }
+    List<TalentTemplate> fileTalents = new ArrayList<>();
+    for (Definition definition : definitions) {
+      if (definition.kind.equals("talent")) {
+        TalentTemplate talent = new TalentTemplate(definition, this);
+        register(talents, definition, talent);
+        fileTalents.add(talent);
+      }
+    }
+    return fileTalents;
+  }
+
+  private static <T> void register(Map<String, T> map, Definition definition, T template) {
+    definition.checkAllUsed();
+    if (map.putIfAbsent(definition.id, template) != null) {
+      throw definition.error("", "duplicate " + definition.kind + " " + definition.id);
+    }
+  }
+
+  EffectTemplate requireEffect(Definition definition, String key, String id) {
+    EffectTemplate effect = effects.get(id);
+    if (effect == null) {
+      throw definition.error(key, "unknown effect '" + id + "'");
+    }
+    return effect;
+  }
+
+  AbilityTemplate requireAbility(Definition definition, String key, String id) {
+    AbilityTemplate ability = abilities.get(id);
+    if (ability == null) {
+      throw definition.error(key, "unknown ability '" + id + "'");
+    }
+    return ability;
+  }
+}
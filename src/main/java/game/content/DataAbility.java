@@ -0,0 +1,45 @@
+package game.content;
+
+import game.combat.Ability;
+import game.combat.DamageType;
+import game.entity.Character;
+
+/**
+ * The ability executor for every {@link AbilityTemplate}.
+ */
+final class DataAbility extends Ability {
+  private final AbilityTemplate template;
+
+  DataAbility(AbilityTemplate template) {
+    super(template.name, template.description, template.cooldown, template.cost, template.cast,
+        template.ultimate);
+    this.template = template;
+  }
+
+  @Override
+  public void activate(Character source, Character target) {
+    double dealt = 0;
+    if (template.damage != null && target != null && target.isAlive()) {
+      double before = target.getHealthPoints();
+      target.takeDamage(template.damage.eval(source, target, 1, 0, 0), template.damageType, source);
+      dealt = before - target.getHealthPoints();
+    }
+    if (template.heal != null && source.isAlive()) {
+      source.heal(template.heal.eval(source, target, 1, 0, dealt), source);
+    }
+    if (template.apply != null && target != null && target.isAlive()) {
+      target.applyStatusEffect(template.apply.create(source, template.applyPower.eval(source, target, 1, 0, dealt)));
+    }
+  }
+
+  @Override
+  public double estimateDamage(Character source) {
+    // Formulas reading the target see the user instead
+    return template.damage != null ? template.damage.eval(source, source, 1, 0, 0) : 0;
+  }
+
+  @Override
+  public DamageType getDamageType() {
+    return template.damageType;
+  }
+}
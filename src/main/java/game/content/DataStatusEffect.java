@@ -0,0 +1,94 @@
+package game.content;
+
+import game.combat.CombatEventBuffer;
+import game.combat.StatusEffect;
+import game.entity.Character;
+
+/**
+ * The status effect executor for every {@link EffectTemplate}. Being the one
+ * final class behind all data-defined effects keeps the effect calls in
+ * {@link Character#update(double)} monomorphic however many effects the
+ * content defines.
+ */
+final class DataStatusEffect extends StatusEffect {
+  private final EffectTemplate template;
+  private final Character source;
+  private double power;
+  private int stacks = 1;
+  private double timeSinceLastTick = 0;
+  private Character target;
+
+  DataStatusEffect(EffectTemplate template, Character source, double power, double duration) {
+    super(template.name, template.description, duration, template.stacking != EffectTemplate.Stacking.REFRESH);
+    this.template = template;
+    this.source = source;
+    this.power = power;
+  }
+
+  @Override
+  public boolean isSameKind(StatusEffect other) {
+    return other instanceof DataStatusEffect && ((DataStatusEffect) other).template == template;
+  }
+
+  @Override
+  public void applyEffect(Character target) {
+    // Remember the target, formulas run over time
+    this.target = target;
+  }
+
+  @Override
+  public void removeEffect(Character target) {
+    this.target = null;
+  }
+
+  @Override
+  public void update(double deltaTime) {
+    super.update(deltaTime);
+    if (template.tickInterval <= 0) {
+      return;
+    }
+
+    timeSinceLastTick += deltaTime;
+    if (timeSinceLastTick >= template.tickInterval) {
+      timeSinceLastTick -= template.tickInterval;
+      if (target != null && target.isAlive()) {
+        if (template.tickDamage != null) {
+          target.takeDamage(template.tickDamage.eval(target, source, stacks, power, 0), template.damageType, null,
+              CombatEventBuffer.FLAG_PERIODIC);
+        }
+        if (template.tickHeal != null && target.isAlive()) {
+          target.heal(template.tickHeal.eval(target, source, stacks, power, 0), source);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void stack(StatusEffect additionalEffect) {
+    DataStatusEffect other = (DataStatusEffect) additionalEffect;
+    switch (template.stacking) {
+      case STRONGEST:
+        power = Math.max(power, other.power);
+        super.stack(other);
+        break;
+      case ADD:
+        if (stacks < template.maxStacks) {
+          power += other.power;
+          stacks++;
+        }
+        refresh(other);
+        break;
+      default:
+        super.stack(other);
+        break;
+    }
+  }
+
+  public double getPower() {
+    return power;
+  }
+
+  public int getStacks() {
+    return stacks;
+  }
+}
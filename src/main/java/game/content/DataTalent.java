@@ -0,0 +1,104 @@
+package game.content;
+
+import game.combat.CombatEventBuffer;
+import game.combat.CombatEventBus;
+import game.combat.CombatEventListener;
+import game.entity.Character;
+import game.entity.Talent;
+
+/**
+ * The talent executor for every {@link TalentTemplate}.
+ */
+final class DataTalent extends Talent implements CombatEventListener {
+  private final TalentTemplate template;
+  private Character owner;
+
+  // With "once", the trigger fires again only after its condition was seen false
+  private boolean armed = true;
+
+  DataTalent(TalentTemplate template) {
+    super(template.name, template.description, template.ranks);
+    this.template = template;
+  }
+
+  @Override
+  public void applyStatModifiers(Character character) {
+    int rank = getCurrentRank();
+    for (int i = 0; i < template.stats.length; i++) {
+      character.addStatBonus(template.stats[i],
+          (int) Math.round(template.statBonuses[i].eval(character, null, rank, 0, 0)));
+    }
+  }
+
+  @Override
+  public double estimateDamageBonus(Character character) {
+    return template.estimateDamage != null
+        ? Math.max(0, template.estimateDamage.eval(character, null, getCurrentRank(), 0, 0)) : 0;
+  }
+
+  @Override
+  public double estimateSurvivalBonus(Character character) {
+    return template.estimateSurvival != null
+        ? Math.max(0, template.estimateSurvival.eval(character, null, getCurrentRank(), 0, 0)) : 0;
+  }
+
+  @Override
+  public void onUnlocked(Character character) {
+    this.owner = character;
+    if (template.grants != null) {
+      if (template.grants.ultimate) {
+        character.setUltimateAbility(template.grants.create());
+      } else {
+        character.learnRegularAbility(template.grants.create());
+      }
+    }
+    if (template.on != null) {
+      subscribe(template.on);
+      if (template.rearmOn != null) {
+        subscribe(template.rearmOn);
+      }
+    }
+  }
+
+  private void subscribe(TalentTemplate.Trigger trigger) {
+    CombatEventBus bus = CombatEventBus.get();
+    if (trigger.asSource) {
+      bus.subscribeAsSource(trigger.type, owner, this);
+    } else {
+      bus.subscribeAsTarget(trigger.type, owner, this);
+    }
+  }
+
+  @Override
+  public void onEvents(CombatEventBuffer events, int start, int count) {
+    TalentTemplate t = template;
+    boolean fires = events.getType() == t.on.type;
+    TalentTemplate.Trigger trigger = fires ? t.on : t.rearmOn;
+    double rank = getCurrentRank();
+    for (int i = start; i != start + count; i++) {
+      Character other = trigger.asSource ? events.getTarget(i) : events.getSource(i);
+      double amount = events.getAmount(i);
+      if (t.condition != null && t.condition.eval(owner, other, rank, 0, amount) == 0) {
+        armed = true;
+        continue;
+      }
+      if (!fires || (t.onlyCritical && !events.isCritical(i)) || (t.onlyPeriodic && !events.isPeriodic(i))) {
+        continue;
+      }
+      if (t.once) {
+        if (!armed) {
+          continue;
+        }
+        armed = false;
+      }
+
+      if (t.apply != null && other != null && other.isAlive()) {
+        other.applyStatusEffect(
+            t.apply.create(owner, t.applyPower.eval(owner, other, rank, 0, amount), t.applyDuration));
+      }
+      if (t.heal != null && owner.isAlive()) {
+        owner.heal(t.heal.eval(owner, other, rank, 0, amount), owner);
+      }
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package game.content;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One block of a content file: a kind ("effect", "ability" or "talent"), an
+ * id and its properties. The compilers read properties through the getters
+ * below, which record what was read so misspelled keys can be reported by
+ * {@link #checkAllUsed()}. Errors carry the file and line.
+ */
+final class Definition {
+  final String kind, id, file;
+  final int line;
+
+  private final Map<String, String> values = new LinkedHashMap<>();
+  private final Map<String, Integer> lines = new LinkedHashMap<>();
+  private final Set<String> used = new HashSet<>();
+
+  Definition(String kind, String id, String file, int line) {
+    this.kind = kind;
+    this.id = id;
+    this.file = file;
+    this.line = line;
+  }
+
+  void put(String key, String value, int line) {
+    if (values.put(key, value) != null) {
+      throw new IllegalArgumentException(file + ":" + line + ": duplicate key '" + key + "'");
+    }
+    lines.put(key, line);
+  }
+
+  boolean has(String key) {
+    return values.containsKey(key);
+  }
+
+  String getString(String key, String fallback) {
+    used.add(key);
+    String value = values.get(key);
+    return value != null ? value : fallback;
+  }
+
+  String requireString(String key) {
+    String value = getString(key, null);
+    if (value == null) {
+      throw error(line, kind + " " + id + " needs '" + key + "'");
+    }
+    return value;
+  }
+
+  double getNumber(String key, double fallback) {
+    String value = getString(key, null);
+    if (value == null) {
+      return fallback;
+    }
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw error(key, "'" + value + "' is not a number");
+    }
+  }
+
+  int getInt(String key, int fallback) {
+    double value = getNumber(key, fallback);
+    if (value != Math.rint(value)) {
+      throw error(key, "'" + value + "' is not a whole number");
+    }
+    return (int) value;
+  }
+
+  boolean getBoolean(String key) {
+    String value = getString(key, "false");
+    if (!value.equals("true") && !value.equals("false")) {
+      throw error(key, "'" + value + "' is not true or false");
+    }
+    return value.equals("true");
+  }
+
+  /** A compiled formula that may read a target, or null if the key is absent. */
+  Formula getFormula(String key) {
+    return getFormula(key, true);
+  }
+
+  /** A compiled formula evaluated without another character, or null if the key is absent. */
+  Formula getSelfFormula(String key) {
+    return getFormula(key, false);
+  }
+
+  private Formula getFormula(String key, boolean hasTarget) {
+    String value = getString(key, null);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return FormulaCompiler.compile(value, hasTarget);
+    } catch (IllegalArgumentException e) {
+      throw error(key, e.getMessage());
+    }
+  }
+
+  /** An enum constant named by the value in any case, or the fallback if the key is absent. */
+  <E extends Enum<E>> E getEnum(String key, Class<E> type, E fallback) {
+    String value = getString(key, null);
+    if (value == null) {
+      return fallback;
+    }
+    try {
+      return Enum.valueOf(type, value.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw error(key, "unknown " + type.getSimpleName() + " '" + value + "'");
+    }
+  }
+
+  /** Keys starting with a prefix, e.g. "stat." for "stat.strength". */
+  List<String> keysWithPrefix(String prefix) {
+    List<String> keys = new ArrayList<>();
+    for (String key : values.keySet()) {
+      if (key.startsWith(prefix)) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+
+  /** Throw for the first key no compiler read. */
+  void checkAllUsed() {
+    for (String key : values.keySet()) {
+      if (!used.contains(key)) {
+        throw error(key, "unknown key '" + key + "' for " + kind + " " + id);
+      }
+    }
+  }
+
+  IllegalArgumentException error(String key, String message) {
+    Integer keyLine = lines.get(key);
+    return error(keyLine != null ? keyLine : line, message);
+  }
+
+  private IllegalArgumentException error(int line, String message) {
+    return new IllegalArgumentException(file + ":" + line + ": " + message);
+  }
+
+  /**
+   * Split a content file into definitions. A definition starts with an
+   * unindented {@code kind id} line, followed by indented
+   * {@code key = value} lines; {@code #} starts a comment.
+   */
+  static List<Definition> parse(String file, String text) {
+    List<Definition> definitions = new ArrayList<>();
+    Definition current = null;
+    String[] rows = text.split("\r?\n", -1);
+    for (int i = 0; i < rows.length; i++) {
+      int line = i + 1;
+      String row = rows[i];
+      int comment = row.indexOf('#');
+      if (comment >= 0) {
+        row = row.substring(0, comment);
+      }
+      if (row.isBlank()) {
+        continue;
+      }
+
+      if (!Character.isWhitespace(row.charAt(0))) {
+        String[] header = row.trim().split("\\s+");
+        if (header.length != 2) {
+          throw new IllegalArgumentException(file + ":" + line + ": expected 'kind id', got '" + row.trim() + "'");
+        }
+        current = new Definition(header[0], header[1], file, line);
+        definitions.add(current);
+        continue;
+      }
+
+      int equals = row.indexOf('=');
+      if (current == null || equals < 0) {
+        throw new IllegalArgumentException(file + ":" + line + ": expected 'key = value' inside a definition");
+      }
+      current.put(row.substring(0, equals).trim(), row.substring(equals + 1).trim(), line);
+    }
+    return definitions;
+  }
+}
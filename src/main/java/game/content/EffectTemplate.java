@@ -0,0 +1,84 @@
+package game.content;
+
+import game.combat.DamageType;
+import game.combat.StatusEffect;
+import game.entity.Character;
+
+/**
+ * A compiled status effect definition. Effects are created with a power,
+ * chosen by whatever applies them (e.g. damage per tick), and run their
+ * periodic damage and healing formulas every tick interval.
+ * <p>
+ * Keys: {@code name}, {@code description}, {@code duration} (seconds),
+ * {@code tick} (seconds between ticks, 0 for none), {@code stacking} (see
+ * {@link Stacking}), {@code max_stacks}, {@code tick_damage},
+ * {@code damage_type} and {@code tick_heal}. Tick formulas are evaluated
+ * for the affected character, with the effect's source as the other
+ * character, the stack count as rank and the effect's power.
+ */
+public final class EffectTemplate {
+  /** What applying an effect does to an effect of the same kind already on the target. */
+  public enum Stacking {
+    /** Restart the existing effect's duration. */
+    REFRESH,
+    /** Keep the longer of the two remaining durations. */
+    EXTEND,
+    /** Keep the higher power and the longer duration. */
+    STRONGEST,
+    /** Add the new power, up to max_stacks applications, and restart the duration. */
+    ADD
+  }
+
+  final String id, name, description;
+  final double duration, tickInterval;
+  final Stacking stacking;
+  final int maxStacks;
+  final Formula tickDamage, tickHeal;
+  final DamageType damageType;
+
+  EffectTemplate(Definition definition) {
+    this.id = definition.id;
+    this.name = definition.getString("name", id);
+    this.description = definition.getString("description", "");
+    this.duration = definition.getNumber("duration", 0);
+    this.tickInterval = definition.getNumber("tick", 0);
+    this.stacking = definition.getEnum("stacking", Stacking.class, Stacking.REFRESH);
+    this.maxStacks = definition.getInt("max_stacks", 1);
+    this.tickDamage = definition.getFormula("tick_damage");
+    this.tickHeal = definition.getFormula("tick_heal");
+    this.damageType = definition.getEnum("damage_type", DamageType.class, DamageType.PHYSICAL);
+    if (duration <= 0) {
+      throw definition.error("duration", "effect " + id + " needs a positive 'duration'");
+    }
+    if ((tickDamage != null || tickHeal != null) && tickInterval <= 0) {
+      throw definition.error("tick", "effect " + id + " has tick formulas but no positive 'tick'");
+    }
+  }
+
+  /**
+   * Create an instance to apply with {@link Character#applyStatusEffect}.
+   *
+   * @param source Character applying the effect, or null
+   * @param power  Strength of the effect, as used by its formulas
+   */
+  public StatusEffect create(Character source, double power) {
+    return new DataStatusEffect(this, source, power, duration);
+  }
+
+  /** Create an instance lasting a different duration than the definition's. */
+  public StatusEffect create(Character source, double power, double duration) {
+    return new DataStatusEffect(this, source, power, duration);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Stacking getStacking() {
+    return stacking;
+  }
+}
@@ -0,0 +1,59 @@
+package game.content;
+
+import game.entity.Character;
+
+import java.lang.invoke.MethodType;
+
+/**
+ * A content formula compiled to its own class, e.g.
+ * {@code "attack * 0.15 * rank"}. Every formula takes the same arguments:
+ * the character it is evaluated for, the other character involved (a
+ * target or attacker, may be null) and three numbers, the rank of the
+ * talent, the power of the effect and the amount of the triggering event.
+ * See {@link FormulaCompiler} for the syntax.
+ */
+public final class Formula {
+  /** Type of every compiled formula's handle. */
+  static final MethodType TYPE = MethodType.methodType(double.class,
+      Character.class, Character.class, double.class, double.class, double.class);
+
+  /** Implemented by the class each formula is compiled into. */
+  interface Kernel {
+    double eval(Character self, Character other, double rank, double power, double amount);
+  }
+
+  private final String source;
+  private final Kernel kernel;
+  private final boolean constant;
+
+  Formula(String source, Kernel kernel, boolean constant) {
+    this.source = source;
+    this.kernel = kernel;
+    this.constant = constant;
+  }
+
+  /**
+   * @param self   Character the formula is evaluated for
+   * @param other  The other character involved, or null if the formula doesn't use it
+   * @param rank   Talent rank, or stack count for effects
+   * @param power  Effect power
+   * @param amount Amount of the triggering event, e.g. the damage dealt
+   */
+  public double eval(Character self, Character other, double rank, double power, double amount) {
+    return kernel.eval(self, other, rank, power, amount);
+  }
+
+  /** True if the formula uses no variables, so any arguments give the same result. */
+  public boolean isConstant() {
+    return constant;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  @Override
+  public String toString() {
+    return source;
+  }
+}
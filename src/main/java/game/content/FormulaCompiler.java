@@ -0,0 +1,473 @@
+package game.content;
+
+import game.entity.Character;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles formulas into trees of method handles. Constant subexpressions
+ * are folded while parsing and constant operands are bound into their
+ * operator, so {@code "power * 0.5"} becomes one getter filtered through a
+ * bound multiply. The tree is then installed as a constant in a hidden
+ * class of its own (a copy of {@link FormulaKernel}), where HotSpot inlines
+ * all of it: a hot formula runs the same machine code as its arithmetic
+ * written out in Java. Called through a handle kept in a field instead, the
+ * tree isn't a constant to the JIT and runs a few times slower.
+ * <p>
+ * Syntax: numbers, {@code + - * /}, unary minus, parentheses, the
+ * comparisons {@code < <= > >=} (1 if true, 0 if false), {@code min(a, b)},
+ * {@code max(a, b)}, {@code abs(a)} and the variables {@code rank},
+ * {@code power}, {@code amount} and the stats of {@link #STATS}, which read
+ * the formula's own character or, prefixed with {@code target.}, the other
+ * character. Target stats read 0 when an event has no other character, and
+ * are rejected in formulas that never get one.
+ */
+final class FormulaCompiler {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType BINARY = MethodType.methodType(double.class, double.class, double.class);
+  private static final MethodType UNARY = MethodType.methodType(double.class, double.class);
+
+  private static final MethodHandle ADD = operator("add", BINARY);
+  private static final MethodHandle SUBTRACT = operator("subtract", BINARY);
+  private static final MethodHandle MULTIPLY = operator("multiply", BINARY);
+  private static final MethodHandle DIVIDE = operator("divide", BINARY);
+  private static final MethodHandle LESS = operator("less", BINARY);
+  private static final MethodHandle LESS_EQUAL = operator("lessEqual", BINARY);
+  private static final MethodHandle GREATER = operator("greater", BINARY);
+  private static final MethodHandle GREATER_EQUAL = operator("greaterEqual", BINARY);
+  private static final MethodHandle MIN = operator("min", BINARY);
+  private static final MethodHandle MAX = operator("max", BINARY);
+  private static final MethodHandle NEGATE = operator("negate", UNARY);
+  private static final MethodHandle ABS = operator("abs", UNARY);
+
+  // Class file of FormulaKernel, defined again for every formula
+  private static final byte[] KERNEL_CLASS = readKernelClass();
+
+  // Argument positions in Formula.TYPE
+  private static final int SELF = 0, OTHER = 1, RANK = 2, POWER = 3, AMOUNT = 4;
+
+  /** Stat variables, as getters on {@link Character} returning double. */
+  static final Map<String, MethodHandle> STATS = new HashMap<>();
+
+  // Target stat getters, returning 0 for a missing target
+  private static final MethodHandle IS_NULL = operator(Objects.class, "isNull",
+      MethodType.methodType(boolean.class, Object.class)).asType(MethodType.methodType(boolean.class, Character.class));
+  private static final MethodHandle ZERO = MethodHandles.dropArguments(MethodHandles.constant(double.class, 0.0),
+      0, Character.class);
+  private static final Map<String, MethodHandle> TARGET_STATS = new HashMap<>();
+
+  // Functions by name, each taking as many arguments as its handle
+  private static final Map<String, MethodHandle> FUNCTIONS = Map.of("min", MIN, "max", MAX, "abs", ABS);
+
+  static {
+    stat("health", "getHealthPoints");
+    stat("max_health", "getMaxHealthPoints");
+    stat("resource", "getResourcePoints");
+    stat("max_resource", "getMaxResourcePoints");
+    stat("attack", "getAttackDamage");
+    stat("magic", "getMagicDamage");
+    stat("attack_speed", "getAttackSpeed");
+    stat("cast_speed", "getCastSpeed");
+    stat("crit_chance", "getCriticalStrikeChance");
+    stat("crit_multiplier", "getCriticalDamageMultiplier");
+    stat("armor", "getArmor");
+    stat("magic_resist", "getMagicResistance");
+    stat("dodge", "getDodge");
+    stat("health_regen", "getHealthRegen");
+    stat("stamina", "getStaminaPoints");
+    stat("intelligence", "getIntelligencePoints");
+    stat("agility", "getAgilityPoints");
+    stat("strength", "getStrengthPoints");
+    stat("wisdom", "getWisdomPoints");
+    stat("level", "getLevel");
+  }
+
+  private FormulaCompiler() {
+  }
+
+  /**
+   * Compile a formula that may read a target.
+   *
+   * @throws IllegalArgumentException if the formula doesn't parse
+   */
+  static Formula compile(String source) {
+    return compile(source, true);
+  }
+
+  /**
+   * Compile a formula.
+   *
+   * @param hasTarget False if the formula is never given another character,
+   *                  making {@code target.} variables an error
+   * @throws IllegalArgumentException if the formula doesn't parse
+   */
+  static Formula compile(String source, boolean hasTarget) {
+    Value value = parse(source, hasTarget);
+    return new Formula(source, defineKernel(value.toHandle()), value.isConstant());
+  }
+
+  /** Compile a formula to a bare handle tree of {@link Formula#TYPE}, without its kernel class. */
+  static MethodHandle compileHandle(String source) {
+    return parse(source, true).toHandle();
+  }
+
+  private static Value parse(String source, boolean hasTarget) {
+    Parser parser = new Parser(source, hasTarget);
+    Value value = parser.parseComparison();
+    parser.skipSpaces();
+    if (parser.pos != source.length()) {
+      throw parser.error("unexpected '" + source.charAt(parser.pos) + "'");
+    }
+    return value;
+  }
+
+  /** Define a copy of {@link FormulaKernel} running a handle of {@link Formula#TYPE}. */
+  static Formula.Kernel defineKernel(MethodHandle handle) {
+    try {
+      MethodHandles.Lookup kernel = LOOKUP.defineHiddenClassWithClassData(KERNEL_CLASS, handle, true);
+      return (Formula.Kernel) kernel.findConstructor(kernel.lookupClass(), MethodType.methodType(void.class))
+          .invoke();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Can't define formula class", t);
+    }
+  }
+
+  private static byte[] readKernelClass() {
+    try (InputStream in = FormulaCompiler.class.getResourceAsStream("FormulaKernel.class")) {
+      if (in == null) {
+        throw new IllegalStateException("FormulaKernel.class not found");
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static MethodHandle operator(String name, MethodType type) {
+    return operator(FormulaCompiler.class, name, type);
+  }
+
+  private static MethodHandle operator(Class<?> owner, String name, MethodType type) {
+    try {
+      return LOOKUP.findStatic(owner, name, type);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private static void stat(String name, String getter) {
+    try {
+      MethodHandle handle = LOOKUP.findVirtual(Character.class, getter,
+          MethodType.methodType(Character.class.getMethod(getter).getReturnType()));
+      handle = handle.asType(MethodType.methodType(double.class, Character.class));
+      STATS.put(name, handle);
+      TARGET_STATS.put(name, MethodHandles.guardWithTest(IS_NULL, ZERO, handle));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  // Operators, bound into the handle trees
+
+  private static double add(double a, double b) {
+    return a + b;
+  }
+
+  private static double subtract(double a, double b) {
+    return a - b;
+  }
+
+  private static double multiply(double a, double b) {
+    return a * b;
+  }
+
+  private static double divide(double a, double b) {
+    return a / b;
+  }
+
+  private static double less(double a, double b) {
+    return a < b ? 1 : 0;
+  }
+
+  private static double lessEqual(double a, double b) {
+    return a <= b ? 1 : 0;
+  }
+
+  private static double greater(double a, double b) {
+    return a > b ? 1 : 0;
+  }
+
+  private static double greaterEqual(double a, double b) {
+    return a >= b ? 1 : 0;
+  }
+
+  private static double min(double a, double b) {
+    return Math.min(a, b);
+  }
+
+  private static double max(double a, double b) {
+    return Math.max(a, b);
+  }
+
+  private static double negate(double a) {
+    return -a;
+  }
+
+  private static double abs(double a) {
+    return Math.abs(a);
+  }
+
+  /** A subexpression: a folded constant, or a handle of {@link Formula#TYPE}. */
+  private static final class Value {
+    final MethodHandle handle;
+    final double constant;
+
+    Value(MethodHandle handle) {
+      this.handle = handle;
+      this.constant = 0;
+    }
+
+    Value(double constant) {
+      this.handle = null;
+      this.constant = constant;
+    }
+
+    boolean isConstant() {
+      return handle == null;
+    }
+
+    MethodHandle toHandle() {
+      if (handle != null) {
+        return handle;
+      }
+      return MethodHandles.dropArguments(MethodHandles.constant(double.class, constant), 0,
+          Formula.TYPE.parameterList());
+    }
+
+    /** A handle of the formula type returning one of its arguments, or a stat read from one. */
+    static Value argument(MethodHandle reader, int position) {
+      return new Value(MethodHandles.permuteArguments(reader, Formula.TYPE, position));
+    }
+
+    static Value apply(MethodHandle op, Value a) {
+      if (a.isConstant()) {
+        return new Value(invoke(op, a.constant));
+      }
+      return new Value(MethodHandles.filterReturnValue(a.handle, op));
+    }
+
+    static Value apply(MethodHandle op, Value a, Value b) {
+      if (a.isConstant() && b.isConstant()) {
+        return new Value(invoke(op, a.constant, b.constant));
+      }
+      // Bind a constant operand into the operator
+      if (b.isConstant()) {
+        return new Value(MethodHandles.filterReturnValue(a.handle, MethodHandles.insertArguments(op, 1, b.constant)));
+      }
+      if (a.isConstant()) {
+        return new Value(MethodHandles.filterReturnValue(b.handle, MethodHandles.insertArguments(op, 0, a.constant)));
+      }
+      // op(a(args), b(args)), then collapse the two argument lists into one
+      MethodHandle both = MethodHandles.collectArguments(
+          MethodHandles.collectArguments(op, 1, b.handle), 0, a.handle);
+      return new Value(MethodHandles.permuteArguments(both, Formula.TYPE, 0, 1, 2, 3, 4, 0, 1, 2, 3, 4));
+    }
+
+    private static double invoke(MethodHandle op, double... args) {
+      try {
+        return args.length == 1 ? (double) op.invokeExact(args[0]) : (double) op.invokeExact(args[0], args[1]);
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+  }
+
+  /** Recursive descent parser building handles as it goes. */
+  private static final class Parser {
+    final String source;
+    final boolean hasTarget;
+    int pos = 0;
+
+    Parser(String source, boolean hasTarget) {
+      this.source = source;
+      this.hasTarget = hasTarget;
+    }
+
+    Value parseComparison() {
+      Value left = parseSum();
+      skipSpaces();
+      MethodHandle op;
+      if (match("<=")) {
+        op = LESS_EQUAL;
+      } else if (match(">=")) {
+        op = GREATER_EQUAL;
+      } else if (match("<")) {
+        op = LESS;
+      } else if (match(">")) {
+        op = GREATER;
+      } else {
+        return left;
+      }
+      return Value.apply(op, left, parseSum());
+    }
+
+    Value parseSum() {
+      Value value = parseProduct();
+      while (true) {
+        skipSpaces();
+        if (match("+")) {
+          value = Value.apply(ADD, value, parseProduct());
+        } else if (match("-")) {
+          value = Value.apply(SUBTRACT, value, parseProduct());
+        } else {
+          return value;
+        }
+      }
+    }
+
+    Value parseProduct() {
+      Value value = parseUnary();
+      while (true) {
+        skipSpaces();
+        if (match("*")) {
+          value = Value.apply(MULTIPLY, value, parseUnary());
+        } else if (match("/")) {
+          value = Value.apply(DIVIDE, value, parseUnary());
+        } else {
+          return value;
+        }
+      }
+    }
+
+    Value parseUnary() {
+      skipSpaces();
+      if (match("-")) {
+        return Value.apply(NEGATE, parseUnary());
+      }
+      return parsePrimary();
+    }
+
+    Value parsePrimary() {
+      skipSpaces();
+      if (pos == source.length()) {
+        throw error("unexpected end");
+      }
+      char c = source.charAt(pos);
+      if (match("(")) {
+        Value value = parseComparison();
+        expect(")");
+        return value;
+      }
+      if (java.lang.Character.isDigit(c) || c == '.') {
+        int start = pos;
+        while (pos < source.length() && (java.lang.Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+          pos++;
+        }
+        try {
+          return new Value(Double.parseDouble(source.substring(start, pos)));
+        } catch (NumberFormatException e) {
+          throw error("bad number '" + source.substring(start, pos) + "'");
+        }
+      }
+      if (java.lang.Character.isLetter(c)) {
+        int start = pos;
+        while (pos < source.length()
+            && (java.lang.Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_' || source.charAt(pos) == '.')) {
+          pos++;
+        }
+        String name = source.substring(start, pos);
+        skipSpaces();
+        if (match("(")) {
+          return parseCall(name, start);
+        }
+        return variable(name, start);
+      }
+      throw error("unexpected '" + c + "'");
+    }
+
+    Value parseCall(String function, int start) {
+      MethodHandle op = FUNCTIONS.get(function);
+      if (op == null) {
+        pos = start;
+        throw error("unknown function '" + function + "'");
+      }
+      int arity = op.type().parameterCount();
+      String takes = function + "() takes " + arity + (arity == 1 ? " argument" : " arguments");
+
+      Value[] args = new Value[arity];
+      for (int i = 0; i < arity; i++) {
+        skipSpaces();
+        if (i > 0 && !match(",") || source.startsWith(")", pos)) {
+          throw error(takes);
+        }
+        args[i] = parseComparison();
+      }
+      skipSpaces();
+      if (source.startsWith(",", pos)) {
+        throw error(takes);
+      }
+      expect(")");
+      return arity == 1 ? Value.apply(op, args[0]) : Value.apply(op, args[0], args[1]);
+    }
+
+    Value variable(String name, int start) {
+      switch (name) {
+        case "rank":
+          return Value.argument(MethodHandles.identity(double.class), RANK);
+        case "power":
+          return Value.argument(MethodHandles.identity(double.class), POWER);
+        case "amount":
+          return Value.argument(MethodHandles.identity(double.class), AMOUNT);
+        default:
+          break;
+      }
+      boolean other = name.startsWith("target.");
+      String stat = other ? name.substring("target.".length()) : name;
+      MethodHandle getter = (other ? TARGET_STATS : STATS).get(stat);
+      if (getter == null) {
+        pos = start;
+        throw error("unknown variable '" + name + "'");
+      }
+      if (other && !hasTarget) {
+        pos = start;
+        throw error("'" + name + "' needs a target, and this formula never has one");
+      }
+      return Value.argument(getter, other ? OTHER : SELF);
+    }
+
+    void skipSpaces() {
+      while (pos < source.length() && source.charAt(pos) == ' ') {
+        pos++;
+      }
+    }
+
+    boolean match(String token) {
+      if (source.startsWith(token, pos)) {
+        pos += token.length();
+        return true;
+      }
+      return false;
+    }
+
+    void expect(String token) {
+      skipSpaces();
+      if (!match(token)) {
+        throw error("expected '" + token + "'");
+      }
+    }
+
+    IllegalArgumentException error(String message) {
+      return new IllegalArgumentException("Formula \"" + source + "\", column " + (pos + 1) + ": " + message);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package game.content;
+
+import game.entity.Character;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template of the class every formula is compiled into. The class file is
+ * defined again as a hidden class per formula, see
+ * {@link FormulaCompiler#defineKernel}, with the formula's handle as class
+ * data. In each copy the handle is a static final constant, so the JIT
+ * inlines the whole handle tree into {@link #eval}. Never used directly.
+ */
+final class FormulaKernel implements Formula.Kernel {
+  private static final MethodHandle HANDLE = classData();
+
+  private static MethodHandle classData() {
+    try {
+      return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+    } catch (IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  @Override
+  public double eval(Character self, Character other, double rank, double power, double amount) {
+    try {
+      return (double) HANDLE.invokeExact(self, other, rank, power, amount);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+}
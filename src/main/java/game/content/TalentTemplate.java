@@ -0,0 +1,127 @@
+package game.content;
+
+import game.combat.CombatEventType;
+import game.entity.StatType;
+import game.entity.Talent;
+
+import java.util.List;
+
+/**
+ * A compiled talent definition: stat modifiers, an ability granted on
+ * unlock, build estimates, and optionally a trigger that reacts to combat
+ * events by applying an effect to the other character or healing the owner.
+ * <p>
+ * Keys: {@code name}, {@code description}, {@code tier}, {@code ranks},
+ * {@code stat.<stat>} for each {@link StatType} modified, {@code grants}
+ * (an ability id), {@code estimate_damage}, {@code estimate_survival}, and
+ * for triggers {@code on} (see {@link Trigger}), {@code only}
+ * ({@code critical} or {@code periodic}), {@code if}, {@code once},
+ * {@code rearm_on}, {@code apply}, {@code apply_power},
+ * {@code apply_duration} and {@code heal}. Formulas are evaluated for the
+ * owner with the talent's rank; trigger formulas also get the other
+ * character of the event and its amount, so only they may read
+ * {@code target.} stats.
+ */
+public final class TalentTemplate {
+  /** Combat events a talent can react to, from its owner's point of view. */
+  public enum Trigger {
+    DAMAGE_DEALT(CombatEventType.DAMAGE, true),
+    DAMAGE_TAKEN(CombatEventType.DAMAGE, false),
+    HEAL_DONE(CombatEventType.HEAL, true),
+    HEAL_TAKEN(CombatEventType.HEAL, false);
+
+    final CombatEventType type;
+    final boolean asSource;
+
+    Trigger(CombatEventType type, boolean asSource) {
+      this.type = type;
+      this.asSource = asSource;
+    }
+  }
+
+  final String id, name, description;
+  final int tier, ranks;
+
+  // Stat modifiers, parallel arrays
+  final StatType[] stats;
+  final Formula[] statBonuses;
+
+  final AbilityTemplate grants;
+  final Formula estimateDamage, estimateSurvival;
+
+  // Trigger, null if the talent has none
+  final Trigger on, rearmOn;
+  final boolean onlyCritical, onlyPeriodic, once;
+  final Formula condition;
+  final EffectTemplate apply;
+  final Formula applyPower, heal;
+  final double applyDuration;
+
+  TalentTemplate(Definition definition, ContentRegistry registry) {
+    this.id = definition.id;
+    this.name = definition.getString("name", id);
+    this.description = definition.getString("description", "");
+    this.tier = definition.getInt("tier", 1);
+    this.ranks = definition.getInt("ranks", 1);
+
+    List<String> statKeys = definition.keysWithPrefix("stat.");
+    stats = new StatType[statKeys.size()];
+    statBonuses = new Formula[statKeys.size()];
+    for (int i = 0; i < stats.length; i++) {
+      String key = statKeys.get(i);
+      try {
+        stats[i] = StatType.valueOf(key.substring("stat.".length()).toUpperCase());
+      } catch (IllegalArgumentException e) {
+        throw definition.error(key, "unknown stat in '" + key + "'");
+      }
+      statBonuses[i] = definition.getSelfFormula(key);
+    }
+
+    String ability = definition.getString("grants", null);
+    this.grants = ability != null ? registry.requireAbility(definition, "grants", ability) : null;
+    this.estimateDamage = definition.getSelfFormula("estimate_damage");
+    this.estimateSurvival = definition.getSelfFormula("estimate_survival");
+
+    this.on = definition.getEnum("on", Trigger.class, null);
+    this.rearmOn = definition.getEnum("rearm_on", Trigger.class, null);
+    String only = definition.getString("only", "");
+    this.onlyCritical = only.equals("critical");
+    this.onlyPeriodic = only.equals("periodic");
+    if (!only.isEmpty() && !onlyCritical && !onlyPeriodic) {
+      throw definition.error("only", "'only' must be critical or periodic");
+    }
+    this.condition = definition.getFormula("if");
+    this.once = definition.getBoolean("once");
+    String effect = definition.getString("apply", null);
+    this.apply = effect != null ? registry.requireEffect(definition, "apply", effect) : null;
+    this.applyPower = definition.getFormula("apply_power");
+    this.applyDuration = definition.getNumber("apply_duration", apply != null ? apply.duration : 0);
+    this.heal = definition.getFormula("heal");
+
+    if (on == null && (apply != null || heal != null || condition != null || rearmOn != null)) {
+      throw definition.error("apply", "talent " + id + " has trigger keys but no 'on'");
+    }
+    if (on != null && apply == null && heal == null) {
+      throw definition.error("on", "talent " + id + " triggers but neither applies nor heals");
+    }
+    if (apply != null && applyPower == null) {
+      throw definition.error("apply", "talent " + id + " applies an effect but has no 'apply_power'");
+    }
+    if (rearmOn != null && rearmOn.type == on.type) {
+      throw definition.error("rearm_on", "'rearm_on' needs a different event type than 'on'");
+    }
+  }
+
+  /** Create an instance for one character's talent tree; talents keep their own rank. */
+  public Talent create() {
+    return new DataTalent(this);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public int getTier() {
+    return tier;
+  }
+}
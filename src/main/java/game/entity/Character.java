@@ -1,19 +1,39 @@
 package game.entity;
 
+import game.ai.UtilityAgent;
+import game.ai.UtilityBrain;
 import game.combat.Ability;
+import game.combat.CombatEventBuffer;
+import game.combat.CombatClock;
+import game.combat.CombatEventBus;
+import game.combat.CombatRandom;
 import game.combat.StatusEffect;
+import game.combat.ThreatTable;
+import game.world.Hex;
+import game.world.HexPathfinder;
+import game.world.WalkableMap;
 import game.combat.DamageType;
+import engine.animation.AnimationClip;
+import engine.animation.AnimationSet;
+import engine.animation.Animator;
+import engine.renderer.RenderLayer;
 import engine.renderer.Sprite;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Abstract class representing a character in the RPG game.
  * Base class for all character types
  */
 public abstract class Character {
+  private static final AtomicInteger NEXT_ID = new AtomicInteger();
+  private static final int THREAT_CAPACITY = 16;
+  private static final float SPRITE_SIZE = 64;
+
   // Base character info
+  private final int id = NEXT_ID.getAndIncrement();
   private String characterName;
   private final CharacterClass characterClass;
   private int level;
@@ -26,6 +46,8 @@ public abstract class Character {
   // Character resources and combat stats
   private double maxHealthPoints;
   private double healthPoints;
+  // Multiplier on maximum health from stats
+  private double healthScale = 1;
   private double maxResourcePoints;
   private double resourcePoints;
   private double healthRegen;
@@ -48,10 +70,25 @@ public abstract class Character {
   private int strengthPoints;
   private int wisdomPoints;
 
+  // Base stat bonuses from talents, indexed by StatType ordinal. Rebuilt by
+  // calculateDerivedStats() so they never accumulate into the base stats.
+  private final int[] talentStatBonus = new int[StatType.values().length];
+
+  // Side in combat; characters on other teams are enemies
+  private int team;
+
+  // Utility AI controlling this character, if any
+  private UtilityAgent agent;
+
+  // Threat generated by enemies attacking this character
+  private final ThreatTable threatTable = new ThreatTable(THREAT_CAPACITY);
+
   // Position on the hex grid
   private int positionX;
   private int positionY;
   private int movementRange;
+  // Walkable cells of the floor the character is on, null if unconstrained
+  private WalkableMap terrain;
 
   // Character abilities
   private final List<Ability> regularAbilities; // 3 regular abilities
@@ -72,6 +109,11 @@ public abstract class Character {
   // Visual representation
   private Sprite sprite;
   private String spriteAssetPath;
+  private boolean spritePositionDirty = true;
+
+  // Animation clips per combat state and the handle of the running animation
+  private AnimationSet animationSet;
+  private int animationHandle = -1;
 
   /** Constructor for a new character. */
   public Character(String characterName, CharacterClass characterClass) {
@@ -127,8 +169,18 @@ public abstract class Character {
    * Calculate derived stats based on base stats and talents.
    */
   public void calculateDerivedStats() {
+    // Collect talent bonuses first so the getters below include them
+    Arrays.fill(talentStatBonus, 0);
+    applyTalentModifiers();
+
+    int staminaPoints = getStaminaPoints();
+    int intelligencePoints = getIntelligencePoints();
+    int agilityPoints = getAgilityPoints();
+    int strengthPoints = getStrengthPoints();
+    int wisdomPoints = getWisdomPoints();
+
     // Base calculations from stats
-    this.maxHealthPoints = 100 + (staminaPoints * 10);
+    this.maxHealthPoints = (100 + (staminaPoints * 10)) * healthScale;
     this.maxResourcePoints = 100 + (intelligencePoints * 5) + (wisdomPoints * 5);
     this.healthRegen = staminaPoints * 0.5;
     this.resourceRegen = wisdomPoints * 0.5;
@@ -143,8 +195,6 @@ public abstract class Character {
     this.dodge = agilityPoints * 0.01;
     this.accuracy = 0.9 + (agilityPoints * 0.005);
     this.movementRange = 3 + (int) (agilityPoints * 0.1); // Not sure about this yet
-
-    applyTalentModifiers();
   }
 
   /** Apply stat modifiers from active talents. */
@@ -205,6 +255,37 @@ public abstract class Character {
     calculateDerivedStats();
   }
 
+  /**
+   * Replace the character's talent ranks without spending points, e.g. to
+   * evaluate a build. Passive triggers are not subscribed to combat events.
+   *
+   * @param ranks Rank of each talent, indexed by talent id
+   */
+  public void applyTalentRanks(int[] ranks) {
+    activeTalents.clear();
+    long mask = 0;
+    for (int id = 0; id < talentTree.getTalentCount(); id++) {
+      Talent talent = talentTree.getTalent(id);
+      int rank = Math.min(ranks[id], talent.getMaxRank());
+      talent.setRank(rank);
+      if (rank > 0) {
+        activeTalents.add(talent);
+        mask |= 1L << id;
+      }
+    }
+    talentTree.setUnlockedMask(mask);
+    calculateDerivedStats();
+  }
+
+  /**
+   * Add a talent bonus to a base stat. Only valid from
+   * {@link Talent#applyStatModifiers(Character)}; bonuses are cleared and
+   * re-collected every time derived stats are calculated.
+   */
+  public void addStatBonus(@NotNull StatType statType, int amount) {
+    talentStatBonus[statType.ordinal()] += amount;
+  }
+
   /** Learn a new ability (maximum 3 regular abilities). */
   public boolean learnRegularAbility(Ability ability) {
     if (regularAbilities.size() < 3 && ability.isRegularAbility()) {
@@ -221,15 +302,22 @@ public abstract class Character {
     }
   }
 
-  /** Unlock a talent in the talent tree. */
+  /**
+   * Spend a talent point to unlock a talent, or to raise its rank if it's
+   * already unlocked.
+   */
   public boolean unlockTalent(Talent talent) {
-    if (talentPoints > 0 && talentTree.canUnlockTalent(talent)) {
+    if (talentPoints <= 0 || !talentTree.canUnlockTalent(talent) || !talent.increaseRank()) {
+      return false;
+    }
+    if (!talentTree.isUnlocked(talent)) {
+      talentTree.unlockTalent(talent);
       activeTalents.add(talent);
-      talentPoints--;
-      calculateDerivedStats();
-      return true;
+      talent.onUnlocked(this);
     }
-    return false;
+    talentPoints--;
+    calculateDerivedStats();
+    return true;
   }
 
   /** Update the character for the current game tick. */
@@ -258,6 +346,7 @@ public abstract class Character {
       if (effect.isExpired()) {
         effect.removeEffect(this);
         iterator.remove();
+        CombatEventBus.get().effectExpired(this, effect);
       }
     }
   }
@@ -275,45 +364,98 @@ public abstract class Character {
   /** AI or automatic decision for next action. */
   protected abstract void decideNextAction();
 
+  /**
+   * The actions this class's AI chooses between. Characters returning null
+   * aren't AI controlled.
+   */
+  public UtilityBrain getBrain() {
+    return null;
+  }
+
+  /**
+   * Attack a target with a weapon hit, gaining {@link #getAttackResourceGain()}
+   * resource (twice that on a critical hit) and
+   * {@link #getAttackUltimateCharge()} ultimate charge.
+   */
+  public void basicAttack(Character target) {
+    boolean isCritical = CombatRandom.get().chance(criticalStrikeChance);
+    double damage = isCritical ? attackDamage * criticalDamageMultiplier : attackDamage;
+    target.takeDamage(damage, DamageType.PHYSICAL, this, isCritical ? CombatEventBuffer.FLAG_CRITICAL : 0);
+    double resourceGain = getAttackResourceGain();
+    if (resourceGain > 0) {
+      restoreResource(isCritical ? resourceGain * 2 : resourceGain);
+    }
+    gainUltimateCharge(getAttackUltimateCharge());
+  }
+
+  /** Resource a basic attack generates, doubled on a critical hit. None by default. */
+  public double getAttackResourceGain() {
+    return 0;
+  }
+
+  /** Ultimate charge a basic attack generates. None by default. */
+  public int getAttackUltimateCharge() {
+    return 0;
+  }
+
   /** Take damage after applying armor and other defensive calculations. */
   public void takeDamage(double rawDamage, DamageType damageType, Character source) {
-    double damageReduction = 0;
+    takeDamage(rawDamage, damageType, source, 0);
+  }
 
-    // Calculate damage reduction based on damage type
-    switch (damageType) {
-      case PHYSICAL:
-        damageReduction = calculatePhysicalDamageReduction();
-        break;
-      case MAGICAL:
-        damageReduction = calculateMagicalDamageReduction();
-        break;
-      case TRUE:
-        damageReduction = 0;
-        break;
-    }
+  /**
+   * Take damage after applying armor and other defensive calculations.
+   *
+   * @param flags {@link CombatEventBuffer} damage flags describing the hit
+   */
+  public void takeDamage(double rawDamage, DamageType damageType, Character source, int flags) {
+    // Reduction from armor or magic resistance; true damage ignores both
+    double resistance = getResistance(damageType);
+    double damageReduction = resistance / (resistance + 100.0);
 
     // Apply damage reduction
     double actualDamage = Math.max(0, rawDamage * (1 - damageReduction));
+    double remainingHealth = Math.max(0, healthPoints - actualDamage);
 
-    // Apply damage to health
-    healthPoints = Math.max(0, healthPoints - actualDamage);
+    applyResolvedDamage(actualDamage, remainingHealth, damageType, source, flags);
+  }
+
+  /**
+   * Apply damage that has already been mitigated, e.g. by a
+   * {@link game.combat.DamageBatch}.
+   *
+   * @param actualDamage    Damage after mitigation
+   * @param remainingHealth Health after the damage, clamped at zero
+   * @param damageType      Type of the damage
+   * @param source          Character dealing the damage, or null
+   * @param flags           {@link CombatEventBuffer} damage flags
+   */
+  public void applyResolvedDamage(double actualDamage, double remainingHealth, DamageType damageType,
+      Character source, int flags) {
+    healthPoints = remainingHealth;
+    CombatEventBus.get().damage(source, this, actualDamage, damageType, flags);
+    if (source != null && source.team != team) {
+      threatTable.addThreat(source, actualDamage, CombatClock.get().now());
+    }
 
     // Check if character died
-    if (healthPoints <= 0) {
-      die();
+    if (healthPoints <= 0 && isAlive) {
+      die(source);
     }
 
     gainUltimateCharge(actualDamage * 0.5);
   }
 
-  /** Calculate physical damage reduction from armor. */
-  private double calculatePhysicalDamageReduction() {
-    return armor / (armor + 100.0);
-  }
-
-  /** Calculate magical damage reduction from magic resistance. */
-  private double calculateMagicalDamageReduction() {
-    return magicResistance / (magicResistance + 100);
+  /** Armor for physical damage, magic resistance for magical, 0 for true damage. */
+  public double getResistance(DamageType damageType) {
+    switch (damageType) {
+      case PHYSICAL:
+        return armor;
+      case MAGICAL:
+        return magicResistance;
+      default:
+        return 0;
+    }
   }
 
   /** Use an ability if it's available. */
@@ -324,6 +466,7 @@ public abstract class Character {
 
     // Use the ability
     ability.activate(this, target);
+    CombatEventBus.get().abilityUsed(this, target, ability, false);
 
     // Consume resources
     resourcePoints -= ability.getResourceCost();
@@ -345,6 +488,7 @@ public abstract class Character {
 
     // Use the ultimate ability
     ultimateAbility.activate(this, target);
+    CombatEventBus.get().abilityUsed(this, target, ultimateAbility, true);
 
     // Reset ultimate charge
     ultimateChargePoints = 0;
@@ -361,7 +505,7 @@ public abstract class Character {
   public void applyStatusEffect(StatusEffect effect) {
     // Check if this type of effect already exists
     for (StatusEffect existingEffect : statusEffects) {
-      if (existingEffect.getClass().equals(effect.getClass())) {
+      if (existingEffect.isSameKind(effect)) {
         // Refresh the duration if stackable or replace if not
         if (existingEffect.isStackable()) {
           existingEffect.stack(effect);
@@ -375,32 +519,69 @@ public abstract class Character {
     // Apply new effect
     statusEffects.add(effect);
     effect.applyEffect(this);
+    CombatEventBus.get().effectApplied(this, effect);
   }
 
   /** Move the character on the hex grid. */
   public void moveTo(int x, int y) {
-    this.positionX = x;
-    this.positionY = y;
+    if (this.positionX != x || this.positionY != y) {
+      this.positionX = x;
+      this.positionY = y;
+      this.spritePositionDirty = true;
+    }
+  }
+
+  /**
+   * Step one hex towards a target character, stopping once adjacent. On
+   * terrain the step follows the shortest walkable path (see
+   * {@link HexPathfinder}); on open ground it goes to the neighbor closest to
+   * the target.
+   */
+  public void moveTowards(Character target) {
+    if (distanceTo(target) <= 1) {
+      return;
+    }
+    int d = terrain != null
+        ? HexPathfinder.get().firstStep(positionX, positionY, target.positionX, target.positionY, terrain)
+        : Hex.stepToward(positionX, positionY, target.positionX, target.positionY, null);
+    if (d >= 0) {
+      moveTo(positionX + Hex.DIRECTION_Q[d], positionY + Hex.DIRECTION_R[d]);
+    }
   }
 
-  /** Calculate distance to another character on hex grid. */
+  /** Steps to another character on the hex grid. */
   public int distanceTo(Character other) {
-    // Hex grid distance calculation
-    int dx = Math.abs(this.positionX - other.positionX);
-    int dy = Math.abs(this.positionY - other.positionY);
-    return Math.max(dx, dy);
+    return Hex.distance(positionX, positionY, other.positionX, other.positionY);
+  }
+
+  /** Cells the character may move into, or null for open ground. */
+  public void setTerrain(WalkableMap terrain) {
+    this.terrain = terrain;
+  }
+
+  public WalkableMap getTerrain() {
+    return terrain;
   }
 
   /** Handle character death. */
-  private void die() {
+  private void die(Character killer) {
     this.isAlive = false;
-    this.combatState = CombatState.DEAD;
-    // Additional death logic
+    setCombatState(CombatState.DEAD);
+    CombatEventBus.get().death(killer, this);
   }
 
   /** Heal the character for the specified amount. */
   public void heal(double amount) {
-    this.healthPoints = Math.min(maxHealthPoints, healthPoints + amount);
+    heal(amount, null);
+  }
+
+  /** Heal the character, crediting the healer. */
+  public void heal(double amount, Character source) {
+    double healed = Math.min(maxHealthPoints, healthPoints + amount) - healthPoints;
+    if (healed > 0) {
+      this.healthPoints += healed;
+      CombatEventBus.get().heal(source, this, healed);
+    }
   }
 
   /** Restore resource points by the specified amount */
@@ -414,7 +595,7 @@ public abstract class Character {
    */
   protected String getDefaultSpriteAsset() {
     // Default placeholder sprite for any character
-    return "src/main/resources/assets/characters/placeholder.png";
+    return "characters/placeholder.png";
   }
 
   /**
@@ -424,12 +605,35 @@ public abstract class Character {
   public void initializeSprite() {
     if (sprite == null) {
       // Create sprite at character's position (convert hex grid to screen coords)
-      float screenX = positionX * 100; // 100 pixels per hex cell (just an example)
-      float screenY = positionY * 100;
-      sprite = new Sprite(spriteAssetPath, screenX, screenY, 64, 64); // Default size
+      sprite = new Sprite(spriteAssetPath, spriteX(), spriteY(), SPRITE_SIZE, SPRITE_SIZE);
+      sprite.setLayer(RenderLayer.CHARACTERS);
 
       // Colorize based on class if necessary
       colorizeByClass();
+
+      // Animate by combat state
+      animationSet = createAnimationSet();
+      animationHandle = Animator.get().register(sprite, animationSet.get(combatState.ordinal()));
+    }
+  }
+
+  /**
+   * Create the clips played for each combat state.
+   * The default uses the whole sprite texture for every state; classes with
+   * sprite sheets should override this.
+   */
+  protected AnimationSet createAnimationSet() {
+    return new AnimationSet(CombatState.values().length, AnimationClip.still(characterClass.name()));
+  }
+
+  /**
+   * Stop animating and release the sprite's animation slot.
+   * Called when the character is removed from a scene.
+   */
+  public void releaseSprite() {
+    if (animationHandle >= 0) {
+      Animator.get().unregister(animationHandle);
+      animationHandle = -1;
     }
   }
 
@@ -471,15 +675,28 @@ public abstract class Character {
    * Update the sprite position to match the character's grid position.
    */
   public void updateSpritePosition() {
-    if (sprite != null) {
-      float screenX = positionX * 100; // 100 pixels per hex cell
-      float screenY = positionY * 100;
-      sprite.setX(screenX);
-      sprite.setY(screenY);
+    if (sprite != null && spritePositionDirty) {
+      spritePositionDirty = false;
+      sprite.setX(spriteX());
+      sprite.setY(spriteY());
     }
   }
 
+  // Sprite top-left corner, centering the sprite on its hex cell
+  private float spriteX() {
+    return Hex.toPixelX(positionX, positionY) - SPRITE_SIZE / 2;
+  }
+
+  private float spriteY() {
+    return Hex.toPixelY(positionX, positionY) - SPRITE_SIZE / 2;
+  }
+
   // Getters and setters
+  /** Unique id, used to index per-character tables. */
+  public int getId() {
+    return id;
+  }
+
   public String getResourceName() {
     return resourceName;
   }
@@ -512,6 +729,17 @@ public abstract class Character {
     return maxHealthPoints;
   }
 
+  /**
+   * Multiply maximum health, e.g. to handicap a unit. Current health keeps
+   * its fraction of the maximum.
+   */
+  public void setHealthScale(double scale) {
+    double fraction = maxHealthPoints > 0 ? healthPoints / maxHealthPoints : 1;
+    healthScale = scale;
+    calculateDerivedStats();
+    healthPoints = maxHealthPoints * fraction;
+  }
+
   public double getMaxResourcePoints() {
     return maxResourcePoints;
   }
@@ -548,24 +776,44 @@ public abstract class Character {
     return criticalDamageMultiplier;
   }
 
+  public double getArmor() {
+    return armor;
+  }
+
+  public double getMagicResistance() {
+    return magicResistance;
+  }
+
+  public double getDodge() {
+    return dodge;
+  }
+
+  public double getHealthRegen() {
+    return healthRegen;
+  }
+
+  public double getResourceRegen() {
+    return resourceRegen;
+  }
+
   public int getStaminaPoints() {
-    return staminaPoints;
+    return staminaPoints + talentStatBonus[StatType.STAMINA.ordinal()];
   }
 
   public int getIntelligencePoints() {
-    return intelligencePoints;
+    return intelligencePoints + talentStatBonus[StatType.INTELLIGENCE.ordinal()];
   }
 
   public int getAgilityPoints() {
-    return agilityPoints;
+    return agilityPoints + talentStatBonus[StatType.AGILITY.ordinal()];
   }
 
   public int getStrengthPoints() {
-    return strengthPoints;
+    return strengthPoints + talentStatBonus[StatType.STRENGTH.ordinal()];
   }
 
   public int getWisdomPoints() {
-    return wisdomPoints;
+    return wisdomPoints + talentStatBonus[StatType.WISDOM.ordinal()];
   }
 
   public boolean isAlive() {
@@ -577,7 +825,13 @@ public abstract class Character {
   }
 
   public void setCombatState(CombatState combatState) {
+    if (this.combatState == combatState) {
+      return;
+    }
     this.combatState = combatState;
+    if (animationHandle >= 0) {
+      Animator.get().play(animationHandle, animationSet.get(combatState.ordinal()));
+    }
   }
 
   public int getUltimateChargePoints() {
@@ -588,6 +842,27 @@ public abstract class Character {
     return statusEffects;
   }
 
+  public int getTeam() {
+    return team;
+  }
+
+  public void setTeam(int team) {
+    this.team = team;
+  }
+
+  public ThreatTable getThreatTable() {
+    return threatTable;
+  }
+
+  public UtilityAgent getAgent() {
+    return agent;
+  }
+
+  /** Set by the AI system when the character is registered. */
+  public void setAgent(UtilityAgent agent) {
+    this.agent = agent;
+  }
+
   public int getPositionX() {
     return positionX;
   }
@@ -608,6 +883,10 @@ public abstract class Character {
     return activeTalents;
   }
 
+  public TalentTree getTalentTree() {
+    return talentTree;
+  }
+
   public List<Ability> getRegularAbilities() {
     return regularAbilities;
   }
@@ -622,6 +901,7 @@ public abstract class Character {
 
   public void setSprite(Sprite sprite) {
     this.sprite = sprite;
+    this.spritePositionDirty = true;
   }
 
   public String getSpriteAssetPath() {
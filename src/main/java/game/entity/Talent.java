@@ -10,6 +10,9 @@ public abstract class Talent {
   private final int maxRank;
   private int currentRank;
 
+  // Dense index assigned by the owning TalentTree
+  int id = -1;
+
   public Talent(String name, String description, int maxRank) {
     this.name = name;
     this.description = description;
@@ -24,6 +27,39 @@ public abstract class Talent {
    */
   public abstract void applyStatModifiers(Character character);
 
+  /**
+   * Estimated extra damage from effects that aren't stat modifiers (procs,
+   * damage over time), as a fraction of the character's average hit. Used by
+   * build evaluation tools; must not be negative.
+   *
+   * @param character The character with this talent, derived stats calculated
+   * @return Extra damage fraction
+   */
+  public double estimateDamageBonus(Character character) {
+    return 0;
+  }
+
+  /**
+   * Estimated extra effective health from effects that aren't stat modifiers,
+   * as a fraction of maximum health. Used by build evaluation tools; must not
+   * be negative.
+   *
+   * @param character The character with this talent, derived stats calculated
+   * @return Extra effective health fraction
+   */
+  public double estimateSurvivalBonus(Character character) {
+    return 0;
+  }
+
+  /**
+   * Called once when the talent is unlocked. Talents with passive triggers
+   * subscribe to the {@link game.combat.CombatEventBus} here.
+   *
+   * @param character The character that unlocked the talent
+   */
+  public void onUnlocked(Character character) {
+  }
+
   /**
    * Increase the rank of this talent, if possible.
    * 
@@ -37,6 +73,10 @@ public abstract class Talent {
     return false;
   }
 
+  void setRank(int rank) {
+    this.currentRank = rank;
+  }
+
   // Getters
   public String getName() {
     return name;
@@ -53,4 +93,9 @@ public abstract class Talent {
   public int getCurrentRank() {
     return currentRank;
   }
+
+  /** Index of the talent in its tree, or -1 if it isn't in one. */
+  public int getId() {
+    return id;
+  }
 }
\ No newline at end of file
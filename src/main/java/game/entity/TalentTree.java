@@ -4,94 +4,149 @@ import java.util.*;
 
 /**
  * Represents a character's talent tree, organizing talents into tiers.
+ * Talents get dense ids as they are added, tier membership is kept in a
+ * precomputed array and unlocked talents in a {@code long} bitset, so a
+ * prerequisite check is a couple of bit operations. The mask-based methods
+ * can also evaluate hypothetical builds without touching the tree's state.
  */
 public class TalentTree {
+  /** Talents are indexed by bit position, so a tree holds at most 64. */
+  public static final int MAX_TALENTS = 64;
+  public static final int TIER_COUNT = 5;
+
   private final Map<Integer, List<Talent>> tiers;
-  private final Set<Talent> unlockedTalents;
+
+  // Talent by id, tier by id, and the talents of each tier as a bitset
+  private final Talent[] talents = new Talent[MAX_TALENTS];
+  private final int[] tierOf = new int[MAX_TALENTS];
+  private final long[] tierMasks = new long[TIER_COUNT + 1];
+  private int talentCount = 0;
+
+  // Bit i is set if talent i is unlocked
+  private long unlockedMask = 0;
 
   public TalentTree() {
     this.tiers = new HashMap<>();
-    this.unlockedTalents = new HashSet<>();
 
     // Initialize tiers
-    for (int i = 1; i <= 5; i++) {
+    for (int i = 1; i <= TIER_COUNT; i++) {
       tiers.put(i, new ArrayList<>());
     }
   }
 
   /**
    * Add a talent to a specific tier of the talent tree.
-   * 
+   *
    * @param talent The talent to add
    * @param tier   The tier to add the talent to (1-5)
    */
   public void addTalent(Talent talent, int tier) {
+    if (tier < 1 || tier > TIER_COUNT) {
+      throw new IllegalArgumentException("Invalid talent tier " + tier);
+    }
+    if (talentCount == MAX_TALENTS) {
+      throw new IllegalStateException("A talent tree holds at most " + MAX_TALENTS + " talents");
+    }
+    if (talent.id >= 0) {
+      throw new IllegalArgumentException("Talent " + talent.getName() + " already belongs to a tree");
+    }
+
+    int id = talentCount++;
+    talent.id = id;
+    talents[id] = talent;
+    tierOf[id] = tier;
+    tierMasks[tier] |= 1L << id;
     tiers.get(tier).add(talent);
   }
 
   /**
    * Check if a talent can be unlocked based on prerequisites.
-   * 
+   *
    * @param talent The talent to check
    * @return true if the talent can be unlocked, false otherwise
    */
   public boolean canUnlockTalent(Talent talent) {
-    // Find the tier of this talent
-    int talentTier = 0;
-    for (Map.Entry<Integer, List<Talent>> entry : tiers.entrySet()) {
-      if (entry.getValue().contains(talent)) {
-        talentTier = entry.getKey();
-        break;
-      }
-    }
-
-    if (talentTier == 0) {
+    int id = talent.id;
+    if (id < 0 || id >= talentCount || talents[id] != talent) {
       return false; // Talent not found in the tree
     }
+    return canUnlock(unlockedMask, id);
+  }
 
-    // Tier 1 talents are always unlockable
-    if (talentTier == 1) {
-      return true;
-    }
-
-    // Check if prerequisites are met (must have at least one talent from previous
-    // tier)
-    int previousTier = talentTier - 1;
-    List<Talent> previousTierTalents = tiers.get(previousTier);
-
-    for (Talent previousTalent : previousTierTalents) {
-      if (unlockedTalents.contains(previousTalent)) {
-        return true;
-      }
-    }
-
-    return false;
+  /**
+   * Check a talent's prerequisites against a set of unlocked talents. Tier 1
+   * talents are always unlockable, other tiers need at least one talent from
+   * the previous tier.
+   *
+   * @param unlocked Bitset of unlocked talent ids
+   * @param talentId Id of the talent to check
+   * @return true if the talent can be unlocked
+   */
+  public boolean canUnlock(long unlocked, int talentId) {
+    int tier = tierOf[talentId];
+    return tier == 1 || (unlocked & tierMasks[tier - 1]) != 0;
   }
 
   /**
    * Mark a talent as unlocked.
-   * 
+   *
    * @param talent The talent to unlock
    */
   public void unlockTalent(Talent talent) {
-    unlockedTalents.add(talent);
+    if (talent.id >= 0 && talents[talent.id] == talent) {
+      unlockedMask |= 1L << talent.id;
+    }
+  }
+
+  public boolean isUnlocked(Talent talent) {
+    return talent.id >= 0 && talents[talent.id] == talent && (unlockedMask & (1L << talent.id)) != 0;
   }
 
   /**
    * Get the set of all unlocked talents.
-   * 
+   *
    * @return An unmodifiable set of unlocked talents
    */
   public Set<Talent> getUnlockedTalents() {
-    return Collections.unmodifiableSet(unlockedTalents);
+    Set<Talent> unlocked = new HashSet<>();
+    for (long bits = unlockedMask; bits != 0; bits &= bits - 1) {
+      unlocked.add(talents[Long.numberOfTrailingZeros(bits)]);
+    }
+    return Collections.unmodifiableSet(unlocked);
   }
 
   /**
    * Get the map of all tiers and their talents.
-   * 
+   *
    * @return The tiers map
    */
   public Map<Integer, List<Talent>> getTiers() {
     return tiers;
   }
-}
\ No newline at end of file
+
+  /** Bitset of unlocked talent ids. */
+  public long getUnlockedMask() {
+    return unlockedMask;
+  }
+
+  void setUnlockedMask(long unlockedMask) {
+    this.unlockedMask = unlockedMask;
+  }
+
+  /** Bitset of the ids of the talents in a tier (1-5). */
+  public long getTierMask(int tier) {
+    return tierMasks[tier];
+  }
+
+  public int getTier(int talentId) {
+    return tierOf[talentId];
+  }
+
+  public Talent getTalent(int talentId) {
+    return talents[talentId];
+  }
+
+  public int getTalentCount() {
+    return talentCount;
+  }
+}
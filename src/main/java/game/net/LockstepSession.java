@@ -0,0 +1,443 @@
+package game.net;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Deterministic lockstep over an unreliable {@link Transport}. Peers never
+ * send game state, only the commands their player issued for each tick; every
+ * peer runs the same {@link LockstepSimulation} on the same commands.
+ * <p>
+ * Commands issued now are scheduled {@code inputDelay} ticks ahead, giving
+ * them that long to reach the other peers before anyone needs them. A tick is
+ * only simulated once every player's commands for it have arrived, so a late
+ * peer stalls the others instead of letting them diverge. Each packet repeats
+ * every command frame the other peers haven't acknowledged yet, oldest
+ * first, so a lost packet is covered by the next one without resend timers.
+ * Packets also carry checksums of the sender's latest ticks; a mismatch with
+ * the local checksum for the same tick marks the session as desynced.
+ * <p>
+ * The simulation runs at a fixed timestep: {@link #update(double)} turns
+ * frame time into whole ticks and carries the remainder over.
+ */
+public class LockstepSession {
+  private static final int MAGIC = 0x4C4B5331; // "LKS1"
+
+  public static final int MAX_PLAYERS = 8;
+  /** Commands per player and tick; more wait for the next tick. */
+  public static final int MAX_COMMANDS_PER_TICK = 8;
+  /** Largest input delay in ticks. */
+  public static final int MAX_INPUT_DELAY = 32;
+
+  // Ticks of commands and checksums kept per player. Peers can't get more
+  // than two input delays apart, so this never wraps onto a live tick.
+  private static final int WINDOW = 256;
+  // Latest local checksums sent in every packet
+  private static final int CHECKSUMS_PER_PACKET = 4;
+  // Ticks of backlog run at once after a stall before dropping the rest
+  private static final int MAX_CATCH_UP = 5;
+
+  private static final PlayerCommand[] NO_COMMANDS = new PlayerCommand[0];
+
+  private final Transport transport;
+  private final LockstepSimulation simulation;
+  private final int localPlayer;
+  private final int playerCount;
+  private final int inputDelay;
+  private final int maxFramesPerPacket;
+  private final double tickSeconds;
+
+  // Command frames per player, by tick % WINDOW, with the tick each holds
+  private final PlayerCommand[][][] frames;
+  private final int[][] frameTicks;
+  // Every frame from a player up to this tick has arrived
+  private final int[] received;
+  // Every local frame up to this tick has reached the player
+  private final int[] acked;
+
+  // Checksums after each tick, local and reported by each player
+  private final long[] localChecksums = new long[WINDOW];
+  private final int[] localChecksumTicks = new int[WINDOW];
+  private final long[][] remoteChecksums;
+  private final int[][] remoteChecksumTicks;
+
+  private final List<PlayerCommand> pending = new ArrayList<>();
+  private final List<PlayerCommand> tickCommands = new ArrayList<>();
+  private final ByteBuffer sendBuffer = ByteBuffer.allocate(Transport.MAX_PACKET);
+  private final ByteBuffer receiveBuffer = ByteBuffer.allocate(Transport.MAX_PACKET);
+
+  // Next tick to simulate, and the tick the simulation stops at
+  private int tick = 0;
+  private int endTick = Integer.MAX_VALUE;
+  private double accumulator = 0;
+  private double time = 0;
+  private final double[] lastHeard;
+
+  private int desyncTick = -1;
+  private int desyncPlayer = -1;
+  private long verifiedCount = 0;
+  // Latest tick checked against each player, as checksums are sent repeatedly
+  private final int[] lastVerified;
+
+  // Statistics
+  private double stalledSeconds = 0;
+  private long packetsSent = 0;
+  private long packetsReceived = 0;
+  private long packetsRejected = 0;
+
+  /**
+   * @param transport          Connection to the other peers
+   * @param simulation         The simulation driven by the session
+   * @param localPlayer        Index of this peer's player
+   * @param playerCount        Players in the session, including this one
+   * @param inputDelay         Ticks between issuing a command and its tick, at
+   *                           least one; should cover the one-way latency
+   * @param maxFramesPerPacket Unacknowledged command frames repeated per packet, up to 255
+   * @param tickSeconds        Seconds of game time per tick
+   */
+  public LockstepSession(Transport transport, LockstepSimulation simulation, int localPlayer, int playerCount,
+      int inputDelay, int maxFramesPerPacket, double tickSeconds) {
+    if (playerCount < 1 || playerCount > MAX_PLAYERS || localPlayer < 0 || localPlayer >= playerCount) {
+      throw new IllegalArgumentException("Player " + localPlayer + " of " + playerCount);
+    }
+    if (inputDelay < 1 || inputDelay > MAX_INPUT_DELAY) {
+      throw new IllegalArgumentException("Input delay must be 1 to " + MAX_INPUT_DELAY + ": " + inputDelay);
+    }
+    this.transport = transport;
+    this.simulation = simulation;
+    this.localPlayer = localPlayer;
+    this.playerCount = playerCount;
+    this.inputDelay = inputDelay;
+    this.maxFramesPerPacket = Math.max(1, Math.min(255, maxFramesPerPacket));
+    this.tickSeconds = tickSeconds;
+
+    frames = new PlayerCommand[playerCount][WINDOW][];
+    frameTicks = new int[playerCount][WINDOW];
+    remoteChecksums = new long[playerCount][WINDOW];
+    remoteChecksumTicks = new int[playerCount][WINDOW];
+    for (int p = 0; p < playerCount; p++) {
+      Arrays.fill(frameTicks[p], -1);
+      Arrays.fill(remoteChecksumTicks[p], -1);
+    }
+    Arrays.fill(localChecksumTicks, -1);
+
+    // Nobody can issue commands for the first ticks, so they are empty for everyone
+    received = new int[playerCount];
+    acked = new int[playerCount];
+    Arrays.fill(received, inputDelay - 1);
+    Arrays.fill(acked, inputDelay - 1);
+    lastHeard = new double[playerCount];
+    lastVerified = new int[playerCount];
+    Arrays.fill(lastVerified, -1);
+  }
+
+  /**
+   * Queue a command from the local player. It is applied
+   * {@code inputDelay} ticks from now on every peer.
+   */
+  public void issue(PlayerCommand command) {
+    pending.add(command.withPlayer(localPlayer));
+  }
+
+  /**
+   * Receive packets, run the ticks due for the elapsed time that every
+   * player's commands have arrived for, and send this peer's state.
+   *
+   * @param deltaTime Seconds since the last update
+   */
+  public void update(double deltaTime) {
+    time += deltaTime;
+    receivePackets();
+
+    accumulator += deltaTime;
+    while (accumulator >= tickSeconds && tick < endTick) {
+      if (!isTickReady()) {
+        // Waiting on a peer; catch up on a few ticks once it arrives
+        stalledSeconds += deltaTime;
+        accumulator = Math.min(accumulator, tickSeconds * MAX_CATCH_UP);
+        break;
+      }
+      step();
+      accumulator -= tickSeconds;
+    }
+
+    sendPacket();
+  }
+
+  /**
+   * Stop simulating before the given tick, e.g. at the end of a match. The
+   * session keeps exchanging packets so peers still behind can finish.
+   */
+  public void setEndTick(int endTick) {
+    this.endTick = endTick;
+  }
+
+  /** True if every player's commands for the next tick have arrived. */
+  public boolean isTickReady() {
+    for (int p = 0; p < playerCount; p++) {
+      if (received[p] < tick) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void step() {
+    sealLocalFrame(tick + inputDelay);
+
+    tickCommands.clear();
+    for (int p = 0; p < playerCount; p++) {
+      for (PlayerCommand command : frameAt(p, tick)) {
+        tickCommands.add(command);
+      }
+    }
+    simulation.tick(tickCommands);
+
+    long checksum = simulation.checksum();
+    int slot = tick % WINDOW;
+    localChecksums[slot] = checksum;
+    localChecksumTicks[slot] = tick;
+    for (int p = 0; p < playerCount; p++) {
+      if (p != localPlayer && remoteChecksumTicks[p][slot] == tick) {
+        verify(p, tick, remoteChecksums[p][slot]);
+      }
+    }
+    tick++;
+  }
+
+  // Move up to a tick's worth of pending commands into the local frame for a tick
+  private void sealLocalFrame(int frameTick) {
+    int count = Math.min(pending.size(), MAX_COMMANDS_PER_TICK);
+    PlayerCommand[] commands = count == 0 ? NO_COMMANDS : pending.subList(0, count).toArray(NO_COMMANDS);
+    pending.subList(0, count).clear();
+    int slot = frameTick % WINDOW;
+    frames[localPlayer][slot] = commands;
+    frameTicks[localPlayer][slot] = frameTick;
+    received[localPlayer] = frameTick;
+  }
+
+  private PlayerCommand[] frameAt(int player, int frameTick) {
+    if (frameTick < inputDelay) {
+      return NO_COMMANDS;
+    }
+    int slot = frameTick % WINDOW;
+    if (frameTicks[player][slot] != frameTick) {
+      throw new IllegalStateException("No frame for tick " + frameTick + " from player " + player);
+    }
+    return frames[player][slot];
+  }
+
+  private void verify(int player, int checkedTick, long remoteChecksum) {
+    if (checkedTick <= lastVerified[player]) {
+      return;
+    }
+    lastVerified[player] = checkedTick;
+    if (remoteChecksum == localChecksums[checkedTick % WINDOW]) {
+      verifiedCount++;
+    } else if (desyncTick < 0) {
+      desyncTick = checkedTick;
+      desyncPlayer = player;
+      System.out.println("Lockstep desync with player " + player + " at tick " + checkedTick);
+    }
+  }
+
+  // Packet: magic, sender, player count, frames received from each player,
+  // then unacknowledged local frames and the latest local checksums
+
+  private void sendPacket() {
+    ByteBuffer out = sendBuffer;
+    out.clear();
+    out.putInt(MAGIC);
+    out.put((byte) localPlayer);
+    out.put((byte) playerCount);
+    for (int p = 0; p < playerCount; p++) {
+      out.putInt(received[p]);
+    }
+
+    // Local frames from the oldest any peer is missing, as many as fit
+    int first = received[localPlayer] + 1;
+    for (int p = 0; p < playerCount; p++) {
+      if (p != localPlayer) {
+        first = Math.min(first, acked[p] + 1);
+      }
+    }
+    int last = Math.min(received[localPlayer], first + maxFramesPerPacket - 1);
+    int checksumBytes = 5 + CHECKSUMS_PER_PACKET * Long.BYTES;
+    out.putInt(first);
+    int countPosition = out.position();
+    out.put((byte) 0);
+    int frameCount = 0;
+    for (int t = first; t <= last; t++) {
+      PlayerCommand[] commands = frameAt(localPlayer, t);
+      if (out.remaining() - checksumBytes < 1 + commands.length * PlayerCommand.BYTES) {
+        break;
+      }
+      out.put((byte) commands.length);
+      for (PlayerCommand command : commands) {
+        command.write(out);
+      }
+      frameCount++;
+    }
+    out.put(countPosition, (byte) frameCount);
+
+    int checksumCount = Math.min(tick, CHECKSUMS_PER_PACKET);
+    out.putInt(tick - checksumCount);
+    out.put((byte) checksumCount);
+    for (int t = tick - checksumCount; t < tick; t++) {
+      out.putLong(localChecksums[t % WINDOW]);
+    }
+
+    out.flip();
+    try {
+      transport.send(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    packetsSent++;
+  }
+
+  private void receivePackets() {
+    try {
+      while (transport.receive(receiveBuffer)) {
+        try {
+          readPacket(receiveBuffer);
+          packetsReceived++;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+          // Truncated or foreign packet
+          packetsRejected++;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void readPacket(ByteBuffer in) {
+    if (in.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a lockstep packet");
+    }
+    int player = in.get();
+    if (player < 0 || player >= playerCount || player == localPlayer || in.get() != playerCount) {
+      throw new IllegalArgumentException("Packet from unexpected player " + player);
+    }
+    lastHeard[player] = time;
+    for (int p = 0; p < playerCount; p++) {
+      int receivedByPeer = in.getInt();
+      if (p == localPlayer) {
+        acked[player] = Math.max(acked[player], Math.min(receivedByPeer, received[localPlayer]));
+      }
+    }
+
+    // Frames start at or before the first one missing, since the sender
+    // repeats everything it hasn't seen acknowledged
+    int first = in.getInt();
+    int frameCount = in.get() & 0xFF;
+    for (int i = 0; i < frameCount; i++) {
+      int commandCount = in.get() & 0xFF;
+      if (commandCount > MAX_COMMANDS_PER_TICK) {
+        throw new IllegalArgumentException("Too many commands: " + commandCount);
+      }
+      PlayerCommand[] commands = commandCount == 0 ? NO_COMMANDS : new PlayerCommand[commandCount];
+      for (int c = 0; c < commandCount; c++) {
+        commands[c] = PlayerCommand.read(in, player);
+      }
+      int frameTick = first + i;
+      if (frameTick == received[player] + 1 && frameTick - tick < WINDOW) {
+        int slot = frameTick % WINDOW;
+        frames[player][slot] = commands;
+        frameTicks[player][slot] = frameTick;
+        received[player] = frameTick;
+      }
+    }
+
+    int firstChecksum = in.getInt();
+    int checksumCount = in.get() & 0xFF;
+    for (int i = 0; i < checksumCount; i++) {
+      long checksum = in.getLong();
+      int checkedTick = firstChecksum + i;
+      int slot = checkedTick % WINDOW;
+      if (checkedTick < 0 || checkedTick >= tick + WINDOW || checkedTick <= tick - WINDOW) {
+        continue;
+      }
+      if (checkedTick < tick) {
+        // Already simulated here
+        if (localChecksumTicks[slot] == checkedTick) {
+          verify(player, checkedTick, checksum);
+        }
+      } else {
+        remoteChecksums[player][slot] = checksum;
+        remoteChecksumTicks[player][slot] = checkedTick;
+      }
+    }
+  }
+
+  /** Next tick to be simulated, i.e. the number of ticks run so far. */
+  public int getTick() {
+    return tick;
+  }
+
+  public int getLocalPlayer() {
+    return localPlayer;
+  }
+
+  public int getInputDelay() {
+    return inputDelay;
+  }
+
+  /** True once a peer reported a different checksum for a tick. */
+  public boolean isDesynced() {
+    return desyncTick >= 0;
+  }
+
+  /** First tick whose checksums differed, or -1. */
+  public int getDesyncTick() {
+    return desyncTick;
+  }
+
+  /** Player whose checksum differed first, or -1. */
+  public int getDesyncPlayer() {
+    return desyncPlayer;
+  }
+
+  /** Ticks whose remote checksum matched the local one so far. */
+  public long getVerifiedCount() {
+    return verifiedCount;
+  }
+
+  /** Seconds since the last packet from a player, e.g. to spot a dropped peer. */
+  public double getSecondsSinceHeard(int player) {
+    return time - lastHeard[player];
+  }
+
+  /** Total time spent waiting for other players' commands. */
+  public double getStalledSeconds() {
+    return stalledSeconds;
+  }
+
+  public long getPacketsSent() {
+    return packetsSent;
+  }
+
+  public long getPacketsReceived() {
+    return packetsReceived;
+  }
+
+  /** Packets dropped as malformed or from an unexpected sender. */
+  public long getPacketsRejected() {
+    return packetsRejected;
+  }
+
+  /** Stop the transport. */
+  public void close() {
+    try {
+      transport.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
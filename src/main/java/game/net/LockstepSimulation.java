@@ -0,0 +1,22 @@
+package game.net;
+
+import java.util.List;
+
+/**
+ * A game simulation that lockstep peers run side by side. Given the same
+ * commands on the same ticks, every peer's simulation must reach exactly the
+ * same state: no wall time, no unseeded randomness, no iteration over
+ * identity-ordered collections, and no floating point whose result depends
+ * on the machine.
+ */
+public interface LockstepSimulation {
+  /**
+   * Apply a tick's commands, then advance the simulation by one fixed tick.
+   *
+   * @param commands Every player's commands for the tick, ordered by player
+   */
+  void tick(List<PlayerCommand> commands);
+
+  /** Hash of the state all peers must agree on, compared to detect desyncs. */
+  long checksum();
+}
@@ -0,0 +1,127 @@
+package game.net;
+
+import game.HeadlessGame;
+import game.entity.Character;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Runs a two-player lockstep match inside one process, each peer with its own
+ * {@link HeadlessGame}, and checks that both end in the same state. Peers
+ * issue random orders for their half of the player team and talk over a
+ * {@link LoopbackNetwork} with simulated latency, jitter and loss, or over
+ * UDP on localhost. The desync mode nudges one peer's state partway through
+ * to show the checksums catching it.
+ * Usage: {@code ./gradlew runLockstep --args="<ticks> <latency ms> <loss %> [loopback|udp|desync]"}
+ */
+public class LockstepTool {
+  private static final int PLAYERS = 2;
+  private static final int UNITS_PER_TEAM = 4;
+  private static final long SEED = 42;
+  // Frames per second the peers update at, independent of the tick rate
+  private static final double FRAME_SECONDS = 1.0 / 60;
+  private static final int UDP_PORT = 47000;
+
+  public static void main(String[] args) throws IOException {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+    double latency = (args.length > 1 ? Double.parseDouble(args[1]) : 80) / 1000;
+    double lossRate = (args.length > 2 ? Double.parseDouble(args[2]) : 10) / 100;
+    String mode = args.length > 3 ? args[3] : "loopback";
+    double jitter = latency / 4;
+
+    // Cover the worst one-way delay plus a tick of slack
+    int inputDelay = Math.min(LockstepSession.MAX_INPUT_DELAY,
+        (int) Math.ceil((latency + jitter) / HeadlessGame.TICK_SECONDS) + 1);
+
+    LoopbackNetwork network = new LoopbackNetwork(SEED, latency, jitter, lossRate);
+    List<HeadlessGame> games = new ArrayList<>();
+    List<LockstepSession> sessions = new ArrayList<>();
+    for (int p = 0; p < PLAYERS; p++) {
+      HeadlessGame game = new HeadlessGame(SEED, UNITS_PER_TEAM);
+      Transport transport = mode.equals("udp") ? udp(p) : network.connect();
+      games.add(game);
+      LockstepSession session = new LockstepSession(transport, game, p, PLAYERS, inputDelay, 32,
+          HeadlessGame.TICK_SECONDS);
+      // Both peers stop on the same tick, so their final states can be compared
+      session.setEndTick(ticks);
+      sessions.add(session);
+    }
+
+    SplittableRandom[] orders = new SplittableRandom[PLAYERS];
+    for (int p = 0; p < PLAYERS; p++) {
+      orders[p] = new SplittableRandom(SEED + p);
+    }
+
+    long start = System.nanoTime();
+    long frames = 0;
+    boolean nudged = false;
+    while (minTick(sessions) < ticks) {
+      network.advance(FRAME_SECONDS);
+      for (int p = 0; p < PLAYERS; p++) {
+        LockstepSession session = sessions.get(p);
+        if (session.getTick() < ticks && orders[p].nextInt(10) == 0) {
+          session.issue(randomOrder(p, orders[p]));
+        }
+        session.update(FRAME_SECONDS);
+      }
+      if (mode.equals("desync") && !nudged && sessions.get(1).getTick() >= ticks / 2) {
+        // A bug that only one peer has: its first unit takes a step the other never sees
+        Character unit = games.get(1).getUnit(0);
+        unit.moveTo(unit.getPositionX() + 1, unit.getPositionY());
+        nudged = true;
+        System.out.println("Nudged player 1's state after tick " + sessions.get(1).getTick());
+      }
+      frames++;
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%d ticks over %s, %.0f ms latency, %.0f%% loss, input delay %d ticks, in %.2f s%n",
+        ticks, mode, latency * 1000, lossRate * 100, inputDelay, seconds);
+    if (!mode.equals("udp")) {
+      System.out.printf("  %d packets sent, %d lost, %.0f bytes/s per peer%n", network.getSentCount(),
+          network.getLostCount(), network.getSentBytes() / (frames * FRAME_SECONDS) / PLAYERS);
+    }
+    for (int p = 0; p < PLAYERS; p++) {
+      LockstepSession session = sessions.get(p);
+      HeadlessGame game = games.get(p);
+      System.out.printf("  player %d: checksum %016x, alive %d vs %d, stalled %.2f s, %d checksums verified%s%n",
+          p, game.checksum(), game.getAliveCount(0), game.getAliveCount(1), session.getStalledSeconds(),
+          session.getVerifiedCount(), session.isDesynced() ? ", desync at tick " + session.getDesyncTick() : "");
+      session.close();
+      game.close();
+    }
+  }
+
+  private static Transport udp(int player) throws IOException {
+    InetAddress localhost = InetAddress.getLoopbackAddress();
+    List<InetSocketAddress> peers = new ArrayList<>();
+    for (int p = 0; p < PLAYERS; p++) {
+      if (p != player) {
+        peers.add(new InetSocketAddress(localhost, UDP_PORT + p));
+      }
+    }
+    return new UdpTransport(new InetSocketAddress(localhost, UDP_PORT + player), peers);
+  }
+
+  // An order for one of the player's units against a random enemy; each
+  // player commands every other unit of the player team
+  private static PlayerCommand randomOrder(int player, SplittableRandom random) {
+    int unit = player + PLAYERS * random.nextInt(UNITS_PER_TEAM / PLAYERS);
+    int target = UNITS_PER_TEAM + random.nextInt(UNITS_PER_TEAM);
+    PlayerCommand.Type type = PlayerCommand.Type.values()[random.nextInt(PlayerCommand.Type.values().length)];
+    return new PlayerCommand(type, unit, target, 0);
+  }
+
+  private static int minTick(List<LockstepSession> sessions) {
+    int min = Integer.MAX_VALUE;
+    for (LockstepSession session : sessions) {
+      min = Math.min(min, session.getTick());
+    }
+    return min;
+  }
+}
@@ -0,0 +1,130 @@
+package game.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * An in-process network of {@link Transport}s for running several lockstep
+ * peers in one JVM. Packets are copied and held back by a simulated latency
+ * with random jitter, which also reorders them, and a share of them is lost.
+ * Time only moves when {@link #advance(double)} is called and the losses come
+ * from a seeded random source, so a run can be repeated exactly. Not thread
+ * safe: all peers are stepped from one thread.
+ */
+public class LoopbackNetwork {
+  private final double latency;
+  private final double jitter;
+  private final double lossRate;
+  private final SplittableRandom random;
+  private final List<Endpoint> endpoints = new ArrayList<>();
+
+  private double now = 0;
+  private long sequence = 0;
+  private long sentCount = 0;
+  private long lostCount = 0;
+  private long sentBytes = 0;
+
+  /**
+   * @param seed     Seed for jitter and losses
+   * @param latency  One-way delay in seconds
+   * @param jitter   Extra delay in seconds, uniform in [0, jitter)
+   * @param lossRate Share of packets dropped, 0 to 1
+   */
+  public LoopbackNetwork(long seed, double latency, double jitter, double lossRate) {
+    this.latency = latency;
+    this.jitter = jitter;
+    this.lossRate = lossRate;
+    this.random = new SplittableRandom(seed);
+  }
+
+  /** Add a peer to the network. Its packets go to every other peer. */
+  public Transport connect() {
+    Endpoint endpoint = new Endpoint();
+    endpoints.add(endpoint);
+    return endpoint;
+  }
+
+  /** Move simulated time forward, making delayed packets available. */
+  public void advance(double seconds) {
+    now += seconds;
+  }
+
+  public long getSentCount() {
+    return sentCount;
+  }
+
+  public long getLostCount() {
+    return lostCount;
+  }
+
+  public long getSentBytes() {
+    return sentBytes;
+  }
+
+  private static final class Packet implements Comparable<Packet> {
+    final double deliverAt;
+    final long sequence;
+    final byte[] data;
+
+    Packet(double deliverAt, long sequence, byte[] data) {
+      this.deliverAt = deliverAt;
+      this.sequence = sequence;
+      this.data = data;
+    }
+
+    @Override
+    public int compareTo(Packet other) {
+      int byTime = Double.compare(deliverAt, other.deliverAt);
+      return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  private final class Endpoint implements Transport {
+    private final PriorityQueue<Packet> inbox = new PriorityQueue<>();
+    private boolean closed = false;
+
+    @Override
+    public void send(ByteBuffer packet) {
+      if (closed) {
+        return;
+      }
+      byte[] data = new byte[packet.remaining()];
+      packet.duplicate().get(data);
+      for (Endpoint endpoint : endpoints) {
+        if (endpoint == this || endpoint.closed) {
+          continue;
+        }
+        sentCount++;
+        sentBytes += data.length;
+        if (random.nextDouble() < lossRate) {
+          lostCount++;
+          continue;
+        }
+        double delay = latency + (jitter > 0 ? random.nextDouble() * jitter : 0);
+        endpoint.inbox.add(new Packet(now + delay, sequence++, data));
+      }
+    }
+
+    @Override
+    public boolean receive(ByteBuffer buffer) {
+      Packet next = inbox.peek();
+      if (next == null || next.deliverAt > now) {
+        return false;
+      }
+      inbox.poll();
+      buffer.clear();
+      buffer.put(next.data);
+      buffer.flip();
+      return true;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      inbox.clear();
+    }
+  }
+}
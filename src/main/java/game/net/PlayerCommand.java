@@ -0,0 +1,112 @@
+package game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An order from a player for one tick, e.g. "unit 2 attacks unit 5". Units
+ * are referred to by their index in the match, which is the same on every
+ * peer, rather than by character id. Commands are all a lockstep peer sends;
+ * every peer applies the same commands on the same tick and simulates the
+ * rest itself.
+ */
+public final class PlayerCommand {
+  /** What the unit is ordered to do, in place of its AI action for the tick. */
+  public enum Type {
+    /** Step towards the target. */
+    MOVE,
+    /** Basic attack on the target, if in range. */
+    ATTACK,
+    /** Use the regular ability in the given slot on the target. */
+    ABILITY,
+    /** Use the ultimate ability on the target. */
+    ULTIMATE
+  }
+
+  private static final Type[] TYPES = Type.values();
+
+  /** Encoded size: type, slot, unit and target. */
+  public static final int BYTES = 6;
+
+  private final int player;
+  private final Type type;
+  private final int unit;
+  private final int target;
+  private final int slot;
+
+  /**
+   * @param type   The order
+   * @param unit   Index of the ordered unit
+   * @param target Index of the target unit
+   * @param slot   Ability slot for {@link Type#ABILITY}, otherwise 0
+   */
+  public PlayerCommand(Type type, int unit, int target, int slot) {
+    this(-1, type, unit, target, slot);
+  }
+
+  private PlayerCommand(int player, Type type, int unit, int target, int slot) {
+    if (unit < 0 || unit > 0xFFFF || target < 0 || target > 0xFFFF || slot < 0 || slot > 0xFF) {
+      throw new IllegalArgumentException("Command out of range: " + type + " " + unit + " " + target + " " + slot);
+    }
+    this.player = player;
+    this.type = type;
+    this.unit = unit;
+    this.target = target;
+    this.slot = slot;
+  }
+
+  /** The same command as issued by a player. */
+  PlayerCommand withPlayer(int player) {
+    return new PlayerCommand(player, type, unit, target, slot);
+  }
+
+  /** Write the command in {@link #BYTES} bytes. The player isn't included. */
+  public void write(ByteBuffer buffer) {
+    buffer.put((byte) type.ordinal());
+    buffer.put((byte) slot);
+    buffer.putShort((short) unit);
+    buffer.putShort((short) target);
+  }
+
+  /**
+   * Read a command written by {@link #write(ByteBuffer)}.
+   *
+   * @param player The player it came from
+   * @throws IllegalArgumentException If the bytes aren't a command
+   */
+  public static PlayerCommand read(ByteBuffer buffer, int player) {
+    int type = buffer.get() & 0xFF;
+    if (type >= TYPES.length) {
+      throw new IllegalArgumentException("Unknown command type " + type);
+    }
+    int slot = buffer.get() & 0xFF;
+    int unit = buffer.getShort() & 0xFFFF;
+    int target = buffer.getShort() & 0xFFFF;
+    return new PlayerCommand(player, TYPES[type], unit, target, slot);
+  }
+
+  /** Index of the player who issued the command, or -1 before it was scheduled. */
+  public int getPlayer() {
+    return player;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public int getUnit() {
+    return unit;
+  }
+
+  public int getTarget() {
+    return target;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  @Override
+  public String toString() {
+    return "P" + player + " " + type + " " + unit + " -> " + target + (type == Type.ABILITY ? " slot " + slot : "");
+  }
+}
@@ -0,0 +1,30 @@
+package game.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Unreliable, unordered datagrams between the peers of a lockstep session,
+ * like UDP: packets may be lost, duplicated or arrive out of order, and the
+ * session copes with all three. Neither call blocks.
+ */
+public interface Transport extends Closeable {
+  /** Largest packet the session sends, small enough to avoid IP fragmentation. */
+  int MAX_PACKET = 1200;
+
+  /**
+   * Send a packet to every other peer.
+   *
+   * @param packet The bytes between position and limit; the position is not changed
+   */
+  void send(ByteBuffer packet) throws IOException;
+
+  /**
+   * Receive the next waiting packet, if any.
+   *
+   * @param buffer Cleared and filled with the packet, then flipped for reading
+   * @return False if no packet was waiting
+   */
+  boolean receive(ByteBuffer buffer) throws IOException;
+}
@@ -0,0 +1,76 @@
+package game.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+
+/**
+ * A {@link Transport} over a non-blocking UDP socket. Every peer binds its
+ * own port and sends each packet to every other peer's address; packets from
+ * other addresses are dropped.
+ */
+public class UdpTransport implements Transport {
+  private final DatagramChannel channel;
+  private final InetSocketAddress[] peers;
+
+  /**
+   * @param local Address to bind, e.g. {@code new InetSocketAddress(7000)}
+   * @param peers Addresses of the other peers
+   */
+  public UdpTransport(InetSocketAddress local, List<InetSocketAddress> peers) throws IOException {
+    this.peers = peers.toArray(new InetSocketAddress[0]);
+    channel = DatagramChannel.open();
+    try {
+      channel.bind(local);
+      channel.configureBlocking(false);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void send(ByteBuffer packet) throws IOException {
+    for (InetSocketAddress peer : peers) {
+      // A full socket buffer drops the packet, which redundancy covers
+      channel.send(packet.duplicate(), peer);
+    }
+  }
+
+  @Override
+  public boolean receive(ByteBuffer buffer) throws IOException {
+    while (true) {
+      buffer.clear();
+      SocketAddress from = channel.receive(buffer);
+      if (from == null) {
+        return false;
+      }
+      if (isPeer(from)) {
+        buffer.flip();
+        return true;
+      }
+    }
+  }
+
+  private boolean isPeer(SocketAddress address) {
+    for (InetSocketAddress peer : peers) {
+      if (peer.equals(address)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Bound address, e.g. to find the port picked for port 0. */
+  public InetSocketAddress getLocalAddress() throws IOException {
+    return (InetSocketAddress) channel.getLocalAddress();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,42 @@
+package game.server;
+
+/**
+ * Datagrams between the battle server and its clients. Every message starts
+ * with its type byte; fields follow in big-endian order.
+ * <pre>
+ * CREATE       client  int request, long seed, byte units per team, byte health scale
+ * CREATED      server  int request, int match id, or -1 if the server is full
+ * COMMAND      client  int match id, a PlayerCommand
+ * STATE        server  int match id, int tick, byte alive on team 0, byte alive on team 1, long checksum
+ * END          server  int match id, int tick, byte winning team or -1, long checksum,
+ *                      long p50, p99 and max tick nanos of the match
+ * STATS        client  int request
+ * STATS_REPLY  server  int request, int active matches, int workers, long matches started,
+ *                      long matches ended, long ticks, long busy nanos, long process CPU nanos,
+ *                      long uptime nanos, long late ticks, long p50, p99 and max tick nanos
+ * </pre>
+ * UDP may drop any of these. Clients resend CREATE and STATS until answered;
+ * a lost COMMAND is a lost order, and the next STATE or END supersedes a lost
+ * one. The server answers a CREATE it has seen before with the same match,
+ * even shortly after that match ended, so a late resend never starts another.
+ * The health scale multiplies every unit's maximum health, from 1 for
+ * regular matches.
+ */
+final class BattleProtocol {
+  static final int DEFAULT_PORT = 7100;
+  static final int MAX_PACKET = 512;
+
+  static final byte CREATE = 1;
+  static final byte CREATED = 2;
+  static final byte COMMAND = 3;
+  static final byte STATE = 4;
+  static final byte END = 5;
+  static final byte STATS = 6;
+  static final byte STATS_REPLY = 7;
+
+  /** Ticks between STATE messages for a match. */
+  static final int STATE_INTERVAL = 20;
+
+  private BattleProtocol() {
+  }
+}
@@ -0,0 +1,343 @@
+package game.server;
+
+import engine.metrics.Counter;
+import engine.metrics.GcMonitor;
+import engine.metrics.LatencyHistogram;
+import engine.metrics.MetricsRegistry;
+import engine.metrics.MetricsServer;
+import game.net.PlayerCommand;
+import game.world.DungeonStreamer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many independent battles in one process for PvP and async
+ * challenges. Clients create matches and send orders over UDP (see
+ * {@link BattleProtocol}); the server alone runs the simulation and reports
+ * each match's state, so a client can't do more than order its own units.
+ * <p>
+ * Matches are spread over a fixed set of {@link MatchShard} worker threads,
+ * one per core by default, each ticking its matches at the game's fixed
+ * rate. Every match has its own combat state (see {@link game.HeadlessGame}),
+ * so matches on different shards never share mutable state. Tick durations
+ * are tracked per match, reported when it ends, and per shard for the
+ * server-wide stats.
+ */
+public class BattleServer implements Closeable {
+  private static final Counter MATCHES_STARTED =
+      MetricsRegistry.get().counter("battle_matches_started_total", "Matches created");
+  private static final Counter MATCHES_ENDED =
+      MetricsRegistry.get().counter("battle_matches_ended_total", "Matches played to the end or time limit");
+  // How long the CREATE of an ended match is still answered with that match
+  private static final long ENDED_REQUEST_NANOS = 30_000_000_000L;
+  private static final int MAX_HEALTH_SCALE = 100;
+
+  private final DatagramChannel channel;
+  private final MatchShard[] shards;
+  private final int maxMatches;
+  private final ExecutorService generation;
+  private final Thread receiver;
+
+  private final Map<Integer, Match> matches = new ConcurrentHashMap<>();
+  // Match ids by client and request, so a resent CREATE doesn't start a second match
+  private final Map<String, Integer> createRequests = new ConcurrentHashMap<>();
+  // Requests of ended matches, oldest first, dropped from createRequests once they expire
+  private final ConcurrentLinkedQueue<EndedRequest> endedRequests = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger nextMatchId = new AtomicInteger();
+  private final AtomicLong matchesStarted = new AtomicLong();
+  private final AtomicLong matchesEnded = new AtomicLong();
+  private final long startNanos = System.nanoTime();
+
+  /**
+   * @param port       UDP port to listen on, on localhost
+   * @param workers    Shard threads ticking matches
+   * @param maxMatches Matches hosted at once before CREATE is refused
+   */
+  public BattleServer(int port, int workers, int maxMatches) throws IOException {
+    this.maxMatches = maxMatches;
+    channel = DatagramChannel.open();
+    channel.bind(new InetSocketAddress("127.0.0.1", port));
+
+    // Matches only leave the start chunk occasionally, so generation is light
+    generation = DungeonStreamer.createExecutor(Math.max(1, workers / 4));
+    shards = new MatchShard[workers];
+    for (int i = 0; i < workers; i++) {
+      shards[i] = new MatchShard(this, generation);
+    }
+    receiver = new Thread(this::receive, "battle-net");
+  }
+
+  /** Start the shards and begin accepting requests. */
+  public void start() {
+    for (int i = 0; i < shards.length; i++) {
+      Thread thread = new Thread(shards[i], "battle-shard-" + i);
+      thread.setDaemon(true);
+      thread.start();
+    }
+    receiver.setDaemon(true);
+    receiver.start();
+  }
+
+  private void receive() {
+    ByteBuffer in = ByteBuffer.allocate(BattleProtocol.MAX_PACKET);
+    ByteBuffer out = ByteBuffer.allocate(BattleProtocol.MAX_PACKET);
+    while (true) {
+      SocketAddress from;
+      try {
+        in.clear();
+        from = channel.receive(in);
+        in.flip();
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        System.out.println("Battle server receive failed: " + e);
+        continue;
+      }
+      try {
+        handle(in, from, out);
+      } catch (BufferUnderflowException | IllegalArgumentException e) {
+        // Truncated or malformed request
+      }
+    }
+  }
+
+  private void handle(ByteBuffer in, SocketAddress from, ByteBuffer out) {
+    switch (in.get()) {
+      case BattleProtocol.CREATE: {
+        int request = in.getInt();
+        long seed = in.getLong();
+        int unitsPerTeam = Math.max(1, Math.min(in.get(), 16));
+        int healthScale = Math.max(1, Math.min(in.get(), MAX_HEALTH_SCALE));
+        int id = create(from, request, seed, unitsPerTeam, healthScale);
+        out.clear();
+        out.put(BattleProtocol.CREATED).putInt(request).putInt(id).flip();
+        send(out, from);
+        break;
+      }
+      case BattleProtocol.COMMAND: {
+        Match match = matches.get(in.getInt());
+        PlayerCommand command = PlayerCommand.read(in, 0);
+        if (match != null && match.owner.equals(from)) {
+          match.queue(command);
+        }
+        break;
+      }
+      case BattleProtocol.STATS: {
+        int request = in.getInt();
+        out.clear();
+        out.put(BattleProtocol.STATS_REPLY).putInt(request);
+        getStats().write(out);
+        out.flip();
+        send(out, from);
+        break;
+      }
+      default:
+        break;
+    }
+  }
+
+  private int create(SocketAddress owner, int request, long seed, int unitsPerTeam, int healthScale) {
+    forgetEndedRequests();
+    String key = requestKey(owner, request);
+    Integer existing = createRequests.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    if (matches.size() >= maxMatches) {
+      return -1;
+    }
+
+    Match match = new Match(nextMatchId.getAndIncrement(), owner, request, seed, unitsPerTeam,
+        healthScale);
+    matches.put(match.id, match);
+    createRequests.put(key, match.id);
+    matchesStarted.incrementAndGet();
+    MATCHES_STARTED.increment();
+
+    // The shard with the fewest matches takes it
+    MatchShard target = shards[0];
+    for (MatchShard shard : shards) {
+      if (shard.getMatchCount() < target.getMatchCount()) {
+        target = shard;
+      }
+    }
+    target.add(match);
+    return match.id;
+  }
+
+  /**
+   * Forget an ended match. Its CREATE request is kept for a while, in case
+   * a resend of it is still on the way. Called by its shard.
+   */
+  void remove(Match match) {
+    matches.remove(match.id);
+    endedRequests.offer(new EndedRequest(requestKey(match.owner, match.request), match.id, System.nanoTime()));
+    matchesEnded.incrementAndGet();
+    MATCHES_ENDED.increment();
+  }
+
+  // Drop requests of matches that ended long enough ago. Called from the network thread only.
+  private void forgetEndedRequests() {
+    long now = System.nanoTime();
+    for (EndedRequest ended; (ended = endedRequests.peek()) != null && now - ended.nanos > ENDED_REQUEST_NANOS; ) {
+      endedRequests.poll();
+      createRequests.remove(ended.key, ended.matchId);
+    }
+  }
+
+  private static final class EndedRequest {
+    final String key;
+    final int matchId;
+    final long nanos;
+
+    EndedRequest(String key, int matchId, long nanos) {
+      this.key = key;
+      this.matchId = matchId;
+      this.nanos = nanos;
+    }
+  }
+
+  private static String requestKey(SocketAddress owner, int request) {
+    return owner + "#" + request;
+  }
+
+  /** Send a datagram, dropping it if the socket buffer is full. Called from any thread. */
+  void send(ByteBuffer packet, SocketAddress to) {
+    try {
+      channel.send(packet, to);
+    } catch (IOException e) {
+      // Lost like any other datagram; the client resends what it needs
+    }
+  }
+
+  /** Counters since start across all shards, and tick latency over the last second. */
+  public Stats getStats() {
+    Stats stats = new Stats();
+    LatencyHistogram tickNanos = new LatencyHistogram();
+    stats.activeMatches = getActiveMatchCount();
+    for (MatchShard shard : shards) {
+      stats.ticks += shard.getTicks();
+      stats.busyNanos += shard.getBusyNanos();
+      stats.lateTicks += shard.getLateTicks();
+      tickNanos.add(shard.getTickNanos());
+    }
+    stats.workers = shards.length;
+    stats.matchesStarted = matchesStarted.get();
+    stats.matchesEnded = matchesEnded.get();
+    stats.cpuNanos = getProcessCpuNanos();
+    stats.uptimeNanos = System.nanoTime() - startNanos;
+    stats.tickP50 = tickNanos.percentile(0.5);
+    stats.tickP99 = tickNanos.percentile(0.99);
+    stats.tickMax = tickNanos.getMax();
+    return stats;
+  }
+
+  /** Matches on all shards, including those not started yet. Safe from any thread. */
+  public int getActiveMatchCount() {
+    int count = 0;
+    for (MatchShard shard : shards) {
+      count += shard.getMatchCount();
+    }
+    return count;
+  }
+
+  private static long getProcessCpuNanos() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+    }
+    return -1;
+  }
+
+  /** Stop the shards and the socket. Running matches are dropped. */
+  @Override
+  public void close() throws IOException {
+    for (MatchShard shard : shards) {
+      shard.stop();
+    }
+    channel.close();
+    generation.shutdownNow();
+  }
+
+  /** Server counters at one moment; see {@link BattleProtocol} for the wire form. */
+  public static final class Stats {
+    int activeMatches;
+    int workers;
+    long matchesStarted;
+    long matchesEnded;
+    long ticks;
+    long busyNanos;
+    long cpuNanos;
+    long uptimeNanos;
+    long lateTicks;
+    long tickP50, tickP99, tickMax;
+
+    void write(ByteBuffer out) {
+      out.putInt(activeMatches).putInt(workers);
+      out.putLong(matchesStarted).putLong(matchesEnded).putLong(ticks).putLong(busyNanos)
+          .putLong(cpuNanos).putLong(uptimeNanos).putLong(lateTicks);
+      out.putLong(tickP50).putLong(tickP99).putLong(tickMax);
+    }
+
+    static Stats read(ByteBuffer in) {
+      Stats stats = new Stats();
+      stats.activeMatches = in.getInt();
+      stats.workers = in.getInt();
+      stats.matchesStarted = in.getLong();
+      stats.matchesEnded = in.getLong();
+      stats.ticks = in.getLong();
+      stats.busyNanos = in.getLong();
+      stats.cpuNanos = in.getLong();
+      stats.uptimeNanos = in.getLong();
+      stats.lateTicks = in.getLong();
+      stats.tickP50 = in.getLong();
+      stats.tickP99 = in.getLong();
+      stats.tickMax = in.getLong();
+      return stats;
+    }
+
+    @Override
+    public String toString() {
+      double seconds = uptimeNanos / 1e9;
+      return String.format("%d matches on %d workers, %d started, %d ended, %.0f ticks/s, "
+              + "tick p50 %.1f us p99 %.1f us max %.1f ms, %d late ticks, workers %.0f%% busy",
+          activeMatches, workers, matchesStarted, matchesEnded, ticks / seconds, tickP50 / 1e3,
+          tickP99 / 1e3, tickMax / 1e6, lateTicks, 100.0 * busyNanos / (uptimeNanos * (double) workers));
+    }
+  }
+
+  /**
+   * Run a server until killed, printing its stats every five seconds.
+   * Usage: {@code ./gradlew runBattleServer --args="<port> <workers>"}
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : BattleProtocol.DEFAULT_PORT;
+    int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+    GcMonitor.install();
+    BattleServer server = new BattleServer(port, workers, 100_000);
+    MetricsRegistry.get().gauge("battle_matches", "Matches hosted", server::getActiveMatchCount);
+    MetricsServer.startIfEnabled();
+    server.start();
+    System.out.println("Battle server on 127.0.0.1:" + port + " with " + workers + " workers");
+    while (true) {
+      Thread.sleep(5000);
+      System.out.println(server.getStats());
+    }
+  }
+}
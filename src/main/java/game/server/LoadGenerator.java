@@ -0,0 +1,270 @@
+package game.server;
+
+import game.net.PlayerCommand;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Client that keeps a battle server on localhost busy with a fixed number of
+ * concurrent matches, replacing each one as it ends and ordering units at
+ * random, then reports how many matches the server held per core. Cores are
+ * measured two ways: time the shard threads spent ticking, and the server
+ * process's CPU time, which also covers networking and GC.
+ * Usage: {@code ./gradlew loadTest --args="<port> <matches> <seconds>"}
+ */
+public class LoadGenerator {
+  // Seconds of ramp-up and JIT warm-up before measuring
+  private static final double WARMUP_SECONDS = 5;
+  private static final long LOOP_NANOS = 10_000_000;
+  // Creates sent per loop, so ramping up doesn't flood the socket
+  private static final int CREATES_PER_LOOP = 200;
+  private static final long RESEND_NANOS = 1_000_000_000;
+  // Average seconds between orders to each match
+  private static final double ORDER_INTERVAL = 2;
+  private static final int UNITS_PER_TEAM = 4;
+  // Tougher units, so matches last about ten seconds and ticking outweighs creating them
+  private static final int HEALTH_SCALE = 20;
+
+  private final DatagramChannel channel;
+  private final ByteBuffer in = ByteBuffer.allocate(BattleProtocol.MAX_PACKET);
+  private final ByteBuffer out = ByteBuffer.allocate(BattleProtocol.MAX_PACKET);
+  private final SplittableRandom random = new SplittableRandom(7);
+
+  // Create requests awaiting an answer, by request id, with the time last sent
+  private final Map<Integer, Long> pendingCreates = new HashMap<>();
+  private int nextRequest = 0;
+  // Running matches, swap-removed through their index
+  private final List<Integer> active = new ArrayList<>();
+  private final Map<Integer, Integer> activeIndex = new HashMap<>();
+
+  private long ended = 0;
+  private long states = 0;
+  private long refused = 0;
+  private long[] matchP99 = new long[1024];
+  private int matchP99Count = 0;
+  private long worstMatchTick = 0;
+  private BattleServer.Stats stats;
+  private int statsRequest = -1;
+
+  LoadGenerator(int port) throws IOException {
+    channel = DatagramChannel.open();
+    channel.connect(new InetSocketAddress("127.0.0.1", port));
+    channel.configureBlocking(false);
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : BattleProtocol.DEFAULT_PORT;
+    int target = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 20;
+    new LoadGenerator(port).run(target, seconds);
+  }
+
+  private void run(int target, double seconds) throws IOException {
+    System.out.printf("Holding %d matches on 127.0.0.1:%d: %.0f s warm-up, %.0f s measured%n",
+        target, ((InetSocketAddress) channel.getRemoteAddress()).getPort(), WARMUP_SECONDS, seconds);
+    runFor(target, WARMUP_SECONDS);
+    BattleServer.Stats before = requestStats(target);
+    if (before == null) {
+      System.out.println("No answer from the battle server");
+      return;
+    }
+
+    long endedBefore = ended, statesBefore = states;
+    matchP99Count = 0;
+    worstMatchTick = 0;
+    double activeSum = runFor(target, seconds);
+    BattleServer.Stats after = requestStats(target);
+    if (after == null) {
+      System.out.println("Lost the battle server");
+      return;
+    }
+    report(before, after, activeSum, ended - endedBefore, states - statesBefore);
+  }
+
+  /**
+   * Keep the target number of matches running for a while.
+   *
+   * @return Running matches summed over the loops, divided by loops, i.e.
+   *         the average held
+   */
+  private double runFor(int target, double seconds) throws IOException {
+    long end = System.nanoTime() + (long) (seconds * 1e9);
+    double orderChance = LOOP_NANOS / 1e9 / ORDER_INTERVAL;
+    long activeSum = 0, loops = 0;
+    long next = System.nanoTime();
+    while (System.nanoTime() < end) {
+      poll();
+      long now = System.nanoTime();
+
+      int creates = 0;
+      while (active.size() + pendingCreates.size() < target && creates++ < CREATES_PER_LOOP) {
+        int request = nextRequest++;
+        pendingCreates.put(request, now);
+        sendCreate(request);
+      }
+      for (Map.Entry<Integer, Long> create : pendingCreates.entrySet()) {
+        if (now - create.getValue() > RESEND_NANOS) {
+          create.setValue(now);
+          sendCreate(create.getKey());
+        }
+      }
+
+      for (int match : active) {
+        if (random.nextDouble() < orderChance) {
+          sendOrder(match);
+        }
+      }
+
+      activeSum += active.size();
+      loops++;
+      next += LOOP_NANOS;
+      sleepUntil(next);
+    }
+    return loops == 0 ? 0 : (double) activeSum / loops;
+  }
+
+  private BattleServer.Stats requestStats(int target) throws IOException {
+    stats = null;
+    statsRequest = nextRequest++;
+    for (int attempt = 0; attempt < 10 && stats == null; attempt++) {
+      out.clear();
+      out.put(BattleProtocol.STATS).putInt(statsRequest).flip();
+      channel.write(out);
+      // Keep the load steady while waiting
+      runFor(target, 0.5);
+    }
+    return stats;
+  }
+
+  private void sendCreate(int request) throws IOException {
+    out.clear();
+    out.put(BattleProtocol.CREATE).putInt(request).putLong(random.nextLong()).put((byte) UNITS_PER_TEAM)
+        .put((byte) HEALTH_SCALE).flip();
+    channel.write(out);
+  }
+
+  // An order for a random player-team unit against a random enemy
+  private void sendOrder(int match) throws IOException {
+    PlayerCommand.Type[] types = PlayerCommand.Type.values();
+    PlayerCommand command = new PlayerCommand(types[random.nextInt(types.length)],
+        random.nextInt(UNITS_PER_TEAM), UNITS_PER_TEAM + random.nextInt(UNITS_PER_TEAM), 0);
+    out.clear();
+    out.put(BattleProtocol.COMMAND).putInt(match);
+    command.write(out);
+    out.flip();
+    channel.write(out);
+  }
+
+  private void poll() throws IOException {
+    while (true) {
+      in.clear();
+      if (channel.receive(in) == null) {
+        return;
+      }
+      in.flip();
+      try {
+        handle(in);
+      } catch (BufferUnderflowException e) {
+        // Truncated reply
+      }
+    }
+  }
+
+  private void handle(ByteBuffer in) {
+    switch (in.get()) {
+      case BattleProtocol.CREATED: {
+        int request = in.getInt();
+        int match = in.getInt();
+        if (pendingCreates.remove(request) == null) {
+          break;
+        }
+        if (match < 0) {
+          refused++;
+        } else {
+          activeIndex.put(match, active.size());
+          active.add(match);
+        }
+        break;
+      }
+      case BattleProtocol.STATE:
+        states++;
+        break;
+      case BattleProtocol.END: {
+        int match = in.getInt();
+        Integer index = activeIndex.remove(match);
+        if (index == null) {
+          break;
+        }
+        int last = active.remove(active.size() - 1);
+        if (last != match) {
+          active.set(index, last);
+          activeIndex.put(last, index);
+        }
+        ended++;
+        in.getInt();
+        in.get();
+        in.getLong();
+        in.getLong();
+        long p99 = in.getLong();
+        long max = in.getLong();
+        if (matchP99Count == matchP99.length) {
+          matchP99 = Arrays.copyOf(matchP99, matchP99Count * 2);
+        }
+        matchP99[matchP99Count++] = p99;
+        worstMatchTick = Math.max(worstMatchTick, max);
+        break;
+      }
+      case BattleProtocol.STATS_REPLY:
+        if (in.getInt() == statsRequest) {
+          stats = BattleServer.Stats.read(in);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void report(BattleServer.Stats before, BattleServer.Stats after, double held, long endedCount,
+      long stateCount) {
+    double wall = (after.uptimeNanos - before.uptimeNanos) / 1e9;
+    double workerCores = (after.busyNanos - before.busyNanos) / 1e9 / wall;
+    double cpuCores = (after.cpuNanos - before.cpuNanos) / 1e9 / wall;
+    long lateTicks = after.lateTicks - before.lateTicks;
+
+    System.out.printf("Held %.0f matches on %d workers for %.1f s%n", held, after.workers, wall);
+    System.out.printf("  %d matches ended (%.1f/s), %.0f state updates/s, %d creates refused%n",
+        endedCount, endedCount / wall, stateCount / wall, refused);
+    System.out.printf("  server: %.0f match ticks/s, %d late ticks, workers %.2f cores busy, process %.2f cores%n",
+        (after.ticks - before.ticks) / wall, lateTicks, workerCores, cpuCores);
+    System.out.printf("  match tick over the last second: p50 %.1f us, p99 %.1f us, max %.2f ms%n",
+        after.tickP50 / 1e3, after.tickP99 / 1e3, after.tickMax / 1e6);
+    if (matchP99Count > 0) {
+      long[] p99s = Arrays.copyOf(matchP99, matchP99Count);
+      Arrays.sort(p99s);
+      System.out.printf("  per-match tick p99 over %d ended matches: median %.1f us, worst %.1f us, "
+              + "slowest tick %.2f ms%n", matchP99Count, p99s[p99s.length / 2] / 1e3, p99s[p99s.length - 1] / 1e3,
+          worstMatchTick / 1e6);
+    }
+    System.out.printf("  %.0f concurrent matches per worker core, %.0f per process core; "
+            + "%.0f matches played to the end per process core-second%s%n", held / workerCores, held / cpuCores,
+        endedCount / wall / cpuCores, lateTicks > 0 ? " (server fell behind; lower the match count for capacity)" : "");
+  }
+
+  private static void sleepUntil(long deadline) {
+    long wait = deadline - System.nanoTime();
+    if (wait > 0) {
+      LockSupport.parkNanos(wait);
+    }
+  }
+}
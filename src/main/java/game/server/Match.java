@@ -0,0 +1,92 @@
+package game.server;
+
+import engine.metrics.LatencyHistogram;
+import game.HeadlessGame;
+import game.net.PlayerCommand;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One battle hosted by the server: its game, the client that owns it, the
+ * orders waiting for the next tick and how long its ticks take. Only the
+ * shard running the match touches the game; the network thread only queues
+ * commands.
+ */
+final class Match {
+  /** Orders held for the next tick; extra orders from a flooding client are dropped. */
+  static final int MAX_QUEUED_COMMANDS = 32;
+  /** Ticks before an undecided match ends as a draw, three minutes of game time. */
+  static final int MAX_TICKS = (int) (180 / HeadlessGame.TICK_SECONDS);
+
+  final int id;
+  final SocketAddress owner;
+  // The owner's CREATE request id
+  final int request;
+  private final long seed;
+  private final int unitsPerTeam;
+  private final int healthScale;
+
+  private HeadlessGame game;
+  private final ConcurrentLinkedQueue<PlayerCommand> commands = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final List<PlayerCommand> tickCommands = new ArrayList<>();
+  final LatencyHistogram tickNanos = new LatencyHistogram();
+
+  Match(int id, SocketAddress owner, int request, long seed, int unitsPerTeam, int healthScale) {
+    this.id = id;
+    this.owner = owner;
+    this.request = request;
+    this.seed = seed;
+    this.unitsPerTeam = unitsPerTeam;
+    this.healthScale = healthScale;
+  }
+
+  /** Build the game. Called on the shard, so creation cost lands on the worker pool. */
+  void start(ExecutorService generation) {
+    game = new HeadlessGame(seed, unitsPerTeam, healthScale, generation);
+  }
+
+  /** Queue an order from the owner. Called from the network thread. */
+  void queue(PlayerCommand command) {
+    if (queued.incrementAndGet() > MAX_QUEUED_COMMANDS) {
+      queued.decrementAndGet();
+      return;
+    }
+    commands.offer(command);
+  }
+
+  /**
+   * Run one tick with the queued orders and record how long it took.
+   *
+   * @return The tick's duration in nanoseconds
+   */
+  long tick() {
+    tickCommands.clear();
+    for (PlayerCommand command; (command = commands.poll()) != null; ) {
+      queued.decrementAndGet();
+      tickCommands.add(command);
+    }
+    long start = System.nanoTime();
+    game.tick(tickCommands);
+    long nanos = System.nanoTime() - start;
+    tickNanos.record(nanos);
+    return nanos;
+  }
+
+  boolean isOver() {
+    return game.isFinished() || game.getTickCount() >= MAX_TICKS;
+  }
+
+  HeadlessGame getGame() {
+    return game;
+  }
+
+  void close() {
+    game.close();
+  }
+}
@@ -0,0 +1,190 @@
+package game.server;
+
+import engine.metrics.Counter;
+import engine.metrics.Histogram;
+import engine.metrics.LatencyHistogram;
+import engine.metrics.MetricsRegistry;
+import game.HeadlessGame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One worker thread of the battle server and the matches it owns. Every
+ * {@link HeadlessGame#TICK_SECONDS} it ticks all of them in turn, so a match
+ * is only ever touched by its shard and matches need no locking. Matches
+ * stay on the shard they were created on.
+ * <p>
+ * Counters are written by the shard thread only and read by the stats
+ * request; the latency histogram is published as a copy once a second and
+ * restarted.
+ */
+final class MatchShard implements Runnable {
+  private static final long TICK_NANOS = (long) (HeadlessGame.TICK_SECONDS * 1e9);
+  // Ticks a shard may fall behind before it gives up catching up
+  private static final int MAX_BEHIND = 5;
+  private static final int PUBLISH_INTERVAL = (int) (1 / HeadlessGame.TICK_SECONDS);
+
+  // Process-wide, across shards
+  private static final Histogram MATCH_TICK_TIME =
+      MetricsRegistry.get().histogram("battle_match_tick_seconds", "Simulation ticks of single matches");
+  private static final Histogram SHARD_TICK_TIME =
+      MetricsRegistry.get().histogram("battle_shard_tick_seconds", "Shard ticks, covering all their matches");
+  private static final Counter LATE_TICKS =
+      MetricsRegistry.get().counter("battle_late_ticks_total", "Shard ticks started over a tick late");
+
+  private final BattleServer server;
+  private final ExecutorService generation;
+  private final ConcurrentLinkedQueue<Match> incoming = new ConcurrentLinkedQueue<>();
+  private final List<Match> matches = new ArrayList<>();
+  private final AtomicInteger matchCount = new AtomicInteger();
+  private final ByteBuffer out = ByteBuffer.allocate(BattleProtocol.MAX_PACKET);
+  private volatile boolean running = true;
+
+  private final LatencyHistogram tickNanos = new LatencyHistogram();
+  private volatile LatencyHistogram publishedTickNanos = new LatencyHistogram();
+  private volatile long ticks = 0;
+  private volatile long busyNanos = 0;
+  private volatile long lateTicks = 0;
+
+  MatchShard(BattleServer server, ExecutorService generation) {
+    this.server = server;
+    this.generation = generation;
+  }
+
+  /** Hand a new match to the shard; it starts on the shard's next tick. */
+  void add(Match match) {
+    matchCount.incrementAndGet();
+    incoming.offer(match);
+  }
+
+  @Override
+  public void run() {
+    long next = System.nanoTime();
+    int sincePublish = 0;
+    while (running) {
+      long start = System.nanoTime();
+      if (start - next > TICK_NANOS) {
+        lateTicks++;
+        LATE_TICKS.increment();
+      }
+      startIncoming();
+
+      int ticked = matches.size();
+      for (int i = 0; i < matches.size(); i++) {
+        Match match = matches.get(i);
+        long nanos = match.tick();
+        tickNanos.record(nanos);
+        MATCH_TICK_TIME.record(nanos);
+        if (match.isOver()) {
+          end(match);
+          // Swap-remove; the moved match is ticked next
+          matches.set(i, matches.get(matches.size() - 1));
+          matches.remove(matches.size() - 1);
+          i--;
+        } else if (match.getGame().getTickCount() % BattleProtocol.STATE_INTERVAL == 0) {
+          sendState(match);
+        }
+      }
+      long end = System.nanoTime();
+      busyNanos += end - start;
+      SHARD_TICK_TIME.record(end - start);
+      ticks += ticked;
+
+      if (++sincePublish == PUBLISH_INTERVAL) {
+        sincePublish = 0;
+        publishedTickNanos = tickNanos.copy();
+        tickNanos.clear();
+      }
+
+      next += TICK_NANOS;
+      if (end - next > MAX_BEHIND * TICK_NANOS) {
+        next = end;
+      }
+      long wait;
+      while (running && (wait = next - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+    }
+    for (Match match : matches) {
+      match.close();
+    }
+  }
+
+  private void startIncoming() {
+    for (Match match; (match = incoming.poll()) != null; ) {
+      try {
+        match.start(generation);
+        matches.add(match);
+      } catch (RuntimeException e) {
+        System.out.println("Failed to start match " + match.id + ": " + e);
+        matchCount.decrementAndGet();
+        server.remove(match);
+      }
+    }
+  }
+
+  private void sendState(Match match) {
+    HeadlessGame game = match.getGame();
+    out.clear();
+    out.put(BattleProtocol.STATE);
+    out.putInt(match.id);
+    out.putInt((int) game.getTickCount());
+    out.put((byte) game.getAliveCount(0));
+    out.put((byte) game.getAliveCount(1));
+    out.putLong(game.checksum());
+    out.flip();
+    server.send(out, match.owner);
+  }
+
+  private void end(Match match) {
+    HeadlessGame game = match.getGame();
+    out.clear();
+    out.put(BattleProtocol.END);
+    out.putInt(match.id);
+    out.putInt((int) game.getTickCount());
+    out.put((byte) game.getWinner());
+    out.putLong(game.checksum());
+    out.putLong(match.tickNanos.percentile(0.5));
+    out.putLong(match.tickNanos.percentile(0.99));
+    out.putLong(match.tickNanos.getMax());
+    out.flip();
+    server.send(out, match.owner);
+
+    match.close();
+    matchCount.decrementAndGet();
+    server.remove(match);
+  }
+
+  void stop() {
+    running = false;
+  }
+
+  /** Matches on the shard, including those not started yet. */
+  int getMatchCount() {
+    return matchCount.get();
+  }
+
+  long getTicks() {
+    return ticks;
+  }
+
+  long getBusyNanos() {
+    return busyNanos;
+  }
+
+  /** Ticks that started over a tick late, because the previous one overran. */
+  long getLateTicks() {
+    return lateTicks;
+  }
+
+  /** Match tick durations over the last full second. */
+  LatencyHistogram getTickNanos() {
+    return publishedTickNanos;
+  }
+}
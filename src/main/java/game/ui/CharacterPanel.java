@@ -0,0 +1,116 @@
+package game.ui;
+
+import engine.text.TextBuilder;
+import engine.ui.UIBuilder;
+import engine.ui.UIPanel;
+import game.combat.Ability;
+import game.entity.Character;
+
+/**
+ * Shows a character's resources, base stats and ability slots.
+ */
+public class CharacterPanel extends UIPanel {
+  private static final float SCALE = 0.6f;
+  private static final float LINE = 18;
+
+  private Character character;
+  private final TextBuilder text = new TextBuilder(64);
+
+  public CharacterPanel(float x, float y) {
+    super(x, y, 280, 300);
+  }
+
+  public void setCharacter(Character character) {
+    if (this.character != character) {
+      this.character = character;
+      invalidate();
+    }
+  }
+
+  @Override
+  protected long computeVersion() {
+    if (character == null) {
+      return 0;
+    }
+    // Switching characters invalidates the panel, so only its values are hashed
+    Character c = character;
+    long h = c.getLevel();
+    h = mix(h, c.getHealthPoints(), 1);
+    h = mix(h, c.getMaxHealthPoints(), 1);
+    h = mix(h, c.getResourcePoints(), 1);
+    h = mix(h, c.getMaxResourcePoints(), 1);
+    h = mix(h, c.getStrengthPoints());
+    h = mix(h, c.getStaminaPoints());
+    h = mix(h, c.getAgilityPoints());
+    h = mix(h, c.getIntelligencePoints());
+    h = mix(h, c.getWisdomPoints());
+    h = mix(h, c.getTalentPoints());
+    h = mix(h, c.getUltimateChargePoints());
+    for (Ability ability : c.getRegularAbilities()) {
+      h = mix(h, ability.getRemainingCooldown(), 0.1);
+    }
+    return h;
+  }
+
+  @Override
+  protected void build(UIBuilder ui) {
+    ui.rect(0, 0, getWidth(), getHeight(), 0.08f, 0.08f, 0.12f, 0.85f);
+    if (character == null) {
+      ui.label("No character selected", 10, 10, SCALE, 0.7f, 0.7f, 0.7f);
+      return;
+    }
+    Character c = character;
+    float y = 8;
+
+    text.clear().append(c.getCharacterName()).append("  Lv ").append(c.getLevel());
+    ui.label(text, 10, y, 0.75f, 1, 1, 1);
+    y += LINE + 6;
+
+    // Resource bars
+    y = bar(ui, y, "HP", c.getHealthPoints(), c.getMaxHealthPoints(), 0.75f, 0.2f, 0.2f);
+    y = bar(ui, y, c.getResourceName(), c.getResourcePoints(), c.getMaxResourcePoints(), 0.2f, 0.4f, 0.8f);
+    y = bar(ui, y, "Ultimate", c.getUltimateChargePoints(), 100, 0.85f, 0.7f, 0.2f);
+    y += 4;
+
+    // Base stats
+    y = stat(ui, y, "Strength", c.getStrengthPoints());
+    y = stat(ui, y, "Stamina", c.getStaminaPoints());
+    y = stat(ui, y, "Agility", c.getAgilityPoints());
+    y = stat(ui, y, "Intelligence", c.getIntelligencePoints());
+    y = stat(ui, y, "Wisdom", c.getWisdomPoints());
+    y = stat(ui, y, "Talent points", c.getTalentPoints());
+    y += 4;
+
+    // Ability slots
+    for (int slot = 0; slot < 3; slot++) {
+      text.clear().append(slot + 1).append(". ");
+      if (slot < c.getRegularAbilities().size()) {
+        Ability ability = c.getRegularAbilities().get(slot);
+        text.append(ability.getName());
+        if (ability.isOnCooldown()) {
+          text.append(" (").append(ability.getRemainingCooldown(), 1).append("s)");
+        }
+      } else {
+        text.append("-");
+      }
+      ui.label(text, 10, y, SCALE, 0.85f, 0.85f, 0.85f);
+      y += LINE;
+    }
+  }
+
+  private float bar(UIBuilder ui, float y, String name, double value, double max, float r, float g, float b) {
+    float width = getWidth() - 20;
+    float fill = max > 0 ? (float) Math.max(0, Math.min(1, value / max)) : 0;
+    ui.rect(10, y, width, LINE - 2, 0.2f, 0.2f, 0.2f, 1);
+    ui.rect(10, y, width * fill, LINE - 2, r, g, b, 1);
+    text.clear().append(name).append(' ').append(Math.round(value)).append(" / ").append(Math.round(max));
+    ui.label(text, 14, y, 0.5f, 1, 1, 1);
+    return y + LINE;
+  }
+
+  private float stat(UIBuilder ui, float y, String name, int value) {
+    text.clear().append(name).append(": ").append(value);
+    ui.label(text, 10, y, SCALE, 0.9f, 0.9f, 0.9f);
+    return y + LINE - 2;
+  }
+}
@@ -0,0 +1,105 @@
+package game.ui;
+
+import engine.text.TextBuilder;
+import engine.ui.UIBuilder;
+import engine.ui.UIPanel;
+import game.entity.Character;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Paged list of characters. Only the rows on the current page contribute to
+ * the panel's version, so large rosters cost nothing while idle.
+ */
+public class RosterPanel extends UIPanel {
+  private static final float ROW_HEIGHT = 24;
+  private static final int PREVIOUS_PAGE = -2;
+  private static final int NEXT_PAGE = -3;
+
+  private final List<Character> roster;
+  private final Consumer<Character> onSelect;
+  private final int rowsPerPage;
+  private int page = 0;
+  private Character selected;
+
+  // Characters the panel was last built with, compared by reference; any
+  // change bumps rowsChanged, which feeds the version
+  private final Character[] shownRows;
+  private Character shownSelected;
+  private long rowsChanged = 0;
+
+  private final TextBuilder text = new TextBuilder(48);
+
+  public RosterPanel(float x, float y, int rowsPerPage, List<Character> roster, Consumer<Character> onSelect) {
+    super(x, y, 260, rowsPerPage * ROW_HEIGHT + 44);
+    this.roster = roster;
+    this.onSelect = onSelect;
+    this.rowsPerPage = rowsPerPage;
+    this.shownRows = new Character[rowsPerPage];
+  }
+
+  @Override
+  protected long computeVersion() {
+    int start = page * rowsPerPage;
+    int end = Math.min(roster.size(), start + rowsPerPage);
+    if (selected != shownSelected) {
+      shownSelected = selected;
+      rowsChanged++;
+    }
+    for (int row = 0; row < rowsPerPage; row++) {
+      Character c = start + row < end ? roster.get(start + row) : null;
+      if (c != shownRows[row]) {
+        shownRows[row] = c;
+        rowsChanged++;
+      }
+    }
+
+    long h = mix(roster.size(), page);
+    h = mix(h, rowsChanged);
+    for (int i = start; i < end; i++) {
+      Character c = roster.get(i);
+      h = mix(h, c.getLevel());
+      h = mix(h, c.getHealthPoints(), 1);
+    }
+    return h;
+  }
+
+  @Override
+  protected void build(UIBuilder ui) {
+    ui.rect(0, 0, getWidth(), getHeight(), 0.08f, 0.08f, 0.12f, 0.85f);
+
+    int start = page * rowsPerPage;
+    int end = Math.min(roster.size(), start + rowsPerPage);
+    float y = 6;
+    for (int i = start; i < end; i++) {
+      Character c = roster.get(i);
+      if (c == selected) {
+        ui.rect(4, y - 2, getWidth() - 8, ROW_HEIGHT, 0.3f, 0.3f, 0.15f, 1);
+      }
+      text.clear().append(c.getCharacterName()).append("  Lv ").append(c.getLevel())
+          .append("  ").append(Math.round(c.getHealthPoints())).append(" HP");
+      ui.button(i, text, 6, y, getWidth() - 12, ROW_HEIGHT - 4, true);
+      y += ROW_HEIGHT;
+    }
+
+    float footer = getHeight() - 30;
+    int pages = Math.max(1, (roster.size() + rowsPerPage - 1) / rowsPerPage);
+    ui.button(PREVIOUS_PAGE, "<", 6, footer, 30, 24, page > 0);
+    ui.button(NEXT_PAGE, ">", getWidth() - 36, footer, 30, 24, page < pages - 1);
+    text.clear().append(page + 1).append(" / ").append(pages);
+    ui.label(text, getWidth() / 2 - 20, footer + 2, 0.6f, 0.8f, 0.8f, 0.8f);
+  }
+
+  @Override
+  protected void onButton(int id) {
+    if (id == PREVIOUS_PAGE) {
+      page--;
+    } else if (id == NEXT_PAGE) {
+      page++;
+    } else if (id >= 0 && id < roster.size()) {
+      selected = roster.get(id);
+      onSelect.accept(selected);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package game.ui;
+
+import engine.text.TextBuilder;
+import engine.ui.UIBuilder;
+import engine.ui.UIPanel;
+import game.entity.Character;
+import game.entity.Talent;
+import game.entity.TalentTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows a character's talent tree tier by tier and unlocks talents on click.
+ */
+public class TalentTreePanel extends UIPanel {
+  private static final float BUTTON_WIDTH = 170;
+  private static final float BUTTON_HEIGHT = 26;
+  private static final float ROW_HEIGHT = 40;
+
+  private Character character;
+  private final TextBuilder text = new TextBuilder(32);
+
+  // Talents in button id order, rebuilt with the panel
+  private final List<Talent> buttonTalents = new ArrayList<>();
+
+  public TalentTreePanel(float x, float y) {
+    super(x, y, 560, 240);
+  }
+
+  public void setCharacter(Character character) {
+    if (this.character != character) {
+      this.character = character;
+      invalidate();
+    }
+  }
+
+  @Override
+  protected long computeVersion() {
+    if (character == null) {
+      return 0;
+    }
+    // setCharacter forces a rebuild, so the character itself needn't be in the version
+    long h = character.getTalentPoints();
+    h = mix(h, character.getTalentTree().getUnlockedMask());
+    return h;
+  }
+
+  @Override
+  protected void build(UIBuilder ui) {
+    ui.rect(0, 0, getWidth(), getHeight(), 0.08f, 0.08f, 0.12f, 0.85f);
+    buttonTalents.clear();
+    if (character == null) {
+      return;
+    }
+
+    TalentTree tree = character.getTalentTree();
+    float y = 10;
+    for (Map.Entry<Integer, List<Talent>> tier : tree.getTiers().entrySet()) {
+      float x = 10;
+      for (Talent talent : tier.getValue()) {
+        boolean active = tree.isUnlocked(talent);
+        boolean unlockable = talent.getCurrentRank() < talent.getMaxRank()
+            && character.getTalentPoints() > 0 && tree.canUnlockTalent(talent);
+
+        int id = buttonTalents.size();
+        buttonTalents.add(talent);
+        if (active) {
+          ui.rect(x - 2, y - 2, BUTTON_WIDTH + 4, BUTTON_HEIGHT + 4, 0.8f, 0.65f, 0.2f, 1);
+        }
+        text.clear().append(talent.getName()).append(' ')
+            .append(talent.getCurrentRank()).append('/').append(talent.getMaxRank());
+        ui.button(id, text, x, y, BUTTON_WIDTH, BUTTON_HEIGHT, unlockable);
+        x += BUTTON_WIDTH + 10;
+      }
+      y += ROW_HEIGHT;
+    }
+  }
+
+  @Override
+  protected void onButton(int id) {
+    if (character != null && id < buttonTalents.size()) {
+      character.unlockTalent(buttonTalents.get(id));
+    }
+  }
+}
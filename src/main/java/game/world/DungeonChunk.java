@@ -0,0 +1,167 @@
+package game.world;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size parallelogram of hex cells: q in [chunkX * SIZE, chunkX * SIZE
+ * + SIZE) and r likewise for chunkY. Holds the tiles, the rooms they were
+ * carved from, and enemy and loot spawns. Chunks are immutable once the
+ * generator hands them out, so they can be read from any thread.
+ */
+public class DungeonChunk {
+  public static final int SIZE = 32;
+  public static final int CELLS = SIZE * SIZE;
+
+  private final int chunkX;
+  private final int chunkY;
+  final byte[] tiles = new byte[CELLS];
+
+  // Rooms as hexagons: center cell and radius, in local coordinates
+  int roomCount = 0;
+  int[] roomQ = new int[8], roomR = new int[8], roomRadius = new int[8];
+
+  // Spawns: local cell index, kind ordinal and level
+  int spawnCount = 0;
+  int[] spawnCell = new int[16];
+  byte[] spawnKind = new byte[16];
+  int[] spawnLevel = new int[16];
+
+  DungeonChunk(int chunkX, int chunkY) {
+    this.chunkX = chunkX;
+    this.chunkY = chunkY;
+  }
+
+  /** Key of the chunk holding a cell, for maps of chunks. */
+  public static long keyOfCell(int q, int r) {
+    return key(Math.floorDiv(q, SIZE), Math.floorDiv(r, SIZE));
+  }
+
+  public static long key(int chunkX, int chunkY) {
+    return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+  }
+
+  /** Tile at local coordinates (0 to SIZE - 1). */
+  public TileType getLocalTile(int localQ, int localR) {
+    return TileType.VALUES[tiles[localR * SIZE + localQ]];
+  }
+
+  /** Tile at world coordinates, which must lie in this chunk. */
+  public TileType getTile(int q, int r) {
+    return getLocalTile(q - chunkX * SIZE, r - chunkY * SIZE);
+  }
+
+  void addRoom(int q, int r, int radius) {
+    if (roomCount == roomQ.length) {
+      roomQ = Arrays.copyOf(roomQ, roomCount * 2);
+      roomR = Arrays.copyOf(roomR, roomCount * 2);
+      roomRadius = Arrays.copyOf(roomRadius, roomCount * 2);
+    }
+    roomQ[roomCount] = q;
+    roomR[roomCount] = r;
+    roomRadius[roomCount] = radius;
+    roomCount++;
+  }
+
+  void addSpawn(int cell, SpawnKind kind, int level) {
+    if (spawnCount == spawnCell.length) {
+      spawnCell = Arrays.copyOf(spawnCell, spawnCount * 2);
+      spawnKind = Arrays.copyOf(spawnKind, spawnCount * 2);
+      spawnLevel = Arrays.copyOf(spawnLevel, spawnCount * 2);
+    }
+    spawnCell[spawnCount] = cell;
+    spawnKind[spawnCount] = (byte) kind.ordinal();
+    spawnLevel[spawnCount] = level;
+    spawnCount++;
+  }
+
+  /** Whether a cell already holds a spawn. */
+  boolean hasSpawnAt(int cell) {
+    for (int i = 0; i < spawnCount; i++) {
+      if (spawnCell[i] == cell) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Hash of the tiles, rooms and spawns. Equal chunks from the same seed have
+   * equal checksums however many threads generated them.
+   */
+  public long checksum() {
+    long h = key(chunkX, chunkY);
+    for (byte tile : tiles) {
+      h = h * 31 + tile;
+    }
+    for (int i = 0; i < roomCount; i++) {
+      h = h * 31 + roomQ[i];
+      h = h * 31 + roomR[i];
+      h = h * 31 + roomRadius[i];
+    }
+    for (int i = 0; i < spawnCount; i++) {
+      h = h * 31 + spawnCell[i];
+      h = h * 31 + spawnKind[i];
+      h = h * 31 + spawnLevel[i];
+    }
+    return h;
+  }
+
+  public int getChunkX() {
+    return chunkX;
+  }
+
+  public int getChunkY() {
+    return chunkY;
+  }
+
+  /** World q of the chunk's first column. */
+  public int getOriginQ() {
+    return chunkX * SIZE;
+  }
+
+  /** World r of the chunk's first row. */
+  public int getOriginR() {
+    return chunkY * SIZE;
+  }
+
+  public int getRoomCount() {
+    return roomCount;
+  }
+
+  /** World q of a room's center. */
+  public int getRoomQ(int room) {
+    return getOriginQ() + roomQ[room];
+  }
+
+  /** World r of a room's center. */
+  public int getRoomR(int room) {
+    return getOriginR() + roomR[room];
+  }
+
+  public int getRoomRadius(int room) {
+    return roomRadius[room];
+  }
+
+  public int getSpawnCount() {
+    return spawnCount;
+  }
+
+  public SpawnKind getSpawnKind(int spawn) {
+    return SpawnKind.VALUES[spawnKind[spawn]];
+  }
+
+  /** World q of a spawn. */
+  public int getSpawnQ(int spawn) {
+    return getOriginQ() + spawnCell[spawn] % SIZE;
+  }
+
+  /** World r of a spawn. */
+  public int getSpawnR(int spawn) {
+    return getOriginR() + spawnCell[spawn] / SIZE;
+  }
+
+  /** Enemy level, or loot tier. */
+  public int getSpawnLevel(int spawn) {
+    return spawnLevel[spawn];
+  }
+}
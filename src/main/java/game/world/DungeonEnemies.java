@@ -0,0 +1,128 @@
+package game.world;
+
+import engine.renderer.InstancedSpriteGroup;
+import engine.renderer.RenderLayer;
+import engine.renderer.Renderer;
+import engine.renderer.Sprite;
+import engine.renderer.Texture;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Enemies waiting at their spawn points on the loaded part of a floor. A
+ * floor holds hundreds of them sharing the warrior sprite, so they are drawn
+ * as one {@link InstancedSpriteGroup}: a single draw call however many are
+ * on screen. An enemy is in the group only while the team can see its cell.
+ */
+public class DungeonEnemies {
+  private static final String SPRITE_PATH = "characters/warrior.png";
+  private static final float SIZE = 64;
+
+  private final DungeonStreamer dungeon;
+  private final VisibilitySystem visibility;
+  private final int team;
+  private final InstancedSpriteGroup group;
+
+  // Enemies of each loaded chunk, by chunk key
+  private final Map<Long, ChunkEnemies> chunks = new HashMap<>();
+
+  private static final class ChunkEnemies {
+    final Sprite[] sprites;
+    final int[] q, r;
+    final boolean[] shown;
+
+    ChunkEnemies(int count) {
+      sprites = new Sprite[count];
+      q = new int[count];
+      r = new int[count];
+      shown = new boolean[count];
+    }
+  }
+
+  /**
+   * @param dungeon    The floor whose enemies are shown
+   * @param visibility Fog of war
+   * @param team       Team whose view is drawn
+   * @param renderer   Renderer drawing the enemy group
+   */
+  public DungeonEnemies(DungeonStreamer dungeon, VisibilitySystem visibility, int team, Renderer renderer) {
+    this.dungeon = dungeon;
+    this.visibility = visibility;
+    this.team = team;
+    this.group = new InstancedSpriteGroup(Texture.getTexture(SPRITE_PATH));
+    renderer.addGroup(group);
+  }
+
+  /**
+   * Follow chunks loading and unloading and show the enemies the team can
+   * see. Call after the dungeon and visibility have been updated.
+   */
+  public void update() {
+    Iterator<Map.Entry<Long, ChunkEnemies>> loaded = chunks.entrySet().iterator();
+    while (loaded.hasNext()) {
+      Map.Entry<Long, ChunkEnemies> entry = loaded.next();
+      long key = entry.getKey();
+      if (dungeon.getChunk((int) (key >> 32), (int) key) == null) {
+        for (Sprite sprite : entry.getValue().sprites) {
+          group.remove(sprite);
+        }
+        loaded.remove();
+      }
+    }
+
+    for (DungeonChunk chunk : dungeon.getLoadedChunks()) {
+      long key = DungeonChunk.key(chunk.getChunkX(), chunk.getChunkY());
+      ChunkEnemies enemies = chunks.get(key);
+      if (enemies == null) {
+        enemies = createEnemies(chunk);
+        chunks.put(key, enemies);
+      }
+      for (int i = 0; i < enemies.sprites.length; i++) {
+        boolean visible = visibility.isVisible(team, enemies.q[i], enemies.r[i]);
+        if (visible != enemies.shown[i]) {
+          enemies.shown[i] = visible;
+          if (visible) {
+            group.add(enemies.sprites[i]);
+          } else {
+            group.remove(enemies.sprites[i]);
+          }
+        }
+      }
+    }
+  }
+
+  /** Enemies the team can currently see. */
+  public int getVisibleCount() {
+    return group.getSpriteCount();
+  }
+
+  private ChunkEnemies createEnemies(DungeonChunk chunk) {
+    int count = 0;
+    for (int spawn = 0; spawn < chunk.getSpawnCount(); spawn++) {
+      if (chunk.getSpawnKind(spawn) == SpawnKind.ENEMY) {
+        count++;
+      }
+    }
+
+    ChunkEnemies enemies = new ChunkEnemies(count);
+    int i = 0;
+    for (int spawn = 0; spawn < chunk.getSpawnCount(); spawn++) {
+      if (chunk.getSpawnKind(spawn) != SpawnKind.ENEMY) {
+        continue;
+      }
+      int q = chunk.getSpawnQ(spawn), r = chunk.getSpawnR(spawn);
+      Sprite sprite = new Sprite(group.getTexture(), Hex.toPixelX(q, r) - SIZE / 2, Hex.toPixelY(q, r) - SIZE / 2,
+          SIZE, SIZE);
+      sprite.setLayer(RenderLayer.CHARACTERS);
+      sprite.setColor(0.8f, 0.2f, 0.2f, 1.0f); // Enemy red
+
+      enemies.sprites[i] = sprite;
+      enemies.q[i] = q;
+      enemies.r[i] = r;
+      i++;
+    }
+    return enemies;
+  }
+}
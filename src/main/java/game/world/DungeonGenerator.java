@@ -0,0 +1,176 @@
+package game.world;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of endless hex dungeon floors made of rooms and corridors.
+ * <p>
+ * Each chunk is generated from its own seed, derived from the floor seed and
+ * the chunk coordinates, so a chunk comes out the same whatever order or
+ * thread it is generated on. Neighboring chunks agree on where corridors
+ * cross their shared edge through a seed per edge, which keeps the floor
+ * connected without either chunk looking at the other.
+ */
+public class DungeonGenerator {
+  private static final int MIN_ROOMS = 3, MAX_ROOMS = 6;
+  private static final int MIN_ROOM_RADIUS = 2, MAX_ROOM_RADIUS = 4;
+  private static final int LOOT_PERCENT = 35;
+  private static final int PLACEMENT_ATTEMPTS = 8;
+  // Chunks from the start before enemy levels go up by one
+  private static final int CHUNKS_PER_LEVEL = 2;
+
+  // Tags mixed into seeds so chunk and edge streams don't overlap
+  private static final long CHUNK_TAG = 0x243F6A8885A308D3L;
+  private static final long EAST_EDGE_TAG = 0x13198A2E03707344L;
+  private static final long SOUTH_EDGE_TAG = 0xA4093822299F31D0L;
+
+  private final long seed;
+  private final int floor;
+
+  /**
+   * @param seed  Seed of the whole dungeon
+   * @param floor Floor number, starting at 1; deeper floors have stronger enemies
+   */
+  public DungeonGenerator(long seed, int floor) {
+    this.seed = seed;
+    this.floor = floor;
+  }
+
+  /**
+   * Generate one chunk. Safe to call from several threads at once.
+   *
+   * @param chunkX Chunk column
+   * @param chunkY Chunk row
+   * @return The new chunk
+   */
+  public DungeonChunk generate(int chunkX, int chunkY) {
+    DungeonChunk chunk = new DungeonChunk(chunkX, chunkY);
+    SplittableRandom random = new SplittableRandom(mix(CHUNK_TAG, chunkX, chunkY));
+    int[] lineQ = new int[DungeonChunk.SIZE * 2 + 1];
+    int[] lineR = new int[DungeonChunk.SIZE * 2 + 1];
+
+    // Rooms, each joined to the previous one so the chunk is connected
+    int rooms = random.nextInt(MIN_ROOMS, MAX_ROOMS + 1);
+    for (int i = 0; i < rooms; i++) {
+      int radius = random.nextInt(MIN_ROOM_RADIUS, MAX_ROOM_RADIUS + 1);
+      int q = random.nextInt(radius + 1, DungeonChunk.SIZE - radius - 1);
+      int r = random.nextInt(radius + 1, DungeonChunk.SIZE - radius - 1);
+      carveRoom(chunk, q, r, radius);
+      if (i > 0) {
+        carveCorridor(chunk, chunk.roomQ[i - 1], chunk.roomR[i - 1], q, r, lineQ, lineR);
+      }
+      chunk.addRoom(q, r, radius);
+    }
+
+    // Corridors out through each edge, at the spot the neighbor also uses
+    int last = DungeonChunk.SIZE - 1;
+    connectEdge(chunk, last, edgePortal(EAST_EDGE_TAG, chunkX, chunkY), lineQ, lineR);
+    connectEdge(chunk, 0, edgePortal(EAST_EDGE_TAG, chunkX - 1, chunkY), lineQ, lineR);
+    connectEdge(chunk, edgePortal(SOUTH_EDGE_TAG, chunkX, chunkY), last, lineQ, lineR);
+    connectEdge(chunk, edgePortal(SOUTH_EDGE_TAG, chunkX, chunkY - 1), 0, lineQ, lineR);
+
+    placeSpawns(chunk, random);
+    return chunk;
+  }
+
+  private void carveRoom(DungeonChunk chunk, int q, int r, int radius) {
+    for (int dq = -radius; dq <= radius; dq++) {
+      int minDr = Math.max(-radius, -dq - radius);
+      int maxDr = Math.min(radius, -dq + radius);
+      for (int dr = minDr; dr <= maxDr; dr++) {
+        chunk.tiles[(r + dr) * DungeonChunk.SIZE + q + dq] = (byte) TileType.FLOOR.ordinal();
+      }
+    }
+  }
+
+  private void carveCorridor(DungeonChunk chunk, int q1, int r1, int q2, int r2, int[] lineQ, int[] lineR) {
+    int count = Hex.line(q1, r1, q2, r2, lineQ, lineR);
+    for (int i = 0; i < count; i++) {
+      int q = lineQ[i], r = lineR[i];
+      if (q < 0 || q >= DungeonChunk.SIZE || r < 0 || r >= DungeonChunk.SIZE) {
+        continue;
+      }
+      int cell = r * DungeonChunk.SIZE + q;
+      if (chunk.tiles[cell] == TileType.WALL.ordinal()) {
+        chunk.tiles[cell] = (byte) TileType.CORRIDOR.ordinal();
+      }
+    }
+  }
+
+  /** Join an edge cell to the nearest room. */
+  private void connectEdge(DungeonChunk chunk, int q, int r, int[] lineQ, int[] lineR) {
+    int nearest = 0;
+    int nearestDistance = Integer.MAX_VALUE;
+    for (int i = 0; i < chunk.roomCount; i++) {
+      int distance = Hex.distance(q, r, chunk.roomQ[i], chunk.roomR[i]);
+      if (distance < nearestDistance) {
+        nearestDistance = distance;
+        nearest = i;
+      }
+    }
+    carveCorridor(chunk, q, r, chunk.roomQ[nearest], chunk.roomR[nearest], lineQ, lineR);
+  }
+
+  /** Position along an edge where its corridor crosses, away from the corners. */
+  private int edgePortal(long tag, int chunkX, int chunkY) {
+    return 2 + (int) Long.remainderUnsigned(mix(tag, chunkX, chunkY), DungeonChunk.SIZE - 4);
+  }
+
+  private void placeSpawns(DungeonChunk chunk, SplittableRandom random) {
+    int chunkDistance = Hex.distance(0, 0, chunk.getChunkX(), chunk.getChunkY());
+    int level = floor + chunkDistance / CHUNKS_PER_LEVEL;
+    boolean startChunk = chunk.getChunkX() == 0 && chunk.getChunkY() == 0;
+
+    for (int room = 0; room < chunk.roomCount; room++) {
+      int radius = chunk.roomRadius[room];
+      // The first room of the start chunk is where the party enters
+      if (!(startChunk && room == 0)) {
+        int enemies = radius - 1 + random.nextInt(radius);
+        for (int e = 0; e < enemies; e++) {
+          placeInRoom(chunk, room, SpawnKind.ENEMY, level + random.nextInt(2), random);
+        }
+      }
+      if (random.nextInt(100) < LOOT_PERCENT) {
+        // Tier 0 common, 1 rare, 2 epic
+        int roll = random.nextInt(100);
+        int tier = roll < 70 ? 0 : (roll < 95 ? 1 : 2);
+        placeInRoom(chunk, room, SpawnKind.LOOT, tier, random);
+      }
+    }
+  }
+
+  private void placeInRoom(DungeonChunk chunk, int room, SpawnKind kind, int level, SplittableRandom random) {
+    int radius = chunk.roomRadius[room];
+    for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+      int dq = random.nextInt(-radius, radius + 1);
+      int dr = random.nextInt(Math.max(-radius, -dq - radius), Math.min(radius, -dq + radius) + 1);
+      int cell = (chunk.roomR[room] + dr) * DungeonChunk.SIZE + chunk.roomQ[room] + dq;
+      if (chunk.tiles[cell] == TileType.FLOOR.ordinal() && !chunk.hasSpawnAt(cell)) {
+        chunk.addSpawn(cell, kind, level);
+        return;
+      }
+    }
+  }
+
+  /** Seed for a chunk or edge: a SplitMix64 finalizer over the inputs. */
+  private long mix(long tag, int chunkX, int chunkY) {
+    long h = seed ^ tag;
+    h = finalizeMix(h + floor);
+    h = finalizeMix(h + chunkX);
+    return finalizeMix(h + chunkY);
+  }
+
+  private static long finalizeMix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public int getFloor() {
+    return floor;
+  }
+}
@@ -0,0 +1,155 @@
+package game.world;
+
+import engine.renderer.RenderLayer;
+import engine.renderer.Renderer;
+import engine.renderer.Sprite;
+import engine.renderer.Texture;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Loot lying on the loaded part of a floor. Props are static sprites, so
+ * the renderer keeps their quads in retained buffers instead of streaming
+ * them every frame. Under the fog of war a prop is hidden until its cell is
+ * explored and dimmed while the team can't see it; both are color changes,
+ * which re-upload only that prop's quad.
+ */
+public class DungeonProps {
+  private static final float SIZE = 24;
+  private static final int TEXTURE_SIZE = 32;
+  private static final float VISIBLE_BRIGHTNESS = 1.0f;
+  private static final float EXPLORED_BRIGHTNESS = 0.4f;
+
+  // Tint per loot tier: common, rare, epic
+  private static final float[][] TIER_COLORS = {
+      { 0.85f, 0.7f, 0.35f },
+      { 0.35f, 0.55f, 1.0f },
+      { 0.75f, 0.35f, 0.95f }
+  };
+
+  private final DungeonStreamer dungeon;
+  private final VisibilitySystem visibility;
+  private final int team;
+  private final Renderer renderer;
+  private final Texture texture;
+
+  // Props of each loaded chunk, by chunk key
+  private final Map<Long, ChunkProps> chunks = new HashMap<>();
+
+  private static final class ChunkProps {
+    final Sprite[] sprites;
+    final int[] q, r, tier;
+    final float[] brightness;
+
+    ChunkProps(int count) {
+      sprites = new Sprite[count];
+      q = new int[count];
+      r = new int[count];
+      tier = new int[count];
+      brightness = new float[count];
+    }
+  }
+
+  /**
+   * @param dungeon    The floor whose loot is shown
+   * @param visibility Fog of war
+   * @param team       Team whose view is drawn
+   * @param renderer   Renderer receiving the prop sprites
+   */
+  public DungeonProps(DungeonStreamer dungeon, VisibilitySystem visibility, int team, Renderer renderer) {
+    this.dungeon = dungeon;
+    this.visibility = visibility;
+    this.team = team;
+    this.renderer = renderer;
+    this.texture = createTexture();
+  }
+
+  /**
+   * Follow chunks loading and unloading and update prop brightness. Call
+   * after the dungeon and visibility have been updated.
+   */
+  public void update() {
+    Iterator<Map.Entry<Long, ChunkProps>> loaded = chunks.entrySet().iterator();
+    while (loaded.hasNext()) {
+      Map.Entry<Long, ChunkProps> entry = loaded.next();
+      long key = entry.getKey();
+      if (dungeon.getChunk((int) (key >> 32), (int) key) == null) {
+        for (Sprite sprite : entry.getValue().sprites) {
+          renderer.remove(sprite);
+        }
+        loaded.remove();
+      }
+    }
+
+    for (DungeonChunk chunk : dungeon.getLoadedChunks()) {
+      long key = DungeonChunk.key(chunk.getChunkX(), chunk.getChunkY());
+      ChunkProps props = chunks.get(key);
+      if (props == null) {
+        props = createProps(chunk);
+        chunks.put(key, props);
+      }
+      for (int i = 0; i < props.sprites.length; i++) {
+        float brightness = visibility.isVisible(team, props.q[i], props.r[i]) ? VISIBLE_BRIGHTNESS
+            : (visibility.isExplored(team, props.q[i], props.r[i]) ? EXPLORED_BRIGHTNESS : 0);
+        if (brightness != props.brightness[i]) {
+          props.brightness[i] = brightness;
+          float[] color = TIER_COLORS[props.tier[i]];
+          props.sprites[i].setColor(color[0] * brightness, color[1] * brightness, color[2] * brightness,
+              brightness > 0 ? 1 : 0);
+        }
+      }
+    }
+  }
+
+  private ChunkProps createProps(DungeonChunk chunk) {
+    int count = 0;
+    for (int spawn = 0; spawn < chunk.getSpawnCount(); spawn++) {
+      if (chunk.getSpawnKind(spawn) == SpawnKind.LOOT) {
+        count++;
+      }
+    }
+
+    ChunkProps props = new ChunkProps(count);
+    int i = 0;
+    for (int spawn = 0; spawn < chunk.getSpawnCount(); spawn++) {
+      if (chunk.getSpawnKind(spawn) != SpawnKind.LOOT) {
+        continue;
+      }
+      int q = chunk.getSpawnQ(spawn), r = chunk.getSpawnR(spawn);
+      Sprite sprite = new Sprite(texture, Hex.toPixelX(q, r) - SIZE / 2, Hex.toPixelY(q, r) - SIZE / 2, SIZE, SIZE);
+      sprite.setLayer(RenderLayer.PROPS);
+      // Hidden until explored
+      sprite.setColor(0, 0, 0, 0);
+      sprite.setStatic(true);
+      renderer.add(sprite);
+
+      props.sprites[i] = sprite;
+      props.q[i] = q;
+      props.r[i] = r;
+      props.tier[i] = Math.min(chunk.getSpawnLevel(spawn), TIER_COLORS.length - 1);
+      i++;
+    }
+    return props;
+  }
+
+  /** A white diamond with a darker rim, tinted per tier, until there is prop art. */
+  private static Texture createTexture() {
+    int size = TEXTURE_SIZE;
+    ByteBuffer pixels = BufferUtils.createByteBuffer(size * size * 4);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        float nx = Math.abs((x + 0.5f) / size * 2 - 1);
+        float ny = Math.abs((y + 0.5f) / size * 2 - 1);
+        float edge = 1 - nx - ny;
+        byte shade = (byte) (edge < 0.15f ? 0xA0 : 0xFF);
+        pixels.put(shade).put(shade).put(shade).put((byte) (edge >= 0 ? 0xFF : 0));
+      }
+    }
+    pixels.flip();
+    return Texture.create("loot", pixels, size, size, true);
+  }
+}
@@ -0,0 +1,231 @@
+package game.world;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the chunks around a point generated, producing them on a background
+ * executor ahead of the player and dropping them once far behind. Dropped
+ * chunks regenerate identically if the player comes back.
+ * <p>
+ * All methods are called from the game thread; the executor only runs the
+ * generator, and finished chunks are handed back through a queue drained by
+ * {@link #update(int, int)}.
+ */
+public class DungeonStreamer implements OpacityMap, WalkableMap {
+  /** Chunks within this hex distance of the focus chunk are generated. */
+  public static final int LOAD_RADIUS = 2;
+  /** Chunks further than this are dropped. */
+  public static final int UNLOAD_RADIUS = 4;
+
+  private final DungeonGenerator generator;
+  private final ExecutorService executor;
+  private final boolean sharedExecutor;
+
+  private final Map<Long, DungeonChunk> loaded = new HashMap<>();
+  private final Collection<DungeonChunk> loadedView = Collections.unmodifiableCollection(loaded.values());
+  private final Map<Long, Future<?>> pending = new HashMap<>();
+  private final ConcurrentLinkedQueue<DungeonChunk> finished = new ConcurrentLinkedQueue<>();
+
+  private int focusX = Integer.MIN_VALUE, focusY = Integer.MIN_VALUE;
+  private long generatedChunks = 0;
+  private Consumer<DungeonChunk> loadListener;
+
+  /**
+   * @param generator Generator for the floor
+   * @param executor  Executor running the generation, see {@link #createExecutor(int)}
+   */
+  public DungeonStreamer(DungeonGenerator generator, ExecutorService executor) {
+    this(generator, executor, false);
+  }
+
+  /**
+   * @param generator      Generator for the floor
+   * @param executor       Executor running the generation
+   * @param sharedExecutor True if other streamers use the executor too, so
+   *                       {@link #close()} leaves it running
+   */
+  public DungeonStreamer(DungeonGenerator generator, ExecutorService executor, boolean sharedExecutor) {
+    this.generator = generator;
+    this.executor = executor;
+    this.sharedExecutor = sharedExecutor;
+  }
+
+  /** A pool of daemon threads for generation, so it never keeps the game alive. */
+  public static ExecutorService createExecutor(int threads) {
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, task -> {
+      Thread thread = new Thread(task, "dungeon-gen-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Collect finished chunks and, when the focus moves to another chunk,
+   * request the chunks now in range and drop those out of range.
+   *
+   * @param q World q of the focus, usually the party
+   * @param r World r of the focus
+   */
+  public void update(int q, int r) {
+    for (DungeonChunk chunk; (chunk = finished.poll()) != null; ) {
+      long key = DungeonChunk.key(chunk.getChunkX(), chunk.getChunkY());
+      // Skip chunks dropped while they were being generated
+      if (pending.remove(key) != null) {
+        onLoaded(key, chunk);
+      }
+    }
+
+    int chunkX = Math.floorDiv(q, DungeonChunk.SIZE);
+    int chunkY = Math.floorDiv(r, DungeonChunk.SIZE);
+    if (chunkX == focusX && chunkY == focusY) {
+      return;
+    }
+    focusX = chunkX;
+    focusY = chunkY;
+
+    // Nearest chunks first so the ones the player reaches next are ready first
+    for (int ring = 0; ring <= LOAD_RADIUS; ring++) {
+      for (int dy = -ring; dy <= ring; dy++) {
+        for (int dx = -ring; dx <= ring; dx++) {
+          if (Hex.distance(0, 0, dx, dy) == ring) {
+            request(chunkX + dx, chunkY + dy);
+          }
+        }
+      }
+    }
+
+    dropOutOfRange(loaded.entrySet().iterator(), false);
+    dropOutOfRange(pending.entrySet().iterator(), true);
+  }
+
+  private void request(int chunkX, int chunkY) {
+    long key = DungeonChunk.key(chunkX, chunkY);
+    if (!loaded.containsKey(key) && !pending.containsKey(key)) {
+      pending.put(key, executor.submit(() -> finished.add(generator.generate(chunkX, chunkY))));
+    }
+  }
+
+  private <V> void dropOutOfRange(Iterator<Map.Entry<Long, V>> entries, boolean cancel) {
+    while (entries.hasNext()) {
+      Map.Entry<Long, V> entry = entries.next();
+      long key = entry.getKey();
+      int chunkX = (int) (key >> 32), chunkY = (int) key;
+      if (Hex.distance(focusX, focusY, chunkX, chunkY) > UNLOAD_RADIUS) {
+        if (cancel) {
+          ((Future<?>) entry.getValue()).cancel(false);
+        }
+        entries.remove();
+      }
+    }
+  }
+
+  /**
+   * Add a chunk generated elsewhere, e.g. by a startup task before the
+   * streamer existed. Ignored if the chunk is already loaded.
+   */
+  public void addChunk(DungeonChunk chunk) {
+    long key = DungeonChunk.key(chunk.getChunkX(), chunk.getChunkY());
+    if (!loaded.containsKey(key)) {
+      Future<?> task = pending.remove(key);
+      if (task != null) {
+        task.cancel(false);
+      }
+      onLoaded(key, chunk);
+    }
+  }
+
+  /**
+   * Get a chunk, generating it on the calling thread if it isn't loaded yet.
+   * Used where the game can't continue without it, such as the start room.
+   */
+  public DungeonChunk getChunkNow(int chunkX, int chunkY) {
+    long key = DungeonChunk.key(chunkX, chunkY);
+    DungeonChunk chunk = loaded.get(key);
+    if (chunk == null) {
+      Future<?> task = pending.remove(key);
+      if (task != null) {
+        task.cancel(false);
+      }
+      chunk = generator.generate(chunkX, chunkY);
+      onLoaded(key, chunk);
+    }
+    return chunk;
+  }
+
+  private void onLoaded(long key, DungeonChunk chunk) {
+    loaded.put(key, chunk);
+    generatedChunks++;
+    if (loadListener != null) {
+      loadListener.accept(chunk);
+    }
+  }
+
+  /** Called on the game thread whenever a chunk becomes available. */
+  public void setLoadListener(Consumer<DungeonChunk> loadListener) {
+    this.loadListener = loadListener;
+  }
+
+  /** A loaded chunk, or null if it hasn't been generated yet. */
+  public DungeonChunk getChunk(int chunkX, int chunkY) {
+    return loaded.get(DungeonChunk.key(chunkX, chunkY));
+  }
+
+  /** Tile at world coordinates; cells of chunks that aren't loaded are walls. */
+  public TileType getTile(int q, int r) {
+    DungeonChunk chunk = loaded.get(DungeonChunk.keyOfCell(q, r));
+    return chunk != null ? chunk.getTile(q, r) : TileType.WALL;
+  }
+
+  /** Cells of chunks that aren't loaded count as walls. */
+  @Override
+  public boolean isOpaque(int q, int r) {
+    return getTile(q, r).isOpaque();
+  }
+
+  /** Cells of chunks that aren't loaded can't be entered. */
+  @Override
+  public boolean isWalkable(int q, int r) {
+    return getTile(q, r).isWalkable();
+  }
+
+  /** Loaded chunks, as a live read-only view. */
+  public Collection<DungeonChunk> getLoadedChunks() {
+    return loadedView;
+  }
+
+  /** Chunks requested but not collected yet. */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  /** Chunks collected since the streamer was created. */
+  public long getGeneratedChunks() {
+    return generatedChunks;
+  }
+
+  public DungeonGenerator getGenerator() {
+    return generator;
+  }
+
+  /** Cancel outstanding work and stop the executor unless it's shared. */
+  public void close() {
+    for (Future<?> task : pending.values()) {
+      task.cancel(false);
+    }
+    pending.clear();
+    if (!sharedExecutor) {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package game.world;
+
+import engine.renderer.Texture;
+import engine.renderer.TileAtlas;
+import engine.renderer.TileLayout;
+import engine.renderer.TileMapRenderer;
+import engine.renderer.TileSource;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Draws the loaded part of a dungeon floor as a chunked tile map, under one
+ * team's fog of war: cells the team sees are lit, cells it has explored
+ * are dimmed and unexplored cells aren't drawn. A chunk is rebuilt only
+ * when it loads or the team's visibility in it changes.
+ * <p>
+ * Walls are only drawn where they border a walkable cell; solid rock would
+ * otherwise make up most of the vertex data.
+ */
+public class DungeonView implements TileSource {
+  private static final float VISIBLE_BRIGHTNESS = 1.0f;
+  private static final float EXPLORED_BRIGHTNESS = 0.4f;
+  private static final int ATLAS_TILE_SIZE = 64;
+  private static final int WORDS = DungeonChunk.CELLS / 64;
+
+  private final DungeonStreamer dungeon;
+  private final VisibilitySystem visibility;
+  private final int team;
+  private final TileMapRenderer tileMap;
+
+  // Visible then explored bits of each shown chunk as last drawn
+  private final Map<Long, long[]> shownBits = new HashMap<>();
+
+  // Chunk of the last tile lookup; builds read a chunk cell by cell
+  private DungeonChunk lastChunk;
+
+  /**
+   * @param dungeon    The floor to draw
+   * @param visibility Fog of war
+   * @param team       Team whose view is drawn
+   */
+  public DungeonView(DungeonStreamer dungeon, VisibilitySystem visibility, int team) {
+    this.dungeon = dungeon;
+    this.visibility = visibility;
+    this.team = team;
+    TileAtlas atlas = new TileAtlas(createAtlasTexture(), TileType.VALUES.length, 1);
+    this.tileMap = new TileMapRenderer(this, atlas, TileLayout.HEX, Hex.CELL_SIZE, DungeonChunk.SIZE);
+  }
+
+  /**
+   * Follow chunks loading and unloading and mark chunks whose fog changed.
+   * Call after the dungeon and visibility have been updated.
+   */
+  public void update() {
+    lastChunk = null;
+
+    Iterator<Map.Entry<Long, long[]>> shown = shownBits.entrySet().iterator();
+    while (shown.hasNext()) {
+      long key = shown.next().getKey();
+      int chunkX = (int) (key >> 32), chunkY = (int) key;
+      if (dungeon.getChunk(chunkX, chunkY) == null) {
+        tileMap.removeChunk(chunkX, chunkY);
+        shown.remove();
+      }
+    }
+
+    for (DungeonChunk chunk : dungeon.getLoadedChunks()) {
+      int chunkX = chunk.getChunkX(), chunkY = chunk.getChunkY();
+      long key = DungeonChunk.key(chunkX, chunkY);
+      long[] bits = shownBits.get(key);
+      if (bits == null) {
+        bits = new long[WORDS * 2];
+        shownBits.put(key, bits);
+        tileMap.addChunk(chunkX, chunkY);
+        // Border walls of the neighbors may now face open cells
+        for (int dy = -1; dy <= 1; dy++) {
+          for (int dx = -1; dx <= 1; dx++) {
+            tileMap.markChunkDirty(chunkX + dx, chunkY + dy);
+          }
+        }
+      }
+      boolean changed = copyIfChanged(visibility.getVisibleBits(team, chunkX, chunkY), bits, 0);
+      changed |= copyIfChanged(visibility.getExploredBits(team, chunkX, chunkY), bits, WORDS);
+      if (changed) {
+        tileMap.markChunkDirty(chunkX, chunkY);
+      }
+    }
+  }
+
+  private static boolean copyIfChanged(long[] source, long[] target, int offset) {
+    boolean changed = false;
+    for (int w = 0; w < WORDS; w++) {
+      long word = source != null ? source[w] : 0;
+      if (target[offset + w] != word) {
+        target[offset + w] = word;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  @Override
+  public int getTile(int q, int r) {
+    DungeonChunk chunk = chunkAt(q, r);
+    if (chunk == null) {
+      return -1;
+    }
+    TileType tile = chunk.getTile(q, r);
+    if (tile == TileType.WALL && !bordersWalkable(q, r)) {
+      return -1;
+    }
+    return tile.ordinal();
+  }
+
+  @Override
+  public float getBrightness(int q, int r) {
+    long[] bits = shownBits.get(DungeonChunk.keyOfCell(q, r));
+    if (bits == null) {
+      return 0;
+    }
+    int cell = Math.floorMod(r, DungeonChunk.SIZE) * DungeonChunk.SIZE + Math.floorMod(q, DungeonChunk.SIZE);
+    long mask = 1L << cell;
+    if ((bits[cell >>> 6] & mask) != 0) {
+      return VISIBLE_BRIGHTNESS;
+    }
+    return (bits[WORDS + (cell >>> 6)] & mask) != 0 ? EXPLORED_BRIGHTNESS : 0;
+  }
+
+  private boolean bordersWalkable(int q, int r) {
+    for (int d = 0; d < 6; d++) {
+      int nq = q + Hex.DIRECTION_Q[d], nr = r + Hex.DIRECTION_R[d];
+      DungeonChunk chunk = chunkAt(nq, nr);
+      if (chunk != null && chunk.getTile(nq, nr).isWalkable()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private DungeonChunk chunkAt(int q, int r) {
+    int chunkX = Math.floorDiv(q, DungeonChunk.SIZE), chunkY = Math.floorDiv(r, DungeonChunk.SIZE);
+    DungeonChunk chunk = lastChunk;
+    if (chunk == null || chunk.getChunkX() != chunkX || chunk.getChunkY() != chunkY) {
+      chunk = dungeon.getChunk(chunkX, chunkY);
+      if (chunk != null) {
+        lastChunk = chunk;
+      }
+    }
+    return chunk;
+  }
+
+  /** Flat-colored hexes, one per tile type, until there is tile art. */
+  private static Texture createAtlasTexture() {
+    int[][] colors = {
+        { 70, 62, 58 },   // Wall
+        { 150, 140, 120 }, // Floor
+        { 120, 112, 98 }   // Corridor
+    };
+    int size = ATLAS_TILE_SIZE, width = size * colors.length;
+    ByteBuffer pixels = BufferUtils.createByteBuffer(width * size * 4);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < width; x++) {
+        int tile = x / size;
+        // Pointy-top hex filling the tile: |ny| <= 1 - |nx| / 2
+        float nx = Math.abs((x % size + 0.5f) / size * 2 - 1);
+        float ny = Math.abs((y + 0.5f) / size * 2 - 1);
+        float edge = 1 - nx / 2 - ny;
+        boolean inside = edge >= 0;
+        // Darken a thin rim so neighboring cells stay distinguishable
+        float shade = edge < 0.04f ? 0.7f : 1.0f;
+        pixels.put((byte) (colors[tile][0] * shade))
+            .put((byte) (colors[tile][1] * shade))
+            .put((byte) (colors[tile][2] * shade))
+            .put((byte) (inside ? 0xFF : 0));
+      }
+    }
+    pixels.flip();
+    return Texture.create("dungeon-tiles", pixels, width, size, true);
+  }
+
+  public TileMapRenderer getTileMap() {
+    return tileMap;
+  }
+}
@@ -0,0 +1,72 @@
+package game.world;
+
+/**
+ * Recursive shadowcasting on a hex grid.
+ * <p>
+ * The area around the origin is split into six sextants, each scanned ring
+ * by ring. Within a sextant, cell i of ring d covers the angles
+ * [(i - 0.5) / d, (i + 0.5) / d] measured in sextant widths. Open cells are
+ * visible when their center is inside the unshadowed range, which makes
+ * sight symmetric; opaque cells are visible when any part of them is, so
+ * walls bordering a lit room show up. Each wall narrows the range for the
+ * rings behind it, and a gap between walls starts a new scan.
+ */
+final class FieldOfView {
+  private FieldOfView() {
+  }
+
+  /**
+   * Mark every cell visible from the origin within the radius.
+   *
+   * @param map    Opacity of the cells
+   * @param viewer Receives the visible cells and supplies origin and radius
+   */
+  static void compute(OpacityMap map, Viewer viewer) {
+    viewer.markVisible(viewer.originQ, viewer.originR);
+    for (int sextant = 0; sextant < 6; sextant++) {
+      scan(map, viewer, sextant, 1, 0.0, 1.0);
+    }
+  }
+
+  private static void scan(OpacityMap map, Viewer viewer, int sextant, int depth, double start, double end) {
+    if (depth > viewer.radius || start >= end) {
+      return;
+    }
+    // Ring cells of this sextant run from the corner in its direction
+    // towards the next corner
+    int cornerQ = viewer.originQ + depth * Hex.DIRECTION_Q[sextant];
+    int cornerR = viewer.originR + depth * Hex.DIRECTION_R[sextant];
+    int stepQ = Hex.DIRECTION_Q[(sextant + 2) % 6];
+    int stepR = Hex.DIRECTION_R[(sextant + 2) % 6];
+
+    int previous = -1; // -1 none yet, 0 open, 1 opaque
+    for (int i = 0; i <= depth; i++) {
+      double low = (i - 0.5) / depth;
+      double high = (i + 0.5) / depth;
+      if (high <= start) {
+        continue;
+      }
+      if (low >= end) {
+        break;
+      }
+
+      int q = cornerQ + i * stepQ;
+      int r = cornerR + i * stepR;
+      boolean opaque = map.isOpaque(q, r);
+      double center = (double) i / depth;
+      if (opaque || (center >= start && center <= end)) {
+        viewer.markVisible(q, r);
+      }
+
+      if (previous == 1 && !opaque) {
+        start = low;
+      } else if (previous == 0 && opaque) {
+        scan(map, viewer, sextant, depth + 1, start, low);
+      }
+      previous = opaque ? 1 : 0;
+    }
+    if (previous == 0) {
+      scan(map, viewer, sextant, depth + 1, start, end);
+    }
+  }
+}
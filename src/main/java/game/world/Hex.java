@@ -0,0 +1,101 @@
+package game.world;
+
+import engine.renderer.TileLayout;
+
+/**
+ * Axial hex coordinates (q, r). The third cube coordinate is -q - r.
+ * Cells are pointy-top; q grows to the right and r down-right.
+ */
+public final class Hex {
+  /** Outer radius of a cell in world units. */
+  public static final float CELL_SIZE = 40.0f;
+
+  /** Neighbor offsets, counter-clockwise starting east. */
+  public static final int[] DIRECTION_Q = { 1, 1, 0, -1, -1, 0 };
+  public static final int[] DIRECTION_R = { 0, -1, -1, 0, 1, 1 };
+
+  private Hex() {
+  }
+
+  /** Steps between two cells. */
+  public static int distance(int q1, int r1, int q2, int r2) {
+    int dq = q1 - q2;
+    int dr = r1 - r2;
+    return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+  }
+
+  /**
+   * The neighbor to step to on the way to a target cell: the closest one by
+   * steps, and of those the one most in line with the target.
+   *
+   * @param walkable Cells that may be entered, or null if all may
+   * @return Index into {@link #DIRECTION_Q} and {@link #DIRECTION_R}, or -1
+   *         if no enterable neighbor is closer to the target than the cell
+   */
+  public static int stepToward(int q, int r, int targetQ, int targetR, WalkableMap walkable) {
+    int best = -1;
+    int bestDistance = distance(q, r, targetQ, targetR);
+    long bestOffset = Long.MAX_VALUE;
+    for (int d = 0; d < 6; d++) {
+      int nq = q + DIRECTION_Q[d], nr = r + DIRECTION_R[d];
+      int distance = distance(nq, nr, targetQ, targetR);
+      if (distance > bestDistance || (best < 0 && distance == bestDistance)) {
+        continue;
+      }
+      // Squared cube offset breaks ties, so paths run straight rather than zig-zag
+      long dq = targetQ - nq, dr = targetR - nr, ds = -dq - dr;
+      long offset = dq * dq + dr * dr + ds * ds;
+      if ((distance < bestDistance || offset < bestOffset) && (walkable == null || walkable.isWalkable(nq, nr))) {
+        best = d;
+        bestDistance = distance;
+        bestOffset = offset;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Cells on the straight line between two cells, both ends included.
+   *
+   * @param outQ Receives q coordinates, needs distance + 1 entries
+   * @param outR Receives r coordinates, needs distance + 1 entries
+   * @return Number of cells written
+   */
+  public static int line(int q1, int r1, int q2, int r2, int[] outQ, int[] outR) {
+    int steps = distance(q1, r1, q2, r2);
+    if (steps == 0) {
+      outQ[0] = q1;
+      outR[0] = r1;
+      return 1;
+    }
+    // Nudge off cell edges so ties round the same way on every step
+    double startQ = q1 + 1e-6, startR = r1 + 1e-6;
+    for (int i = 0; i <= steps; i++) {
+      double t = (double) i / steps;
+      double q = startQ + (q2 - q1) * t;
+      double r = startR + (r2 - r1) * t;
+      double s = -q - r;
+
+      int rq = (int) Math.round(q), rr = (int) Math.round(r), rs = (int) Math.round(s);
+      double dq = Math.abs(rq - q), dr = Math.abs(rr - r), ds = Math.abs(rs - s);
+      if (dq > dr && dq > ds) {
+        rq = -rr - rs;
+      } else if (dr > ds) {
+        rr = -rq - rs;
+      }
+      outQ[i] = rq;
+      outR[i] = rr;
+    }
+    return steps + 1;
+  }
+
+  /** World x of a cell center. */
+  public static float toPixelX(int q, int r) {
+    return TileLayout.HEX.centerX(q, r, CELL_SIZE);
+  }
+
+  /** World y of a cell center. */
+  public static float toPixelY(int q, int r) {
+    return TileLayout.HEX.centerY(q, r, CELL_SIZE);
+  }
+}
@@ -0,0 +1,199 @@
+package game.world;
+
+import java.util.Arrays;
+
+/**
+ * A* over hex cells that returns only the first step of the path, which is
+ * all a unit moving one cell per action needs. The search stops after a
+ * fixed number of cells; if the target wasn't reached by then, the step
+ * heads for the explored cell closest to it. Ties are broken by insertion
+ * order, so the same map and positions always give the same step.
+ * <p>
+ * Search state is reused between calls, one pathfinder per thread.
+ */
+public final class HexPathfinder {
+  /** Cells expanded before giving up on reaching the target. */
+  public static final int MAX_EXPANDED = 1024;
+
+  private static final ThreadLocal<HexPathfinder> perThread = ThreadLocal.withInitial(HexPathfinder::new);
+
+  // Node arrays; a cell can hold up to six neighbors open at once
+  private static final int MAX_NODES = MAX_EXPANDED * 6 + 1;
+  private final int[] nodeQ = new int[MAX_NODES];
+  private final int[] nodeR = new int[MAX_NODES];
+  private final int[] cost = new int[MAX_NODES];
+  private final int[] parent = new int[MAX_NODES];
+  private int nodeCount;
+
+  // Node of each seen cell, open addressing keyed by packed coordinates; a
+  // slot belongs to the current search only if its stamp matches
+  private static final int TABLE_SIZE = Integer.highestOneBit(MAX_NODES) * 4;
+  private final long[] tableKeys = new long[TABLE_SIZE];
+  private final int[] tableNodes = new int[TABLE_SIZE];
+  private final int[] tableStamps = new int[TABLE_SIZE];
+  private int stamp = 0;
+
+  // Binary heap of open nodes ordered by cost plus distance to the target
+  private final int[] heap = new int[MAX_NODES];
+  private final long[] heapKey = new long[MAX_NODES];
+  private int heapSize;
+
+  private HexPathfinder() {
+  }
+
+  /** The calling thread's pathfinder. */
+  public static HexPathfinder get() {
+    return perThread.get();
+  }
+
+  /**
+   * The first step from a cell towards a target over walkable cells. The
+   * target cell itself counts as walkable, since a unit usually stands on it.
+   *
+   * @return Index into {@link Hex#DIRECTION_Q} and {@link Hex#DIRECTION_R},
+   *         or -1 if already there or no walkable neighbor leads closer
+   */
+  public int firstStep(int q, int r, int targetQ, int targetR, WalkableMap walkable) {
+    if (q == targetQ && r == targetR) {
+      return -1;
+    }
+    if (++stamp == 0) {
+      Arrays.fill(tableStamps, 0);
+      stamp = 1;
+    }
+    nodeCount = 0;
+    heapSize = 0;
+
+    int start = addNode(q, r, 0, -1);
+    push(start, Hex.distance(q, r, targetQ, targetR));
+    int closest = start;
+    int closestDistance = Hex.distance(q, r, targetQ, targetR);
+    int expanded = 0;
+
+    while (heapSize > 0 && expanded < MAX_EXPANDED) {
+      int node = pop();
+      int nq = nodeQ[node], nr = nodeR[node];
+      if (nq == targetQ && nr == targetR) {
+        closest = node;
+        break;
+      }
+      expanded++;
+      int distance = Hex.distance(nq, nr, targetQ, targetR);
+      if (distance < closestDistance) {
+        closest = node;
+        closestDistance = distance;
+      }
+
+      for (int d = 0; d < 6; d++) {
+        int cq = nq + Hex.DIRECTION_Q[d], cr = nr + Hex.DIRECTION_R[d];
+        boolean isTarget = cq == targetQ && cr == targetR;
+        if (!isTarget && !walkable.isWalkable(cq, cr)) {
+          continue;
+        }
+        int newCost = cost[node] + 1;
+        int slot = find(cq, cr);
+        if (tableStamps[slot] == stamp) {
+          // Unit costs and a consistent heuristic: the first visit was shortest
+          continue;
+        }
+        if (nodeCount == MAX_NODES) {
+          continue;
+        }
+        int child = addNode(cq, cr, newCost, node);
+        tableKeys[slot] = key(cq, cr);
+        tableNodes[slot] = child;
+        tableStamps[slot] = stamp;
+        push(child, newCost + Hex.distance(cq, cr, targetQ, targetR));
+      }
+    }
+
+    if (closest == start) {
+      return -1;
+    }
+    // Walk back to the node right after the start
+    int step = closest;
+    while (parent[step] != start) {
+      step = parent[step];
+    }
+    int dq = nodeQ[step] - q, dr = nodeR[step] - r;
+    for (int d = 0; d < 6; d++) {
+      if (Hex.DIRECTION_Q[d] == dq && Hex.DIRECTION_R[d] == dr) {
+        return d;
+      }
+    }
+    return -1;
+  }
+
+  private int addNode(int q, int r, int nodeCost, int nodeParent) {
+    int node = nodeCount++;
+    nodeQ[node] = q;
+    nodeR[node] = r;
+    cost[node] = nodeCost;
+    parent[node] = nodeParent;
+    if (nodeParent < 0) {
+      int slot = find(q, r);
+      tableKeys[slot] = key(q, r);
+      tableNodes[slot] = node;
+      tableStamps[slot] = stamp;
+    }
+    return node;
+  }
+
+  // Slot holding the cell, or the empty slot where it would go
+  private int find(int q, int r) {
+    long key = key(q, r);
+    int mask = TABLE_SIZE - 1;
+    long h = key * 0x9E3779B97F4A7C15L;
+    for (int i = (int) (h ^ (h >>> 32)) & mask; ; i = (i + 1) & mask) {
+      if (tableStamps[i] != stamp || tableKeys[i] == key) {
+        return i;
+      }
+    }
+  }
+
+  private static long key(int q, int r) {
+    return ((long) q << 32) | (r & 0xFFFFFFFFL);
+  }
+
+  // Heap keys are estimate * MAX_NODES + node, so equal estimates pop in insertion order
+  private void push(int node, int estimate) {
+    long key = (long) estimate * MAX_NODES + node;
+    int i = heapSize++;
+    while (i > 0) {
+      int up = (i - 1) / 2;
+      if (heapKey[up] <= key) {
+        break;
+      }
+      heap[i] = heap[up];
+      heapKey[i] = heapKey[up];
+      i = up;
+    }
+    heap[i] = node;
+    heapKey[i] = key;
+  }
+
+  private int pop() {
+    int top = heap[0];
+    int lastNode = heap[--heapSize];
+    long lastKey = heapKey[heapSize];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) {
+        child++;
+      }
+      if (heapKey[child] >= lastKey) {
+        break;
+      }
+      heap[i] = heap[child];
+      heapKey[i] = heapKey[child];
+      i = child;
+    }
+    heap[i] = lastNode;
+    heapKey[i] = lastKey;
+    return top;
+  }
+}
@@ -0,0 +1,9 @@
+package game.world;
+
+/**
+ * Which hex cells block line of sight.
+ */
+@FunctionalInterface
+public interface OpacityMap {
+  boolean isOpaque(int q, int r);
+}
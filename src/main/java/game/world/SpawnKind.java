@@ -0,0 +1,11 @@
+package game.world;
+
+/**
+ * Something the generator placed on a floor cell.
+ */
+public enum SpawnKind {
+  ENEMY,
+  LOOT;
+
+  static final SpawnKind[] VALUES = values();
+}
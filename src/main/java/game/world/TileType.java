@@ -0,0 +1,28 @@
+package game.world;
+
+/**
+ * What occupies a dungeon cell. Chunks store tiles as ordinals in a byte
+ * array.
+ */
+public enum TileType {
+  WALL(false),
+  FLOOR(true),
+  CORRIDOR(true);
+
+  static final TileType[] VALUES = values();
+
+  private final boolean walkable;
+
+  TileType(boolean walkable) {
+    this.walkable = walkable;
+  }
+
+  public boolean isWalkable() {
+    return walkable;
+  }
+
+  /** Walls block sight, everything else is open. */
+  public boolean isOpaque() {
+    return !walkable;
+  }
+}
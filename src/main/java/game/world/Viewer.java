@@ -0,0 +1,89 @@
+package game.world;
+
+import game.entity.Character;
+
+import java.util.Arrays;
+
+/**
+ * A character's cached field of view. Visible cells are kept as bitsets
+ * over the 2x2 block of chunks that can contain its view, so the cache can
+ * be OR'd straight into team visibility. It is only recomputed when the
+ * character moves or terrain in range changes.
+ */
+public class Viewer {
+  private static final int WORDS = DungeonChunk.CELLS / 64;
+
+  private final Character character;
+  final int radius;
+
+  // Origin and chunk window of the cached view
+  int originQ, originR;
+  int baseChunkX, baseChunkY;
+  final long[][] bits = new long[4][WORDS];
+
+  int team;
+  boolean dirty = true;
+  // Whether the view is currently part of the team's visibility
+  boolean contributing = false;
+
+  Viewer(Character character, int radius) {
+    this.character = character;
+    this.radius = radius;
+    reset(character.getPositionX(), character.getPositionY());
+  }
+
+  /** Clear the cache and move it to a new origin. */
+  void reset(int q, int r) {
+    originQ = q;
+    originR = r;
+    baseChunkX = Math.floorDiv(q - radius, DungeonChunk.SIZE);
+    baseChunkY = Math.floorDiv(r - radius, DungeonChunk.SIZE);
+    for (long[] words : bits) {
+      Arrays.fill(words, 0);
+    }
+  }
+
+  void markVisible(int q, int r) {
+    int slot = slotOf(q, r);
+    int cell = localCell(q, r, slot);
+    bits[slot][cell >>> 6] |= 1L << cell;
+  }
+
+  /**
+   * Whether a cell was visible when the view was last computed.
+   */
+  public boolean canSee(int q, int r) {
+    if (Hex.distance(originQ, originR, q, r) > radius) {
+      return false;
+    }
+    int slot = slotOf(q, r);
+    int cell = localCell(q, r, slot);
+    return (bits[slot][cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /** Whether the view overlaps a rectangle of cells (inclusive). */
+  boolean overlaps(int minQ, int minR, int maxQ, int maxR) {
+    return originQ + radius >= minQ && originQ - radius <= maxQ
+        && originR + radius >= minR && originR - radius <= maxR;
+  }
+
+  private int slotOf(int q, int r) {
+    int dx = Math.floorDiv(q, DungeonChunk.SIZE) - baseChunkX;
+    int dy = Math.floorDiv(r, DungeonChunk.SIZE) - baseChunkY;
+    return dy * 2 + dx;
+  }
+
+  private int localCell(int q, int r, int slot) {
+    int localQ = q - (baseChunkX + (slot & 1)) * DungeonChunk.SIZE;
+    int localR = r - (baseChunkY + (slot >> 1)) * DungeonChunk.SIZE;
+    return localR * DungeonChunk.SIZE + localQ;
+  }
+
+  public Character getCharacter() {
+    return character;
+  }
+
+  public int getRadius() {
+    return radius;
+  }
+}
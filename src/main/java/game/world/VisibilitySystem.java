@@ -0,0 +1,248 @@
+package game.world;
+
+import game.entity.Character;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field of view for registered characters and fog of war for their teams.
+ * <p>
+ * Each {@link Viewer} caches its own view and is only recomputed when its
+ * character moves or terrain in its range is invalidated. A team's visible
+ * cells are one bitset per chunk, rebuilt by OR-ing its viewers' bitsets
+ * only when one of them changed; explored cells accumulate every visible
+ * cell ever seen. Positions are axial hex coordinates, taken from the
+ * characters' grid positions.
+ */
+public class VisibilitySystem {
+  /** Largest view radius; a view then spans at most 2x2 chunks. */
+  public static final int MAX_RADIUS = DungeonChunk.SIZE / 2;
+
+  private static final int WORDS = DungeonChunk.CELLS / 64;
+
+  private final OpacityMap map;
+  private final List<Viewer> viewers = new ArrayList<>();
+  private final Map<Integer, Team> teams = new HashMap<>();
+
+  // Scratch for line of sight checks
+  private int[] lineQ = new int[64], lineR = new int[64];
+
+  private int lastRecomputed = 0;
+
+  /** Visible and explored bitsets of one team, keyed by chunk. */
+  private static class Team {
+    final Map<Long, long[]> visible = new HashMap<>();
+    final Map<Long, long[]> explored = new HashMap<>();
+    final ArrayDeque<long[]> spare = new ArrayDeque<>();
+    boolean dirty = false;
+  }
+
+  public VisibilitySystem(OpacityMap map) {
+    this.map = map;
+  }
+
+  /**
+   * Start tracking what a character sees.
+   *
+   * @param character The character
+   * @param radius    View distance in cells, at most {@link #MAX_RADIUS}
+   * @return The character's viewer
+   */
+  public Viewer register(Character character, int radius) {
+    if (radius < 0 || radius > MAX_RADIUS) {
+      throw new IllegalArgumentException("View radius must be between 0 and " + MAX_RADIUS);
+    }
+    Viewer viewer = new Viewer(character, radius);
+    viewer.team = character.getTeam();
+    viewers.add(viewer);
+    return viewer;
+  }
+
+  public void unregister(Character character) {
+    for (int i = 0; i < viewers.size(); i++) {
+      Viewer viewer = viewers.get(i);
+      if (viewer.getCharacter() == character) {
+        if (viewer.contributing) {
+          team(viewer.team).dirty = true;
+        }
+        viewers.remove(i);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Recompute the views of characters that moved or whose surroundings
+   * changed, then rebuild the visibility of the teams affected.
+   */
+  public void update() {
+    int recomputed = 0;
+    for (Viewer viewer : viewers) {
+      Character character = viewer.getCharacter();
+      boolean alive = character.isAlive();
+      int q = character.getPositionX(), r = character.getPositionY();
+
+      if (character.getTeam() != viewer.team) {
+        if (viewer.contributing) {
+          team(viewer.team).dirty = true;
+        }
+        viewer.team = character.getTeam();
+        viewer.dirty = true;
+      }
+      if (q != viewer.originQ || r != viewer.originR) {
+        viewer.dirty = true;
+      }
+      if (alive && viewer.dirty) {
+        viewer.reset(q, r);
+        FieldOfView.compute(map, viewer);
+        viewer.dirty = false;
+        team(viewer.team).dirty = true;
+        recomputed++;
+      }
+      // The dead see nothing
+      if (alive != viewer.contributing) {
+        viewer.contributing = alive;
+        team(viewer.team).dirty = true;
+      }
+    }
+    lastRecomputed = recomputed;
+
+    for (Map.Entry<Integer, Team> entry : teams.entrySet()) {
+      if (entry.getValue().dirty) {
+        rebuild(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private void rebuild(int teamId, Team team) {
+    for (long[] words : team.visible.values()) {
+      Arrays.fill(words, 0);
+      team.spare.push(words);
+    }
+    team.visible.clear();
+
+    for (Viewer viewer : viewers) {
+      if (viewer.team != teamId || !viewer.contributing) {
+        continue;
+      }
+      for (int slot = 0; slot < 4; slot++) {
+        long key = DungeonChunk.key(viewer.baseChunkX + (slot & 1), viewer.baseChunkY + (slot >> 1));
+        long[] source = viewer.bits[slot];
+        long[] visible = team.visible.get(key);
+        long[] explored = team.explored.get(key);
+        for (int w = 0; w < WORDS; w++) {
+          long word = source[w];
+          if (word == 0) {
+            continue;
+          }
+          if (visible == null) {
+            visible = team.spare.isEmpty() ? new long[WORDS] : team.spare.pop();
+            team.visible.put(key, visible);
+          }
+          if (explored == null) {
+            explored = new long[WORDS];
+            team.explored.put(key, explored);
+          }
+          visible[w] |= word;
+          explored[w] |= word;
+        }
+      }
+    }
+    team.dirty = false;
+  }
+
+  /** Terrain at a cell changed; views that may include it are recomputed. */
+  public void invalidateCell(int q, int r) {
+    invalidateArea(q, r, q, r);
+  }
+
+  /** Terrain in a rectangle of cells (inclusive) changed. */
+  public void invalidateArea(int minQ, int minR, int maxQ, int maxR) {
+    for (Viewer viewer : viewers) {
+      if (viewer.overlaps(minQ, minR, maxQ, maxR)) {
+        viewer.dirty = true;
+      }
+    }
+  }
+
+  /** A chunk was loaded, turning its cells from unknown walls into terrain. */
+  public void invalidateChunk(DungeonChunk chunk) {
+    invalidateArea(chunk.getOriginQ(), chunk.getOriginR(),
+        chunk.getOriginQ() + DungeonChunk.SIZE - 1, chunk.getOriginR() + DungeonChunk.SIZE - 1);
+  }
+
+  public boolean isVisible(int team, int q, int r) {
+    return test(getVisibleBits(team, Math.floorDiv(q, DungeonChunk.SIZE), Math.floorDiv(r, DungeonChunk.SIZE)), q, r);
+  }
+
+  public boolean isExplored(int team, int q, int r) {
+    return test(getExploredBits(team, Math.floorDiv(q, DungeonChunk.SIZE), Math.floorDiv(r, DungeonChunk.SIZE)), q, r);
+  }
+
+  /**
+   * Cells of a chunk the team sees right now, bit (r * SIZE + q) in local
+   * coordinates. Read-only.
+   *
+   * @return The bitset, or null if the team sees nothing in the chunk
+   */
+  public long[] getVisibleBits(int team, int chunkX, int chunkY) {
+    Team t = teams.get(team);
+    return t != null ? t.visible.get(DungeonChunk.key(chunkX, chunkY)) : null;
+  }
+
+  /**
+   * Cells of a chunk the team has ever seen, laid out like
+   * {@link #getVisibleBits(int, int, int)}. Read-only.
+   *
+   * @return The bitset, or null if the team hasn't seen any of the chunk
+   */
+  public long[] getExploredBits(int team, int chunkX, int chunkY) {
+    Team t = teams.get(team);
+    return t != null ? t.explored.get(DungeonChunk.key(chunkX, chunkY)) : null;
+  }
+
+  private static boolean test(long[] words, int q, int r) {
+    if (words == null) {
+      return false;
+    }
+    int cell = Math.floorMod(r, DungeonChunk.SIZE) * DungeonChunk.SIZE + Math.floorMod(q, DungeonChunk.SIZE);
+    return (words[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * Whether nothing opaque lies strictly between two cells, for ranged
+   * abilities. Not cached; uses the straight hex line between the cells.
+   */
+  public boolean hasLineOfSight(int q1, int r1, int q2, int r2) {
+    int steps = Hex.distance(q1, r1, q2, r2);
+    if (steps + 1 > lineQ.length) {
+      lineQ = new int[steps + 1];
+      lineR = new int[steps + 1];
+    }
+    int count = Hex.line(q1, r1, q2, r2, lineQ, lineR);
+    for (int i = 1; i < count - 1; i++) {
+      if (map.isOpaque(lineQ[i], lineR[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Team team(int team) {
+    return teams.computeIfAbsent(team, t -> new Team());
+  }
+
+  /** Views recomputed by the last update. */
+  public int getLastRecomputed() {
+    return lastRecomputed;
+  }
+
+  public int getViewerCount() {
+    return viewers.size();
+  }
+}
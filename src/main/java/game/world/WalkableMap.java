@@ -0,0 +1,9 @@
+package game.world;
+
+/**
+ * Which hex cells units can stand on.
+ */
+@FunctionalInterface
+public interface WalkableMap {
+  boolean isWalkable(int q, int r);
+}
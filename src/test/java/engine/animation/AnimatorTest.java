@@ -0,0 +1,88 @@
+package engine.animation;
+
+import engine.renderer.Sprite;
+import engine.renderer.Texture;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnimatorTest {
+  private static final AnimationClip CLIP = AnimationClip.fromGrid("walk", 4, 1, 0, 4, 10, true);
+
+  private static Sprite sprite() {
+    return new Sprite((Texture) null, 0, 0, 16, 16);
+  }
+
+  @Test
+  void framesAdvanceWithTheClockAndLoop() {
+    Animator animator = Animator.get();
+    Sprite sprite = sprite();
+    int handle = animator.register(sprite, CLIP);
+    assertEquals(0, animator.getFrame(handle));
+    animator.update(0.15);
+    assertEquals(1, animator.getFrame(handle));
+    assertEquals(0.25f, sprite.getU0());
+    animator.update(0.3);
+    assertEquals(0, animator.getFrame(handle));
+    animator.unregister(handle);
+  }
+
+  @Test
+  void aHitchLongerThanTheClipWrapsIntoTheRightFrame() {
+    Animator animator = Animator.get();
+    int handle = animator.register(sprite(), CLIP);
+    // 1.02 s is two and a half loops of 0.4 s, landing in frame 2
+    animator.update(1.02);
+    assertEquals(2, animator.getFrame(handle));
+    animator.update(0.1);
+    assertEquals(3, animator.getFrame(handle));
+    animator.update(0.1);
+    assertEquals(0, animator.getFrame(handle));
+    animator.unregister(handle);
+  }
+
+  @Test
+  void unregisteringTwiceOrAStaleHandleIsRejected() {
+    Animator animator = Animator.get();
+    int count = animator.getAnimationCount();
+    int handle = animator.register(sprite(), CLIP);
+    animator.unregister(handle);
+    assertEquals(count, animator.getAnimationCount());
+
+    assertThrows(IllegalArgumentException.class, () -> animator.unregister(handle));
+    assertEquals(count, animator.getAnimationCount());
+
+    // The index is reused, but the old handle still doesn't reach the new animation
+    int reused = animator.register(sprite(), CLIP);
+    assertNotEquals(handle, reused);
+    assertThrows(IllegalArgumentException.class, () -> animator.unregister(handle));
+    assertThrows(IllegalArgumentException.class, () -> animator.play(handle, CLIP));
+    assertThrows(IllegalArgumentException.class, () -> animator.getFrame(handle));
+    assertEquals(count + 1, animator.getAnimationCount());
+    animator.unregister(reused);
+  }
+
+  @Test
+  void handlesThatWereNeverIssuedAreRejected() {
+    Animator animator = Animator.get();
+    assertThrows(IllegalArgumentException.class, () -> animator.unregister(-1));
+    assertThrows(IllegalArgumentException.class, () -> animator.unregister(1 << 19));
+    assertThrows(IllegalArgumentException.class, () -> animator.register(null, CLIP));
+  }
+
+  @Test
+  void movedAnimationsKeepWorkingThroughTheirHandles() {
+    Animator animator = Animator.get();
+    int count = animator.getAnimationCount();
+    int first = animator.register(sprite(), CLIP);
+    int second = animator.register(sprite(), CLIP);
+    animator.unregister(first);
+    assertEquals(count + 1, animator.getAnimationCount());
+    animator.update(0.15);
+    assertEquals(1, animator.getFrame(second));
+    animator.unregister(second);
+    assertEquals(count, animator.getAnimationCount());
+  }
+}
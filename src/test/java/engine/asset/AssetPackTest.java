@@ -0,0 +1,130 @@
+package engine.asset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssetPackTest {
+  // Offset of the first entry's data length in a pack whose first path is "a.txt"
+  private static final int FIRST_LENGTH_OFFSET = 12 + 2 + 5 + 8;
+
+  private Path dir;
+  private Path pack;
+
+  @BeforeEach
+  void packAssets() throws IOException {
+    dir = Files.createTempDirectory("asset-pack-test");
+    Path root = Files.createDirectories(dir.resolve("assets"));
+    Files.write(root.resolve("a.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+    Files.write(root.resolve("b.txt"), "world!".getBytes(StandardCharsets.UTF_8));
+    Files.write(Files.createDirectories(root.resolve("sub")).resolve("c.txt"), new byte[] { 1, 2, 3 });
+    pack = dir.resolve("assets.pak");
+    assertEquals(3, AssetPacker.pack(root, pack));
+  }
+
+  @AfterEach
+  void deleteFiles() throws IOException {
+    try (Stream<Path> walk = Files.walk(dir)) {
+      for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  void readsWhatThePackerWrote() throws IOException {
+    AssetPack opened = AssetPack.open(pack);
+    assertEquals(Set.of("a.txt", "b.txt", "sub/c.txt"), opened.getPaths());
+    assertTrue(opened.contains("a.txt"));
+    assertFalse(opened.contains("missing.txt"));
+    assertNull(opened.get("missing.txt"));
+    ByteBuffer data = opened.get("b.txt");
+    byte[] bytes = new byte[data.remaining()];
+    data.get(bytes);
+    assertEquals("world!", new String(bytes, StandardCharsets.UTF_8));
+    assertEquals(3, opened.get("sub/c.txt").remaining());
+  }
+
+  @Test
+  void assetDataIsAligned() throws IOException {
+    byte[] bytes = Files.readAllBytes(pack);
+    ByteBuffer index = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    long offset = index.getLong(FIRST_LENGTH_OFFSET - 8);
+    assertEquals(0, offset % AssetPack.ALIGNMENT);
+    assertEquals('h', bytes[(int) offset]);
+  }
+
+  @Test
+  void otherFilesAreRejected() throws IOException {
+    patchInt(0, 0x12345678);
+    IOException e = assertThrows(IOException.class, () -> AssetPack.open(pack));
+    assertTrue(e.getMessage().startsWith("Not an asset pack"), e.getMessage());
+  }
+
+  @Test
+  void newerVersionsAreRejected() throws IOException {
+    patchInt(4, AssetPack.VERSION + 1);
+    IOException e = assertThrows(IOException.class, () -> AssetPack.open(pack));
+    assertTrue(e.getMessage().startsWith("Unsupported asset pack version"), e.getMessage());
+  }
+
+  @Test
+  void negativeEntryCountIsCorrupt() throws IOException {
+    patchInt(8, -1);
+    assertCorrupt();
+  }
+
+  @Test
+  void entryCountLargerThanTheIndexIsCorrupt() throws IOException {
+    patchInt(8, Integer.MAX_VALUE);
+    assertCorrupt();
+  }
+
+  @Test
+  void truncatedIndexIsCorrupt() throws IOException {
+    byte[] bytes = Files.readAllBytes(pack);
+    byte[] truncated = new byte[FIRST_LENGTH_OFFSET + 2];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+    Files.write(pack, truncated);
+    assertCorrupt();
+  }
+
+  @Test
+  void negativeDataLengthIsCorrupt() throws IOException {
+    patchInt(FIRST_LENGTH_OFFSET, -5);
+    assertCorrupt();
+  }
+
+  @Test
+  void dataPastTheEndOfTheFileIsCorrupt() throws IOException {
+    patchInt(FIRST_LENGTH_OFFSET, Integer.MAX_VALUE);
+    assertCorrupt();
+  }
+
+  private void patchInt(int offset, int value) throws IOException {
+    byte[] bytes = Files.readAllBytes(pack);
+    ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+    Files.write(pack, bytes);
+  }
+
+  private void assertCorrupt() {
+    IOException e = assertThrows(IOException.class, () -> AssetPack.open(pack));
+    assertTrue(e.getMessage().startsWith("Corrupt asset pack"), e.getMessage());
+  }
+}
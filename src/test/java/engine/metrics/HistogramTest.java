@@ -0,0 +1,63 @@
+package engine.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+  /** Count exported for the bucket with upper bound {@code nanos}. */
+  private static long cumulativeAt(Histogram histogram, long nanos) {
+    StringBuilder out = new StringBuilder();
+    histogram.writeSamples(out);
+    StringBuilder bound = new StringBuilder();
+    MetricsRegistry.appendValue(bound, nanos / 1e9);
+    String prefix = "test_seconds_bucket{le=\"" + bound + "\"} ";
+    for (String line : out.toString().split("\n")) {
+      if (line.startsWith(prefix)) {
+        return Long.parseLong(line.substring(prefix.length()));
+      }
+    }
+    throw new AssertionError("No bucket " + prefix + " in\n" + out);
+  }
+
+  @Test
+  void everyValueIsAtMostItsBucketsUpperBound() {
+    for (long nanos = 0; nanos < 1 << 16; nanos++) {
+      int bucket = LatencyHistogram.bucket(nanos);
+      assertTrue(nanos <= LatencyHistogram.upperBound(bucket), "value " + nanos);
+      assertTrue(bucket == 0 || nanos > LatencyHistogram.upperBound(bucket - 1), "value " + nanos);
+    }
+    for (int log = 2; log < 62; log++) {
+      long power = 1L << log;
+      assertEquals(power, LatencyHistogram.upperBound(LatencyHistogram.bucket(power)));
+      assertEquals(power + (power >> 1), LatencyHistogram.upperBound(LatencyHistogram.bucket(power + 1)));
+    }
+  }
+
+  @Test
+  void exportedBoundsAreInclusive() {
+    Histogram histogram = new Histogram("test_seconds", "Test");
+    histogram.record(1024);
+    assertEquals(1, cumulativeAt(histogram, 1024));
+
+    histogram.record(1025);
+    assertEquals(1, cumulativeAt(histogram, 1024));
+    assertEquals(2, cumulativeAt(histogram, 2048));
+
+    histogram.record(1L << 20);
+    assertEquals(2, cumulativeAt(histogram, 1L << 19));
+    assertEquals(3, cumulativeAt(histogram, 1L << 20));
+  }
+
+  @Test
+  void percentilesReportTheValueAtAPowerOfTwo() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 100; i++) {
+      histogram.record(1_000_000);
+    }
+    histogram.record(1L << 21);
+    assertEquals(1L << 20, histogram.percentile(0.5));
+    assertEquals(1L << 21, histogram.percentile(1.0));
+  }
+}
@@ -0,0 +1,77 @@
+package engine.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InstanceBufferTest {
+  private static void addInstance(InstanceBuffer buffer, int i) {
+    buffer.add(i, i + 0.5f, 2, 3, 0.25f * i, 0.1f, 0.2f, 0.3f, 0.4f, 0, 0.5f, 1, 0.75f);
+  }
+
+  @Test
+  void growingKeepsEveryInstancesAttributes() {
+    InstanceBuffer buffer = new InstanceBuffer(1);
+    for (int i = 0; i < 100; i++) {
+      addInstance(buffer, i);
+    }
+    assertEquals(100, buffer.getInstanceCount());
+    assertEquals(100 * InstanceBuffer.FLOATS_PER_INSTANCE, buffer.getFloatCount());
+    for (int i = 0; i < 100; i++) {
+      assertEquals((float) i, buffer.get(i, InstanceBuffer.CENTER_X));
+      assertEquals(i + 0.5f, buffer.get(i, InstanceBuffer.CENTER_Y));
+      assertEquals(2f, buffer.get(i, InstanceBuffer.WIDTH));
+      assertEquals(3f, buffer.get(i, InstanceBuffer.HEIGHT));
+      assertEquals(0.25f * i, buffer.get(i, InstanceBuffer.ROTATION));
+      assertEquals(0.4f, buffer.get(i, InstanceBuffer.COLOR + 3));
+      assertEquals(0.75f, buffer.get(i, InstanceBuffer.REGION + 3));
+    }
+  }
+
+  @Test
+  void clearStartsOverWithoutShrinking() {
+    InstanceBuffer buffer = new InstanceBuffer(4);
+    for (int i = 0; i < 10; i++) {
+      addInstance(buffer, i);
+    }
+    float[] data = buffer.getData();
+    buffer.clear();
+    assertEquals(0, buffer.getInstanceCount());
+    addInstance(buffer, 7);
+    assertEquals(1, buffer.getInstanceCount());
+    assertEquals(7f, buffer.get(0, InstanceBuffer.CENTER_X));
+    assertEquals(data, buffer.getData());
+  }
+
+  @Test
+  void uploadCapacityKeepsBigEnoughBuffersAndAtLeastDoublesOthers() {
+    InstanceBuffer buffer = new InstanceBuffer(1);
+    for (int i = 0; i < 10; i++) {
+      addInstance(buffer, i);
+    }
+    int floats = buffer.getFloatCount();
+    assertEquals(floats, buffer.uploadCapacity(floats));
+    assertEquals(1000, buffer.uploadCapacity(1000));
+    assertEquals(2 * (floats - 1), buffer.uploadCapacity(floats - 1));
+    assertEquals(floats, buffer.uploadCapacity(1));
+  }
+
+  @Test
+  void packIntoCopiesOnlyTheLiveInstances() {
+    InstanceBuffer buffer = new InstanceBuffer(2);
+    for (int i = 0; i < 5; i++) {
+      addInstance(buffer, i);
+    }
+    FloatBuffer upload = FloatBuffer.allocate(buffer.uploadCapacity(4));
+    upload.put(new float[] { 9, 9, 9 });
+    buffer.packInto(upload);
+
+    assertEquals(0, upload.position());
+    assertEquals(buffer.getFloatCount(), upload.limit());
+    for (int f = 0; f < buffer.getFloatCount(); f++) {
+      assertEquals(buffer.getData()[f], upload.get(f));
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package engine.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RadixSortTest {
+  @Test
+  void sortsUnsignedKeysAndMovesValues() {
+    long[] keys = { 5, -1, 0, Long.MIN_VALUE, 1L << 40, 3 };
+    int[] values = { 0, 1, 2, 3, 4, 5 };
+    new RadixSort().sort(keys, values, keys.length);
+
+    assertArrayEquals(new long[] { 0, 3, 5, 1L << 40, Long.MIN_VALUE, -1 }, keys);
+    assertArrayEquals(new int[] { 2, 5, 0, 4, 3, 1 }, values);
+  }
+
+  @Test
+  void equalKeysKeepTheirOrder() {
+    long[] keys = { 7, 2, 7, 2, 7 };
+    int[] values = { 0, 1, 2, 3, 4 };
+    new RadixSort().sort(keys, values, keys.length);
+
+    assertArrayEquals(new int[] { 1, 3, 0, 2, 4 }, values);
+  }
+
+  /** The renderer's two-pass sort: shuffled input always ends in the same order. */
+  @Test
+  void presortingByRegistrationMakesTiesIndependentOfInputOrder() {
+    int count = 500;
+    long[] sortKey = new long[count];
+    Random random = new Random(11);
+    for (int s = 0; s < count; s++) {
+      sortKey[s] = random.nextInt(8); // Lots of ties
+    }
+
+    RadixSort sort = new RadixSort();
+    int[] expected = null;
+    for (int round = 0; round < 5; round++) {
+      // Sprites as the grid might return them, in a different order each frame
+      int[] visible = new int[count];
+      for (int s = 0; s < count; s++) {
+        visible[s] = s;
+      }
+      for (int s = count - 1; s > 0; s--) {
+        int other = random.nextInt(s + 1);
+        int swap = visible[s];
+        visible[s] = visible[other];
+        visible[other] = swap;
+      }
+
+      long[] keys = new long[count];
+      int[] order = new int[count];
+      for (int i = 0; i < count; i++) {
+        keys[i] = visible[i];
+        order[i] = i;
+      }
+      sort.sort(keys, order, count);
+      for (int i = 0; i < count; i++) {
+        keys[i] = sortKey[visible[order[i]]];
+      }
+      sort.sort(keys, order, count);
+
+      int[] drawn = new int[count];
+      for (int i = 0; i < count; i++) {
+        drawn[i] = visible[order[i]];
+      }
+      if (expected == null) {
+        expected = drawn;
+        for (int i = 1; i < count; i++) {
+          long previous = sortKey[drawn[i - 1]], current = sortKey[drawn[i]];
+          assertTrue(previous < current || (previous == current && drawn[i - 1] < drawn[i]));
+        }
+      } else {
+        assertArrayEquals(expected, drawn);
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package engine.text;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextBuilderTest {
+  private static String format(double value, int decimals) {
+    return new TextBuilder(4).append(value, decimals).toString();
+  }
+
+  @Test
+  void decimalsAreRoundedAndZeroPadded() {
+    assertEquals("3.14", format(3.14159, 2));
+    assertEquals("0.13", format(0.125, 2));
+    assertEquals("1.05", format(1.049999, 2));
+    assertEquals("10", format(9.6, 0));
+    assertEquals("-12.345", format(-12.345, 3));
+    assertEquals("-0.01", format(-0.005, 2));
+  }
+
+  @Test
+  void valuesRoundingToZeroHaveNoSign() {
+    assertEquals("0.00", format(-0.001, 2));
+    assertEquals("0.00", format(-0.0, 2));
+    assertEquals("0", format(-0.4, 0));
+  }
+
+  @Test
+  void specialValuesMatchDoubleToString() {
+    assertEquals("NaN", format(Double.NaN, 2));
+    assertEquals("Infinity", format(Double.POSITIVE_INFINITY, 2));
+    assertEquals("-Infinity", format(Double.NEGATIVE_INFINITY, 1));
+    assertEquals(Double.toString(1e300), format(1e300, 2));
+  }
+
+  @Test
+  void integersIncludingTheExtremes() {
+    TextBuilder text = new TextBuilder(1);
+    text.append(0).append(' ').append(-42).append(' ').append(Long.MIN_VALUE).append(' ').append(Long.MAX_VALUE);
+    assertEquals("0 -42 -9223372036854775808 9223372036854775807", text.toString());
+  }
+}
@@ -0,0 +1,79 @@
+package engine.ui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UIPanelTest {
+  // Shows one number and draws nothing, so building never touches the GPU
+  private static final class CounterPanel extends UIPanel {
+    int value = 0;
+    int builds = 0;
+
+    CounterPanel() {
+      super(10, 20, 100, 50);
+    }
+
+    @Override
+    protected long computeVersion() {
+      return mix(17, value);
+    }
+
+    @Override
+    protected void build(UIBuilder ui) {
+      builds++;
+    }
+  }
+
+  @Test
+  void panelsRebuildOnlyWhenTheirVersionChanges() {
+    CounterPanel panel = new CounterPanel();
+    assertTrue(panel.refresh());
+    assertFalse(panel.refresh());
+    assertFalse(panel.refresh());
+    assertEquals(1, panel.builds);
+
+    panel.value = 3;
+    assertTrue(panel.refresh());
+    assertFalse(panel.refresh());
+    assertEquals(2, panel.builds);
+  }
+
+  @Test
+  void invalidatingOrMovingForcesOneRebuild() {
+    CounterPanel panel = new CounterPanel();
+    panel.refresh();
+
+    panel.invalidate();
+    assertTrue(panel.refresh());
+    assertFalse(panel.refresh());
+
+    panel.setPosition(10, 20);
+    assertFalse(panel.refresh());
+    panel.setPosition(30, 40);
+    assertTrue(panel.refresh());
+    assertFalse(panel.refresh());
+    assertEquals(3, panel.builds);
+  }
+
+  @Test
+  void hitTestingCoversThePanelsEdges() {
+    CounterPanel panel = new CounterPanel();
+    assertTrue(panel.contains(10, 20));
+    assertTrue(panel.contains(110, 70));
+    assertTrue(panel.contains(60, 45));
+    assertFalse(panel.contains(9.9f, 45));
+    assertFalse(panel.contains(60, 70.1f));
+  }
+
+  @Test
+  void nearbyValuesGetDifferentFingerprints() {
+    assertNotEquals(UIPanel.mix(1, 0), UIPanel.mix(1, 1));
+    assertNotEquals(UIPanel.mix(UIPanel.mix(1, 2), 3), UIPanel.mix(UIPanel.mix(1, 3), 2));
+    assertEquals(UIPanel.mix(1, 0.50, 0.01), UIPanel.mix(1, 0.501, 0.01));
+    assertNotEquals(UIPanel.mix(1, 0.50, 0.01), UIPanel.mix(1, 0.51, 0.01));
+  }
+}
@@ -0,0 +1,36 @@
+package game.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseCurveTest {
+  @Test
+  void identityAndInverseMapTheEndsToEachOther() {
+    assertEquals(0f, ResponseCurve.identity().evaluate(0));
+    assertEquals(1f, ResponseCurve.identity().evaluate(1));
+    assertEquals(1f, ResponseCurve.inverse().evaluate(0));
+    assertEquals(0f, ResponseCurve.inverse().evaluate(1));
+    assertEquals(0.25f, ResponseCurve.inverse().evaluate(0.75f), 1e-6f);
+  }
+
+  @Test
+  void resultsAreClampedToTheUnitRange() {
+    ResponseCurve steep = ResponseCurve.linear(4, -1);
+    assertEquals(0f, steep.evaluate(0));
+    assertEquals(1f, steep.evaluate(1));
+    assertEquals(0.2f, steep.evaluate(0.3f), 1e-6f);
+  }
+
+  @Test
+  void polynomialAndLogisticCurvesFollowTheirFormulas() {
+    ResponseCurve quadratic = ResponseCurve.polynomial(1, 2, 0, 0);
+    assertEquals(0.25f, quadratic.evaluate(0.5f), 1e-6f);
+    assertEquals(0.81f, quadratic.evaluate(0.9f), 1e-6f);
+
+    ResponseCurve logistic = ResponseCurve.logistic(10, 1, 0, 0.5f);
+    assertEquals(0.5f, logistic.evaluate(0.5f), 1e-6f);
+    assertEquals(1 / (1 + (float) Math.exp(-2)), logistic.evaluate(0.7f), 1e-6f);
+    assertEquals(1 - logistic.evaluate(0.7f), logistic.evaluate(0.3f), 1e-6f);
+  }
+}
@@ -0,0 +1,64 @@
+package game.ai;
+
+import game.combat.DamageType;
+import game.entity.Character;
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnitGridTest {
+  @Test
+  void queriesMatchAScanOfEveryUnit() {
+    SplittableRandom random = new SplittableRandom(5);
+    UnitGrid grid = new UnitGrid();
+    // Rebuilding with fewer units has to forget the ones left over
+    for (int count : new int[] { 300, 40, 1 }) {
+      UtilityAgent[] agents = new UtilityAgent[count];
+      for (int i = 0; i < count; i++) {
+        Warrior unit = new Warrior("Unit " + i);
+        unit.setTeam(random.nextInt(3));
+        unit.moveTo(random.nextInt(-60, 60), random.nextInt(-60, 60));
+        if (random.nextInt(10) == 0) {
+          unit.takeDamage(1e9, DamageType.TRUE, null);
+        }
+        agents[i] = new UtilityAgent(unit, null);
+      }
+      grid.rebuild(agents, count);
+
+      for (int probe = 0; probe < 200; probe++) {
+        Warrior searcher = new Warrior("Searcher");
+        searcher.setTeam(random.nextInt(3));
+        searcher.moveTo(random.nextInt(-70, 70), random.nextInt(-70, 70));
+        int x = searcher.getPositionX(), y = searcher.getPositionY(), team = searcher.getTeam();
+
+        int nearest = Integer.MAX_VALUE;
+        int nearby = 0;
+        for (UtilityAgent agent : agents) {
+          Character unit = agent.self;
+          if (unit.isAlive() && unit.getTeam() != team) {
+            int distance = searcher.distanceTo(unit);
+            nearest = Math.min(nearest, distance);
+            if (distance <= 5) {
+              nearby++;
+            }
+          }
+        }
+
+        // Enough rings to reach every unit, so the result is exact
+        Character found = grid.findNearestEnemy(x, y, team, 20);
+        if (nearest == Integer.MAX_VALUE) {
+          assertNull(found);
+        } else {
+          assertEquals(nearest, searcher.distanceTo(found), "nearest enemy of " + x + "," + y);
+          assertTrue(found.getTeam() != team && found.isAlive());
+        }
+        assertEquals(nearby, grid.countEnemiesWithin(x, y, team, 5), "enemies near " + x + "," + y);
+      }
+    }
+  }
+}
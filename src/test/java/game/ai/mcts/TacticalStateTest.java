@@ -0,0 +1,229 @@
+package game.ai.mcts;
+
+import game.combat.Ability;
+import game.combat.CombatRandom;
+import game.combat.DamageType;
+import game.entity.Character;
+import game.entity.CharacterClass;
+import game.entity.StatType;
+import game.entity.TalentTree;
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TacticalStateTest {
+  /** A character with an attack that builds resource and charge, a magic strike and a true-damage ultimate. */
+  private static final class Duelist extends Character {
+    Duelist(String name) {
+      super(name, CharacterClass.WARRIOR);
+      learnRegularAbility(new TestAbility("Strike", 2.5, 30, false, 35, DamageType.MAGICAL));
+      setUltimateAbility(new TestAbility("Finisher", 0, 0, true, 90, DamageType.TRUE));
+    }
+
+    @Override
+    protected void initializeBaseStats() {
+      increaseStat(StatType.STAMINA, 8);
+      increaseStat(StatType.STRENGTH, 6);
+      increaseStat(StatType.AGILITY, 20);
+      increaseStat(StatType.INTELLIGENCE, 4);
+      increaseStat(StatType.WISDOM, 6);
+    }
+
+    @Override
+    protected TalentTree createTalentTree() {
+      return new TalentTree();
+    }
+
+    @Override
+    protected void decideNextAction() {
+    }
+
+    @Override
+    public double getAttackResourceGain() {
+      return 4;
+    }
+
+    @Override
+    public int getAttackUltimateCharge() {
+      return 3;
+    }
+  }
+
+  private static final class TestAbility extends Ability {
+    private final double damage;
+    private final DamageType damageType;
+
+    TestAbility(String name, double cooldown, double cost, boolean ultimate, double damage, DamageType damageType) {
+      super(name, "", cooldown, cost, 0, ultimate);
+      this.damage = damage;
+      this.damageType = damageType;
+    }
+
+    @Override
+    public void activate(Character source, Character target) {
+      target.takeDamage(damage, damageType, source);
+    }
+
+    @Override
+    public double estimateDamage(Character source) {
+      return damage;
+    }
+
+    @Override
+    public DamageType getDamageType() {
+      return damageType;
+    }
+  }
+
+  private static List<Character> duel(int enemyX) {
+    Character ally = new Warrior("Ally");
+    ally.setTeam(0);
+    ally.moveTo(0, 0);
+    Character enemy = new Warrior("Enemy");
+    enemy.setTeam(1);
+    enemy.moveTo(enemyX, 0);
+    return List.of(ally, enemy);
+  }
+
+  @Test
+  void actionsRoundTripThroughTheirEncoding() {
+    int action = TacticalState.encode(TacticalState.ABILITY, 2, 4095);
+    assertEquals(TacticalState.ABILITY, TacticalState.kind(action));
+    assertEquals(2, TacticalState.slot(action));
+    assertEquals(4095, TacticalState.target(action));
+  }
+
+  @Test
+  void captureSnapshotsEveryUnitAndCopiesAreIndependent() {
+    List<Character> units = duel(1);
+    TacticalState state = TacticalState.capture(units, units.get(1));
+    assertEquals(2, state.count);
+    assertEquals(1, state.getActor());
+    assertEquals(1, state.getActorTeam());
+    assertEquals(units.get(0).getHealthPoints(), state.health[0]);
+    assertEquals((double) units.get(1).getUltimateChargePoints(), state.ultimateCharge[1]);
+
+    TacticalState copy = state.copy();
+    copy.apply(TacticalState.encode(TacticalState.ATTACK, 0, 0), new SplittableRandom(1));
+    assertTrue(copy.health[0] < state.health[0]);
+    assertEquals(units.get(0).getHealthPoints(), state.health[0]);
+    assertEquals(0, copy.getActor());
+    assertEquals(1, copy.getTurn());
+    assertEquals(0, state.getTurn());
+  }
+
+  @Test
+  void distantEnemiesCanOnlyBeApproached() {
+    List<Character> units = duel(5);
+    TacticalState state = TacticalState.capture(units, units.get(0));
+    int[] actions = new int[state.maxActions()];
+    assertEquals(2, state.legalActions(actions));
+    assertEquals(TacticalState.WAIT, TacticalState.kind(actions[0]));
+    assertEquals(TacticalState.encode(TacticalState.MOVE, 0, 1), actions[1]);
+
+    state.apply(actions[1], new SplittableRandom(1));
+    assertEquals(4, state.distance(0, 1));
+    assertEquals(1, state.getActor());
+  }
+
+  @Test
+  void sameSeedPlaysTheSameEncounterToTheEnd() {
+    List<Character> units = duel(3);
+    TacticalState first = TacticalState.capture(units, units.get(0));
+    TacticalState second = first.copy();
+    SplittableRandom firstRandom = new SplittableRandom(99);
+    SplittableRandom secondRandom = new SplittableRandom(99);
+    int[] actions = new int[first.maxActions()];
+
+    while (!first.isTerminal()) {
+      assertTrue(first.getTurn() < 10_000, "encounter never ended");
+      int count = first.legalActions(actions);
+      // Never wait, so the fight has to end
+      first.apply(actions[count - 1], firstRandom);
+      second.legalActions(actions);
+      second.apply(actions[count - 1], secondRandom);
+    }
+
+    assertTrue(second.isTerminal());
+    assertArrayEquals(first.health, second.health);
+    int winner = first.health[0] > 0 ? 0 : 1;
+    assertTrue(first.reward(winner) > 0.5);
+    assertEquals(1.0, first.reward(winner) + first.reward(1 - winner), 1e-9);
+  }
+
+  /** Every turn of a scripted fight leaves the state where the characters end up. */
+  @Test
+  void applyMatchesCharactersOnAScriptedExchange() {
+    Character first = new Duelist("First");
+    first.setTeam(0);
+    first.moveTo(0, 0);
+    first.setResourcePoints(12);
+    Character second = new Duelist("Second");
+    second.setTeam(1);
+    second.moveTo(1, 0);
+    List<Character> units = List.of(first, second);
+
+    long seed = 21;
+    TacticalState state = TacticalState.capture(units, first);
+    SplittableRandom random = new SplittableRandom(seed);
+    CombatRandom.bind(CombatRandom.create(seed));
+    try {
+      int[] actions = new int[state.maxActions()];
+      int abilities = 0, ultimates = 0, criticals = 0;
+      while (!state.isTerminal()) {
+        assertTrue(state.getTurn() < 200, "fight never ended");
+        // Strongest ready action: the ultimate, then the ability, then the attack
+        int count = state.legalActions(actions);
+        int action = actions[count - 1];
+        Character self = units.get(state.getActor());
+        Character target = units.get(TacticalState.target(action));
+        double healthBefore = target.getHealthPoints();
+        switch (TacticalState.kind(action)) {
+          case TacticalState.ATTACK:
+            self.basicAttack(target);
+            double armor = target.getArmor();
+            double normalHit = self.getAttackDamage() * (1 - armor / (armor + 100.0));
+            criticals += healthBefore - target.getHealthPoints() > normalHit + 1e-9 ? 1 : 0;
+            break;
+          case TacticalState.ABILITY:
+            assertTrue(self.useAbility(self.getRegularAbilities().get(TacticalState.slot(action)), target));
+            abilities++;
+            break;
+          case TacticalState.ULTIMATE:
+            assertTrue(self.useUltimateAbility(target));
+            ultimates++;
+            break;
+          default:
+            throw new AssertionError("unexpected action " + action);
+        }
+
+        // The turn passes and time goes by for the next unit
+        state.apply(action, random);
+        units.get(state.getActor()).update(TacticalState.TURN_SECONDS);
+
+        for (int u = 0; u < units.size(); u++) {
+          Character c = units.get(u);
+          assertEquals(c.getHealthPoints(), state.health[u], 1e-9);
+          assertEquals(c.getResourcePoints(), state.resource[u], 1e-9);
+          assertEquals((double) c.getUltimateChargePoints(), state.ultimateCharge[u]);
+          assertEquals(c.getRegularAbilities().get(0).getRemainingCooldown(), state.cooldownLeft[u * TacticalState.SLOTS],
+              1e-9);
+        }
+      }
+
+      assertTrue(!first.isAlive() || !second.isAlive());
+      // The script went through every rule
+      assertTrue(abilities > 0);
+      assertTrue(ultimates > 0);
+      assertTrue(criticals > 0);
+    } finally {
+      CombatRandom.bind(null);
+    }
+  }
+}
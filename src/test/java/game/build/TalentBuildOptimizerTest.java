@@ -0,0 +1,167 @@
+package game.build;
+
+import game.entity.Character;
+import game.entity.Talent;
+import game.entity.TalentTree;
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TalentBuildOptimizerTest {
+  // Per talent: tier, max rank, damage and health per rank
+  private static final int[][] SMALL_TREE = {
+      { 1, 3, 4, 0 }, { 1, 2, 0, 5 }, { 1, 1, 2, 2 },
+      { 2, 2, 7, 1 }, { 2, 3, 1, 6 },
+      { 3, 1, 12, 0 }, { 3, 2, 3, 9 },
+  };
+
+  @Test
+  void paretoFrontKeepsOnlyNonDominatedBuilds() {
+    ParetoFront front = new ParetoFront();
+    front.offer(build(10, 10));
+    front.offer(build(5, 5));
+    front.offer(build(10, 10));
+    front.offer(build(20, 5));
+    front.offer(build(5, 20));
+    assertEquals(3, front.toList().size());
+
+    front.offer(build(12, 12));
+    List<TalentBuild> builds = front.toList();
+    assertEquals(3, builds.size());
+    assertEquals(20.0, builds.get(0).getDamagePerSecond());
+    assertEquals(12.0, builds.get(1).getDamagePerSecond());
+    assertEquals(5.0, builds.get(2).getDamagePerSecond());
+
+    assertTrue(front.covers(11, 11));
+    assertTrue(front.covers(12, 12));
+    assertFalse(front.covers(13, 6));
+  }
+
+  @Test
+  void prunedSearchFindsTheBruteForceFrontOnASmallTree() {
+    TalentTree tree = smallTree();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (boolean monotone : new boolean[] { true, false }) {
+        BuildScorer scorer = linearScorer(monotone);
+        for (int budget = 0; budget <= 12; budget++) {
+          TalentBuildOptimizer optimizer = new TalentBuildOptimizer(tree, scorer);
+          assertEquals(bruteForceFront(tree, scorer, budget), scores(optimizer.optimize(budget, pool)),
+              "budget " + budget + (monotone ? ", pruned" : ", unpruned"));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void prunedSearchFindsTheBruteForceFrontForWarriors() {
+    TalentTree tree = new Warrior("Template").getTalentTree();
+    BuildScorer scorer = new AnalyticBuildScorer(() -> new Warrior("Evaluator"));
+    for (int budget = 1; budget <= 6; budget++) {
+      TalentBuildOptimizer optimizer = new TalentBuildOptimizer(tree, scorer);
+      assertEquals(bruteForceFront(tree, scorer, budget),
+          scores(optimizer.optimize(budget, ForkJoinPool.commonPool())), "budget " + budget);
+    }
+  }
+
+  private static TalentTree smallTree() {
+    TalentTree tree = new TalentTree();
+    for (int i = 0; i < SMALL_TREE.length; i++) {
+      tree.addTalent(new Talent("Talent " + i, "", SMALL_TREE[i][1]) {
+        @Override
+        public void applyStatModifiers(Character character) {
+        }
+      }, SMALL_TREE[i][0]);
+    }
+    return tree;
+  }
+
+  // Sums per-rank scores; the non-monotone variant claims otherwise so the
+  // optimizer searches without pruning
+  private static BuildScorer linearScorer(boolean monotone) {
+    return new BuildScorer() {
+      @Override
+      public void score(int[] ranks, double[] out) {
+        out[0] = 0;
+        out[1] = 0;
+        for (int id = 0; id < ranks.length; id++) {
+          out[0] += ranks[id] * SMALL_TREE[id][2];
+          out[1] += ranks[id] * SMALL_TREE[id][3];
+        }
+      }
+
+      @Override
+      public boolean isMonotone() {
+        return monotone;
+      }
+    };
+  }
+
+  // Score every legal build within the budget and keep the non-dominated scores
+  private static TreeSet<String> bruteForceFront(TalentTree tree, BuildScorer scorer, int budget) {
+    List<double[]> all = new ArrayList<>();
+    enumerate(tree, scorer, new int[tree.getTalentCount()], 0, budget, all);
+    TreeSet<String> front = new TreeSet<>();
+    for (double[] a : all) {
+      boolean dominated = false;
+      for (double[] b : all) {
+        if (b[0] >= a[0] && b[1] >= a[1] && (b[0] > a[0] || b[1] > a[1])) {
+          dominated = true;
+          break;
+        }
+      }
+      if (!dominated) {
+        front.add(a[0] + "/" + a[1]);
+      }
+    }
+    return front;
+  }
+
+  private static void enumerate(TalentTree tree, BuildScorer scorer, int[] ranks, int id, int budget,
+      List<double[]> out) {
+    if (id == ranks.length) {
+      long unlocked = 0;
+      for (int t = 0; t < ranks.length; t++) {
+        if (ranks[t] > 0) {
+          unlocked |= 1L << t;
+        }
+      }
+      for (int t = 0; t < ranks.length; t++) {
+        if (ranks[t] > 0 && !tree.canUnlock(unlocked, t)) {
+          return;
+        }
+      }
+      double[] scores = new double[2];
+      scorer.score(ranks, scores);
+      out.add(scores);
+      return;
+    }
+    for (int rank = 0; rank <= Math.min(budget, tree.getTalent(id).getMaxRank()); rank++) {
+      ranks[id] = rank;
+      enumerate(tree, scorer, ranks, id + 1, budget - rank, out);
+    }
+    ranks[id] = 0;
+  }
+
+  private static TreeSet<String> scores(List<TalentBuild> builds) {
+    TreeSet<String> scores = new TreeSet<>();
+    for (TalentBuild build : builds) {
+      scores.add(build.getDamagePerSecond() + "/" + build.getEffectiveHealth());
+    }
+    return scores;
+  }
+
+  private static TalentBuild build(double damagePerSecond, double effectiveHealth) {
+    return new TalentBuild(new int[0], 0, damagePerSecond, effectiveHealth);
+  }
+}
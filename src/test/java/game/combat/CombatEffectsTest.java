@@ -0,0 +1,19 @@
+package game.combat;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CombatEffectsTest {
+  @Test
+  void everyBusIsSubscribedOnce() {
+    CombatEventBus first = CombatEventBus.create();
+    CombatEventBus second = CombatEventBus.create();
+
+    assertTrue(CombatEffects.register(first));
+    assertTrue(CombatEffects.register(second));
+    assertFalse(CombatEffects.register(first));
+    assertFalse(CombatEffects.register(second));
+  }
+}
@@ -0,0 +1,174 @@
+package game.combat;
+
+import game.entity.Character;
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CombatEventBusTest {
+  @Test
+  void globalListenersGetEachTypesEventsAsOneBatch() {
+    CombatEventBus bus = CombatEventBus.get();
+    bus.dispatch();
+    List<Integer> damageBatches = new ArrayList<>();
+    List<Double> amounts = new ArrayList<>();
+    List<Integer> healBatches = new ArrayList<>();
+    CombatEventListener onDamage = (events, start, count) -> {
+      damageBatches.add(count);
+      for (int i = start; i < start + count; i++) {
+        amounts.add(events.getAmount(i));
+      }
+    };
+    CombatEventListener onHeal = (events, start, count) -> healBatches.add(count);
+    bus.subscribe(CombatEventType.DAMAGE, onDamage);
+    bus.subscribe(CombatEventType.HEAL, onHeal);
+    try {
+      bus.damage(null, null, 1, DamageType.PHYSICAL, 0);
+      bus.heal(null, null, 5);
+      bus.damage(null, null, 2, DamageType.PHYSICAL, CombatEventBuffer.FLAG_CRITICAL);
+      bus.damage(null, null, 3, DamageType.PHYSICAL, 0);
+      assertEquals(4, bus.getPendingCount());
+      bus.dispatch();
+
+      assertEquals(List.of(3), damageBatches);
+      assertEquals(List.of(1.0, 2.0, 3.0), amounts);
+      assertEquals(List.of(1), healBatches);
+      assertEquals(0, bus.getPendingCount());
+
+      bus.dispatch();
+      assertEquals(1, damageBatches.size());
+    } finally {
+      bus.unsubscribe(CombatEventType.DAMAGE, onDamage);
+      bus.unsubscribe(CombatEventType.HEAL, onHeal);
+    }
+  }
+
+  @Test
+  void eventsPublishedWhileDispatchingGrowTheBufferAndArriveNextDispatch() {
+    CombatEventBus bus = CombatEventBus.create();
+
+    // Move the buffer's head off 0 so growing has to keep wrapped indices intact
+    for (int i = 0; i < 10; i++) {
+      bus.damage(null, null, i, DamageType.PHYSICAL, 0);
+    }
+    bus.dispatch();
+
+    for (int i = 0; i < 10; i++) {
+      bus.damage(null, null, 1000 + i, DamageType.PHYSICAL, 0);
+    }
+    List<Double> received = new ArrayList<>();
+    boolean[] published = { false };
+    bus.subscribe(CombatEventType.DAMAGE, (events, start, count) -> {
+      if (!published[0]) {
+        published[0] = true;
+        // More than the buffer holds, so it grows in the middle of the batch
+        for (int i = 0; i < 100; i++) {
+          bus.damage(null, null, i, DamageType.PHYSICAL, 0);
+        }
+      }
+      for (int i = start; i < start + count; i++) {
+        received.add(events.getAmount(i));
+      }
+    });
+
+    bus.dispatch();
+    assertEquals(10, received.size());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(1000.0 + i, (double) received.get(i));
+    }
+    assertEquals(100, bus.getPendingCount());
+
+    received.clear();
+    bus.dispatch();
+    assertEquals(100, received.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, (double) received.get(i));
+    }
+    assertEquals(0, bus.getPendingCount());
+  }
+
+  @Test
+  void keyedListenersOnlySeeTheirCharacterAsCharactersComeAndGo() {
+    CombatEventBus bus = CombatEventBus.create();
+    Character bystander = new Warrior("Bystander");
+
+    // Like matches on a server: every wave has new characters with higher ids
+    for (int wave = 0; wave < 50; wave++) {
+      List<Character> units = new ArrayList<>();
+      Map<Character, Integer> hits = new HashMap<>();
+      for (int i = 0; i < 8; i++) {
+        Character unit = new Warrior("Unit " + i);
+        units.add(unit);
+        bus.subscribeAsTarget(CombatEventType.DAMAGE, unit, (events, start, count) -> {
+          for (int e = start; e < start + count; e++) {
+            assertEquals(unit, events.getTarget(e));
+            hits.merge(unit, 1, Integer::sum);
+          }
+        });
+      }
+
+      for (int i = 0; i < units.size(); i++) {
+        for (int n = 0; n <= i; n++) {
+          bus.damage(bystander, units.get(i), 1, DamageType.PHYSICAL, 0);
+        }
+        bus.damage(units.get(i), bystander, 1, DamageType.PHYSICAL, 0);
+      }
+      bus.dispatch();
+
+      for (int i = 0; i < units.size(); i++) {
+        assertEquals(i + 1, (int) hits.getOrDefault(units.get(i), 0));
+        bus.unsubscribeAll(units.get(i));
+      }
+    }
+  }
+
+  @Test
+  void unsubscribingDuringDispatchSkipsNoOtherListener() {
+    CombatEventBus bus = CombatEventBus.create();
+    Character target = new Warrior("Target");
+    List<String> calls = new ArrayList<>();
+    CombatEventListener[] listeners = new CombatEventListener[3];
+    listeners[0] = (events, start, count) -> {
+      calls.add("first");
+      // Leave, and take the third listener along
+      bus.unsubscribe(CombatEventType.DAMAGE, listeners[0]);
+      bus.unsubscribe(CombatEventType.DAMAGE, listeners[2]);
+    };
+    listeners[1] = (events, start, count) -> calls.add("second");
+    listeners[2] = (events, start, count) -> calls.add("third");
+    for (CombatEventListener listener : listeners) {
+      bus.subscribe(CombatEventType.DAMAGE, listener);
+    }
+    CombatEventListener keyedFirst = new CombatEventListener() {
+      @Override
+      public void onEvents(CombatEventBuffer events, int start, int count) {
+        calls.add("keyed first");
+        bus.unsubscribe(CombatEventType.DAMAGE, this);
+      }
+    };
+    bus.subscribeAsTarget(CombatEventType.DAMAGE, target, keyedFirst);
+    bus.subscribeAsTarget(CombatEventType.DAMAGE, target, (events, start, count) -> calls.add("keyed second"));
+
+    bus.damage(null, target, 1, DamageType.PHYSICAL, 0);
+    bus.dispatch();
+    assertEquals(List.of("first", "second", "keyed first", "keyed second"), calls);
+
+    calls.clear();
+    bus.damage(null, target, 1, DamageType.PHYSICAL, 0);
+    bus.dispatch();
+    assertEquals(List.of("second", "keyed second"), calls);
+
+    // Subscribing after the compaction appends as usual
+    calls.clear();
+    bus.subscribe(CombatEventType.DAMAGE, listeners[2]);
+    bus.damage(null, target, 1, DamageType.PHYSICAL, 0);
+    bus.dispatch();
+    assertEquals(List.of("second", "third", "keyed second"), calls);
+  }
+}
@@ -0,0 +1,74 @@
+package game.combat;
+
+import game.entity.Character;
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DamageKernelTest {
+  @Test
+  void vectorKernelMatchesScalarKernelBitForBit() {
+    DamageKernel scalar = new ScalarDamageKernel();
+    DamageKernel vector = new VectorDamageKernel();
+    SplittableRandom random = new SplittableRandom(42);
+
+    // Every count up to several vector lengths, so the tail loop is covered too
+    for (int count = 0; count <= 70; count++) {
+      double[] raw = new double[count + 3];
+      double[] resistance = new double[count + 3];
+      double[] health = new double[count + 3];
+      for (int i = 0; i < count; i++) {
+        raw[i] = random.nextInt(8) == 0 ? 0 : random.nextDouble(-20, 400);
+        resistance[i] = random.nextInt(8) == 0 ? 0 : random.nextDouble(0, 300);
+        health[i] = random.nextInt(8) == 0 ? 0 : random.nextDouble(0, 500);
+      }
+
+      double[] scalarActual = new double[count + 3], vectorActual = new double[count + 3];
+      double[] scalarRemaining = new double[count + 3], vectorRemaining = new double[count + 3];
+      boolean[] scalarDied = new boolean[count + 3], vectorDied = new boolean[count + 3];
+      scalar.resolve(raw, resistance, health, scalarActual, scalarRemaining, scalarDied, count);
+      vector.resolve(raw, resistance, health, vectorActual, vectorRemaining, vectorDied, count);
+
+      for (int i = 0; i < count + 3; i++) {
+        String at = "count " + count + ", index " + i;
+        assertEquals(Double.doubleToRawLongBits(scalarActual[i]), Double.doubleToRawLongBits(vectorActual[i]), at);
+        assertEquals(Double.doubleToRawLongBits(scalarRemaining[i]),
+            Double.doubleToRawLongBits(vectorRemaining[i]), at);
+        assertEquals(scalarDied[i], vectorDied[i], at);
+      }
+    }
+  }
+
+  @Test
+  void batchAppliesTheSameDamageAsSingleHits() {
+    SplittableRandom random = new SplittableRandom(7);
+    DamageBatch batch = new DamageBatch(4, new VectorDamageKernel());
+    Character[] single = new Character[40];
+    Character[] batched = new Character[40];
+    double[] raw = new double[40];
+    DamageType[] types = new DamageType[40];
+    int expectedKills = 0;
+    for (int i = 0; i < 40; i++) {
+      single[i] = new Warrior("Single " + i);
+      batched[i] = new Warrior("Batched " + i);
+      raw[i] = random.nextDouble(0, 400);
+      types[i] = DamageType.values()[random.nextInt(DamageType.values().length)];
+
+      single[i].takeDamage(raw[i], types[i], null);
+      if (!single[i].isAlive()) {
+        expectedKills++;
+      }
+      batch.add(batched[i], raw[i], types[i]);
+    }
+
+    assertEquals(expectedKills, batch.resolve(null, 0));
+    for (int i = 0; i < 40; i++) {
+      assertEquals(single[i].getHealthPoints(), batched[i].getHealthPoints(), "target " + i);
+      assertEquals(single[i].isAlive(), batched[i].isAlive(), "target " + i);
+      assertEquals(single[i].getHealthPoints() == 0, batch.isDead(i), "target " + i);
+    }
+  }
+}
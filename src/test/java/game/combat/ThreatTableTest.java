@@ -0,0 +1,107 @@
+package game.combat;
+
+import game.entity.Character;
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ThreatTableTest {
+  @Test
+  void threatHalvesEveryHalfLifeAndTheTopFollowsIt() {
+    ThreatTable table = new ThreatTable(4);
+    Warrior early = new Warrior("Early");
+    Warrior late = new Warrior("Late");
+    table.addThreat(early, 100, 0);
+    assertEquals(50, table.getThreat(early, ThreatTable.HALF_LIFE), 1e-9);
+
+    // 60 threat after one half-life beats the 50 left of the early attacker
+    table.addThreat(late, 60, ThreatTable.HALF_LIFE);
+    assertSame(late, table.getTop(ThreatTable.HALF_LIFE));
+    assertEquals(60, table.getTopThreat(ThreatTable.HALF_LIFE), 1e-9);
+
+    table.addThreat(early, 20, ThreatTable.HALF_LIFE);
+    assertSame(early, table.getTop(ThreatTable.HALF_LIFE));
+  }
+
+  @Test
+  void aFullTableDropsTheSmallestAttackerForABiggerOne() {
+    ThreatTable table = new ThreatTable(3);
+    Warrior[] attackers = new Warrior[5];
+    for (int i = 0; i < 5; i++) {
+      attackers[i] = new Warrior("Attacker " + i);
+    }
+    table.addThreat(attackers[0], 30, 0);
+    table.addThreat(attackers[1], 10, 0);
+    table.addThreat(attackers[2], 20, 0);
+    table.addThreat(attackers[3], 5, 0);
+    assertEquals(3, table.size());
+    assertEquals(0, table.getThreat(attackers[3], 0), 0);
+
+    table.addThreat(attackers[4], 15, 0);
+    assertEquals(0, table.getThreat(attackers[1], 0), 0);
+    assertEquals(15, table.getThreat(attackers[4], 0), 1e-9);
+  }
+
+  @Test
+  void deadAndForgottenAttackersLeaveTheTop() {
+    ThreatTable table = new ThreatTable(4);
+    Warrior first = new Warrior("First");
+    Warrior second = new Warrior("Second");
+    table.addThreat(first, 100, 0);
+    table.addThreat(second, 50, 0);
+
+    first.takeDamage(1e9, DamageType.TRUE, null);
+    assertSame(second, table.getTop(0));
+    assertEquals(1, table.size());
+
+    // Long after the fight, threat decays below the floor and is dropped
+    assertNull(table.getTop(100 * ThreatTable.HALF_LIFE));
+    assertEquals(0, table.size());
+  }
+
+  @Test
+  void threatStaysAccurateAcrossRenormalization() {
+    ThreatTable table = new ThreatTable(2);
+    Warrior attacker = new Warrior("Attacker");
+    // Stored values grow with time, so a long fight forces renormalizing
+    for (int second = 0; second <= 5000; second += 10) {
+      table.addThreat(attacker, 10, second);
+    }
+    // Steady state of adding 10 every half-life: 10 * (1 + 1/2 + 1/4 + ...)
+    assertEquals(20, table.getThreat(attacker, 5000), 1e-6);
+  }
+
+  @Test
+  void getTopWritesLivingAttackersInThreatOrderPastDeadOnes() {
+    int n = 16;
+    for (int dead = 0; dead <= n; dead++) {
+      ThreatTable table = new ThreatTable(n);
+      Warrior[] attackers = new Warrior[n];
+      for (int i = 0; i < n; i++) {
+        attackers[i] = new Warrior("Attacker " + i);
+        table.addThreat(attackers[i], 10 + i, 0);
+      }
+      // Kill the ones with the most threat, so living ones sit below dead ones
+      for (int i = n - dead; i < n; i++) {
+        attackers[i].takeDamage(1e9, DamageType.TRUE, null);
+      }
+
+      for (int length = 1; length <= n + 2; length++) {
+        Character[] out = new Character[length];
+        int expected = Math.min(length, n - dead);
+        assertEquals(expected, table.getTop(out), dead + " dead, room for " + length);
+        for (int i = 0; i < expected; i++) {
+          assertEquals(attackers[n - dead - 1 - i], out[i], dead + " dead, room for " + length + ", rank " + i);
+        }
+      }
+    }
+  }
+
+  @Test
+  void getTopOfAnEmptyTableWritesNothing() {
+    assertEquals(0, new ThreatTable(4).getTop(new Character[4]));
+  }
+}
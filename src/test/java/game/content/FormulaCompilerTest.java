@@ -0,0 +1,52 @@
+package game.content;
+
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormulaCompilerTest {
+  private static String errorOf(String source) {
+    return assertThrows(IllegalArgumentException.class, () -> FormulaCompiler.compile(source)).getMessage();
+  }
+
+  @Test
+  void evaluatesFunctionsAndVariables() {
+    Warrior warrior = new Warrior("Warrior");
+    Formula formula = FormulaCompiler.compile("max(abs(-2), min(rank, 3)) * power + attack");
+    assertEquals(3 * 2 + warrior.getAttackDamage(), formula.eval(warrior, null, 5, 2, 0), 1e-9);
+  }
+
+  @Test
+  void unknownFunctionsAreNamedAtTheirColumn() {
+    String message = errorOf("1 + foo(2)");
+    assertTrue(message.contains("unknown function 'foo'"), message);
+    assertTrue(message.contains("column 5"), message);
+  }
+
+  @Test
+  void wrongArgumentCountsAreReported() {
+    for (String source : new String[] { "abs(1, 2)", "min(1)", "max()", "abs()", "min(1, 2, 3)" }) {
+      String message = errorOf(source);
+      assertTrue(message.contains("takes"), source + ": " + message);
+    }
+  }
+
+  @Test
+  void targetStatsReadZeroWithoutATarget() {
+    Warrior self = new Warrior("Self"), target = new Warrior("Target");
+    Formula formula = FormulaCompiler.compile("10 + target.armor");
+    assertEquals(10, formula.eval(self, null, 1, 0, 0), 1e-9);
+    assertEquals(10 + target.getArmor(), formula.eval(self, target, 1, 0, 0), 1e-9);
+  }
+
+  @Test
+  void targetStatsAreRejectedWhereThereIsNeverATarget() {
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> FormulaCompiler.compile("attack + target.armor", false));
+    assertTrue(e.getMessage().contains("'target.armor'"), e.getMessage());
+    assertEquals(3, FormulaCompiler.compile("rank * 3", false).eval(new Warrior("Warrior"), null, 1, 0, 0), 1e-9);
+  }
+}
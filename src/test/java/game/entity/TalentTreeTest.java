@@ -0,0 +1,120 @@
+package game.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TalentTreeTest {
+  private static Talent talent(String name, int maxRank) {
+    return new Talent(name, "", maxRank) {
+      @Override
+      public void applyStatModifiers(Character character) {
+      }
+    };
+  }
+
+  @Test
+  void talentsGetDenseIdsAndTierMasks() {
+    TalentTree tree = new TalentTree();
+    Talent a = talent("A", 1), b = talent("B", 1), c = talent("C", 1), d = talent("D", 1);
+    tree.addTalent(a, 1);
+    tree.addTalent(b, 2);
+    tree.addTalent(c, 1);
+    tree.addTalent(d, 3);
+
+    assertEquals(4, tree.getTalentCount());
+    for (int id = 0; id < 4; id++) {
+      assertEquals(List.of(a, b, c, d).get(id), tree.getTalent(id));
+    }
+    assertEquals(0b0101L, tree.getTierMask(1));
+    assertEquals(0b0010L, tree.getTierMask(2));
+    assertEquals(0b1000L, tree.getTierMask(3));
+    assertEquals(0L, tree.getTierMask(4));
+    assertEquals(2, tree.getTier(1));
+    assertEquals(List.of(a, c), tree.getTiers().get(1));
+  }
+
+  @Test
+  void aTierNeedsATalentFromThePreviousTier() {
+    TalentTree tree = new TalentTree();
+    Talent first = talent("First", 1), second = talent("Second", 1), third = talent("Third", 1);
+    tree.addTalent(first, 1);
+    tree.addTalent(second, 2);
+    tree.addTalent(third, 3);
+
+    assertTrue(tree.canUnlock(0L, 0));
+    assertFalse(tree.canUnlock(0L, 1));
+    assertTrue(tree.canUnlock(0b001L, 1));
+    // Tier 3 needs tier 2, tier 1 alone isn't enough
+    assertFalse(tree.canUnlock(0b001L, 2));
+    assertTrue(tree.canUnlock(0b010L, 2));
+
+    assertFalse(tree.canUnlockTalent(second));
+    tree.unlockTalent(first);
+    assertTrue(tree.isUnlocked(first));
+    assertEquals(0b001L, tree.getUnlockedMask());
+    assertTrue(tree.canUnlockTalent(second));
+    assertFalse(tree.canUnlockTalent(third));
+    assertEquals(1, tree.getUnlockedTalents().size());
+  }
+
+  @Test
+  void talentsOfAnotherTreeAreRejected() {
+    TalentTree tree = new TalentTree();
+    TalentTree other = new TalentTree();
+    Talent mine = talent("Mine", 1), theirs = talent("Theirs", 1);
+    tree.addTalent(mine, 1);
+    other.addTalent(theirs, 1);
+
+    // Same id, different tree
+    assertFalse(tree.canUnlockTalent(theirs));
+    tree.unlockTalent(theirs);
+    assertEquals(0L, tree.getUnlockedMask());
+    assertFalse(tree.isUnlocked(theirs));
+    assertThrows(IllegalArgumentException.class, () -> tree.addTalent(theirs, 1));
+    assertThrows(IllegalArgumentException.class, () -> tree.addTalent(talent("Bad tier", 1), 6));
+  }
+
+  @Test
+  void aTreeHoldsAtMost64Talents() {
+    TalentTree tree = new TalentTree();
+    for (int i = 0; i < TalentTree.MAX_TALENTS; i++) {
+      tree.addTalent(talent("T" + i, 1), 1 + i % TalentTree.TIER_COUNT);
+    }
+    Talent last = tree.getTalent(63);
+    tree.unlockTalent(last);
+    assertEquals(1L << 63, tree.getUnlockedMask());
+    assertTrue(tree.isUnlocked(last));
+    assertThrows(IllegalStateException.class, () -> tree.addTalent(talent("Too many", 1), 1));
+  }
+
+  @Test
+  void unlockingRaisesRanksAndRecalculatingDoesNotStackBonuses() {
+    Warrior warrior = new Warrior("Warrior");
+    Talent improvedStrength = warrior.getTalentTree().getTalent(0);
+    int baseStrength = warrior.getStrengthPoints();
+    for (int i = 0; i < 4; i++) {
+      warrior.levelUp();
+    }
+
+    assertTrue(warrior.unlockTalent(improvedStrength));
+    assertTrue(warrior.unlockTalent(improvedStrength));
+    assertEquals(2, improvedStrength.getCurrentRank());
+    assertEquals(baseStrength + 6, warrior.getStrengthPoints());
+
+    warrior.calculateDerivedStats();
+    warrior.calculateDerivedStats();
+    assertEquals(baseStrength + 6, warrior.getStrengthPoints());
+
+    assertTrue(warrior.unlockTalent(improvedStrength));
+    // Max rank reached, so the last point stays unspent
+    assertFalse(warrior.unlockTalent(improvedStrength));
+    assertEquals(3, improvedStrength.getCurrentRank());
+    assertEquals(1, warrior.getTalentPoints());
+  }
+}
@@ -0,0 +1,106 @@
+package game.net;
+
+import game.HeadlessGame;
+import game.entity.Character;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockstepSessionTest {
+  private static final int PLAYERS = 2;
+  private static final int UNITS_PER_TEAM = 4;
+  private static final long SEED = 7;
+  private static final double FRAME_SECONDS = 1.0 / 60;
+
+  private final List<HeadlessGame> games = new ArrayList<>();
+  private final List<LockstepSession> sessions = new ArrayList<>();
+
+  @AfterEach
+  void close() {
+    for (LockstepSession session : sessions) {
+      session.close();
+    }
+    for (HeadlessGame game : games) {
+      game.close();
+    }
+  }
+
+  @Test
+  void peersConvergeUnderLatencyJitterAndLoss() {
+    run(300, 0.15, 0.4, -1);
+    for (LockstepSession session : sessions) {
+      assertEquals(300, session.getTick());
+      assertFalse(session.isDesynced());
+      assertTrue(session.getVerifiedCount() > 0, "no checksums were compared");
+    }
+    assertEquals(games.get(0).checksum(), games.get(1).checksum());
+  }
+
+  @Test
+  void tamperingWithOnePeerIsReportedAsADesync() {
+    int tamperTick = 5;
+    run(60, 0.05, 0.1, tamperTick);
+    for (LockstepSession session : sessions) {
+      assertTrue(session.isDesynced(), "desync went unnoticed by player " + session.getLocalPlayer());
+      assertTrue(session.getDesyncTick() >= tamperTick, "desync reported before the tampering");
+    }
+  }
+
+  // Run two peers over a loopback network issuing random orders, moving one
+  // of player 1's units behind the simulation's back once it has run tamperTick ticks
+  private void run(int ticks, double latency, double lossRate, int tamperTick) {
+    double jitter = latency / 4;
+    int inputDelay = (int) Math.ceil((latency + jitter) / HeadlessGame.TICK_SECONDS) + 1;
+    LoopbackNetwork network = new LoopbackNetwork(SEED, latency, jitter, lossRate);
+    for (int p = 0; p < PLAYERS; p++) {
+      HeadlessGame game = new HeadlessGame(SEED, UNITS_PER_TEAM);
+      games.add(game);
+      LockstepSession session = new LockstepSession(network.connect(), game, p, PLAYERS, inputDelay, 32,
+          HeadlessGame.TICK_SECONDS);
+      session.setEndTick(ticks);
+      sessions.add(session);
+    }
+
+    SplittableRandom orders = new SplittableRandom(SEED);
+    boolean tampered = false;
+    // Generous bound so a stalled session fails the test instead of hanging it
+    for (int frame = 0; frame < ticks * 20 && minTick() < ticks; frame++) {
+      network.advance(FRAME_SECONDS);
+      for (int p = 0; p < PLAYERS; p++) {
+        LockstepSession session = sessions.get(p);
+        if (orders.nextInt(10) == 0) {
+          PlayerCommand.Type type = PlayerCommand.Type.values()[orders.nextInt(PlayerCommand.Type.values().length)];
+          session.issue(new PlayerCommand(type, p, UNITS_PER_TEAM + orders.nextInt(UNITS_PER_TEAM), 0));
+        }
+        session.update(FRAME_SECONDS);
+      }
+      if (tamperTick >= 0 && !tampered && sessions.get(1).getTick() >= tamperTick) {
+        Character unit = games.get(1).getUnit(0);
+        unit.moveTo(unit.getPositionX() + 1, unit.getPositionY());
+        tampered = true;
+      }
+    }
+    // Let the last checksums reach the other peer
+    for (int frame = 0; frame < 120; frame++) {
+      network.advance(FRAME_SECONDS);
+      for (LockstepSession session : sessions) {
+        session.update(FRAME_SECONDS);
+      }
+    }
+  }
+
+  private int minTick() {
+    int min = Integer.MAX_VALUE;
+    for (LockstepSession session : sessions) {
+      min = Math.min(min, session.getTick());
+    }
+    return min;
+  }
+}
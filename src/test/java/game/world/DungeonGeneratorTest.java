@@ -0,0 +1,94 @@
+package game.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DungeonGeneratorTest {
+  private static final long SEED = 1234;
+
+  @Test
+  void chunksMatchWhetherGeneratedOnOneThreadOrMany() throws InterruptedException {
+    Map<Long, Long> single = streamChecksums(1);
+    Map<Long, Long> parallel = streamChecksums(8);
+    assertTrue(single.size() > 1, "only " + single.size() + " chunks loaded");
+    assertEquals(single, parallel);
+  }
+
+  @Test
+  void everyRoomIsReachableFromTheStartRoom() {
+    for (long seed = 0; seed < 50; seed++) {
+      DungeonGenerator generator = new DungeonGenerator(seed, 1);
+      DungeonStreamer dungeon = new DungeonStreamer(generator, DungeonStreamer.createExecutor(1));
+      try {
+        // A block of chunks, so corridors crossing chunk edges are covered too
+        for (int chunkY = -1; chunkY <= 1; chunkY++) {
+          for (int chunkX = -1; chunkX <= 1; chunkX++) {
+            dungeon.getChunkNow(chunkX, chunkY);
+          }
+        }
+        DungeonChunk start = dungeon.getChunk(0, 0);
+        Set<Long> reached = floodFill(dungeon, start.getRoomQ(0), start.getRoomR(0));
+        for (DungeonChunk chunk : dungeon.getLoadedChunks()) {
+          for (int room = 0; room < chunk.getRoomCount(); room++) {
+            assertTrue(reached.contains(cell(chunk.getRoomQ(room), chunk.getRoomR(room))),
+                "seed " + seed + ": room " + room + " of chunk " + chunk.getChunkX() + "," + chunk.getChunkY()
+                    + " is cut off");
+          }
+        }
+      } finally {
+        dungeon.close();
+      }
+    }
+  }
+
+  // Load every chunk around the origin through a streamer with the given
+  // number of generator threads and collect their checksums by chunk key
+  private static Map<Long, Long> streamChecksums(int threads) throws InterruptedException {
+    DungeonStreamer dungeon = new DungeonStreamer(new DungeonGenerator(SEED, 1),
+        DungeonStreamer.createExecutor(threads));
+    try {
+      dungeon.update(0, 0);
+      for (int wait = 0; dungeon.getPendingCount() > 0 && wait < 1000; wait++) {
+        Thread.sleep(5);
+        dungeon.update(0, 0);
+      }
+      assertEquals(0, dungeon.getPendingCount(), "generation didn't finish");
+      Map<Long, Long> checksums = new HashMap<>();
+      for (DungeonChunk chunk : dungeon.getLoadedChunks()) {
+        checksums.put(DungeonChunk.key(chunk.getChunkX(), chunk.getChunkY()), chunk.checksum());
+      }
+      return checksums;
+    } finally {
+      dungeon.close();
+    }
+  }
+
+  private static Set<Long> floodFill(DungeonStreamer dungeon, int q, int r) {
+    Set<Long> reached = new HashSet<>();
+    ArrayDeque<int[]> open = new ArrayDeque<>();
+    reached.add(cell(q, r));
+    open.add(new int[] { q, r });
+    while (!open.isEmpty()) {
+      int[] at = open.poll();
+      for (int d = 0; d < 6; d++) {
+        int nq = at[0] + Hex.DIRECTION_Q[d], nr = at[1] + Hex.DIRECTION_R[d];
+        if (dungeon.getTile(nq, nr).isWalkable() && reached.add(cell(nq, nr))) {
+          open.add(new int[] { nq, nr });
+        }
+      }
+    }
+    return reached;
+  }
+
+  private static long cell(int q, int r) {
+    return ((long) q << 32) | (r & 0xFFFFFFFFL);
+  }
+}
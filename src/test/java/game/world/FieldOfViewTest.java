@@ -0,0 +1,80 @@
+package game.world;
+
+import game.entity.Warrior;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldOfViewTest {
+  private static final int RADIUS = 8;
+
+  @Test
+  void anOpenFieldIsVisibleOutToTheRadius() {
+    Viewer viewer = view((q, r) -> false, 5, 7);
+    for (int q = 5 - RADIUS - 2; q <= 5 + RADIUS + 2; q++) {
+      for (int r = 7 - RADIUS - 2; r <= 7 + RADIUS + 2; r++) {
+        assertEquals(Hex.distance(5, 7, q, r) <= RADIUS, viewer.canSee(q, r), q + "," + r);
+      }
+    }
+  }
+
+  @Test
+  void aPillarHidesTheCellsBehindItButNotItself() {
+    Viewer viewer = view((q, r) -> q == 2 && r == 0, 0, 0);
+    assertTrue(viewer.canSee(2, 0));
+    assertFalse(viewer.canSee(3, 0));
+    assertFalse(viewer.canSee(6, 0));
+    assertTrue(viewer.canSee(3, -1));
+    assertTrue(viewer.canSee(2, 1));
+  }
+
+  @Test
+  void sightBetweenOpenCellsIsSymmetric() {
+    int size = 28;
+    boolean[][] walls = new boolean[size][size];
+    SplittableRandom random = new SplittableRandom(2024);
+    for (int q = 0; q < size; q++) {
+      for (int r = 0; r < size; r++) {
+        walls[q][r] = random.nextInt(4) == 0;
+      }
+    }
+    OpacityMap map = (q, r) -> q < 0 || r < 0 || q >= size || r >= size || walls[q][r];
+
+    Viewer[][] views = new Viewer[size][size];
+    for (int q = 0; q < size; q++) {
+      for (int r = 0; r < size; r++) {
+        if (!walls[q][r]) {
+          views[q][r] = view(map, q, r);
+        }
+      }
+    }
+
+    int pairs = 0;
+    for (int q1 = 0; q1 < size; q1++) {
+      for (int r1 = 0; r1 < size; r1++) {
+        for (int q2 = 0; q2 < size; q2++) {
+          for (int r2 = 0; r2 < size; r2++) {
+            if (views[q1][r1] == null || views[q2][r2] == null || Hex.distance(q1, r1, q2, r2) > RADIUS) {
+              continue;
+            }
+            pairs++;
+            assertEquals(views[q1][r1].canSee(q2, r2), views[q2][r2].canSee(q1, r1),
+                q1 + "," + r1 + " and " + q2 + "," + r2);
+          }
+        }
+      }
+    }
+    assertTrue(pairs > 50_000, "only " + pairs + " pairs checked");
+  }
+
+  private static Viewer view(OpacityMap map, int q, int r) {
+    Viewer viewer = new Viewer(new Warrior("Viewer"), RADIUS);
+    viewer.reset(q, r);
+    FieldOfView.compute(map, viewer);
+    return viewer;
+  }
+}
@@ -0,0 +1,47 @@
+package game.world;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HexPathfinderTest {
+  @Test
+  void diagonalIsTwoStepsAndEveryStepIsANeighbor() {
+    assertEquals(2, Hex.distance(0, 0, 1, 1));
+    assertEquals(1, Hex.distance(0, 0, 1, -1));
+
+    int q = 0, r = 0;
+    while (Hex.distance(q, r, 5, 3) > 0) {
+      int d = Hex.stepToward(q, r, 5, 3, null);
+      int before = Hex.distance(q, r, 5, 3);
+      q += Hex.DIRECTION_Q[d];
+      r += Hex.DIRECTION_R[d];
+      assertEquals(before - 1, Hex.distance(q, r, 5, 3));
+    }
+  }
+
+  @Test
+  void routesAroundAWallInsteadOfThroughIt() {
+    // A wall along q = 2 for r in [-5, 5], open everywhere else
+    WalkableMap map = (q, r) -> !(q == 2 && r >= -5 && r <= 5);
+    int q = 0, r = 0;
+    int steps = 0;
+    while (Hex.distance(q, r, 4, 0) > 1 && steps < 40) {
+      int d = HexPathfinder.get().firstStep(q, r, 4, 0, map);
+      assertTrue(d >= 0, "no step at " + q + "," + r);
+      q += Hex.DIRECTION_Q[d];
+      r += Hex.DIRECTION_R[d];
+      assertTrue(map.isWalkable(q, r), "stepped into the wall at " + q + "," + r);
+      steps++;
+    }
+    assertEquals(1, Hex.distance(q, r, 4, 0));
+  }
+
+  @Test
+  void staysPutWhenWalledIn() {
+    WalkableMap map = (q, r) -> q == 0 && r == 0;
+    assertEquals(-1, HexPathfinder.get().firstStep(0, 0, 5, 0, map));
+    assertEquals(-1, Hex.stepToward(0, 0, 5, 0, map));
+  }
+}